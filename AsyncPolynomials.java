@@ -0,0 +1,293 @@
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.DoubleConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Runs long products, powers and divisions on an executor and hands back a CompletableFuture for the result, so a
+ * caller can go on with other work, combine results, give up after a deadline or cancel a computation it no longer
+ * needs.
+ *
+ * Cancellation is cooperative: the kernels call Checkpoint.reached after each block of a blocked product, each stage
+ * of a transform and each bucket of a sparse product, and a computation whose future was cancelled or timed out stops
+ * at the next of these, so its thread is released within one block of work rather than at the end of the product.  A
+ * timed out future completes with a TimeoutException; a cancelled one with a CancellationException.
+ *
+ * Progress is reported as the fraction of the estimated work done, in steps of at least one percent, to a listener
+ * that is called on the thread doing the computation, so it should be quick.  The estimate follows the kernel that
+ * will be chosen, and the last value reported for a computation that finishes is always 1.
+ */
+public final class AsyncPolynomials {
+
+    private final Executor executor;
+
+    /**
+     * Creates an instance that runs every computation as one task on executor
+     * Precondition: executor is not null
+     * Postcondition: Creates an instance backed by executor, which the caller still owns
+     *
+     * @param executor the executor that runs the computations
+     * @throws NullPointerException if executor is null
+     */
+    public AsyncPolynomials(Executor executor) {
+        if(executor == null) {
+            throw new NullPointerException("Argument is null");
+        }
+        this.executor = executor;
+    }
+
+    /**
+     * Returns an instance that runs every computation on a virtual thread of its own, or on a pooled daemon thread
+     * before JDK 21.  The threads are shared by every such instance and need not be shut down.
+     *
+     * @return an instance backed by virtual threads
+     */
+    public static AsyncPolynomials withVirtualThreads() {
+        return new AsyncPolynomials(SharedExecutor.EXECUTOR);
+    }
+
+    /**
+     * Returns the product of p and q, computed on the executor, as by p.multiply(q)
+     * Precondition: p and q are not null
+     * Postcondition: returns a future for p * q
+     *
+     * @param p the first factor
+     * @param q the second factor
+     * @return a future for p * q
+     * @throws NullPointerException if p or q is null
+     */
+    public CompletableFuture<Polynomial> multiplyAsync(Polynomial p, Polynomial q) {
+        return multiplyAsync(p, q, Options.DEFAULT);
+    }
+
+    /**
+     * Returns the product of p and q, computed on the executor under options, as by p.multiply(q)
+     * Precondition: p, q and options are not null
+     * Postcondition: returns a future for p * q
+     *
+     * @param p the first factor
+     * @param q the second factor
+     * @param options the deadline and progress listener of the computation
+     * @return a future for p * q
+     * @throws NullPointerException if an argument is null
+     */
+    public CompletableFuture<Polynomial> multiplyAsync(Polynomial p, Polynomial q, Options options) {
+        if(p == null || q == null || options == null) {
+            throw new NullPointerException("Argument is null");
+        }
+        double total;
+        if(p instanceof DensePolynomial && q.degree() >= 0) {
+            total = DenseKernels.work(p.degree() + 1, q.degree() + 1);
+        }
+        else {
+            total = (double) TermArrays.of(p).size() * TermArrays.of(q).size();
+        }
+        return submit(total, options, () -> p.multiply(q));
+    }
+
+    /**
+     * Returns p raised to the power exponent, computed on the executor by repeated squaring
+     * Precondition: p is not null, exponent is not negative and the degree of the power fits in an int
+     * Postcondition: returns a future for p^exponent, which is 1 for exponent 0
+     *
+     * @param p the base
+     * @param exponent the power to raise p to
+     * @return a future for p^exponent
+     * @throws NullPointerException if p is null
+     * @throws IllegalArgumentException if exponent is negative or the degree of the power is too large
+     */
+    public CompletableFuture<DensePolynomial> powAsync(DensePolynomial p, int exponent) {
+        return powAsync(p, exponent, Options.DEFAULT);
+    }
+
+    /**
+     * Returns p raised to the power exponent, computed on the executor under options by repeated squaring
+     * Precondition: p and options are not null, exponent is not negative and the degree of the power fits in an int
+     * Postcondition: returns a future for p^exponent, which is 1 for exponent 0
+     *
+     * @param p the base
+     * @param exponent the power to raise p to
+     * @param options the deadline and progress listener of the computation
+     * @return a future for p^exponent
+     * @throws NullPointerException if p or options is null
+     * @throws IllegalArgumentException if exponent is negative or the degree of the power is too large
+     */
+    public CompletableFuture<DensePolynomial> powAsync(DensePolynomial p, int exponent, Options options) {
+        if(p == null || options == null) {
+            throw new NullPointerException("Argument is null");
+        }
+        if(exponent < 0) {
+            throw new IllegalArgumentException("The exponent is negative");
+        }
+        if((long) p.degree() * exponent >= Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The degree of the power is too large");
+        }
+        // the same squarings and products as the computation, on lengths alone
+        double total = 0;
+        int length = 1;
+        for(int bit = Integer.highestOneBit(exponent); bit > 0; bit >>>= 1) {
+            total += DenseKernels.work(length, length);
+            length = 2 * length - 1;
+            if((exponent & bit) != 0) {
+                total += DenseKernels.work(length, p.degree() + 1);
+                length += p.degree();
+            }
+        }
+        return submit(total, options, () -> {
+            DensePolynomial result = DensePolynomial.fromCoefficients(new int[]{1});
+            for(int bit = Integer.highestOneBit(exponent); bit > 0; bit >>>= 1) {
+                result = (DensePolynomial) result.multiply(result);
+                if((exponent & bit) != 0) {
+                    result = (DensePolynomial) result.multiply(p);
+                }
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Returns the quotient and remainder of p divided by q, computed on the executor, as by p.divideAndRemainder(q)
+     * Precondition: p and q are not null
+     * Postcondition: returns a future for {quotient, remainder}, which fails with an IllegalArgumentException if q is
+     * zero, has negative exponents or an even leading coefficient
+     *
+     * @param p the dividend
+     * @param q the divisor
+     * @return a future for the quotient and remainder
+     * @throws NullPointerException if p or q is null
+     */
+    public CompletableFuture<DensePolynomial[]> divideAsync(DensePolynomial p, Polynomial q) {
+        return divideAsync(p, q, Options.DEFAULT);
+    }
+
+    /**
+     * Returns the quotient and remainder of p divided by q, computed on the executor under options, as by
+     * p.divideAndRemainder(q)
+     * Precondition: p, q and options are not null
+     * Postcondition: returns a future for {quotient, remainder}, which fails with an IllegalArgumentException if q is
+     * zero, has negative exponents or an even leading coefficient
+     *
+     * @param p the dividend
+     * @param q the divisor
+     * @param options the deadline and progress listener of the computation
+     * @return a future for the quotient and remainder
+     * @throws NullPointerException if an argument is null
+     */
+    public CompletableFuture<DensePolynomial[]> divideAsync(DensePolynomial p, Polynomial q, Options options) {
+        if(p == null || q == null || options == null) {
+            throw new NullPointerException("Argument is null");
+        }
+        // the Newton inverse costs about three products of the quotient's length, the remainder one more
+        int k = Math.max(1, p.degree() - Math.max(0, q.degree()) + 1);
+        int n = Math.max(1, q.degree() + 1);
+        double total = 3.0 * DenseKernels.work(k, k) + DenseKernels.work(k, n);
+        return submit(total, options, () -> p.divideAndRemainder(q));
+    }
+
+    /**
+     * Returns a future completed by running work on the executor under a checkpoint built from options
+     */
+    private <T> CompletableFuture<T> submit(double total, Options options, Supplier<T> work) {
+        Duration timeout = options.timeout;
+        long deadline = (timeout == null) ? 0 : System.nanoTime() + timeout.toNanos();
+        Checkpoint checkpoint = new Checkpoint(timeout != null, deadline, Math.max(1, total), options.progress);
+        CompletableFuture<T> future = new CompletableFuture<>();
+        // a future that is cancelled or times out stops its computation at the next checkpoint
+        future.whenComplete((result, failure) -> checkpoint.cancel());
+        if(timeout != null) {
+            future.orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        }
+        try {
+            executor.execute(() -> {
+                if(future.isDone()) {
+                    return;
+                }
+                try {
+                    future.complete(checkpoint.run(work));
+                }
+                catch(Checkpoint.Stopped e) {
+                    if(e.timedOut()) {
+                        future.completeExceptionally(new TimeoutException(e.getMessage()));
+                    }
+                    else {
+                        future.cancel(false);
+                    }
+                }
+                catch(RuntimeException | Error e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        }
+        catch(RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * The deadline and progress listener of one computation.  Instances are immutable; DEFAULT has neither.
+     */
+    public static final class Options {
+        /**
+         * No deadline and no progress listener
+         */
+        public static final Options DEFAULT = new Options(null, null);
+
+        private final Duration timeout;
+        private final DoubleConsumer progress;
+
+        private Options(Duration timeout, DoubleConsumer progress) {
+            this.timeout = timeout;
+            this.progress = progress;
+        }
+
+        /**
+         * Returns these options with a deadline: the future completes with a TimeoutException and the computation
+         * stops once timeout has passed since the computation was submitted
+         * Precondition: timeout is not null and is positive
+         * Postcondition: returns options with the deadline and the progress listener of this one
+         *
+         * @param timeout the time the computation is given
+         * @return the new options
+         * @throws NullPointerException if timeout is null
+         * @throws IllegalArgumentException if timeout is zero or negative
+         */
+        public Options withTimeout(Duration timeout) {
+            if(timeout == null) {
+                throw new NullPointerException("Argument is null");
+            }
+            if(timeout.isZero() || timeout.isNegative()) {
+                throw new IllegalArgumentException("The timeout is not positive");
+            }
+            return new Options(timeout, progress);
+        }
+
+        /**
+         * Returns these options with a progress listener, which is passed the rising fraction of the work done
+         * Precondition: progress is not null
+         * Postcondition: returns options with the listener and the deadline of this one
+         *
+         * @param progress the listener, called on the computing thread with values in (0, 1]
+         * @return the new options
+         * @throws NullPointerException if progress is null
+         */
+        public Options withProgress(DoubleConsumer progress) {
+            if(progress == null) {
+                throw new NullPointerException("Argument is null");
+            }
+            return new Options(timeout, progress);
+        }
+    }
+
+    /**
+     * Holds the executor of withVirtualThreads, created on first use
+     */
+    private static final class SharedExecutor {
+        static final ExecutorService EXECUTOR = VirtualThreads.newPerTaskExecutor();
+    }
+}
@@ -0,0 +1,114 @@
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncPolynomialsTest {
+
+    /**
+     * Returns a dense polynomial with n random coefficients
+     */
+    private static DensePolynomial random(int n, long seed) {
+        Random random = new Random(seed);
+        int[] coefficients = new int[n];
+        for(int i = 0; i < n; i++) {
+            coefficients[i] = random.nextInt();
+        }
+        coefficients[n - 1] |= 1;
+        return DensePolynomial.fromCoefficients(coefficients);
+    }
+
+    @Test
+    void testResults() throws Exception {
+        AsyncPolynomials async = AsyncPolynomials.withVirtualThreads();
+        DensePolynomial p = new DensePolynomial("x^2 + 2x + 3");
+
+        //testing that the futures hold the same results as the synchronous methods
+        assertEquals(p.multiply(p), async.multiplyAsync(p, p).get());
+        SparsePolynomial sparse = new SparsePolynomial("x^100 + -1x^-3");
+        assertEquals(sparse.multiply(sparse), async.multiplyAsync(sparse, sparse).get());
+        assertEquals(new DensePolynomial("x^4 + 4x^3 + 10x^2 + 12x + 9"), async.powAsync(p, 2).get());
+        assertEquals(new DensePolynomial("1"), async.powAsync(p, 0).get());
+        assertEquals(p.multiply(p).multiply(p).multiply(p).multiply(p), async.powAsync(p, 5).get());
+        DensePolynomial[] result = async.divideAsync(new DensePolynomial("x^3 + 2x^2 + 3x + 1"), p).get();
+        assertEquals(new DensePolynomial("x"), result[0]);
+        assertEquals(new DensePolynomial("1"), result[1]);
+
+        //testing that errors of the computation fail the future and errors of the arguments are thrown
+        ExecutionException failure = assertThrows(ExecutionException.class,
+                () -> async.divideAsync(p, new DensePolynomial("2x")).get());
+        assertTrue(failure.getCause() instanceof IllegalArgumentException);
+        assertThrows(IllegalArgumentException.class, () -> async.powAsync(p, -1));
+        assertThrows(IllegalArgumentException.class, () -> async.powAsync(p, Integer.MAX_VALUE));
+        assertThrows(NullPointerException.class, () -> async.multiplyAsync(p, null));
+        assertThrows(NullPointerException.class, () -> new AsyncPolynomials(null));
+        assertThrows(IllegalArgumentException.class, () -> AsyncPolynomials.Options.DEFAULT.withTimeout(Duration.ZERO));
+    }
+
+    @Test
+    void testCancellation() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        AsyncPolynomials async = new AsyncPolynomials(executor);
+        DensePolynomial p = random(1 << 20, 1);
+        DensePolynomial q = random(1 << 20, 2);
+        CountDownLatch started = new CountDownLatch(1);
+
+        //testing that a cancelled product stops at a checkpoint and frees its thread
+        CompletableFuture<Polynomial> future = async.multiplyAsync(p, q,
+                AsyncPolynomials.Options.DEFAULT.withProgress(fraction -> started.countDown()));
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        assertTrue(future.cancel(true));
+        assertThrows(CancellationException.class, future::get);
+        DensePolynomial small = new DensePolynomial("x + 1");
+        assertEquals(small.multiply(small), async.multiplyAsync(small, small).get(1, TimeUnit.SECONDS));
+
+        //testing that a product past its deadline fails with a timeout
+        future = async.multiplyAsync(p, q, AsyncPolynomials.Options.DEFAULT.withTimeout(Duration.ofMillis(1)));
+        ExecutionException failure = assertThrows(ExecutionException.class, future::get);
+        assertTrue(failure.getCause() instanceof TimeoutException);
+        assertEquals(small.multiply(small), async.multiplyAsync(small, small).get(1, TimeUnit.SECONDS));
+
+        //testing that a rejected computation fails its future
+        executor.shutdown();
+        failure = assertThrows(ExecutionException.class, () -> async.multiplyAsync(small, small).get());
+        assertTrue(failure.getCause() instanceof RejectedExecutionException);
+    }
+
+    @Test
+    void testProgress() throws Exception {
+        AsyncPolynomials async = AsyncPolynomials.withVirtualThreads();
+        DensePolynomial p = random(1 << 16, 3);
+        DensePolynomial q = random(1 << 15, 4);
+
+        //testing that progress rises and ends at 1, for products and divisions
+        for(int round = 0; round < 2; round++) {
+            List<Double> fractions = new CopyOnWriteArrayList<>();
+            AsyncPolynomials.Options options = AsyncPolynomials.Options.DEFAULT.withProgress(fractions::add);
+            if(round == 0) {
+                assertEquals(p.multiply(q), async.multiplyAsync(p, q, options).get());
+            }
+            else {
+                DensePolynomial[] result = async.divideAsync(p, q, options).get();
+                assertEquals(p, result[0].multiply(q).add(result[1]));
+            }
+            assertTrue(fractions.size() > 2);
+            for(int i = 1; i < fractions.size(); i++) {
+                assertTrue(fractions.get(i - 1) < fractions.get(i));
+            }
+            assertEquals(1.0, fractions.get(fractions.size() - 1));
+        }
+    }
+}
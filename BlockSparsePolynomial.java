@@ -0,0 +1,687 @@
+import java.util.Arrays;
+import java.util.Spliterator;
+
+/**
+ * A polynomial stored as a sorted list of dense blocks, each a coefficient array together with the exponent of its
+ * first entry.  It suits polynomials whose terms come in clusters at widely separated degrees: inside a cluster the
+ * coefficients sit next to each other in memory and are multiplied with the dense kernels, while the space between
+ * clusters costs nothing.  8x^1234567 + 3x^12345 + 25x^123 + 8x^12 is four blocks of one coefficient each instead of
+ * an array of over a million entries.
+ *
+ * The layout is canonical, so it only depends on the terms.  Every block is trimmed, so its first and last entries are
+ * non-zero, holds no run of GAP or more zeros, and is followed by at least GAP zero exponents before the next block.
+ * Every operation restores this: a block in which a run of GAP zeros appears is split, and blocks that come closer than
+ * GAP, or overlap, are merged.  Exponents may be negative, as in SparsePolynomial, but every exponent must fit an int.
+ *
+ * Instances are immutable and the blocks never escape, so results share the blocks of their operands whenever those
+ * pass through unchanged.
+ */
+public final class BlockSparsePolynomial implements Polynomial, TermSource {
+    /**
+     * The shortest run of zeros that separates two blocks.  A zero inside a block costs four bytes while a block
+     * costs an array header, a start and a reference, so shorter runs are cheaper to store than to split, and longer
+     * blocks give the dense kernels more to work with.
+     */
+    static final int GAP = 16;
+
+    /**
+     * Products are computed term by term instead of block by block when the blocks of the two operands average fewer
+     * than this many coefficients per pair, since each pair of blocks then does too little work to pay for itself.
+     */
+    private static final int MIN_PAIR_WORK = 16;
+
+    private final int[] starts;
+    private final int[][] blocks;
+    private int hash;
+    private boolean hashIsZero;
+    private volatile TermArrays terms;
+
+    /**
+     * Creates an instance of a BlockSparsePolynomial object from the canonical string representation
+     *
+     * Precondition: Coefficients and degrees in String s must be integers
+     * Postcondition: Creates instance of BlockSparsePolynomial
+     *
+     * @param s the canonical string representation of a polynomial
+     * @throws IllegalArgumentException if a coefficient or degree are not integers or we are given a string that is not canonical
+     */
+    public BlockSparsePolynomial(String s) {
+        this(PolynomialParser.parse(s, true).toTermArrays());
+    }
+
+    /**
+     * Creates an instance from sorted terms, starting a new block wherever two terms are more than GAP apart
+     * Precondition: terms holds no zero coefficients
+     * Postcondition: Creates the polynomial with those terms
+     */
+    private BlockSparsePolynomial(TermArrays terms) {
+        int n = terms.size();
+        int count = 0;
+        for(int i = 0; i < n; i++) {
+            if(i == 0 || (long) terms.exponents[i] - terms.exponents[i - 1] > GAP) {
+                count++;
+            }
+        }
+        starts = new int[count];
+        blocks = new int[count][];
+        int k = 0;
+        int first = 0;
+        for(int i = 1; i <= n; i++) {
+            if(i == n || (long) terms.exponents[i] - terms.exponents[i - 1] > GAP) {
+                long span = (long) terms.exponents[i - 1] - terms.exponents[first] + 1;
+                if(span > Integer.MAX_VALUE - 8) {
+                    throw new IllegalArgumentException("The block is too long for a dense layout");
+                }
+                int[] block = new int[(int) span];
+                for(int j = first; j < i; j++) {
+                    block[terms.exponents[j] - terms.exponents[first]] = terms.coefficients[j];
+                }
+                starts[k] = terms.exponents[first];
+                blocks[k++] = block;
+                first = i;
+            }
+        }
+        this.terms = terms;
+    }
+
+    /**
+     * Creates an instance from canonical blocks
+     * Precondition: starts and blocks satisfy the class invariant and are never modified
+     * Postcondition: Creates the polynomial over those blocks
+     */
+    private BlockSparsePolynomial(int[] starts, int[][] blocks) {
+        this.starts = starts;
+        this.blocks = blocks;
+    }
+
+    /**
+     * Returns a BlockSparsePolynomial with the same terms as any polynomial.  A BlockSparsePolynomial is returned as
+     * is, and the coefficients of a DensePolynomial are cut into blocks without going through its terms.
+     *
+     * Precondition: p is not null
+     * Postcondition: returns a BlockSparsePolynomial equal to p
+     *
+     * @param p the polynomial to convert
+     * @return the polynomial laid out in blocks
+     * @throws NullPointerException if p is null
+     */
+    public static BlockSparsePolynomial of(Polynomial p) {
+        if(p == null) {
+            throw new NullPointerException("Argument is null");
+        }
+        if(p instanceof BlockSparsePolynomial) {
+            return (BlockSparsePolynomial) p;
+        }
+        if(p instanceof DensePolynomial) {
+            int[] coefficients = ((DensePolynomial) p).getCoefficients();
+            Blocks out = new Blocks(1);
+            out.split(coefficients, 0, coefficients.length, 0);
+            return out.build();
+        }
+        return new BlockSparsePolynomial(TermArrays.of(p));
+    }
+
+    private static int checkExponents(long exponent) {
+        if(exponent < Integer.MIN_VALUE || exponent > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Exponent out of range");
+        }
+        return (int) exponent;
+    }
+
+    private int end(int i) {
+        return starts[i] + blocks[i].length - 1;
+    }
+
+    /**
+     * @return the number of dense blocks the polynomial is stored in, which is 0 for the zero polynomial
+     */
+    public int blockCount() {
+        return blocks.length;
+    }
+
+    /**
+     * Returns the degree of the polynomial.
+     * Precondition: None
+     * Postcondition: Returns degree of polynomial
+     * @return the largest exponent with a non-zero coefficient, which may be negative.  For the zero polynomial, it
+     * returns 0.
+     */
+    @Override
+    public int degree() {
+        return isZero() ? 0 : end(blocks.length - 1);
+    }
+
+    /**
+     * @return the smallest exponent with a non-zero coefficient, or 0 for the zero polynomial
+     */
+    public int lowestExponent() {
+        return isZero() ? 0 : starts[0];
+    }
+
+    /**
+     * Returns the coefficient corresponding to the given exponent.  Returns 0 if there is no term with that exponent
+     * in the polynomial.  The block is found by binary search over the block starts.
+     *
+     * Precondition: None
+     * Postcondition: returns the coefficient of d
+     *
+     * @param d the exponent whose coefficient is returned.
+     * @return the coefficient of the term of whose exponent is d.
+     */
+    @Override
+    public int getCoefficient(int d) {
+        int i = Arrays.binarySearch(starts, d);
+        if(i < 0) {
+            i = -i - 2;
+        }
+        if(i < 0 || d > end(i)) {
+            return 0;
+        }
+        return blocks[i][d - starts[i]];
+    }
+
+    /**
+     * Checks the polynomial to see if it represents the zero constant
+     * Precondition: None
+     * Postcondition: returns true if polynomial represents the zero constant, if not then it returns false
+     * @return true if the polynomial represents the zero constant
+     */
+    @Override
+    public boolean isZero() {
+        return blocks.length == 0;
+    }
+
+    /**
+     * Returns a polynomial by adding the parameter to the current instance. Neither the current instance nor the
+     * parameter are modified.  Blocks that do not meet a block of the other operand are shared with the result.
+     *
+     * Precondition: q is not null
+     * Postcondition: returns a polynomial representing the sum of this + q
+     *
+     * @param q the non-null polynomial to add to <code>this</code>
+     * @return <code>this + </code>q
+     * @throws NullPointerException if q is null
+     */
+    @Override
+    public BlockSparsePolynomial add(Polynomial q) {
+        return combine(of(q), 1);
+    }
+
+    /**
+     * Returns a polynomial by subtracting the parameter from the current instance. Neither the current instance nor
+     * the parameter are modified.
+     *
+     * Precondition: q is not null
+     * Postcondition: returns a polynomial representing the difference of this - q
+     *
+     * @param q the non-null polynomial to subtract from <code>this</code>
+     * @return <code>this - </code>q
+     * @throws NullPointerException if q is null
+     */
+    @Override
+    public BlockSparsePolynomial subtract(Polynomial q) {
+        return combine(of(q), -1);
+    }
+
+    /**
+     * Returns this + sign * q by merging the two sorted block lists
+     */
+    private BlockSparsePolynomial combine(BlockSparsePolynomial q, int sign) {
+        int m = blocks.length;
+        int n = q.blocks.length;
+        int[] pieceStarts = new int[m + n];
+        int[][] pieces = new int[m + n][];
+        int[] signs = new int[m + n];
+        int i = 0;
+        int j = 0;
+        for(int k = 0; k < m + n; k++) {
+            if(j == n || (i < m && starts[i] <= q.starts[j])) {
+                pieceStarts[k] = starts[i];
+                pieces[k] = blocks[i++];
+                signs[k] = 1;
+            }
+            else {
+                pieceStarts[k] = q.starts[j];
+                pieces[k] = q.blocks[j++];
+                signs[k] = sign;
+            }
+        }
+        return assemble(pieceStarts, pieces, signs, true);
+    }
+
+    /**
+     * Returns a polynomial by multiplying the parameter with the current instance. Neither the current instance nor
+     * the parameter are modified.  Every pair of blocks is multiplied with the dense kernels and the products are
+     * summed, merging the ones that overlap.  When the blocks are so short that most pairs multiply a handful of
+     * coefficients, the terms are multiplied with the sparse multiplier instead.
+     *
+     * Precondition: q is not null and the exponents of the product fit an int
+     * Postcondition: returns a polynomial representing the product of this * q
+     *
+     * @param q the non-null polynomial to multiply with <code>this</code>
+     * @return <code>this * </code>q
+     * @throws NullPointerException if q is null
+     * @throws IllegalArgumentException if an exponent of the product does not fit an int
+     */
+    @Override
+    public BlockSparsePolynomial multiply(Polynomial q) {
+        BlockSparsePolynomial b = of(q);
+        if(isZero() || b.isZero()) {
+            return new BlockSparsePolynomial(new int[0], new int[0][]);
+        }
+        checkExponents((long) lowestExponent() + b.lowestExponent());
+        checkExponents((long) degree() + b.degree());
+        long pairs = (long) blocks.length * b.blocks.length;
+        if((double) slots() * b.slots() < (double) MIN_PAIR_WORK * pairs || pairs > Integer.MAX_VALUE - 8) {
+            return new BlockSparsePolynomial(SparseMultiplier.multiply(termArrays(), b.termArrays()));
+        }
+        int count = (int) pairs;
+        long[] order = new long[count];
+        for(int i = 0, k = 0; i < blocks.length; i++) {
+            for(int j = 0; j < b.blocks.length; j++, k++) {
+                order[k] = ((long) (starts[i] + b.starts[j]) << 32) | k;
+            }
+        }
+        Arrays.sort(order);
+        int[] pieceStarts = new int[count];
+        int[][] pieces = new int[count][];
+        int[] signs = new int[count];
+        for(int k = 0; k < count; k++) {
+            int pair = (int) order[k];
+            int i = pair / b.blocks.length;
+            int j = pair % b.blocks.length;
+            pieceStarts[k] = (int) (order[k] >> 32);
+            pieces[k] = DenseKernels.multiply(blocks[i], b.blocks[j]);
+            signs[k] = 1;
+        }
+        return assemble(pieceStarts, pieces, signs, false);
+    }
+
+    /**
+     * @return the number of coefficients stored across all blocks
+     */
+    private long slots() {
+        long total = 0;
+        for(int[] block: blocks) {
+            total += block.length;
+        }
+        return total;
+    }
+
+    /**
+     * Sums pieces given in ascending order of start into canonical blocks.  Pieces are gathered into clusters, each
+     * ending where the next piece starts GAP or more past the furthest end seen so far; a cluster is summed into one
+     * array, which is then trimmed and split at runs of GAP zeros.  A cluster that is a single canonical piece added
+     * with sign 1 is kept as is.
+     *
+     * Precondition: pieceStarts is ascending, every piece is non-empty and its last exponent fits an int
+     * Postcondition: returns the polynomial whose terms are the sum of sign * piece over all pieces
+     *
+     * @param canonical whether every piece is already a trimmed block with no run of GAP zeros
+     */
+    private static BlockSparsePolynomial assemble(int[] pieceStarts, int[][] pieces, int[] signs, boolean canonical) {
+        Blocks out = new Blocks(pieces.length);
+        int first = 0;
+        while(first < pieces.length) {
+            int low = pieceStarts[first];
+            long high = (long) low + pieces[first].length - 1;
+            int last = first + 1;
+            while(last < pieces.length && pieceStarts[last] - high <= GAP) {
+                high = Math.max(high, (long) pieceStarts[last] + pieces[last].length - 1);
+                last++;
+            }
+            if(last == first + 1 && canonical && signs[first] == 1) {
+                out.append(low, pieces[first]);
+            }
+            else {
+                int[] sum = new int[(int) (high - low + 1)];
+                for(int k = first; k < last; k++) {
+                    int[] piece = pieces[k];
+                    int base = pieceStarts[k] - low;
+                    if(signs[k] == 1) {
+                        for(int i = 0; i < piece.length; i++) {
+                            sum[base + i] += piece[i];
+                        }
+                    }
+                    else {
+                        for(int i = 0; i < piece.length; i++) {
+                            sum[base + i] -= piece[i];
+                        }
+                    }
+                }
+                out.split(sum, 0, sum.length, low);
+            }
+            first = last;
+        }
+        return out.build();
+    }
+
+    /**
+     * Returns a polynomial by negating the current instance. The current instance is not modified.
+     *
+     * Precondition: None
+     * Postcondition: Returns the negated polynomial of this
+     *
+     * @return -this
+     */
+    @Override
+    public BlockSparsePolynomial minus() {
+        int[][] negated = new int[blocks.length][];
+        for(int i = 0; i < blocks.length; i++) {
+            negated[i] = new int[blocks[i].length];
+            for(int j = 0; j < negated[i].length; j++) {
+                negated[i][j] = -blocks[i][j];
+            }
+        }
+        return new BlockSparsePolynomial(starts, negated);
+    }
+
+    /**
+     * Evaluates the polynomial at a point using Horner's rule inside each block, scaled by x^start
+     * Precondition: None
+     * Postcondition: returns the value of the polynomial at x
+     * @param x the point at which to evaluate
+     * @return the value of the polynomial at x
+     */
+    @Override
+    public double evaluate(double x) {
+        double sum = 0;
+        for(int i = 0; i < blocks.length; i++) {
+            double value = 0;
+            for(int j = blocks[i].length - 1; j >= 0; j--) {
+                value = value * x + blocks[i][j];
+            }
+            sum += value * Math.pow(x, starts[i]);
+        }
+        return sum;
+    }
+
+    /**
+     * Estimates the heap taken by this polynomial: the blocks, 4 bytes for every exponent they span, an array header
+     * and a start per block, and the term arrays, once they are built
+     * Precondition: None
+     * Postcondition: returns the estimated size in bytes
+     *
+     * @return the estimated size in bytes
+     */
+    @Override
+    public long estimatedBytes() {
+        long bytes = Footprint.object(17) + Footprint.intArray(starts.length) + Footprint.referenceArray(blocks.length)
+                + Footprint.termArrays(terms);
+        for(int[] block: blocks) {
+            bytes += Footprint.intArray(block.length);
+        }
+        return bytes;
+    }
+
+    /**
+     * Estimates the heap a BlockSparsePolynomial with the terms of p would take, cutting the blocks as the constructor
+     * does and including the term arrays it keeps, in one pass over the terms of p that copies none of them
+     *
+     * @param p the polynomial whose terms are sized
+     * @return the estimated size in bytes
+     */
+    static long estimatedBytes(Polynomial p) {
+        // the number of terms, the number of blocks, the bytes of the finished blocks, and the first and last exponent
+        // of the block being read
+        long[] state = new long[5];
+        p.forEachTerm((exponent, coefficient) -> {
+            if(state[0] > 0 && (long) exponent - state[4] > GAP) {
+                state[1]++;
+                state[2] += Footprint.intArray(state[4] - state[3] + 1);
+            }
+            if(state[0] == 0 || (long) exponent - state[4] > GAP) {
+                state[3] = exponent;
+            }
+            state[4] = exponent;
+            state[0]++;
+        });
+        if(state[0] > 0) {
+            state[1]++;
+            state[2] += Footprint.intArray(state[4] - state[3] + 1);
+        }
+        return Footprint.object(17) + state[2] + Footprint.intArray(state[1]) + Footprint.referenceArray(state[1])
+                + Footprint.termArrays(state[0]);
+    }
+
+    /**
+     * Checks the class invariant: every block is trimmed, holds no run of GAP zeros and ends at least GAP zeros before
+     * the next block starts
+     * Precondition: None
+     * PostCondition: returns true if the class invariant holds
+     *
+     * @return {@literal true} if the class invariant holds, and {@literal false} otherwise
+     */
+    @Override
+    public boolean wellFormed() {
+        if(starts == null || blocks == null || starts.length != blocks.length) {
+            return false;
+        }
+        for(int i = 0; i < blocks.length; i++) {
+            int[] block = blocks[i];
+            if(block == null || block.length == 0 || block[0] == 0 || block[block.length - 1] == 0) {
+                return false;
+            }
+            if((long) starts[i] + block.length - 1 > Integer.MAX_VALUE) {
+                return false;
+            }
+            if(i > 0 && (long) starts[i] - end(i - 1) <= GAP) {
+                return false;
+            }
+            int zeros = 0;
+            for(int c: block) {
+                zeros = (c == 0) ? zeros + 1 : 0;
+                if(zeros >= GAP) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns a spliterator over the non-zero terms in ascending order of exponent.  The non-zero terms are gathered
+     * once on first use and shared by every later call.
+     *
+     * Precondition: None
+     * Postcondition: returns a SIZED and SUBSIZED spliterator over the non-zero terms, packed with Terms.pack
+     *
+     * @return a spliterator over the non-zero terms
+     */
+    @Override
+    public Spliterator.OfLong termSpliterator() {
+        return termArrays().spliterator();
+    }
+
+    /**
+     * Passes every non-zero term to action in ascending order of exponent, reading the blocks directly.
+     *
+     * Precondition: action is not null
+     * Postcondition: action has been called once for each non-zero term
+     *
+     * @param action the operation to perform on each term
+     * @throws NullPointerException if action is null
+     */
+    @Override
+    public void forEachTerm(IntIntConsumer action) {
+        if(action == null) {
+            throw new NullPointerException("Argument is null");
+        }
+        for(int i = 0; i < blocks.length; i++) {
+            for(int j = 0; j < blocks[i].length; j++) {
+                if(blocks[i][j] != 0) {
+                    action.accept(starts[i] + j, blocks[i][j]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the non-zero terms as parallel arrays, building them on first use.  Racing threads may each build a copy,
+     * but the copies are identical and TermArrays is immutable, so whichever one is kept is safe to share.
+     *
+     * @return the non-zero terms of this polynomial
+     */
+    @Override
+    public TermArrays termArrays() {
+        TermArrays t = terms;
+        if(t == null) {
+            int count = 0;
+            for(int[] block: blocks) {
+                for(int c: block) {
+                    if(c != 0) {
+                        count++;
+                    }
+                }
+            }
+            int[] exponents = new int[count];
+            int[] values = new int[count];
+            int[] k = {0};
+            forEachTerm((exponent, coefficient) -> {
+                exponents[k[0]] = exponent;
+                values[k[0]++] = coefficient;
+            });
+            t = new TermArrays(exponents, values);
+            terms = t;
+        }
+        return t;
+    }
+
+    /**
+     * Checks if o is a Polynomial with the same terms, whatever its representation.  Two BlockSparsePolynomials are
+     * compared block by block, since the layout only depends on the terms.
+     * Precondition: None
+     * Postcondition: return true if this and o represent same polynomial
+     * @return true if o is a Polynomial with the same terms as this one, false otherwise
+     */
+    @Override
+    public boolean equals(Object o) {
+        if(o == this) {
+            return true;
+        }
+        if(!(o instanceof Polynomial) || o.hashCode() != hashCode()) {
+            return false;
+        }
+        if(o instanceof BlockSparsePolynomial) {
+            BlockSparsePolynomial other = (BlockSparsePolynomial) o;
+            return Arrays.equals(starts, other.starts) && Arrays.deepEquals(blocks, other.blocks);
+        }
+        return Terms.sameTerms(this, (Polynomial) o);
+    }
+
+    /**
+     * Returns the sum of Terms.hash over the non-zero terms, so the hash code only depends on the terms.  It is
+     * computed on first use; racing threads compute the same value.
+     *
+     * Precondition: None
+     * Postcondition: returns the same value for polynomials that are equal
+     *
+     * @return the hash code of this polynomial
+     */
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if(h == 0 && !hashIsZero) {
+            for(int i = 0; i < blocks.length; i++) {
+                for(int j = 0; j < blocks[i].length; j++) {
+                    if(blocks[i][j] != 0) {
+                        h += Terms.hash(starts[i] + j, blocks[i][j]);
+                    }
+                }
+            }
+            if(h == 0) {
+                hashIsZero = true;
+            }
+            else {
+                hash = h;
+            }
+        }
+        return h;
+    }
+
+    /**
+     * Method takes the polynomial object and returns a string representation in canonical form
+     * Precondition: None
+     * Postcondition: Returns string representation of polynomial
+     * @return String representation of the polynomial in canonical form
+     */
+    @Override
+    public String toString() {
+        if(isZero()) {
+            return "0";
+        }
+        StringBuilder s = new StringBuilder();
+        for(int i = blocks.length - 1; i >= 0; i--) {
+            for(int j = blocks[i].length - 1; j >= 0; j--) {
+                if(blocks[i][j] != 0) {
+                    if(s.length() > 0) {
+                        s.append(" + ");
+                    }
+                    Terms.appendTerm(s, starts[i] + j, blocks[i][j]);
+                }
+            }
+        }
+        return s.toString();
+    }
+
+    /**
+     * Collects canonical blocks in ascending order
+     */
+    private static final class Blocks {
+        private int[] starts;
+        private int[][] blocks;
+        private int size;
+
+        Blocks(int capacity) {
+            starts = new int[Math.max(capacity, 1)];
+            blocks = new int[starts.length][];
+        }
+
+        /**
+         * Precondition: block is canonical and starts at least GAP zeros past the end of the last block appended
+         */
+        void append(int start, int[] block) {
+            if(size == starts.length) {
+                starts = Arrays.copyOf(starts, 2 * size);
+                blocks = Arrays.copyOf(blocks, 2 * size);
+            }
+            starts[size] = start;
+            blocks[size++] = block;
+        }
+
+        /**
+         * Appends the entries of a[from, to), whose first entry has exponent start, cut at every run of GAP or more
+         * zeros and trimmed.  The array itself is kept when it is a single block that needs no trimming.
+         * Precondition: a is not shared, and its non-zero entries start at least GAP zeros past the last block
+         */
+        void split(int[] a, int from, int to, int start) {
+            int i = from;
+            while(i < to) {
+                while(i < to && a[i] == 0) {
+                    i++;
+                }
+                if(i == to) {
+                    return;
+                }
+                int first = i;
+                int last = i;
+                int zeros = 0;
+                for(i++; i < to && zeros < GAP; i++) {
+                    if(a[i] == 0) {
+                        zeros++;
+                    }
+                    else {
+                        zeros = 0;
+                        last = i;
+                    }
+                }
+                int[] block = (first == 0 && last == a.length - 1) ? a : Arrays.copyOfRange(a, first, last + 1);
+                append(start + (first - from), block);
+            }
+        }
+
+        BlockSparsePolynomial build() {
+            return new BlockSparsePolynomial(Arrays.copyOf(starts, size), Arrays.copyOf(blocks, size));
+        }
+    }
+}
@@ -0,0 +1,120 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlockSparsePolynomialTest {
+
+    /**
+     * Builds a polynomial with clusters of random coefficients at the given exponents
+     */
+    private static SparsePolynomial clusters(Random random, int[] starts, int length) {
+        int[] exponents = new int[starts.length * length];
+        int[] coefficients = new int[exponents.length];
+        for(int i = 0; i < starts.length; i++) {
+            for(int j = 0; j < length; j++) {
+                exponents[i * length + j] = starts[i] + j;
+                coefficients[i * length + j] = random.nextInt(200) - 100;
+            }
+        }
+        return SparsePolynomial.fromTerms(exponents, coefficients);
+    }
+
+    @Test
+    void testLayout() {
+        BlockSparsePolynomial p = new BlockSparsePolynomial("8x^1234567 + 3x^12345 + 25x^123 + 8x^12");
+
+        //testing that widely separated terms get a block each
+        assertEquals(4, p.blockCount());
+        assertEquals(1234567, p.degree());
+        assertEquals(12, p.lowestExponent());
+        assertEquals(25, p.getCoefficient(123));
+        assertEquals(0, p.getCoefficient(124));
+        assertEquals(0, p.getCoefficient(0));
+        assertEquals(0, p.getCoefficient(Integer.MAX_VALUE));
+        assertEquals("8x^1234567 + 3x^12345 + 25x^123 + 8x^12", p.toString());
+        assertTrue(p.wellFormed());
+
+        //testing that terms closer than the gap share a block
+        BlockSparsePolynomial q = new BlockSparsePolynomial("x^30 + 2x^20 + 3x^4 + 4 + 5x^-10");
+        assertEquals(1, q.blockCount());
+        assertEquals(-10, q.lowestExponent());
+        assertEquals(2, new BlockSparsePolynomial("x^41 + 2x^20").blockCount());
+        assertEquals(1, new BlockSparsePolynomial("x^36 + 2x^20").blockCount());
+
+        //testing the zero polynomial and conversions from the other representations
+        BlockSparsePolynomial zero = new BlockSparsePolynomial("0");
+        assertTrue(zero.isZero());
+        assertEquals(0, zero.blockCount());
+        assertEquals(0, zero.degree());
+        assertEquals("0", zero.toString());
+        assertTrue(zero.wellFormed());
+        assertEquals(p, BlockSparsePolynomial.of(new SparsePolynomial("8x^1234567 + 3x^12345 + 25x^123 + 8x^12")));
+        assertEquals(new SparsePolynomial("8x^1234567 + 3x^12345 + 25x^123 + 8x^12"), p);
+        BlockSparsePolynomial dense = BlockSparsePolynomial.of(new DensePolynomial("x^200 + 7x^100 + 3x^99 + 2"));
+        assertEquals(3, dense.blockCount());
+        assertEquals(new DensePolynomial("x^200 + 7x^100 + 3x^99 + 2"), dense);
+        assertEquals(dense.hashCode(), new DensePolynomial("x^200 + 7x^100 + 3x^99 + 2").hashCode());
+        assertThrows(IllegalArgumentException.class, () -> new BlockSparsePolynomial("x + x^2"));
+        assertThrows(NullPointerException.class, () -> BlockSparsePolynomial.of(null));
+    }
+
+    @Test
+    void testAddSplitsAndMerges() {
+        BlockSparsePolynomial p = new BlockSparsePolynomial("x^1000 + x^60 + x^50 + x^40 + 1");
+
+        //testing that cancelling the middle of a block splits it
+        BlockSparsePolynomial split = p.subtract(new SparsePolynomial("x^60 + x^50 + x^40"));
+        assertEquals(new SparsePolynomial("x^1000 + 1"), split);
+        assertEquals(2, split.blockCount());
+        assertTrue(split.wellFormed());
+
+        //testing that filling the space between blocks merges them
+        BlockSparsePolynomial merged = split.add(new SparsePolynomial("x^990 + x^975 + x^960 + x^15"));
+        assertEquals(2, merged.blockCount());
+        assertEquals(1, merged.getCoefficient(960));
+        assertEquals(1, new BlockSparsePolynomial("x^1000 + x^980").add(new BlockSparsePolynomial("x^992")).blockCount());
+        assertEquals(2, new BlockSparsePolynomial("x^1000 + x^980").blockCount());
+        assertTrue(merged.wellFormed());
+
+        //testing that blocks the other operand does not reach pass through and that cancellation gives zero
+        BlockSparsePolynomial far = new BlockSparsePolynomial("3x^100000 + 4x^99999");
+        assertEquals(new SparsePolynomial("3x^100000 + 4x^99999 + x^1000 + x^60 + x^50 + x^40 + 1"), p.add(far));
+        assertTrue(p.subtract(p).isZero());
+        assertTrue(p.add(p.minus()).wellFormed());
+        assertEquals(new SparsePolynomial("-1x^1000 + -1x^60 + -1x^50 + -1x^40 + -1"), p.minus());
+        assertThrows(NullPointerException.class, () -> p.add(null));
+    }
+
+    @Test
+    void testMultiply() {
+        Random random = new Random(44);
+        SparsePolynomial a = clusters(random, new int[]{-500, 12, 123, 12345, 1234567}, 60);
+        SparsePolynomial b = clusters(random, new int[]{0, 1000, 1030, 800000}, 90);
+        BlockSparsePolynomial ba = BlockSparsePolynomial.of(a);
+        BlockSparsePolynomial bb = BlockSparsePolynomial.of(b);
+
+        //testing that the block-wise product agrees with the sparse product
+        BlockSparsePolynomial product = ba.multiply(bb);
+        assertEquals(a.multiply(b), product);
+        assertEquals(product, bb.multiply(a));
+        assertTrue(product.wellFormed());
+        assertEquals(a.evaluate(0.999) * b.evaluate(0.999), product.evaluate(0.999), 1e-6 * Math.abs(product.evaluate(0.999)));
+
+        //testing products of short blocks, which are multiplied term by term
+        BlockSparsePolynomial p = new BlockSparsePolynomial("8x^1234567 + 3x^12345 + 25x^123 + 8x^12");
+        assertEquals(new SparsePolynomial("8x^1234567 + 3x^12345 + 25x^123 + 8x^12").multiply(new SparsePolynomial("x^500 + -1x^-7")),
+                p.multiply(new SparsePolynomial("x^500 + -1x^-7")));
+        assertEquals(p, p.multiply(new DensePolynomial("1")));
+        assertTrue(p.multiply(new BlockSparsePolynomial("0")).isZero());
+
+        //testing that products whose leading coefficients vanish modulo 2^32 are trimmed
+        BlockSparsePolynomial wrap = new BlockSparsePolynomial("65536x^3 + 1");
+        assertEquals(new SparsePolynomial("131072x^3 + 1"), wrap.multiply(wrap));
+        assertTrue(wrap.multiply(wrap).wellFormed());
+
+        assertThrows(IllegalArgumentException.class, () -> p.multiply(new SparsePolynomial("x^2147000000")));
+        assertThrows(NullPointerException.class, () -> p.multiply(null));
+    }
+}
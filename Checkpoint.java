@@ -0,0 +1,133 @@
+import java.util.function.DoubleConsumer;
+import java.util.function.Supplier;
+
+/**
+ * The cancellation, deadline and progress state of one asynchronous computation.  The multiplication kernels call
+ * reached at block boundaries, that is after each block of a blocked product, each stage of a transform and each
+ * bucket of a sparse product, with the amount of work done since their last call.  When the calling thread is running
+ * a computation started by AsyncPolynomials, the checkpoint of that computation is consulted: the work is stopped by
+ * throwing Stopped if it was cancelled or its deadline has passed, and otherwise added to the progress.  On any other
+ * thread reached costs one thread-local lookup and returns.
+ *
+ * Work is counted in the units the kernels report, about one per multiply-add, so the fraction passed to the progress
+ * listener is only as good as the estimate of the total given at creation.  It never exceeds 1 and is reported in
+ * steps of at least PROGRESS_STEP.
+ */
+final class Checkpoint {
+    /**
+     * The smallest rise of the fraction done that is passed to the progress listener
+     */
+    static final double PROGRESS_STEP = 0.01;
+
+    private static final ThreadLocal<Checkpoint> CURRENT = new ThreadLocal<>();
+
+    private final long deadline;
+    private final boolean hasDeadline;
+    private final double total;
+    private final DoubleConsumer progress;
+    private volatile boolean cancelled;
+    private long done;
+    private double reported;
+
+    /**
+     * Precondition: total is positive
+     * Postcondition: Creates a checkpoint that stops the work once System.nanoTime() passes deadline, if hasDeadline
+     * is set, and reports the fraction of total done to progress, if it is not null
+     */
+    Checkpoint(boolean hasDeadline, long deadline, double total, DoubleConsumer progress) {
+        this.hasDeadline = hasDeadline;
+        this.deadline = deadline;
+        this.total = total;
+        this.progress = progress;
+    }
+
+    /**
+     * Records that the current thread has done work units since its last checkpoint, stopping it if its computation
+     * was cancelled or ran out of time
+     *
+     * @param work the number of units done
+     * @throws Stopped if the computation on the current thread must stop
+     */
+    static void reached(long work) {
+        Checkpoint checkpoint = CURRENT.get();
+        if(checkpoint != null) {
+            checkpoint.advance(work);
+        }
+    }
+
+    private void advance(long work) {
+        if(cancelled) {
+            throw new Stopped(false);
+        }
+        if(hasDeadline && System.nanoTime() - deadline > 0) {
+            throw new Stopped(true);
+        }
+        done += work;
+        if(progress != null) {
+            double fraction = Math.min(1, done / total);
+            if(fraction - reported >= PROGRESS_STEP) {
+                reported = fraction;
+                progress.accept(fraction);
+            }
+        }
+    }
+
+    /**
+     * Runs work on the current thread with this checkpoint in force, checking it once before starting
+     * Precondition: work is not null
+     * Postcondition: returns the result of work, and the checkpoint of the current thread is what it was before
+     *
+     * @param work the computation to run
+     * @return the result of the computation
+     * @throws Stopped if the computation was cancelled or ran out of time
+     */
+    <T> T run(Supplier<T> work) {
+        Checkpoint previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            advance(0);
+            T result = work.get();
+            if(progress != null && reported < 1) {
+                progress.accept(1.0);
+            }
+            return result;
+        }
+        finally {
+            if(previous == null) {
+                CURRENT.remove();
+            }
+            else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Asks the computation to stop at its next checkpoint
+     */
+    void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Thrown from a checkpoint to unwind a computation that was cancelled or ran out of time.  It carries no stack
+     * trace, as it is caught by AsyncPolynomials and never seen by callers.
+     */
+    static final class Stopped extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final boolean timedOut;
+
+        Stopped(boolean timedOut) {
+            super(timedOut ? "The deadline has passed" : "The computation was cancelled", null, false, false);
+            this.timedOut = timedOut;
+        }
+
+        /**
+         * @return true if the deadline passed, false if the computation was cancelled
+         */
+        boolean timedOut() {
+            return timedOut;
+        }
+    }
+}
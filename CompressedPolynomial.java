@@ -0,0 +1,727 @@
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.function.LongConsumer;
+
+/**
+ * A polynomial whose terms are bit-packed to save memory.  The terms are taken in ascending order of exponent and cut
+ * into blocks of BLOCK terms.  Each block records the exponent of its first term, and then, for every other term, the
+ * gap to the previous exponent less one, followed by the coefficients in zigzag form, which maps 0, -1, 1, -2, ... to
+ * 0, 1, 2, 3, ... so small negative numbers stay small.  Gaps and coefficients are packed with the fewest bits that
+ * hold the largest of them in the block, so the widths adapt as the data changes along the polynomial.
+ *
+ * A coefficient between -128 and 127 takes 8 bits instead of the 32 of an int, and the exponents of consecutive terms,
+ * as in a dense polynomial, take no bits at all, so a dense polynomial with small coefficients shrinks about fourfold
+ * against DensePolynomial and much further against the boxed map of SparsePolynomial.
+ *
+ * Evaluation, addition, subtraction, comparison and the term iteration decode the blocks on the fly, one term at a
+ * time, without ever unpacking the whole polynomial; only multiplication unpacks its operands into arrays for the
+ * sparse multiplier and packs the product again, and toString and termArrays unpack into arrays that are not kept.
+ * Instances are immutable.
+ */
+public final class CompressedPolynomial implements Polynomial, TermSource {
+    /**
+     * Number of terms in a block, which bounds the work of getCoefficient to decoding one block
+     */
+    static final int BLOCK = 128;
+
+    private final int size;
+    private final int degree;
+    private final int[] firstExponents;
+    private final int[] widths;
+    private final long[] offsets;
+    private final long[] data;
+    private final int hash;
+
+    /**
+     * Creates an instance of a CompressedPolynomial object from the canonical string representation
+     *
+     * Precondition: Coefficients and degrees in String s must be integers
+     * Postcondition: Creates instance of CompressedPolynomial
+     *
+     * @param s the canonical string representation of a polynomial
+     * @throws IllegalArgumentException if a coefficient or degree are not integers or we are given a string that is not canonical
+     */
+    public CompressedPolynomial(String s) {
+        this(encode(PolynomialParser.parse(s, true).toTermArrays()));
+    }
+
+    /**
+     * Creates an instance that copies the fields of another, which lets the public constructor delegate to encode
+     */
+    private CompressedPolynomial(CompressedPolynomial p) {
+        this(p.size, p.degree, p.firstExponents, p.widths, p.offsets, p.data, p.hash);
+    }
+
+    /**
+     * Precondition: the arrays hold a valid encoding of size terms whose highest exponent is degree and the sum of whose
+     * Terms.hash values is hash
+     * Postcondition: Creates the polynomial over those arrays
+     */
+    private CompressedPolynomial(int size, int degree, int[] firstExponents, int[] widths, long[] offsets, long[] data,
+                                 int hash) {
+        this.size = size;
+        this.degree = degree;
+        this.firstExponents = firstExponents;
+        this.widths = widths;
+        this.offsets = offsets;
+        this.data = data;
+        this.hash = hash;
+    }
+
+    /**
+     * Returns a CompressedPolynomial with the same terms as any polynomial.  A CompressedPolynomial is returned as is.
+     *
+     * Precondition: p is not null
+     * Postcondition: returns a CompressedPolynomial equal to p
+     *
+     * @param p the polynomial to compress
+     * @return the polynomial with its terms bit-packed
+     * @throws NullPointerException if p is null
+     */
+    public static CompressedPolynomial of(Polynomial p) {
+        if(p == null) {
+            throw new NullPointerException("Argument is null");
+        }
+        if(p instanceof CompressedPolynomial) {
+            return (CompressedPolynomial) p;
+        }
+        Encoder out = new Encoder();
+        p.forEachTerm(out::append);
+        return out.build();
+    }
+
+    private static CompressedPolynomial encode(TermArrays terms) {
+        Encoder out = new Encoder();
+        for(int i = 0; i < terms.size(); i++) {
+            out.append(terms.exponents[i], terms.coefficients[i]);
+        }
+        return out.build();
+    }
+
+    /**
+     * Reads width bits starting at bit position bit
+     * Precondition: 0 <= width <= 32 and the bits lie inside data
+     */
+    private static long read(long[] data, long bit, int width) {
+        if(width == 0) {
+            return 0;
+        }
+        int word = (int) (bit >>> 6);
+        int shift = (int) (bit & 63);
+        long value = data[word] >>> shift;
+        if(shift + width > 64) {
+            value |= data[word + 1] << (64 - shift);
+        }
+        return value & ((1L << width) - 1);
+    }
+
+    /**
+     * @return the number of non-zero terms
+     */
+    public int termCount() {
+        return size;
+    }
+
+    /**
+     * @return the number of 64-bit words the packed terms occupy
+     */
+    int packedWords() {
+        return data.length;
+    }
+
+    /**
+     * Returns the degree of the polynomial.
+     * Precondition: None
+     * Postcondition: Returns degree of polynomial
+     * @return the largest exponent with a non-zero coefficient.  For the zero polynomial, it returns 0.
+     */
+    @Override
+    public int degree() {
+        return degree;
+    }
+
+    /**
+     * @return the smallest exponent with a non-zero coefficient, or 0 for the zero polynomial
+     */
+    public int lowestExponent() {
+        return (size == 0) ? 0 : firstExponents[0];
+    }
+
+    /**
+     * Returns the coefficient corresponding to the given exponent.  Returns 0 if there is no term with that exponent
+     * in the polynomial.  The block is found by binary search over the first exponents and then decoded up to d.
+     *
+     * Precondition: None
+     * Postcondition: returns the coefficient of d
+     *
+     * @param d the exponent whose coefficient is returned.
+     * @return the coefficient of the term of whose exponent is d.
+     */
+    @Override
+    public int getCoefficient(int d) {
+        int b = Arrays.binarySearch(firstExponents, d);
+        if(b < 0) {
+            b = -b - 2;
+        }
+        if(b < 0 || d > degree) {
+            return 0;
+        }
+        Cursor cursor = new Cursor(b);
+        while(cursor.next() && cursor.exponent <= d) {
+            if(cursor.exponent == d) {
+                return cursor.coefficient;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Checks the polynomial to see if it represents the zero constant
+     * Precondition: None
+     * Postcondition: returns true if polynomial represents the zero constant, if not then it returns false
+     * @return true if the polynomial represents the zero constant
+     */
+    @Override
+    public boolean isZero() {
+        return size == 0;
+    }
+
+    /**
+     * Returns a polynomial by adding the parameter to the current instance. Neither the current instance nor the
+     * parameter are modified.  Both operands are decoded term by term and the sum is packed as it is produced.
+     *
+     * Precondition: q is not null
+     * Postcondition: returns a polynomial representing the sum of this + q
+     *
+     * @param q the non-null polynomial to add to <code>this</code>
+     * @return <code>this + </code>q
+     * @throws NullPointerException if q is null
+     */
+    @Override
+    public CompressedPolynomial add(Polynomial q) {
+        return combine(q, 1);
+    }
+
+    /**
+     * Returns a polynomial by subtracting the parameter from the current instance. Neither the current instance nor
+     * the parameter are modified.  Both operands are decoded term by term and the difference is packed as it is
+     * produced.
+     *
+     * Precondition: q is not null
+     * Postcondition: returns a polynomial representing the difference of this - q
+     *
+     * @param q the non-null polynomial to subtract from <code>this</code>
+     * @return <code>this - </code>q
+     * @throws NullPointerException if q is null
+     */
+    @Override
+    public CompressedPolynomial subtract(Polynomial q) {
+        return combine(q, -1);
+    }
+
+    /**
+     * Returns this + sign * q by merging the two ascending term streams
+     */
+    private CompressedPolynomial combine(Polynomial q, int sign) {
+        if(q == null) {
+            throw new NullPointerException("Argument is null");
+        }
+        Cursor a = new Cursor(0);
+        Cursor b = of(q).new Cursor(0);
+        Encoder out = new Encoder();
+        boolean hasA = a.next();
+        boolean hasB = b.next();
+        while(hasA || hasB) {
+            if(!hasB || (hasA && a.exponent < b.exponent)) {
+                out.append(a.exponent, a.coefficient);
+                hasA = a.next();
+            }
+            else if(!hasA || b.exponent < a.exponent) {
+                out.append(b.exponent, sign * b.coefficient);
+                hasB = b.next();
+            }
+            else {
+                out.append(a.exponent, a.coefficient + sign * b.coefficient);
+                hasA = a.next();
+                hasB = b.next();
+            }
+        }
+        return out.build();
+    }
+
+    /**
+     * Returns a polynomial by multiplying the parameter with the current instance. Neither the current instance nor
+     * the parameter are modified.  The operands are unpacked for the sparse multiplier and the product is packed.
+     *
+     * Precondition: q is not null
+     * Postcondition: returns a polynomial representing the product of this * q
+     *
+     * @param q the non-null polynomial to multiply with <code>this</code>
+     * @return <code>this * </code>q
+     * @throws NullPointerException if q is null
+     */
+    @Override
+    public CompressedPolynomial multiply(Polynomial q) {
+        if(q == null) {
+            throw new NullPointerException("Argument is null");
+        }
+        return encode(SparseMultiplier.multiply(termArrays(), TermArrays.of(q)));
+    }
+
+    /**
+     * Returns a polynomial by negating the current instance. The current instance is not modified.
+     *
+     * Precondition: None
+     * Postcondition: Returns the negated polynomial of this
+     *
+     * @return -this
+     */
+    @Override
+    public CompressedPolynomial minus() {
+        Encoder out = new Encoder();
+        forEachTerm((exponent, coefficient) -> out.append(exponent, -coefficient));
+        return out.build();
+    }
+
+    /**
+     * Evaluates the polynomial at a point, decoding the terms one at a time.  Within a run of consecutive exponents the
+     * power of x is advanced by one multiplication instead of a call to Math.pow.
+     * Precondition: None
+     * Postcondition: returns the value of the polynomial at x
+     * @param x the point at which to evaluate
+     * @return the value of the polynomial at x
+     */
+    @Override
+    public double evaluate(double x) {
+        double sum = 0;
+        double power = 0;
+        long previous = Long.MIN_VALUE;
+        Cursor cursor = new Cursor(0);
+        while(cursor.next()) {
+            power = (cursor.exponent == previous + 1) ? power * x : Math.pow(x, cursor.exponent);
+            sum += cursor.coefficient * power;
+            previous = cursor.exponent;
+        }
+        return sum;
+    }
+
+    /**
+     * Estimates the heap taken by this polynomial: the packed words and the first exponent, widths and offset of each
+     * block
+     * Precondition: None
+     * Postcondition: returns the estimated size in bytes
+     *
+     * @return the estimated size in bytes
+     */
+    @Override
+    public long estimatedBytes() {
+        return Footprint.object(28) + 2 * Footprint.intArray(firstExponents.length)
+                + Footprint.longArray(offsets.length) + Footprint.longArray(data.length);
+    }
+
+    /**
+     * Estimates the heap a CompressedPolynomial with the terms of p would take, measuring the widths of every block as
+     * the encoder does, in one pass over the terms of p that copies none of them
+     *
+     * @param p the polynomial whose terms are sized, with no zero coefficients
+     * @return the estimated size in bytes
+     */
+    static long estimatedBytes(Polynomial p) {
+        // the number of terms, the bits of the finished blocks, the previous exponent, and the widest gap and zigzag
+        // coefficient of the block being read
+        long[] state = new long[5];
+        p.forEachTerm((exponent, coefficient) -> {
+            if(state[0] % BLOCK == 0) {
+                if(state[0] > 0) {
+                    state[1] += blockBits(BLOCK, state[3], state[4]);
+                }
+                state[3] = 0;
+                state[4] = 0;
+            }
+            else {
+                state[3] = Math.max(state[3], (long) exponent - state[2] - 1);
+            }
+            state[4] = Math.max(state[4], Encoder.zigzag(coefficient));
+            state[2] = exponent;
+            state[0]++;
+        });
+        long n = state[0];
+        if(n > 0) {
+            state[1] += blockBits((int) ((n - 1) % BLOCK + 1), state[3], state[4]);
+        }
+        long blocks = (n + BLOCK - 1) / BLOCK;
+        return Footprint.object(28) + 2 * Footprint.intArray(blocks) + Footprint.longArray(blocks)
+                + Footprint.longArray((state[1] + 63) >>> 6);
+    }
+
+    /**
+     * @return the bits of a block of count terms whose widest gap and zigzag coefficient are given
+     */
+    private static long blockBits(int count, long maxGap, long maxZigzag) {
+        return (count - 1L) * (64 - Long.numberOfLeadingZeros(maxGap))
+                + count * (64L - Long.numberOfLeadingZeros(maxZigzag));
+    }
+
+    /**
+     * Checks the class invariant: the blocks decode to size strictly ascending exponents with non-zero coefficients,
+     * the last of which is degree, and every block but the last holds BLOCK terms
+     * Precondition: None
+     * PostCondition: returns true if the class invariant holds
+     *
+     * @return {@literal true} if the class invariant holds, and {@literal false} otherwise
+     */
+    @Override
+    public boolean wellFormed() {
+        int blocks = (size + BLOCK - 1) / BLOCK;
+        if(firstExponents.length != blocks || widths.length != blocks || offsets.length != blocks) {
+            return false;
+        }
+        if(size == 0) {
+            return degree == 0 && hash == 0;
+        }
+        int count = 0;
+        int h = 0;
+        long previous = Long.MIN_VALUE;
+        Cursor cursor = new Cursor(0);
+        while(cursor.next()) {
+            if(cursor.coefficient == 0 || cursor.exponent <= previous) {
+                return false;
+            }
+            previous = cursor.exponent;
+            h += Terms.hash(cursor.exponent, cursor.coefficient);
+            count++;
+        }
+        return count == size && previous == degree && h == hash;
+    }
+
+    /**
+     * Returns a spliterator over the non-zero terms in ascending order of exponent, which decodes the blocks as it goes
+     * and splits at block boundaries, so the polynomial is never unpacked.
+     *
+     * Precondition: None
+     * Postcondition: returns a SIZED and SUBSIZED spliterator over the non-zero terms, packed with Terms.pack
+     *
+     * @return a spliterator over the non-zero terms
+     */
+    @Override
+    public Spliterator.OfLong termSpliterator() {
+        return new TermSpliterator(0, size);
+    }
+
+    /**
+     * Passes every non-zero term to action in ascending order of exponent, decoding the blocks as it goes.
+     *
+     * Precondition: action is not null
+     * Postcondition: action has been called once for each non-zero term
+     *
+     * @param action the operation to perform on each term
+     * @throws NullPointerException if action is null
+     */
+    @Override
+    public void forEachTerm(IntIntConsumer action) {
+        if(action == null) {
+            throw new NullPointerException("Argument is null");
+        }
+        Cursor cursor = new Cursor(0);
+        while(cursor.next()) {
+            action.accept(cursor.exponent, cursor.coefficient);
+        }
+    }
+
+    /**
+     * Unpacks the terms into new arrays, which are not kept
+     *
+     * @return the non-zero terms of this polynomial
+     */
+    @Override
+    public TermArrays termArrays() {
+        int[] exponents = new int[size];
+        int[] coefficients = new int[size];
+        Cursor cursor = new Cursor(0);
+        for(int i = 0; cursor.next(); i++) {
+            exponents[i] = cursor.exponent;
+            coefficients[i] = cursor.coefficient;
+        }
+        return new TermArrays(exponents, coefficients);
+    }
+
+    /**
+     * Checks if o is a Polynomial with the same terms, whatever its representation.  The encoding only depends on the
+     * terms, so two CompressedPolynomials are compared word by word.
+     * Precondition: None
+     * Postcondition: return true if this and o represent same polynomial
+     * @return true if o is a Polynomial with the same terms as this one, false otherwise
+     */
+    @Override
+    public boolean equals(Object o) {
+        if(o == this) {
+            return true;
+        }
+        if(!(o instanceof Polynomial) || o.hashCode() != hash) {
+            return false;
+        }
+        if(o instanceof CompressedPolynomial) {
+            CompressedPolynomial other = (CompressedPolynomial) o;
+            return size == other.size && Arrays.equals(firstExponents, other.firstExponents)
+                    && Arrays.equals(widths, other.widths) && Arrays.equals(data, other.data);
+        }
+        return Terms.sameTerms(this, (Polynomial) o);
+    }
+
+    /**
+     * Returns the sum of Terms.hash over the non-zero terms, so the hash code only depends on the terms.  It is
+     * computed while the terms are packed.
+     *
+     * Precondition: None
+     * Postcondition: returns the same value for polynomials that are equal
+     *
+     * @return the hash code of this polynomial
+     */
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    /**
+     * Method takes the polynomial object and returns a string representation in canonical form
+     * Precondition: None
+     * Postcondition: Returns string representation of polynomial
+     * @return String representation of the polynomial in canonical form
+     */
+    @Override
+    public String toString() {
+        if(isZero()) {
+            return "0";
+        }
+        TermArrays terms = termArrays();
+        StringBuilder s = new StringBuilder();
+        for(int i = size - 1; i >= 0; i--) {
+            if(i < size - 1) {
+                s.append(" + ");
+            }
+            Terms.appendTerm(s, terms.exponents[i], terms.coefficients[i]);
+        }
+        return s.toString();
+    }
+
+    /**
+     * Decodes the terms one at a time, starting at a given block.  Each call to next moves to the following term and
+     * leaves it in exponent and coefficient.
+     */
+    private final class Cursor {
+        private int block;
+        private int index;
+        private int count;
+        private int gapWidth;
+        private int coefficientWidth;
+        private long gapBit;
+        private long coefficientBit;
+        int exponent;
+        int coefficient;
+
+        Cursor(int block) {
+            this.block = block - 1;
+            this.index = 0;
+            this.count = 0;
+        }
+
+        boolean next() {
+            if(index == count) {
+                block++;
+                if(block >= firstExponents.length) {
+                    return false;
+                }
+                index = 0;
+                count = Math.min(BLOCK, size - block * BLOCK);
+                gapWidth = widths[block] >>> 8;
+                coefficientWidth = widths[block] & 0xff;
+                gapBit = offsets[block];
+                coefficientBit = gapBit + (long) gapWidth * (count - 1);
+                exponent = firstExponents[block];
+            }
+            else {
+                exponent += (int) read(data, gapBit, gapWidth) + 1;
+                gapBit += gapWidth;
+            }
+            int zigzag = (int) read(data, coefficientBit, coefficientWidth);
+            coefficient = (zigzag >>> 1) ^ -(zigzag & 1);
+            coefficientBit += coefficientWidth;
+            index++;
+            return true;
+        }
+    }
+
+    /**
+     * A spliterator over the terms from index up to fence, decoded by a Cursor that is started at the block of index
+     * when the first term is read; index is then always at the start of a block.  Splitting hands the terms already under way to the prefix and cuts at a block
+     * boundary, so both halves know their exact size and the suffix starts a cursor of its own.
+     */
+    private final class TermSpliterator implements Spliterator.OfLong {
+        private Cursor cursor;
+        private int index;
+        private final int fence;
+
+        TermSpliterator(int origin, int fence) {
+            this.index = origin;
+            this.fence = fence;
+        }
+
+        @Override
+        public OfLong trySplit() {
+            int lo = (index + BLOCK - 1) / BLOCK;
+            int mid = (lo + (fence + BLOCK - 1) / BLOCK) >>> 1;
+            if(lo >= mid) {
+                return null;
+            }
+            TermSpliterator prefix = new TermSpliterator(index, mid * BLOCK);
+            prefix.cursor = cursor;
+            cursor = null;
+            index = mid * BLOCK;
+            return prefix;
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            if(action == null) {
+                throw new NullPointerException("Argument is null");
+            }
+            if(index >= fence) {
+                return false;
+            }
+            advance();
+            action.accept(Terms.pack(cursor.exponent, cursor.coefficient));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(LongConsumer action) {
+            if(action == null) {
+                throw new NullPointerException("Argument is null");
+            }
+            while(index < fence) {
+                advance();
+                action.accept(Terms.pack(cursor.exponent, cursor.coefficient));
+            }
+        }
+
+        /**
+         * Moves the cursor to the term at index, starting it at the block of that term first if needed, which is then
+         * the first term of its block
+         */
+        private void advance() {
+            if(cursor == null) {
+                cursor = new Cursor(index / BLOCK);
+            }
+            cursor.next();
+            index++;
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SORTED | DISTINCT | NONNULL | IMMUTABLE | SIZED | SUBSIZED;
+        }
+
+        @Override
+        public Comparator<? super Long> getComparator() {
+            return null;
+        }
+    }
+
+    /**
+     * Packs terms given in ascending order of exponent, BLOCK at a time.  Zero coefficients are skipped.
+     */
+    private static final class Encoder {
+        private final int[] exponents = new int[BLOCK];
+        private final int[] coefficients = new int[BLOCK];
+        private int pending;
+        private int size;
+        private int degree;
+        private int hash;
+        private int blocks;
+        private int[] firstExponents = new int[4];
+        private int[] widths = new int[4];
+        private long[] offsets = new long[4];
+        private long[] data = new long[16];
+        private long bit;
+
+        /**
+         * Precondition: exponent is greater than every exponent appended before
+         */
+        void append(int exponent, int coefficient) {
+            if(coefficient == 0) {
+                return;
+            }
+            exponents[pending] = exponent;
+            coefficients[pending++] = coefficient;
+            size++;
+            degree = exponent;
+            hash += Terms.hash(exponent, coefficient);
+            if(pending == BLOCK) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            long maxGap = 0;
+            long maxZigzag = 0;
+            for(int i = 0; i < pending; i++) {
+                if(i > 0) {
+                    maxGap = Math.max(maxGap, (long) exponents[i] - exponents[i - 1] - 1);
+                }
+                maxZigzag = Math.max(maxZigzag, zigzag(coefficients[i]));
+            }
+            int gapWidth = 64 - Long.numberOfLeadingZeros(maxGap);
+            int coefficientWidth = 64 - Long.numberOfLeadingZeros(maxZigzag);
+            if(blocks == firstExponents.length) {
+                firstExponents = Arrays.copyOf(firstExponents, 2 * blocks);
+                widths = Arrays.copyOf(widths, 2 * blocks);
+                offsets = Arrays.copyOf(offsets, 2 * blocks);
+            }
+            firstExponents[blocks] = exponents[0];
+            widths[blocks] = (gapWidth << 8) | coefficientWidth;
+            offsets[blocks++] = bit;
+            for(int i = 1; i < pending; i++) {
+                write((long) exponents[i] - exponents[i - 1] - 1, gapWidth);
+            }
+            for(int i = 0; i < pending; i++) {
+                write(zigzag(coefficients[i]), coefficientWidth);
+            }
+            pending = 0;
+        }
+
+        private static long zigzag(int c) {
+            return ((c << 1) ^ (c >> 31)) & 0xffffffffL;
+        }
+
+        private void write(long value, int width) {
+            if(width == 0) {
+                return;
+            }
+            int word = (int) (bit >>> 6);
+            int shift = (int) (bit & 63);
+            if(word + 1 >= data.length) {
+                data = Arrays.copyOf(data, 2 * data.length);
+            }
+            data[word] |= value << shift;
+            if(shift + width > 64) {
+                data[word + 1] |= value >>> (64 - shift);
+            }
+            bit += width;
+        }
+
+        CompressedPolynomial build() {
+            if(pending > 0) {
+                flush();
+            }
+            return new CompressedPolynomial(size, degree, Arrays.copyOf(firstExponents, blocks),
+                    Arrays.copyOf(widths, blocks), Arrays.copyOf(offsets, blocks),
+                    Arrays.copyOf(data, (int) ((bit + 63) >>> 6)), hash);
+        }
+    }
+}
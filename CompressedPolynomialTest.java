@@ -0,0 +1,136 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressedPolynomialTest {
+
+    @Test
+    void testEncoding() {
+        CompressedPolynomial p = new CompressedPolynomial("8x^1234567 + 3x^12345 + -25x^123 + 8x^12 + -1x^-4");
+
+        //testing that the terms decode to what was parsed
+        assertEquals(5, p.termCount());
+        assertEquals(1234567, p.degree());
+        assertEquals(-25, p.getCoefficient(123));
+        assertEquals(-1, p.getCoefficient(-4));
+        assertEquals(0, p.getCoefficient(124));
+        assertEquals(0, p.getCoefficient(-5));
+        assertEquals(0, p.getCoefficient(Integer.MAX_VALUE));
+        assertEquals("8x^1234567 + 3x^12345 + -25x^123 + 8x^12 + -1x^-4", p.toString());
+        assertTrue(p.wellFormed());
+
+        //testing the extreme exponents and coefficients, which need the full widths
+        CompressedPolynomial extreme = new CompressedPolynomial("2147483647x^2147483647 + -2147483648x^-2147483648");
+        assertEquals(Integer.MIN_VALUE, extreme.getCoefficient(Integer.MIN_VALUE));
+        assertEquals(Integer.MAX_VALUE, extreme.getCoefficient(Integer.MAX_VALUE));
+        assertTrue(extreme.wellFormed());
+
+        //testing the zero polynomial and conversions from the other representations
+        CompressedPolynomial zero = new CompressedPolynomial("0");
+        assertTrue(zero.isZero());
+        assertEquals(0, zero.degree());
+        assertEquals("0", zero.toString());
+        assertTrue(zero.wellFormed());
+        assertEquals(new SparsePolynomial("8x^1234567 + 3x^12345 + -25x^123 + 8x^12 + -1x^-4"), p);
+        assertEquals(p, CompressedPolynomial.of(new SparsePolynomial("8x^1234567 + 3x^12345 + -25x^123 + 8x^12 + -1x^-4")));
+        assertEquals(p.hashCode(), new SparsePolynomial("8x^1234567 + 3x^12345 + -25x^123 + 8x^12 + -1x^-4").hashCode());
+        assertThrows(IllegalArgumentException.class, () -> new CompressedPolynomial("x + x^2"));
+        assertThrows(NullPointerException.class, () -> CompressedPolynomial.of(null));
+    }
+
+    @Test
+    void testCompression() {
+        Random random = new Random(45);
+        int[] coefficients = new int[100000];
+        for(int i = 0; i < coefficients.length; i++) {
+            coefficients[i] = random.nextInt(256) - 128;
+            if(coefficients[i] == 0) {
+                coefficients[i] = 1;
+            }
+        }
+        DensePolynomial dense = DensePolynomial.fromCoefficients(coefficients);
+        CompressedPolynomial p = CompressedPolynomial.of(dense);
+
+        //testing that coefficients in -128..127 take a byte and consecutive exponents take nothing
+        assertTrue(p.packedWords() * 8L <= coefficients.length + 8);
+        assertEquals(dense, p);
+        assertEquals(p, dense);
+        assertTrue(p.wellFormed());
+        for(int d: new int[]{0, 127, 128, 129, 5000, 99999}) {
+            assertEquals(coefficients[d], p.getCoefficient(d));
+        }
+        assertEquals(dense.evaluate(0.999), p.evaluate(0.999), 1e-9 * Math.abs(dense.evaluate(0.999)) + 1e-9);
+        assertEquals(dense.evaluate(-1.0), p.evaluate(-1.0), 1e-6);
+    }
+
+    @Test
+    void testArithmetic() {
+        Random random = new Random(46);
+        int[] exponents = new int[3000];
+        int[] coefficients = new int[3000];
+        int[] others = new int[3000];
+        for(int i = 0; i < exponents.length; i++) {
+            exponents[i] = 7 * i - 1000 + random.nextInt(5);
+            coefficients[i] = random.nextInt(20) - 10;
+            others[i] = (i % 2 == 0) ? coefficients[i] : random.nextInt(1000);
+        }
+        SparsePolynomial a = SparsePolynomial.fromTerms(exponents, coefficients);
+        SparsePolynomial b = SparsePolynomial.fromTerms(exponents, others);
+        CompressedPolynomial ca = CompressedPolynomial.of(a);
+        CompressedPolynomial cb = CompressedPolynomial.of(b);
+
+        //testing that sums and differences, decoded on the fly, agree with the sparse ones
+        assertEquals(a.add(b), ca.add(cb));
+        assertEquals(a.subtract(b), ca.subtract(cb));
+        assertEquals(a.subtract(b), ca.subtract(b));
+        assertTrue(ca.subtract(cb).wellFormed());
+        assertTrue(ca.subtract(ca).isZero());
+        assertEquals(a.minus(), ca.minus());
+        assertEquals(CompressedPolynomial.of(a.add(b)), ca.add(cb));
+
+        //testing that products agree with the sparse ones
+        CompressedPolynomial small = new CompressedPolynomial("3x^2 + -1x + 7");
+        assertEquals(a.multiply(new SparsePolynomial("3x^2 + -1x + 7")), ca.multiply(small));
+        assertEquals(new SparsePolynomial("9x^4 + -6x^3 + 43x^2 + -14x + 49"), small.multiply(small));
+        assertTrue(small.multiply(new DensePolynomial("0")).isZero());
+        assertThrows(NullPointerException.class, () -> ca.add(null));
+        assertThrows(NullPointerException.class, () -> ca.multiply(null));
+    }
+
+    @Test
+    void testTermSpliterator() {
+        Random random = new Random(45);
+        int[] exponents = new int[1000];
+        int[] coefficients = new int[1000];
+        for(int i = 0; i < exponents.length; i++) {
+            exponents[i] = 3 * i - 700 + random.nextInt(3);
+            coefficients[i] = random.nextInt(2000) - 1000;
+            coefficients[i] += (coefficients[i] == 0) ? 1 : 0;
+        }
+        SparsePolynomial sparse = SparsePolynomial.fromTerms(exponents, coefficients);
+        CompressedPolynomial p = CompressedPolynomial.of(sparse);
+        long[] expected = StreamSupport.longStream(sparse.termSpliterator(), false).toArray();
+
+        //testing that the decoding spliterator yields every term in order and splits at block boundaries
+        assertArrayEquals(expected, StreamSupport.longStream(p.termSpliterator(), false).toArray());
+        assertArrayEquals(expected, StreamSupport.longStream(p.termSpliterator(), true).toArray());
+        Spliterator.OfLong suffix = p.termSpliterator();
+        assertEquals(1000, suffix.estimateSize());
+        for(int i = 0; i < 200; i++) {
+            assertTrue(suffix.tryAdvance((long term) -> { }));
+        }
+        Spliterator.OfLong prefix = suffix.trySplit();
+        assertEquals(800, prefix.estimateSize() + suffix.estimateSize());
+        assertEquals(0, (1000 - suffix.estimateSize()) % CompressedPolynomial.BLOCK);
+        long[] first = {0};
+        prefix.tryAdvance((long term) -> first[0] = term);
+        assertEquals(expected[200], first[0]);
+        assertEquals(sparse, p);
+        assertEquals(p, sparse);
+        assertNotEquals(p, sparse.add(new SparsePolynomial("x^5000")));
+    }
+}
@@ -0,0 +1,623 @@
+import java.util.Arrays;
+
+/**
+ * Multiplication kernels over coefficient arrays, where index i holds the coefficient of x^i.  All arithmetic wraps
+ * around on overflow exactly as int arithmetic does, so every kernel gives the same result as the schoolbook loop.
+ *
+ * multiply picks a kernel from the length of the shorter factor, using the crossover points in MultiplyTuning:
+ * <ul>
+ *     <li>the plain schoolbook loop for very short factors,</li>
+ *     <li>a register- and cache-blocked schoolbook loop, which sums four products per output element in registers and
+ *     walks the second factor in blocks that stay in the L1 cache,</li>
+ *     <li>Karatsuba's method, cutting the longer factor into pieces as long as the shorter one, with every temporary
+ *     of the recursion carved out of one scratch array from ScratchArena,</li>
+ *     <li>a number-theoretic transform modulo three primes, whose residues are combined with the Chinese remainder
+ *     theorem into the exact product and then reduced modulo 2^32.</li>
+ * </ul>
+ * range computes only a slice of the coefficients of a product, for truncated and middle products.
+ *
+ * Every kernel passes through Checkpoint.reached at block boundaries, so an asynchronous computation can be cancelled
+ * or timed out part way through a long product, and work estimates how many units of work those calls add up to.
+ */
+final class DenseKernels {
+
+    /**
+     * Number of coefficients of the second factor the blocked kernel keeps in cache at once
+     */
+    static final int BLOCK = 256;
+
+    /**
+     * The three primes of the transform, each of the form c * 2^k + 1, with 3 as a primitive root of each
+     */
+    private static final int P1 = 998244353;
+    private static final int P2 = 167772161;
+    private static final int P3 = 469762049;
+
+    /**
+     * The largest transform length all three primes support.  Products this short have coefficients below
+     * min(m, n) * 2^64 < P1 * P2 * P3 when read as unsigned, so the Chinese remainder theorem recovers them exactly.
+     */
+    static final int MAX_TRANSFORM = 1 << 23;
+
+    /**
+     * Number of rows of a schoolbook loop between two checkpoints
+     */
+    private static final int CHECK_ROWS = 1 << 12;
+
+    private DenseKernels() {
+    }
+
+    /**
+     * Returns the product of two coefficient arrays using the kernel that MultiplyTuning picks for their lengths
+     * Precondition: a and b are not empty
+     * Postcondition: returns the coefficients of a * b, of length a.length + b.length - 1; a and b are not modified
+     *
+     * @param a the coefficients of the first factor
+     * @param b the coefficients of the second factor
+     * @return the coefficients of the product
+     */
+    static int[] multiply(int[] a, int[] b) {
+        MultiplyTuning tuning = MultiplyTuning.current();
+        int n = Math.min(a.length, b.length);
+        if(n < tuning.blockedThreshold()) {
+            return schoolbook(a, b);
+        }
+        if(n < tuning.karatsubaThreshold()) {
+            return blocked(a, b);
+        }
+        if(n < tuning.transformThreshold() || a.length + b.length - 1 > MAX_TRANSFORM) {
+            return karatsuba(a, b, tuning.karatsubaThreshold());
+        }
+        return transform(a, b);
+    }
+
+    /**
+     * Estimates the units of work multiply reports to Checkpoint.reached for factors of lengths m and n: one per pair
+     * of coefficients for the schoolbook kernels and for the leaves of Karatsuba's recursion, and one per butterfly
+     * for the nine transforms of the three primes.
+     * Precondition: m and n are positive
+     *
+     * @param m the length of the first factor
+     * @param n the length of the second factor
+     * @return the estimated work of the product
+     */
+    static long work(int m, int n) {
+        MultiplyTuning tuning = MultiplyTuning.current();
+        int shorter = Math.min(m, n);
+        int longer = Math.max(m, n);
+        if(shorter < tuning.karatsubaThreshold()) {
+            return (long) m * n;
+        }
+        if(shorter < tuning.transformThreshold() || (long) m + n - 1 > MAX_TRANSFORM) {
+            return ((longer + shorter - 1L) / shorter) * karatsubaWork(shorter, tuning.karatsubaThreshold());
+        }
+        int size = Integer.highestOneBit(Math.max(1, m + n - 2)) << 1;
+        return 9L * (size >> 1) * Integer.numberOfTrailingZeros(size);
+    }
+
+    /**
+     * Returns the number of coefficient pairs the leaves of Karatsuba's recursion multiply for factors of length n.
+     * The pieces of one level have at most two lengths, so the recursion follows both.
+     */
+    private static long karatsubaWork(int n, int threshold) {
+        if(n < threshold) {
+            return (long) n * n;
+        }
+        int low = n / 2;
+        int high = n - low;
+        long highWork = karatsubaWork(high, threshold);
+        return ((low == high) ? highWork : karatsubaWork(low, threshold)) + 2 * highWork;
+    }
+
+    /**
+     * Returns the coefficients of x^from up to x^(to - 1) of the product of two coefficient arrays, without computing
+     * the others.  Only the entries of each factor that can reach the range take part.  Short factors are multiplied
+     * with a schoolbook loop over the band of pairs that land in the range.  Long factors use a cyclic transform just
+     * long enough that the unwanted coefficients wrap around onto each other and not onto the range, which for the
+     * middle third of a 2n by n product is half the length a full product needs.  In between, the trimmed factors
+     * are multiplied in full.
+     * Precondition: a and b are not empty and 0 &lt;= from &lt;= to
+     * Postcondition: returns an array of length to - from whose entry k is the coefficient of x^(from + k) in a * b;
+     * a and b are not modified
+     *
+     * @param a the coefficients of the first factor
+     * @param b the coefficients of the second factor
+     * @param from the lowest degree returned
+     * @param to one past the highest degree returned
+     * @return the coefficients of the product in the range
+     */
+    static int[] range(int[] a, int[] b, int from, int to) {
+        int[] out = new int[to - from];
+        int m = a.length;
+        int n = b.length;
+        int aFrom = Math.max(0, from - (n - 1));
+        int bFrom = Math.max(0, from - (m - 1));
+        int la = Math.min(m, to) - aFrom;
+        int lb = Math.min(n, to) - bFrom;
+        if(la <= 0 || lb <= 0) {
+            return out;
+        }
+        // the wanted coefficients are [low, high) of the product of the trimmed factors, which has length la + lb - 1
+        int low = from - aFrom - bFrom;
+        int high = Math.min(to - aFrom - bFrom, la + lb - 1);
+        if(low >= high) {
+            return out;
+        }
+
+        MultiplyTuning tuning = MultiplyTuning.current();
+        int shorter = Math.min(la, lb);
+        if(shorter < tuning.karatsubaThreshold()) {
+            for(int i = 0; i < la; i++) {
+                if((i & (CHECK_ROWS - 1)) == CHECK_ROWS - 1) {
+                    Checkpoint.reached((long) CHECK_ROWS * shorter);
+                }
+                int ai = a[aFrom + i];
+                if(ai == 0) {
+                    continue;
+                }
+                int last = Math.min(lb, high - i);
+                for(int j = Math.max(0, low - i); j < last; j++) {
+                    out[i + j - low] += ai * b[bFrom + j];
+                }
+            }
+            return out;
+        }
+        if(shorter >= tuning.transformThreshold()) {
+            int size = Integer.highestOneBit(Math.max(1, Math.max(high, la + lb - 1 - low) - 1)) << 1;
+            if(size <= MAX_TRANSFORM && la <= size && lb <= size && shorter <= MAX_TRANSFORM / 2) {
+                int[] wanted = cyclic(a, aFrom, la, b, bFrom, lb, size, low, high - low, 0);
+                System.arraycopy(wanted, 0, out, 0, wanted.length);
+                return out;
+            }
+        }
+        int[] product = multiply(Arrays.copyOfRange(a, aFrom, aFrom + la), Arrays.copyOfRange(b, bFrom, bFrom + lb));
+        System.arraycopy(product, low, out, 0, high - low);
+        return out;
+    }
+
+    /**
+     * Returns the coefficients of x^from up to x^(to - 1) of the product of two coefficient arrays modulo a prime, for
+     * the modular power series.  Like range, only the entries of each factor that can reach the range take part.
+     * Short factors are multiplied with a schoolbook loop over the band of pairs, summing each coefficient in a long
+     * that is only reduced when it grows past 2^62.  Long factors use the cyclic transform, with the exact coefficients
+     * reduced modulo p instead of 2^32.  There is no Karatsuba tier, as Karatsuba's subtractions need a ring in which
+     * the kernels wrap around, and int arithmetic only wraps around modulo 2^32.
+     * Precondition: a and b are not empty, 0 &lt;= from &lt;= to, p is positive and every entry of a and b is in
+     * [0, p)
+     * Postcondition: returns an array of length to - from whose entry k is the coefficient of x^(from + k) in a * b
+     * modulo p, in [0, p); a and b are not modified
+     *
+     * @param a the coefficients of the first factor
+     * @param b the coefficients of the second factor
+     * @param from the lowest degree returned
+     * @param to one past the highest degree returned
+     * @param p the modulus
+     * @return the coefficients of the product in the range, modulo p
+     */
+    static int[] rangeMod(int[] a, int[] b, int from, int to, int p) {
+        int[] out = new int[to - from];
+        int m = a.length;
+        int n = b.length;
+        int aFrom = Math.max(0, from - (n - 1));
+        int bFrom = Math.max(0, from - (m - 1));
+        int la = Math.min(m, to) - aFrom;
+        int lb = Math.min(n, to) - bFrom;
+        if(la <= 0 || lb <= 0) {
+            return out;
+        }
+        int low = from - aFrom - bFrom;
+        int high = Math.min(to - aFrom - bFrom, la + lb - 1);
+        if(low >= high) {
+            return out;
+        }
+
+        int shorter = Math.min(la, lb);
+        if(shorter >= MultiplyTuning.current().karatsubaThreshold()) {
+            int size = Integer.highestOneBit(Math.max(1, Math.max(high, la + lb - 1 - low) - 1)) << 1;
+            if(size <= MAX_TRANSFORM && la <= size && lb <= size && shorter <= MAX_TRANSFORM / 2) {
+                int[] wanted = cyclic(a, aFrom, la, b, bFrom, lb, size, low, high - low, p);
+                System.arraycopy(wanted, 0, out, 0, wanted.length);
+                return out;
+            }
+        }
+        for(int k = low; k < high; k++) {
+            if(((k - low) & (CHECK_ROWS - 1)) == CHECK_ROWS - 1) {
+                Checkpoint.reached((long) CHECK_ROWS * shorter);
+            }
+            long sum = 0;
+            int last = Math.min(k, la - 1);
+            for(int i = Math.max(0, k - lb + 1); i <= last; i++) {
+                // each product is below 2^62, so the sum cannot pass 2^63 before it is reduced
+                sum += (long) a[aFrom + i] * b[bFrom + k - i];
+                if(sum >= 1L << 62) {
+                    sum %= p;
+                }
+            }
+            out[k - low] = (int) (sum % p);
+        }
+        return out;
+    }
+
+    /**
+     * Returns the product of two coefficient arrays with the plain schoolbook loop
+     *
+     * @param a the coefficients of the first factor
+     * @param b the coefficients of the second factor
+     * @return the coefficients of the product
+     */
+    static int[] schoolbook(int[] a, int[] b) {
+        int[] prod = new int[a.length + b.length - 1];
+        schoolbook(a, 0, a.length, b, 0, b.length, prod, 0);
+        return prod;
+    }
+
+    /**
+     * Adds the product of a[aFrom, aFrom + m) and b[bFrom, bFrom + n) into out starting at outFrom
+     */
+    static void schoolbook(int[] a, int aFrom, int m, int[] b, int bFrom, int n, int[] out, int outFrom) {
+        for(int i = 0; i < m; i++) {
+            if((i & (CHECK_ROWS - 1)) == CHECK_ROWS - 1) {
+                Checkpoint.reached((long) CHECK_ROWS * n);
+            }
+            int ai = a[aFrom + i];
+            if(ai == 0) {
+                continue;
+            }
+            int o = outFrom + i;
+            for(int j = 0; j < n; j++) {
+                out[o + j] += ai * b[bFrom + j];
+            }
+        }
+    }
+
+    /**
+     * Returns the product of two coefficient arrays with the blocked schoolbook kernel
+     *
+     * @param a the coefficients of the first factor
+     * @param b the coefficients of the second factor
+     * @return the coefficients of the product
+     */
+    static int[] blocked(int[] a, int[] b) {
+        int[] prod = new int[a.length + b.length - 1];
+        blocked(a, 0, a.length, b, 0, b.length, prod, 0);
+        return prod;
+    }
+
+    /**
+     * Adds the product of a[aFrom, aFrom + m) and b[bFrom, bFrom + n) into out starting at outFrom.  b is walked in
+     * blocks of BLOCK coefficients; for each block, four coefficients of a at a time are applied, so every output
+     * element is loaded and stored once per four products and the running sum stays in a register.
+     */
+    static void blocked(int[] a, int aFrom, int m, int[] b, int bFrom, int n, int[] out, int outFrom) {
+        int quads = m & ~3;
+        for(int jb = 0; jb < n; jb += BLOCK) {
+            int je = Math.min(n, jb + BLOCK);
+            for(int i = 0; i < quads; i += 4) {
+                int a0 = a[aFrom + i];
+                int a1 = a[aFrom + i + 1];
+                int a2 = a[aFrom + i + 2];
+                int a3 = a[aFrom + i + 3];
+                int o = outFrom + i;
+                // out[o + t] receives a_r * b[t - r] for every r with jb <= t - r < je
+                int head = Math.min(jb + 3, je);
+                for(int t = jb; t < head; t++) {
+                    out[o + t] += quadSum(a0, a1, a2, a3, b, bFrom, t, jb, je);
+                }
+                for(int t = jb + 3; t < je; t++) {
+                    int bt = bFrom + t;
+                    out[o + t] += a0 * b[bt] + a1 * b[bt - 1] + a2 * b[bt - 2] + a3 * b[bt - 3];
+                }
+                for(int t = Math.max(je, head); t < je + 3; t++) {
+                    out[o + t] += quadSum(a0, a1, a2, a3, b, bFrom, t, jb, je);
+                }
+            }
+            for(int i = quads; i < m; i++) {
+                int ai = a[aFrom + i];
+                int o = outFrom + i;
+                for(int j = jb; j < je; j++) {
+                    out[o + j] += ai * b[bFrom + j];
+                }
+            }
+            Checkpoint.reached((long) m * (je - jb));
+        }
+    }
+
+    /**
+     * Sums a_r * b[t - r] over the r in 0..3 with jb <= t - r < je
+     */
+    private static int quadSum(int a0, int a1, int a2, int a3, int[] b, int bFrom, int t, int jb, int je) {
+        int sum = 0;
+        if(t >= jb && t < je) {
+            sum += a0 * b[bFrom + t];
+        }
+        if(t - 1 >= jb && t - 1 < je) {
+            sum += a1 * b[bFrom + t - 1];
+        }
+        if(t - 2 >= jb && t - 2 < je) {
+            sum += a2 * b[bFrom + t - 2];
+        }
+        if(t - 3 >= jb && t - 3 < je) {
+            sum += a3 * b[bFrom + t - 3];
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the product of two coefficient arrays with Karatsuba's method, multiplying pieces shorter than threshold
+     * with the blocked kernel
+     * Precondition: threshold is at least 2
+     *
+     * @param a the coefficients of the first factor
+     * @param b the coefficients of the second factor
+     * @param threshold the length below which the recursion stops
+     * @return the coefficients of the product
+     */
+    static int[] karatsuba(int[] a, int[] b, int threshold) {
+        if(a.length < b.length) {
+            int[] t = a;
+            a = b;
+            b = t;
+        }
+        int m = a.length;
+        int n = b.length;
+        if(n < threshold) {
+            return blocked(a, b);
+        }
+        int[] prod = new int[m + n - 1];
+        int[] scratch = ScratchArena.acquire(3 * n + karatsubaScratch(n, threshold));
+        try {
+            int piece = 0;
+            int product = n;
+            int work = 3 * n;
+            for(int c = 0; c < m; c += n) {
+                int length = Math.min(n, m - c);
+                int[] source = a;
+                int offset = c;
+                if(length < n) {
+                    System.arraycopy(a, c, scratch, piece, length);
+                    Arrays.fill(scratch, piece + length, piece + n, 0);
+                    source = scratch;
+                    offset = piece;
+                }
+                karatsuba(source, offset, b, 0, n, scratch, product, scratch, work, threshold);
+                int count = Math.min(2 * n - 1, prod.length - c);
+                for(int k = 0; k < count; k++) {
+                    prod[c + k] += scratch[product + k];
+                }
+            }
+        }
+        finally {
+            ScratchArena.release(scratch);
+        }
+        return prod;
+    }
+
+    /**
+     * Returns the number of scratch ints karatsuba needs for factors of length n
+     */
+    static int karatsubaScratch(int n, int threshold) {
+        int total = 0;
+        while(n >= threshold) {
+            int high = n - n / 2;
+            total += 4 * high;
+            n = high;
+        }
+        return total;
+    }
+
+    /**
+     * Writes the product of a[aFrom, aFrom + n) and b[bFrom, bFrom + n) to out[outFrom, outFrom + 2n), the last entry
+     * being 0, using karatsubaScratch(n) ints of scratch starting at sFrom.  out and scratch may be the same array as
+     * long as the regions do not overlap.
+     */
+    private static void karatsuba(int[] a, int aFrom, int[] b, int bFrom, int n, int[] out, int outFrom,
+                                  int[] scratch, int sFrom, int threshold) {
+        if(n < threshold) {
+            Arrays.fill(out, outFrom, outFrom + 2 * n, 0);
+            blocked(a, aFrom, n, b, bFrom, n, out, outFrom);
+            return;
+        }
+        int low = n / 2;
+        int high = n - low;
+
+        // z0 = a0 * b0 in out[0, 2 low) and z2 = a1 * b1 in out[2 low, 2n)
+        karatsuba(a, aFrom, b, bFrom, low, out, outFrom, scratch, sFrom, threshold);
+        karatsuba(a, aFrom + low, b, bFrom + low, high, out, outFrom + 2 * low, scratch, sFrom, threshold);
+
+        // z1 = (a0 + a1) * (b0 + b1) - z0 - z2, added in at offset low
+        int sa = sFrom;
+        int sb = sFrom + high;
+        int z1 = sFrom + 2 * high;
+        for(int i = 0; i < high; i++) {
+            scratch[sa + i] = a[aFrom + low + i] + ((i < low) ? a[aFrom + i] : 0);
+            scratch[sb + i] = b[bFrom + low + i] + ((i < low) ? b[bFrom + i] : 0);
+        }
+        karatsuba(scratch, sa, scratch, sb, high, scratch, z1, scratch, sFrom + 4 * high, threshold);
+        for(int k = 0; k < 2 * low; k++) {
+            scratch[z1 + k] -= out[outFrom + k];
+        }
+        for(int k = 0; k < 2 * high; k++) {
+            scratch[z1 + k] -= out[outFrom + 2 * low + k];
+        }
+        for(int k = 0; k < 2 * high; k++) {
+            out[outFrom + low + k] += scratch[z1 + k];
+        }
+    }
+
+    /**
+     * Returns the product of two coefficient arrays with number-theoretic transforms modulo P1, P2 and P3.  The factors
+     * are read as unsigned, the residues of each product coefficient are combined with Garner's form of the Chinese
+     * remainder theorem, and the exact value is reduced modulo 2^32, which is the wrapped int result.
+     * Precondition: a.length + b.length - 1 is at most MAX_TRANSFORM
+     *
+     * @param a the coefficients of the first factor
+     * @param b the coefficients of the second factor
+     * @return the coefficients of the product
+     */
+    static int[] transform(int[] a, int[] b) {
+        int length = a.length + b.length - 1;
+        if(length > MAX_TRANSFORM) {
+            throw new IllegalArgumentException("Product is too long for the transform");
+        }
+        int size = Integer.highestOneBit(Math.max(1, length - 1)) << 1;
+        return cyclic(a, 0, a.length, b, 0, b.length, size, 0, length, 0);
+    }
+
+    /**
+     * Returns entries [from, from + count) of the cyclic convolution of length size of a[aFrom, aFrom + m) and
+     * b[bFrom, bFrom + n), that is of their product with the coefficient of x^k added into index k modulo size.  The
+     * three residues of each entry are combined with Garner's form of the Chinese remainder theorem and the exact value
+     * is reduced modulo 2^32, which is the wrapped int result, or modulo modulus when it is not 0.  The exact value
+     * stays below P1 P2 P3 as long as no entry sums more than MAX_TRANSFORM / 2 products.
+     * Precondition: size is a power of two of at most MAX_TRANSFORM, m and n are at most size, min(m, n) is at most
+     * MAX_TRANSFORM / 2, from + count &lt;= size, and modulus is 0 or a positive int
+     */
+    private static int[] cyclic(int[] a, int aFrom, int m, int[] b, int bFrom, int n, int size, int from, int count,
+                                int modulus) {
+        int[] prod = new int[count];
+        int[] scratch = ScratchArena.acquire(2 * size + count);
+        try {
+            // residues modulo P1 go to prod, modulo P2 to the third region of scratch, modulo P3 stay in scratch
+            convolve(a, aFrom, m, b, bFrom, n, size, P1, scratch);
+            System.arraycopy(scratch, from, prod, 0, count);
+            convolve(a, aFrom, m, b, bFrom, n, size, P2, scratch);
+            System.arraycopy(scratch, from, scratch, 2 * size, count);
+            convolve(a, aFrom, m, b, bFrom, n, size, P3, scratch);
+
+            long p1InverseModP2 = power(P1, P2 - 2, P2);
+            long p1p2ModP3 = (long) P1 * P2 % P3;
+            long p1p2InverseModP3 = power(p1p2ModP3, P3 - 2, P3);
+            long p1p2 = (long) P1 * P2;
+            long p1p2ModModulus = (modulus == 0) ? 0 : p1p2 % modulus;
+            for(int k = 0; k < count; k++) {
+                long x1 = prod[k];
+                long t2 = (scratch[2 * size + k] - x1 % P2 + P2) % P2 * p1InverseModP2 % P2;
+                long x12 = (x1 + (long) P1 * t2) % P3;
+                long t3 = (scratch[from + k] - x12 + P3) % P3 * p1p2InverseModP3 % P3;
+                // x1 + P1 t2 + P1 P2 t3 is the exact coefficient; long arithmetic keeps it modulo 2^64
+                prod[k] = (modulus == 0) ? (int) (x1 + (long) P1 * t2 + p1p2 * t3)
+                        : (int) (((x1 + (long) P1 * t2) % modulus + p1p2ModModulus * t3) % modulus);
+            }
+        }
+        finally {
+            ScratchArena.release(scratch);
+        }
+        return prod;
+    }
+
+    /**
+     * Leaves the cyclic convolution of a[aFrom, aFrom + m) and b[bFrom, bFrom + n) modulo p, of length size, in
+     * scratch[0, size), using scratch[size, 2 size) for the transform of b.  Twiddle factors are kept in Montgomery
+     * form, so each butterfly reduces its product with one Montgomery step instead of a division while the data stays
+     * in ordinary form.
+     */
+    private static void convolve(int[] a, int aFrom, int m, int[] b, int bFrom, int n, int size, int p, int[] scratch) {
+        int pInverse = montgomeryInverse(p);
+        for(int i = 0; i < size; i++) {
+            scratch[i] = (i < m) ? (int) (Integer.toUnsignedLong(a[aFrom + i]) % p) : 0;
+            scratch[size + i] = (i < n) ? (int) (Integer.toUnsignedLong(b[bFrom + i]) % p) : 0;
+        }
+        int[] roots = twiddles(size, p, false);
+        ntt(scratch, 0, size, p, pInverse, roots);
+        ntt(scratch, size, size, p, pInverse, roots);
+        for(int i = 0; i < size; i++) {
+            scratch[i] = montgomery(scratch[i], scratch[size + i], p, pInverse);
+        }
+        ntt(scratch, 0, size, p, pInverse, twiddles(size, p, true));
+        // the pointwise products carry a factor 1/R, and the inverse transform a factor size
+        int scale = (int) (power(size, p - 2, p) * (((1L << 32) % p) * ((1L << 32) % p) % p) % p);
+        for(int i = 0; i < size; i++) {
+            scratch[i] = montgomery(scratch[i], scale, p, pInverse);
+        }
+    }
+
+    /**
+     * Returns w^j * 2^32 modulo p for j below size / 2, where w is a primitive size-th root of unity modulo p, or its
+     * inverse
+     */
+    private static int[] twiddles(int size, int p, boolean inverse) {
+        int[] roots = new int[Math.max(1, size / 2)];
+        long w = power(3, (p - 1) / size, p);
+        if(inverse) {
+            w = power(w, p - 2, p);
+        }
+        long root = (1L << 32) % p;
+        for(int j = 0; j < roots.length; j++) {
+            roots[j] = (int) root;
+            root = root * w % p;
+        }
+        return roots;
+    }
+
+    /**
+     * Transforms f[from, from + size) in place modulo p without scaling, using twiddles(size, p, inverse) in roots
+     * Precondition: size is a power of two that divides p - 1, 3 is a primitive root modulo p and p is below 2^30
+     */
+    static void ntt(int[] f, int from, int size, int p, int pInverse, int[] roots) {
+        for(int i = 1, j = 0; i < size; i++) {
+            int bit = size >> 1;
+            for(; (j & bit) != 0; bit >>= 1) {
+                j ^= bit;
+            }
+            j ^= bit;
+            if(i < j) {
+                int t = f[from + i];
+                f[from + i] = f[from + j];
+                f[from + j] = t;
+            }
+        }
+        for(int length = 2; length <= size; length <<= 1) {
+            int half = length >> 1;
+            int stride = size / length;
+            for(int i = from; i < from + size; i += length) {
+                for(int j = 0; j < half; j++) {
+                    int u = f[i + j];
+                    int v = montgomery(f[i + j + half], roots[j * stride], p, pInverse);
+                    int sum = u + v;
+                    f[i + j] = (sum >= p) ? sum - p : sum;
+                    int difference = u - v;
+                    f[i + j + half] = (difference < 0) ? difference + p : difference;
+                }
+            }
+            Checkpoint.reached(size >> 1);
+        }
+    }
+
+    /**
+     * Returns x * y / 2^32 modulo p
+     * Precondition: x and y are in [0, p), p is odd and below 2^30, and pInverse is montgomeryInverse(p)
+     */
+    private static int montgomery(int x, int y, int p, int pInverse) {
+        long t = (long) x * y;
+        long m = ((int) t * pInverse) & 0xFFFFFFFFL;
+        int u = (int) ((t + m * p) >>> 32);
+        return (u >= p) ? u - p : u;
+    }
+
+    /**
+     * Returns -1 / p modulo 2^32 by Newton iteration
+     */
+    private static int montgomeryInverse(int p) {
+        int inverse = p;
+        for(int i = 0; i < 5; i++) {
+            inverse *= 2 - p * inverse;
+        }
+        return -inverse;
+    }
+
+    /**
+     * Returns base^exponent modulo p
+     */
+    static long power(long base, long exponent, long p) {
+        long result = 1;
+        base %= p;
+        while(exponent > 0) {
+            if((exponent & 1) == 1) {
+                result = result * base % p;
+            }
+            base = base * base % p;
+            exponent >>= 1;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,99 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DenseKernelsTest {
+
+    private static int[] randomArray(Random random, int n) {
+        int[] a = new int[n];
+        for(int i = 0; i < n; i++) {
+            a[i] = random.nextInt();
+        }
+        return a;
+    }
+
+    @Test
+    void testKernelsAgree() {
+        Random random = new Random(37);
+        int[][] sizes = {{1, 1}, {1, 9}, {3, 5}, {4, 4}, {7, 300}, {255, 257}, {256, 513}, {600, 64}, {1000, 1000},
+                {3000, 40}};
+        for(int[] size: sizes) {
+            int[] a = randomArray(random, size[0]);
+            int[] b = randomArray(random, size[1]);
+            int[] expected = DenseKernels.schoolbook(a, b);
+
+            //testing that every kernel wraps around exactly like the schoolbook loop
+            assertArrayEquals(expected, DenseKernels.blocked(a, b));
+            assertArrayEquals(expected, DenseKernels.karatsuba(a, b, 2));
+            assertArrayEquals(expected, DenseKernels.karatsuba(a, b, 33));
+            assertArrayEquals(expected, DenseKernels.transform(a, b));
+            assertArrayEquals(expected, DenseKernels.multiply(a, b));
+        }
+
+        //testing the transform on extreme coefficients
+        int[] extremes = {Integer.MIN_VALUE, Integer.MAX_VALUE, -1, 0, 1, Integer.MIN_VALUE, -1};
+        assertArrayEquals(DenseKernels.schoolbook(extremes, extremes), DenseKernels.transform(extremes, extremes));
+    }
+
+    @Test
+    void testDispatch() {
+        Random random = new Random(38);
+        MultiplyTuning saved = MultiplyTuning.current();
+        try {
+            int[] a = randomArray(random, 200);
+            int[] b = randomArray(random, 150);
+            int[] expected = DenseKernels.schoolbook(a, b);
+
+            //testing that every choice of thresholds gives the same product
+            int[][] thresholds = {{1, 2, 2}, {1, 2, 1 << 20}, {1, 1 << 20, 1 << 20}, {1 << 20, 1 << 20, 1 << 20},
+                    {8, 64, 128}};
+            for(int[] t: thresholds) {
+                MultiplyTuning.install(new MultiplyTuning(t[0], t[1], t[2]));
+                assertArrayEquals(expected, DenseKernels.multiply(a, b));
+                assertEquals(DensePolynomial.fromCoefficients(expected),
+                        DensePolynomial.fromCoefficients(a).multiply(DensePolynomial.fromCoefficients(b)));
+            }
+        }
+        finally {
+            MultiplyTuning.install(saved);
+        }
+    }
+
+    @Test
+    void testRange() {
+        Random random = new Random(41);
+        MultiplyTuning saved = MultiplyTuning.current();
+        try {
+            int[][] sizes = {{1, 1}, {5, 3}, {64, 32}, {300, 150}, {1000, 1000}, {2048, 1024}};
+            //testing that every slice of the product matches the full product, whichever kernel computes it
+            int[][] thresholds = {{1, 1 << 20, 1 << 20}, {1, 16, 1 << 20}, {1, 16, 16}};
+            for(int[] t: thresholds) {
+                MultiplyTuning.install(new MultiplyTuning(t[0], t[1], t[2]));
+                for(int[] size: sizes) {
+                    int[] a = randomArray(random, size[0]);
+                    int[] b = randomArray(random, size[1]);
+                    int[] full = DenseKernels.schoolbook(a, b);
+                    int m = size[0];
+                    int n = size[1];
+                    int[][] ranges = {{0, 1}, {0, n}, {n - 1, m}, {m / 2, m + n / 2}, {0, m + n - 1}, {m + n - 3, m + n + 4},
+                            {m + n + 5, m + n + 9}, {3, 3}};
+                    for(int[] range: ranges) {
+                        int from = Math.max(0, range[0]);
+                        int to = Math.max(from, range[1]);
+                        int[] expected = new int[to - from];
+                        for(int k = from; k < to && k < full.length; k++) {
+                            expected[k - from] = full[k];
+                        }
+                        assertArrayEquals(expected, DenseKernels.range(a, b, from, to));
+                        assertArrayEquals(expected, DenseKernels.range(b, a, from, to));
+                    }
+                }
+            }
+        }
+        finally {
+            MultiplyTuning.install(saved);
+        }
+    }
+}
@@ -1,11 +1,29 @@
-import java.util.ArrayList;
+import java.nio.IntBuffer;
 import java.util.Arrays;
-import java.util.NavigableSet;
-import java.util.TreeMap;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * A polynomial whose coefficients are stored in an array indexed by degree.  Instances are immutable: every field but
+ * the term-array cache is final and the coefficient array never escapes, so a DensePolynomial can be shared between
+ * threads without copying.  The cache is a volatile field filled lazily by termArrays; threads that race may each
+ * build it, but every copy holds the same terms, so the race is benign.  The array is always normalized to length
+ * degree() + 1, with a non-zero last entry unless it is the zero polynomial {0}, so the degree, zero flag and hash
+ * code are fixed at construction.
+ */
+public class DensePolynomial implements Polynomial, TermSource {
+    /**
+     * Quotients or divisors with fewer coefficients than this are found by long division
+     */
+    private static final int LONG_DIVISION_THRESHOLD = 64;
 
-public class DensePolynomial implements Polynomial {
-    private int[] coefficients;
-    private String input;
+    private final int[] coefficients;
+    private final String input;
+    private final int degree;
+    private final boolean zero;
+    private final int hash;
+    private volatile TermArrays terms;
 
     /**
      * Creates an instance of a DensePolynomial object from the canonical string representation
@@ -15,84 +33,227 @@ public class DensePolynomial implements Polynomial {
      * @throws IllegalArgumentException if a coefficient or degree are not integers or we are given a string that is not canonical 
      */
     public DensePolynomial(String s) {
-        this.input = s;
-        if(wellFormed() == false) {
-            throw new IllegalArgumentException("The input string given is invalid");
-        }
-
-
-        input = input.replace(" - ", " + -");
-        String[] terms = input.split("\\+");
-
-        ArrayList<Integer> coefficients = new ArrayList<Integer>();
-        ArrayList<Integer> degrees = new ArrayList<Integer>();
-
-        for(String term: terms) {
-            term = term.strip();
-            if(term.contains("x^")) {
-                if(term.charAt(0) == 'x') {
-                    term = term.replace("x^", "");
-                    int degree = Integer.parseInt(term);
-                    coefficients.add(1);
-                    degrees.add(degree);
-
-                }
-                else {
-                    String[] nums = term.split("x\\^");
-                    int coefficient = Integer.parseInt(nums[0]);
-                    int degree = Integer.parseInt(nums[1]);
-                    coefficients.add(coefficient);
-                    degrees.add(degree);
-                }
-
-            }
-
-            else if(term.contains("x")) {
-                if(term.equals("x")) {
-                    coefficients.add(1);
-                    degrees.add(1);
-                }
-                else if(term.equals("-x")){
-                    coefficients.add(-1);
-                    degrees.add(1);
-                }
-                else {
-                    String[] nums = term.split("x");
-                    int coefficient = Integer.parseInt(nums[0]);
-                    coefficients.add(coefficient);
-                    degrees.add(1);
-                }
-            }
-            else {
-                int coefficient = Integer.parseInt(term);
-                coefficients.add(coefficient);
-                degrees.add(0);
-            }
-
-        }
-
-        this.coefficients = new int[degrees.get(0)+1];
+        this(PolynomialParser.parse(s, false).toCoefficientArray(), s);
+    }
 
-        for(int i = 0; i < degrees.size(); i++) {
-            this.coefficients[degrees.get(i)] = coefficients.get(i);
-        }
+    /**
+     * Creates an instance of a DensePolynomial object from a canonical string that may be several megabytes long.  The
+     * string is cut into chunks at term boundaries, the chunks are parsed in parallel on the common fork-join pool, and
+     * the descending order of the exponents is checked across every cut.
+     * Precondition: String must not contain any negative numbers; Coefficients and degrees must both be integers
+     * Postcondition: Returns a DensePolynomial equal to new DensePolynomial(s)
+     * @param s the canonical string representation of a polynomial
+     * @return the polynomial represented by s
+     * @throws IllegalArgumentException if a coefficient or degree are not integers or we are given a string that is not canonical
+     */
+    public static DensePolynomial parseParallel(String s) {
+        return parseParallel(s, ForkJoinPool.commonPool());
+    }
 
+    /**
+     * Creates an instance of a DensePolynomial object from a canonical string, parsing chunks of it in parallel on pool
+     * Precondition: String must not contain any negative numbers; Coefficients and degrees must both be integers
+     * Postcondition: Returns a DensePolynomial equal to new DensePolynomial(s)
+     * @param s the canonical string representation of a polynomial
+     * @param pool the fork-join pool that parses the chunks
+     * @return the polynomial represented by s
+     * @throws NullPointerException if pool is null
+     * @throws IllegalArgumentException if a coefficient or degree are not integers or we are given a string that is not canonical
+     */
+    public static DensePolynomial parseParallel(String s, ForkJoinPool pool) {
+        return new DensePolynomial(PolynomialParser.parseParallel(s, false, pool).toCoefficientArray(), s);
     }
     
     
     /**
-     * Creates an instance of a DensePolynomial object from a coefficient array and using the toString method for the input
-     * Precondition: None
-     * Postcondition: Returns instance of DensePolynomial with coefficients represented in an array with indices representing degrees
+     * Creates an instance of a DensePolynomial object from a coefficient array.  No input string is kept, so no string
+     * work is done
+     * Precondition: coefficients is not shared with any other object, as the new instance takes ownership of it
+     * Postcondition: Returns instance of DensePolynomial with coefficients represented in an array with indices representing
+     * degrees, trimmed of leading zeros
      * @param coefficients the integer array 
      *  
      */
     private DensePolynomial(int[] coefficients) {
-    	this.coefficients = coefficients;
-    	if(this.isZero()){
-    	    this.coefficients = new int[]{0};
-        }
-    	this.input = this.toString();
+    	this(coefficients, null);
+    }
+
+    /**
+     * Creates an instance of a DensePolynomial object from a coefficient array and the string it was parsed from
+     * Precondition: coefficients is not shared with any other object, as the new instance takes ownership of it
+     * Postcondition: Returns instance of DensePolynomial with coefficients trimmed of leading zeros
+     * @param coefficients the integer array
+     * @param input the canonical string the coefficients were parsed from, or null if there was none
+     */
+    private DensePolynomial(int[] coefficients, String input) {
+    	int top = coefficients.length - 1;
+    	while(top > 0 && coefficients[top] == 0) {
+    		top--;
+    	}
+    	if(top < 0) {
+    		this.coefficients = new int[]{0};
+    		top = 0;
+    	}
+    	else {
+    		this.coefficients = (top == coefficients.length - 1) ? coefficients : Arrays.copyOf(coefficients, top + 1);
+    	}
+    	this.degree = top;
+    	this.zero = this.coefficients[top] == 0;
+    	this.hash = hashTerms(this.coefficients);
+    	this.input = input;
+    }
+
+    /**
+     * Creates a DensePolynomial from a coefficient array whose index i holds the coefficient of x^i.  The array is
+     * copied, so the caller may go on using it.
+     *
+     * Precondition: coefficients is not null
+     * Postcondition: returns a DensePolynomial with the given coefficients, trimmed of leading zeros
+     *
+     * @param coefficients the coefficients indexed by degree; an empty array gives the zero polynomial
+     * @return the polynomial with those coefficients
+     * @throws NullPointerException if coefficients is null
+     */
+    public static DensePolynomial fromCoefficients(int[] coefficients) {
+    	return fromCoefficients(coefficients, false);
+    }
+
+    /**
+     * Creates a DensePolynomial from a coefficient array whose index i holds the coefficient of x^i.  When takeOwnership
+     * is true the array becomes the storage of the new polynomial without being copied, unless it has leading zeros to
+     * trim, and the caller must not modify it afterwards.
+     *
+     * Precondition: coefficients is not null; if takeOwnership is true, coefficients is never modified again
+     * Postcondition: returns a DensePolynomial with the given coefficients, trimmed of leading zeros
+     *
+     * @param coefficients the coefficients indexed by degree; an empty array gives the zero polynomial
+     * @param takeOwnership whether the new polynomial may keep the array instead of copying it
+     * @return the polynomial with those coefficients
+     * @throws NullPointerException if coefficients is null
+     */
+    public static DensePolynomial fromCoefficients(int[] coefficients, boolean takeOwnership) {
+    	if(coefficients == null) {
+    		throw new NullPointerException("Argument is null");
+    	}
+    	return new DensePolynomial(takeOwnership ? coefficients : coefficients.clone());
+    }
+
+    /**
+     * Creates a DensePolynomial from parallel arrays of exponents and coefficients in any order.  Coefficients that share
+     * an exponent are added together.
+     *
+     * Precondition: exponents and coefficients are not null, have the same length and hold no negative exponent and
+     * no exponent of Integer.MAX_VALUE
+     * Postcondition: returns the DensePolynomial that is the sum of the given terms
+     *
+     * @param exponents the exponent of each term
+     * @param coefficients the coefficient of each term
+     * @return the polynomial with those terms
+     * @throws NullPointerException if either array is null
+     * @throws IllegalArgumentException if the arrays differ in length or an exponent is negative or too large for an
+     * array indexed by degree
+     */
+    public static DensePolynomial fromTerms(int[] exponents, int[] coefficients) {
+    	if(exponents == null || coefficients == null) {
+    		throw new NullPointerException("Argument is null");
+    	}
+    	if(exponents.length != coefficients.length) {
+    		throw new IllegalArgumentException("Exponents and coefficients must have the same length");
+    	}
+    	int max = 0;
+    	for(int exponent: exponents) {
+    		checkExponent(exponent);
+    		max = Math.max(max, exponent);
+    	}
+    	int[] dense = new int[max + 1];
+    	for(int i = 0; i < exponents.length; i++) {
+    		dense[exponents[i]] += coefficients[i];
+    	}
+    	return new DensePolynomial(dense);
+    }
+
+    /**
+     * Checks that a term of degree exponent can be stored in an array indexed by degree, which needs a length of
+     * exponent + 1
+     *
+     * @param exponent the degree of the term
+     * @throws IllegalArgumentException if exponent is negative or Integer.MAX_VALUE
+     */
+    private static void checkExponent(int exponent) {
+    	if(exponent < 0) {
+    		throw new IllegalArgumentException("DensePolynomial cannot have negative exponents");
+    	}
+    	if(exponent == Integer.MAX_VALUE) {
+    		throw new IllegalArgumentException("The degree is too large for DensePolynomial");
+    	}
+    }
+
+    /**
+     * Returns a new builder that assembles a DensePolynomial term by term without any string parsing
+     *
+     * @return an empty builder
+     */
+    public static Builder builder() {
+    	return new Builder();
+    }
+
+    /**
+     * Assembles a DensePolynomial term by term.  The coefficients live in a growable array indexed by degree, so adding a
+     * term costs O(1) amortized.  A builder is not thread-safe, but it may be reused after build().
+     */
+    public static final class Builder {
+    	private int[] coefficients = new int[8];
+    	private int length;
+
+    	private Builder() {
+    	}
+
+    	/**
+    	 * Adds coefficient to the coefficient of x^exponent
+    	 * Precondition: exponent is not negative and is less than Integer.MAX_VALUE
+    	 * Postcondition: the coefficient of x^exponent has grown by coefficient
+    	 * @param exponent the degree of the term
+    	 * @param coefficient the amount to add
+    	 * @return this builder
+    	 * @throws IllegalArgumentException if exponent is negative or Integer.MAX_VALUE
+    	 */
+    	public Builder addTerm(int exponent, int coefficient) {
+    		ensureDegree(exponent);
+    		coefficients[exponent] += coefficient;
+    		return this;
+    	}
+
+    	/**
+    	 * Replaces the coefficient of x^exponent
+    	 * Precondition: exponent is not negative and is less than Integer.MAX_VALUE
+    	 * Postcondition: the coefficient of x^exponent is coefficient
+    	 * @param exponent the degree of the term
+    	 * @param coefficient the new coefficient
+    	 * @return this builder
+    	 * @throws IllegalArgumentException if exponent is negative or Integer.MAX_VALUE
+    	 */
+    	public Builder setCoefficient(int exponent, int coefficient) {
+    		ensureDegree(exponent);
+    		coefficients[exponent] = coefficient;
+    		return this;
+    	}
+
+    	/**
+    	 * Creates a DensePolynomial from the terms added so far.  The builder keeps its terms and can go on growing.
+    	 * @return the polynomial built so far
+    	 */
+    	public DensePolynomial build() {
+    		return new DensePolynomial(Arrays.copyOf(coefficients, length));
+    	}
+
+    	private void ensureDegree(int exponent) {
+    		checkExponent(exponent);
+    		if(exponent >= coefficients.length) {
+    			long grown = Math.max(exponent + 1L, 2L * coefficients.length);
+    			coefficients = Arrays.copyOf(coefficients, (int) Math.min(grown, Integer.MAX_VALUE));
+    		}
+    		length = Math.max(length, exponent + 1);
+    	}
     }
 
     /**
@@ -103,12 +264,6 @@ public class DensePolynomial implements Polynomial {
      */
     @Override
     public int degree() {
-        int degree = 0; 
-        for(int i = 0; i < coefficients.length; i++) {
-        	if(coefficients[i] != 0) {
-        		degree = i; 
-        	}
-        }
         return degree;
     }
     
@@ -124,11 +279,10 @@ public class DensePolynomial implements Polynomial {
      */
     @Override
     public int getCoefficient(int d) {
-        int polDegree = degree(); 
         if(d < 0) {
         	throw new IllegalArgumentException("We cannot have negative exponents for a dense polynomial");
         }
-        if(d > polDegree) {
+        if(d > degree) {
             return 0;
         }
         return coefficients[d];
@@ -143,14 +297,7 @@ public class DensePolynomial implements Polynomial {
      */
     @Override
     public boolean isZero() {
-        for(int i = 0; i < coefficients.length; i++) {
-        	if(coefficients[i] != 0) {
-        		return false; 
-        	}
-        }
-        
-        return true; 
-       
+        return zero;
     }
 
     
@@ -170,42 +317,9 @@ public class DensePolynomial implements Polynomial {
         	throw new NullPointerException("Argument is null");
         }
         
-        DensePolynomial d;
-        
-        if(q instanceof SparsePolynomial) {
-        	SparsePolynomial s = (SparsePolynomial) q;
-            TreeMap<Integer,Integer> map = s.getMap();
-            NavigableSet<Integer> degrees = map.navigableKeySet();
-            for(Integer degree: degrees) {
-                if (degree < 0) {
-                    throw new IllegalArgumentException("DensePolynomial cannot have negative exponents");
-                }
-            }
-
-        	d = convertToDense(s);
-        }
-
-        else {
-        	d = (DensePolynomial) q; 
-        }
-        
-        int[] p1 = (this.degree() > d.degree()) ? new int[this.degree()+ 1] : new int[d.degree()+1];
-        for(int i = 0; i < this.coefficients.length; i++) {
-        	p1[i] = this.coefficients[i];
-        }
+        DensePolynomial d = convertToDense(q);
         
-        int[] p2 = (this.degree() > d.degree()) ? new int[this.degree()+ 1] : new int[d.degree()+1];
-        for(int i = 0; i < d.coefficients.length; i++) {
-        	p2[i] = d.coefficients[i];
-        }
-    
-        int[] sum = (this.degree() > d.degree()) ? new int[this.degree()+ 1] : new int[d.degree()+1];
-        
-        for(int i = 0; i < sum.length; i++) {
-        	sum[i] = p1[i] + p2[i];	
-        }
-        
-        return new DensePolynomial(sum);
+        return new DensePolynomial(combine(this.coefficients, d.coefficients, 1));
         
     }
     
@@ -213,6 +327,9 @@ public class DensePolynomial implements Polynomial {
      * Returns a polynomial by multiplying the parameter to the current instance. Neither the current instance nor the
      * parameter are modified.
      *
+     * Long factors are multiplied with Karatsuba's method, whose temporary arrays come from a per-thread scratch
+     * buffer, so only the result is allocated.
+     *
      * Precondition: q is not null && SparsePolynomial cannot have negative exponents
      * Postcondition: returns a polynomial representing the product of this * q
      *
@@ -227,40 +344,206 @@ public class DensePolynomial implements Polynomial {
         	throw new NullPointerException("Argument is null");
         }
         
-        DensePolynomial d;
-
-        if(q instanceof SparsePolynomial) {
-            SparsePolynomial s = (SparsePolynomial) q;
-            TreeMap<Integer,Integer> map = s.getMap();
-            NavigableSet<Integer> degrees = map.navigableKeySet();
-            for(Integer degree: degrees) {
-                if (degree < 0) {
-                    throw new IllegalArgumentException("DensePolynomial cannot have negative exponents");
-                }
-            }
-
-            d = convertToDense(s);
-        }
-
-        else {
-        	d = (DensePolynomial) q; 
-        }
-        	
-        int m = this.coefficients.length; 
-        int n = d.coefficients.length; 
-        
-        int[] prod = new int[m + n - 1];
-        
-        for(int i = 0; i < m; i++) {
-        	for(int j = 0; j < n; j++) {
-        		prod[i+j] += this.coefficients[i] * d.coefficients[j];
-        	}
-        }
+        DensePolynomial d = convertToDense(q);
         
-        return new DensePolynomial(prod);
+        return new DensePolynomial(DenseKernels.multiply(this.coefficients, d.coefficients));
         
     }
     
+    /**
+     * Returns the product truncated to its terms of degree below n, that is this * q mod x^n, as used for power
+     * series.  Only the coefficients of degree below n of either factor take part and the coefficients of the product
+     * from x^n on are never computed.  Neither the current instance nor the parameter are modified.
+     *
+     * Precondition: q is not null, q has no negative exponents and n is not negative
+     * Postcondition: returns the terms of this * q with degree below n
+     *
+     * @param q the non-null polynomial to multiply to <code>this</code>
+     * @param n the number of low coefficients to keep
+     * @return <code>this * </code>q mod x^n
+     * @throws NullPointerException if q is null
+     * @throws IllegalArgumentException if q has negative exponents or n is negative
+     */
+    public DensePolynomial multiplyLow(Polynomial q, int n) {
+    	return multiplyMiddle(q, 0, n);
+    }
+
+    /**
+     * Returns the terms of the product from degree k on, divided by x^k, so that this * q equals
+     * multiplyLow(q, k) + x^k * multiplyHigh(q, k).  The coefficients of the product below x^k are never computed.
+     * Neither the current instance nor the parameter are modified.
+     *
+     * Precondition: q is not null, q has no negative exponents and k is not negative
+     * Postcondition: returns the polynomial whose coefficient of x^i is the coefficient of x^(k + i) in this * q
+     *
+     * @param q the non-null polynomial to multiply to <code>this</code>
+     * @param k the lowest degree of the product to keep
+     * @return (<code>this * </code>q) div x^k
+     * @throws NullPointerException if q is null
+     * @throws IllegalArgumentException if q has negative exponents or k is negative
+     */
+    public DensePolynomial multiplyHigh(Polynomial q, int k) {
+    	if(q == null) {
+    		throw new NullPointerException("Argument is null");
+    	}
+    	DensePolynomial d = convertToDense(q);
+    	return multiplyMiddle(d, k, Math.max(k, degree + d.degree + 1));
+    }
+
+    /**
+     * Returns the middle product: the terms of the product with degree from from up to but not including to, divided
+     * by x^from.  The Newton steps of power series arithmetic need exactly such a slice, for instance the coefficients
+     * n to 2n of a 2n-term series times an n-term one, and the other coefficients are never computed: short factors
+     * only visit the pairs of terms that land in the range, and long ones use a cyclic transform about half as long as
+     * a full product needs.  Neither the current instance nor the parameter are modified.
+     *
+     * Precondition: q is not null, q has no negative exponents and 0 &lt;= from &lt;= to
+     * Postcondition: returns the polynomial whose coefficient of x^i is the coefficient of x^(from + i) in this * q,
+     * for every i below to - from
+     *
+     * @param q the non-null polynomial to multiply to <code>this</code>
+     * @param from the lowest degree of the product to keep
+     * @param to one past the highest degree of the product to keep
+     * @return the terms of <code>this * </code>q in the range, shifted down by from
+     * @throws NullPointerException if q is null
+     * @throws IllegalArgumentException if q has negative exponents or the range is invalid
+     */
+    public DensePolynomial multiplyMiddle(Polynomial q, int from, int to) {
+    	if(q == null) {
+    		throw new NullPointerException("Argument is null");
+    	}
+    	if(from < 0 || to < from) {
+    		throw new IllegalArgumentException("The range of degrees is invalid");
+    	}
+    	DensePolynomial d = convertToDense(q);
+    	return new DensePolynomial(DenseKernels.range(this.coefficients, d.coefficients, from, to));
+    }
+
+    /**
+     * Returns this polynomial multiplied by c as a view that shares the coefficients of this one, made in constant
+     * time; the scale is applied as the view is read
+     *
+     * Precondition: None
+     * Postcondition: returns a view of c * this
+     *
+     * @param c the constant to multiply by
+     * @return a view of c<code> * this</code>
+     */
+    public ScaledPolynomial scale(int c) {
+    	return ScaledPolynomial.of(this, c, 0);
+    }
+
+    /**
+     * Returns this polynomial multiplied by x^k as a view that shares the coefficients of this one, made in constant
+     * time; the shift is applied as the view is read
+     *
+     * Precondition: every exponent plus k fits an int
+     * Postcondition: returns a view of x^k * this
+     *
+     * @param k the power of x to multiply by, which may be negative
+     * @return a view of x^k<code> * this</code>
+     * @throws IllegalArgumentException if an exponent of the result does not fit an int
+     */
+    public ScaledPolynomial shift(int k) {
+    	return ScaledPolynomial.of(this, 1, k);
+    }
+
+    /**
+     * Returns this polynomial multiplied by c * x^k as a view that shares the coefficients of this one, made in
+     * constant time; the scale and shift are applied as the view is read
+     *
+     * Precondition: every exponent plus k fits an int
+     * Postcondition: returns a view of c * x^k * this
+     *
+     * @param c the constant to multiply by
+     * @param k the power of x to multiply by, which may be negative
+     * @return a view of c * x^k<code> * this</code>
+     * @throws IllegalArgumentException if an exponent of the result does not fit an int
+     */
+    public ScaledPolynomial scaleAndShift(int c, int k) {
+    	return ScaledPolynomial.of(this, c, k);
+    }
+
+    /**
+     * Returns the quotient and remainder of dividing the current instance by q, so that this equals
+     * quotient * q + remainder with the degree of the remainder below that of q.  Coefficients wrap around on overflow
+     * as in multiply, so the division is exact modulo 2^32, where only odd numbers can be divided by: the leading
+     * coefficient of q must be odd, and the results are the integer quotient and remainder whenever those exist and
+     * fit in an int, for instance when it is 1 or -1.
+     *
+     * Short quotients or divisors are found by long division.  Otherwise the quotient is the reversal of
+     * rev(this) / rev(q) as a power series, whose inverse costs a few multiplications by Newton iteration, and the
+     * remainder takes one more product, of which only the low terms are computed.  Neither the current instance nor
+     * the parameter are modified.
+     *
+     * Precondition: q is not null, is not zero, has no negative exponents and has an odd leading coefficient
+     * Postcondition: returns {quotient, remainder} with this = quotient * q + remainder and deg remainder &lt; deg q,
+     * or remainder zero when q is a constant
+     *
+     * @param q the non-null divisor
+     * @return an array holding the quotient and then the remainder
+     * @throws NullPointerException if q is null
+     * @throws IllegalArgumentException if q is zero, has negative exponents or an even leading coefficient
+     */
+    public DensePolynomial[] divideAndRemainder(Polynomial q) {
+    	if(q == null) {
+    		throw new NullPointerException("Argument is null");
+    	}
+    	DensePolynomial d = convertToDense(q);
+    	if(d.zero) {
+    		throw new IllegalArgumentException("Division by zero");
+    	}
+    	if((d.coefficients[d.degree] & 1) == 0) {
+    		throw new IllegalArgumentException("The leading coefficient of the divisor is even");
+    	}
+    	if(this.degree < d.degree) {
+    		return new DensePolynomial[]{new DensePolynomial(new int[1]), this};
+    	}
+    	int[] a = this.coefficients;
+    	int[] b = d.coefficients;
+    	int n = d.degree;
+    	int k = this.degree - n + 1;
+    	int[] quotient;
+    	if(Math.min(k, n + 1) < LONG_DIVISION_THRESHOLD) {
+    		quotient = new int[k];
+    		int[] remainder = a.clone();
+    		int inverse = b[n];
+    		for(int i = 0; i < 5; i++) {
+    			inverse *= 2 - b[n] * inverse;
+    		}
+    		for(int i = k - 1; i >= 0; i--) {
+    			int c = remainder[i + n] * inverse;
+    			quotient[i] = c;
+    			for(int j = 0; j <= n; j++) {
+    				remainder[i + j] -= c * b[j];
+    			}
+    			if((i & 4095) == 0) {
+    				Checkpoint.reached(4096L * (n + 1));
+    			}
+    		}
+    		return new DensePolynomial[]{new DensePolynomial(quotient), new DensePolynomial(Arrays.copyOf(remainder, n))};
+    	}
+    	int[] reversedA = new int[k];
+    	for(int i = 0; i < k; i++) {
+    		reversedA[i] = a[this.degree - i];
+    	}
+    	int[] reversedB = new int[Math.min(k, n + 1)];
+    	for(int i = 0; i < reversedB.length; i++) {
+    		reversedB[i] = b[n - i];
+    	}
+    	DensePolynomial inverse = PowerSeries.of(new DensePolynomial(reversedB), k).inverse().toPolynomial();
+    	int[] reversedQuotient = DenseKernels.range(reversedA, inverse.coefficients, 0, k);
+    	quotient = new int[k];
+    	for(int i = 0; i < k; i++) {
+    		quotient[i] = reversedQuotient[k - 1 - i];
+    	}
+    	int[] remainder = DenseKernels.range(quotient, b, 0, n);
+    	for(int i = 0; i < n; i++) {
+    		remainder[i] = a[i] - remainder[i];
+    	}
+    	return new DensePolynomial[]{new DensePolynomial(quotient), new DensePolynomial(remainder)};
+    }
+
     /**
      * Returns a polynomial by subtracting the parameter to the current instance. Neither the current instance nor the
      * parameter are modified.
@@ -280,45 +563,42 @@ public class DensePolynomial implements Polynomial {
         	throw new NullPointerException("Argument is null");
         }
         
-        DensePolynomial d;
-
-        if(q instanceof SparsePolynomial) {
-            SparsePolynomial s = (SparsePolynomial) q;
-            TreeMap<Integer,Integer> map = s.getMap();
-            NavigableSet<Integer> degrees = map.navigableKeySet();
-            for(Integer degree: degrees) {
-                if (degree < 0) {
-                    throw new IllegalArgumentException("DensePolynomial cannot have negative exponents");
-                }
-            }
-
-            d = convertToDense(s);
-        }
-
-        else {
-        	d = (DensePolynomial) q; 
-        }
+        DensePolynomial d = convertToDense(q);
         
-        int[] p1 = (this.degree() > d.degree()) ? new int[this.degree()+ 1] : new int[d.degree()+1];
-        for(int i = 0; i < this.coefficients.length; i++) {
-        	p1[i] = this.coefficients[i];
-        }
-        
-        int[] p2 = (this.degree() > d.degree()) ? new int[this.degree()+ 1] : new int[d.degree()+1];
-        for(int i = 0; i < d.coefficients.length; i++) {
-        	p2[i] = d.coefficients[i];
-        }
-    
-        int[] diff = (this.degree() > d.degree()) ? new int[this.degree()+ 1] : new int[d.degree()+1];
-        
-        for(int i = 0; i < diff.length; i++) {
-        	diff[i] = p1[i] - p2[i];	
-        }
-        
-        return new DensePolynomial(diff);
+        return new DensePolynomial(combine(this.coefficients, d.coefficients, -1));
         
     }
     
+    /**
+     * Returns a + sign * b as an array that is exactly as long as the result needs, so leading terms that cancel never
+     * cost a second array
+     *
+     * @param a the coefficients of the first operand
+     * @param b the coefficients of the second operand
+     * @param sign 1 to add b, -1 to subtract it
+     * @return the coefficients of the result, trimmed of leading zeros
+     */
+    private static int[] combine(int[] a, int[] b, int sign) {
+    	int top = Math.max(a.length, b.length) - 1;
+    	while(top > 0 && (top < a.length ? a[top] : 0) + sign * (top < b.length ? b[top] : 0) == 0) {
+    		top--;
+    	}
+    	int[] result = new int[top + 1];
+    	int shared = Math.min(top + 1, Math.min(a.length, b.length));
+    	for(int i = 0; i < shared; i++) {
+    		result[i] = a[i] + sign * b[i];
+    	}
+    	if(a.length > shared) {
+    		System.arraycopy(a, shared, result, shared, Math.min(a.length, top + 1) - shared);
+    	}
+    	else {
+    		for(int i = shared; i <= top && i < b.length; i++) {
+    			result[i] = sign * b[i];
+    		}
+    	}
+    	return result;
+    }
+
     /**
      * Returns a polynomial by negating the current instance. The current instance is not modified.
      * Precondition: None
@@ -327,17 +607,62 @@ public class DensePolynomial implements Polynomial {
      */  
     @Override
     public Polynomial minus() {
-        int[] negatedCoeff = this.coefficients; 
+        int[] negatedCoeff = new int[this.coefficients.length]; 
         for(int i = 0; i < negatedCoeff.length; i++) {
-        	negatedCoeff[i] = -(negatedCoeff[i]);
+        	negatedCoeff[i] = -(this.coefficients[i]);
         }
         
         return new DensePolynomial(negatedCoeff);
     }
 
+    /**
+     * Evaluates the polynomial at a point using Horner's rule
+     * Precondition: None
+     * Postcondition: returns the value of the polynomial at x
+     * @param x the point at which to evaluate
+     * @return the value of the polynomial at x
+     */
+    @Override
+    public double evaluate(double x) {
+    	double value = 0;
+    	for(int i = degree; i >= 0; i--) {
+    		value = value * x + coefficients[i];
+    	}
+    	return value;
+    }
+
+    /**
+     * Estimates the heap taken by this polynomial: the coefficient array, which costs 4 bytes per degree whether the
+     * coefficient is zero or not, the string it was parsed from and the term arrays, once they are built
+     * Precondition: None
+     * Postcondition: returns the estimated size in bytes
+     *
+     * @return the estimated size in bytes
+     */
+    @Override
+    public long estimatedBytes() {
+    	return Footprint.object(21) + Footprint.intArray(coefficients.length) + Footprint.string(input)
+    			+ Footprint.termArrays(terms);
+    }
+
+    /**
+     * Estimates the heap a DensePolynomial with the terms of p would take, reading the terms of p without copying them
+     *
+     * @param p the polynomial whose terms are sized
+     * @return the estimated size in bytes, or -1 if p has a negative exponent
+     */
+    static long estimatedBytes(Polynomial p) {
+    	Footprint.TermCount terms = Footprint.count(p);
+    	if(terms.count > 0 && terms.lowest < 0) {
+    		return -1;
+    	}
+    	return Footprint.object(21) + Footprint.intArray((terms.count == 0) ? 1 : terms.highest + 1);
+    }
+
     /**
      * Checks the input string to make sure that we are given a string that contains a valid canonical string as well
-     * as makes sure that invariant holds true that both the coefficients and degrees are all integers
+     * as makes sure that invariant holds true that both the coefficients and degrees are all integers.  For a polynomial
+     * that was not created from a string, checks that the coefficient array has no leading zeros
      * Precondition: None
      * PostCondition: returns true if class invariant holds and canonical string can be formed else returns false
      *
@@ -346,113 +671,19 @@ public class DensePolynomial implements Polynomial {
      */
     @Override
     public boolean wellFormed() {
-        if(isValid(input) == false)
-            return false;
-        
-        if(input.equals("0")) {
-        	return true; 
-        }
-        
-        input = input.replace(" - ", " + -");
-        String[] terms = input.split("\\+");
-
-        ArrayList<Integer> coefficients = new ArrayList<Integer>();
-        ArrayList<Integer> degrees = new ArrayList<Integer>();
-
-        for(String term: terms) {
-            term = term.strip();
-            if(term.contains("x^")) {
-                if(term.charAt(0) == 'x') {
-                    term = term.replace("x^", "");
-                    int degree = Integer.parseInt(term);
-                    coefficients.add(1);
-                    degrees.add(degree);
-
-                }
-                else {
-                    String[] nums = term.split("x\\^");
-                    int coefficient = Integer.parseInt(nums[0]);
-                    int degree = Integer.parseInt(nums[1]);
-                    coefficients.add(coefficient);
-                    degrees.add(degree);
-                }
-
-            }
-
-            else if(term.contains("x")) {
-                if(term.equals("x")) {
-                    coefficients.add(1);
-                    degrees.add(1);
-                }
-                else if(term.equals("-x")){
-                    coefficients.add(-1);
-                    degrees.add(1);
-                }
-                else {
-                    String[] nums = term.split("x");
-                    int coefficient = Integer.parseInt(nums[0]);
-                    coefficients.add(coefficient);
-                    degrees.add(1);
-                }
-            }
-            else {
-                int coefficient = Integer.parseInt(term);
-                coefficients.add(coefficient);
-                degrees.add(0);
-            }
+        if(input == null) {
+            return coefficients.length == 1 || coefficients[coefficients.length - 1] != 0;
         }
 
-
-        //if coefficients contains a 0 then we are not in canonical form
-        if(coefficients.contains(0)) {
-            return false;
+        try {
+            PolynomialParser.parse(input, false);
+            return true;
         }
-
-        //check if the degrees are in descending order
-        for(int i = 0; i < degrees.size()-1; i++) {
-            if(degrees.get(i) < degrees.get(i+1)) {
-                return false;
-            }
-        }
-
-        //check if degrees are negative for dense polynomial
-        for(int i = 0; i < degrees.size(); i++) {
-            if(degrees.get(i) < 0) {
-                return false;
-            }
+        catch(IllegalArgumentException e) {
+            return false;
         }
-
-        return true;
-
     }
 
-    /**
-     * Checks the input string to make sure that we are not given a string that contains any characters that would not result
-     * in a valid polynomial expression. Any characters besides digits, plus, minus, the letter x, ^, or a space would result in 
-     * an invalid expression
-     * Precondition: None
-     * Postcondition: Returns false if String would not represent a valid polynomial expression else returns true
-     *
-     * @param s the canonical string representation of a polynomial 
-     */
-    private boolean isValid(String s) {
-        char[] chSearch = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', '+', '-', '^', 'x', ' '};
-        for (int i = 0; i < s.length(); i++) {
-            char ch = s.charAt(i);
-            boolean isPresent = false;
-            for (int j = 0; j < chSearch.length; j++) {
-                if (chSearch[j] == ch) {
-                    isPresent = true;
-                }
-            }
-            if(isPresent == false) {
-                return false;
-            }
-
-        }
-        return true;
-    }
-    
     /**
      * Method takes the polynomial object and returns a string representation in canonical form
      * Precondition: None
@@ -462,108 +693,272 @@ public class DensePolynomial implements Polynomial {
     
     @Override
     public String toString() {
-    	String s = "";
-    	ArrayList<String> terms = new ArrayList<String>();
-
-    	if(this.isZero()){
+    	if(zero){
     	    return "0";
         }
-    	
-    	for(int i=0; i < coefficients.length; i++) {
+
+    	StringBuilder s = new StringBuilder();
+    	for(int i = degree; i >= 0; i--) {
     		if(coefficients[i] != 0) {
-    			String term = "";
-    			if(i == 0) {
-    				term += coefficients[i];
-    			}
-    			else if(i == 1) {
-    				if(coefficients[i] == 1) {
-    					term += "x";
-    				}
-    				else {
-    					term += coefficients[i] + "x";
-    				}
+    			if(s.length() > 0) {
+    				s.append(" + ");
     			}
-    			else {
-    				if(coefficients[i] == 1) {
-    					term += "x^" + i;
-    				}
-    				else {
-    					term += coefficients[i] + "x^" + i;
-    				}
-    			}
-    			terms.add(term);
+    			Terms.appendTerm(s, i, coefficients[i]);
     		}
-    			
-    	}
-    	
-    	for(int i=terms.size()-1; i>0; i--) {
-    		s += terms.get(i) + " + ";
     	}
-    	
-    	s += terms.get(0);
-    	
-    		
-    	return s; 
+    	return s.toString(); 
     }
     
     /**
-     * Equals method overrode from the object class checks if the polynomials have the same coefficients and exponents
+     * Equals method overrode from the object class checks if the polynomials have the same coefficients and exponents.
+     * Any Polynomial can be compared, whatever its representation; a SparsePolynomial is checked term by term against
+     * the coefficient array without building a second representation.
      *
-     * Precondition: o must be instance of DensePolynomial
+     * Precondition: None
      * Postcondition: return true if this and o represent same polynomial
      *
-     * @return true if the two polynomial objects represent the same polynomial 
-     * @throws IllegalArgumentException if object is not instance of DensePolynomial
+     * @return true if o is a Polynomial with the same terms as this one, false otherwise
      */ 
     @Override 
     public boolean equals(Object o) {
-    	if(!(o instanceof DensePolynomial)) {
-    		throw new IllegalArgumentException("Object is not a DensePolynomial");
+    	if(o == this) {
+    		return true;
     	}
-    	
-    	DensePolynomial other = (DensePolynomial) o;
-        
-    	return Arrays.equals(this.coefficients, other.coefficients);
+    	if(!(o instanceof Polynomial) || o.hashCode() != hash) {
+    		return false;
+    	}
+    	if(o instanceof DensePolynomial) {
+    		return Arrays.equals(this.coefficients, ((DensePolynomial) o).coefficients);
+    	}
+    	if(o instanceof SparsePolynomial) {
+    		return equalsSparse((SparsePolynomial) o);
+    	}
+    	return Terms.sameTerms(this, (Polynomial) o);
+    }
+
+    /**
+     * Checks every term of a sparse polynomial against the coefficient array, then checks that the array has no other
+     * non-zero entry
+     */
+    private boolean equalsSparse(SparsePolynomial s) {
+    	if(s.degree() != degree || s.isZero() != zero) {
+    		return false;
+    	}
+    	int terms = 0;
+    	for(Map.Entry<Integer,Integer> term: s.getMap().entrySet()) {
+    		int e = term.getKey();
+    		if(e < 0 || coefficients[e] != term.getValue()) {
+    			return false;
+    		}
+    		terms++;
+    	}
+    	for(int c: coefficients) {
+    		if(c != 0) {
+    			terms--;
+    		}
+    	}
+    	return terms == 0;
+    }
+
+    /**
+     * Returns the hash code computed at construction.  It is the sum of Terms.hash over the non-zero terms, so it only
+     * depends on the terms of the polynomial.
+     *
+     * Precondition: None
+     * Postcondition: returns the same value for polynomials that are equal
+     *
+     * @return the hash code of this polynomial
+     */
+    @Override
+    public int hashCode() {
+    	return hash;
+    }
+
+    /**
+     * Computes the hash code of a coefficient array from its non-zero terms
+     *
+     * @param coefficients the coefficient array indexed by degree
+     * @return the sum of Terms.hash over the non-zero entries
+     */
+    private static int hashTerms(int[] coefficients) {
+    	int h = 0;
+    	for(int i = 0; i < coefficients.length; i++) {
+    		if(coefficients[i] != 0) {
+    			h += Terms.hash(i, coefficients[i]);
+    		}
+    	}
+    	return h;
     }
     
     /**
-     * Getter method which returns the coefficients array of the polynomial object
+     * Getter method which returns a copy of the coefficients array of the polynomial object
      *
      * Precondition: None
-     * Postcondition: returns coefficients array
+     * Postcondition: returns a new array holding the coefficients; changing it does not affect this polynomial
      *
-     * @return the coefficients array  
+     * @return a copy of the coefficients array  
      * 
      */  
     public int[] getCoefficients() {
+    	return coefficients.clone();
+    }
+
+    /**
+     * Returns a read-only view of the coefficients, where the coefficient of degree d is at index d.  No copy is made.
+     *
+     * Precondition: None
+     * Postcondition: returns a read-only buffer positioned at 0 whose limit is the length of the stored coefficients
+     *
+     * @return a read-only IntBuffer backed by the coefficients of this polynomial
+     */
+    public IntBuffer coefficientBuffer() {
+    	return IntBuffer.wrap(coefficients).asReadOnlyBuffer();
+    }
+
+    /**
+     * Returns a spliterator over the coefficients in ascending order of degree, including zero coefficients.  No copy
+     * is made and the spliterator reports IMMUTABLE, SIZED and SUBSIZED, so it splits evenly for parallel streams.
+     *
+     * Precondition: None
+     * Postcondition: returns a spliterator covering every stored coefficient, from degree 0 up
+     *
+     * @return a spliterator over the coefficients of this polynomial
+     */
+    public Spliterator.OfInt coefficientSpliterator() {
+    	return Arrays.spliterator(coefficients);
+    }
+
+    /**
+     * Copies the coefficients of degrees from, from + 1, ..., from + dst.length - 1 into dst.  Degrees past the end of
+     * the polynomial are written as 0.
+     *
+     * Precondition: dst is not null and from is not negative
+     * Postcondition: dst[i] holds getCoefficient(from + i) for every index i of dst
+     *
+     * @param dst the array to fill
+     * @param from the degree of the coefficient written to dst[0]
+     * @return the number of entries of dst that were taken from the stored coefficients rather than zero filled
+     * @throws NullPointerException if dst is null
+     * @throws IllegalArgumentException if from is negative
+     */
+    public int copyCoefficients(int[] dst, int from) {
+    	if(dst == null) {
+    		throw new NullPointerException("Argument is null");
+    	}
+    	if(from < 0) {
+    		throw new IllegalArgumentException("We cannot have negative exponents for a dense polynomial");
+    	}
+    	int copied = (int) Math.max(0, Math.min((long) dst.length, (long) coefficients.length - from));
+    	if(copied > 0) {
+    		System.arraycopy(coefficients, from, dst, 0, copied);
+    	}
+    	Arrays.fill(dst, copied, dst.length, 0);
+    	return copied;
+    }
+
+    /**
+     * Returns a spliterator over the non-zero terms in ascending order of degree.  The non-zero terms are gathered once
+     * on first use and shared by every later call, so the spliterator knows its exact size at every split.
+     *
+     * Precondition: None
+     * Postcondition: returns a SIZED and SUBSIZED spliterator over the non-zero terms, packed with Terms.pack
+     *
+     * @return a spliterator over the non-zero terms
+     */
+    @Override
+    public Spliterator.OfLong termSpliterator() {
+    	return termArrays().spliterator();
+    }
+
+    /**
+     * Passes every non-zero term to action in ascending order of degree, reading the coefficient array directly.
+     *
+     * Precondition: action is not null
+     * Postcondition: action has been called once for each non-zero term
+     *
+     * @param action the operation to perform on each term
+     * @throws NullPointerException if action is null
+     */
+    @Override
+    public void forEachTerm(IntIntConsumer action) {
+    	if(action == null) {
+    		throw new NullPointerException("Argument is null");
+    	}
+    	for(int i = 0; i < coefficients.length; i++) {
+    		if(coefficients[i] != 0) {
+    			action.accept(i, coefficients[i]);
+    		}
+    	}
+    }
+
+    /**
+     * Returns the non-zero terms as parallel arrays, building them on first use.  Racing threads may each build a copy,
+     * but the copies are identical and TermArrays is immutable, so whichever one is kept is safe to share.
+     *
+     * @return the non-zero terms of this polynomial
+     */
+    @Override
+    public TermArrays termArrays() {
+    	TermArrays t = terms;
+    	if(t == null) {
+    		int count = 0;
+    		for(int i = 0; i < coefficients.length; i++) {
+    			if(coefficients[i] != 0) {
+    				count++;
+    			}
+    		}
+    		int[] exponents = new int[count];
+    		int[] values = new int[count];
+    		int k = 0;
+    		for(int i = 0; i < coefficients.length; i++) {
+    			if(coefficients[i] != 0) {
+    				exponents[k] = i;
+    				values[k] = coefficients[i];
+    				k++;
+    			}
+    		}
+    		t = new TermArrays(exponents, values);
+    		terms = t;
+    	}
+    	return t;
+    }
+
+    /**
+     * Returns the coefficient array backing this polynomial without copying it.  Only used by classes in this package
+     * that promise not to modify the array.
+     *
+     * @return the internal coefficients array
+     */
+    int[] coefficientArray() {
     	return coefficients;
     }
     
     
     /**
-     * Converts an instance of a sparsepolynomial object into a densepolynomial object
+     * Converts any polynomial into a densepolynomial object.  A DensePolynomial is returned as is; any other polynomial
+     * is laid out from its non-zero terms
      *
      * Preconditions: None
      * Postcondition: returns a DensePolynomial which has the same polynomial representation
-     * as the original SparsePolynomial
-     *
-     * @return SparePolynomial representation of our instance 
+     * as q
      *
+     * @param q the polynomial to convert
+     * @return DensePolynomial representation of q
+     * @throws IllegalArgumentException if q has a term with a negative exponent
      */   
-    private DensePolynomial convertToDense(SparsePolynomial s) {
-    	TreeMap<Integer,Integer> map = s.getMap();
-    	NavigableSet<Integer> degrees = map.navigableKeySet();
-    	for(Integer degree: degrees) {
-    		assert degree >= 0;
+    private static DensePolynomial convertToDense(Polynomial q) {
+    	if(q instanceof DensePolynomial) {
+    		return (DensePolynomial) q;
+    	}
+    	TermArrays terms = TermArrays.of(q);
+    	int n = terms.size();
+    	if(n > 0 && terms.exponents[0] < 0) {
+    		throw new IllegalArgumentException("DensePolynomial cannot have negative exponents");
     	}
-    	int[] coefficients = new int[s.degree()+1];
-    	for(Integer degree: degrees) {
-    		coefficients[degree] = map.get(degree);
+    	int[] coefficients = new int[n == 0 ? 1 : terms.exponents[n - 1] + 1];
+    	for(int i = 0; i < n; i++) {
+    		coefficients[terms.exponents[i]] = terms.coefficients[i];
     	}
     	return new DensePolynomial(coefficients);
-    	
     }
-
-
-
-}
\ No newline at end of file
+}
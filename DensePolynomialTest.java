@@ -1,4 +1,10 @@
 import junit.jupiter.api.Test;
+
+import java.nio.IntBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.util.Random;
+import java.util.Spliterator;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class DensePolynomialTest {
@@ -103,6 +109,140 @@ class DensePolynomialTest {
         assertThrows(IllegalArgumentException.class, () -> densePolynomial1.multiply(sparsePolynomialWithNegatives));
     }
 
+    @Test
+    void testKaratsuba() {
+        Random random = new java.util.Random(36);
+        int[][] sizes = {{31, 31}, {32, 32}, {33, 100}, {64, 64}, {257, 70}, {1000, 999}, {5, 2000}};
+        for(int[] size: sizes) {
+            int[] a = new int[size[0]];
+            int[] b = new int[size[1]];
+            for(int i = 0; i < a.length; i++) {
+                a[i] = random.nextInt();
+            }
+            for(int i = 0; i < b.length; i++) {
+                b[i] = random.nextInt();
+            }
+            a[a.length - 1] = 1;
+            b[b.length - 1] = 1;
+            DensePolynomial p = DensePolynomial.fromCoefficients(a);
+            DensePolynomial q = DensePolynomial.fromCoefficients(b);
+
+            //testing that the Karatsuba product wraps around exactly like the sparse one
+            Polynomial expected = SparsePolynomial.fromCoefficients(a).multiply(SparsePolynomial.fromCoefficients(b));
+            assertEquals(expected, p.multiply(q));
+            assertEquals(expected, q.multiply(p));
+        }
+    }
+
+    @Test
+    void testTruncatedProducts() {
+        DensePolynomial p = new DensePolynomial("3x^4 + 2x^3 - x + 5");
+        DensePolynomial q = new DensePolynomial("x^3 + 4x^2 + -2");
+        Polynomial product = p.multiply(q);
+
+        //testing that the low product keeps the terms below x^n
+        assertEquals(new DensePolynomial("2x + -10"), p.multiplyLow(q, 2));
+        assertEquals(new DensePolynomial("-7x^4 + -3x^3 + 20x^2 + 2x + -10"), p.multiplyLow(q, 5));
+        assertEquals(product, p.multiplyLow(q, 100));
+        assertTrue(p.multiplyLow(q, 0).isZero());
+
+        //testing that the high product keeps the terms from x^k on, shifted down
+        assertEquals(new DensePolynomial("3x^2 + 14x + 8"), p.multiplyHigh(q, 5));
+        assertEquals(product, p.multiplyHigh(q, 0));
+        assertTrue(p.multiplyHigh(q, 8).isZero());
+        for(int k = 0; k <= 8; k++) {
+            Polynomial shifted = p.multiplyHigh(q, k).multiply(new SparsePolynomial("x^" + k));
+            assertEquals(product, p.multiplyLow(q, k).add(shifted));
+        }
+
+        //testing that the middle product keeps a range of terms, shifted down
+        assertEquals(new DensePolynomial("-7x + -3"), p.multiplyMiddle(q, 3, 5));
+        assertEquals(new DensePolynomial("-3x + 20"), p.multiplyMiddle(new SparsePolynomial("x^3 + 4x^2 + -2"), 2, 4));
+
+        //testing long factors, where the transform wraps the unwanted terms around
+        Random random = new Random(41);
+        int[] a = new int[20000];
+        int[] b = new int[10000];
+        for(int i = 0; i < a.length; i++) {
+            a[i] = random.nextInt();
+        }
+        for(int i = 0; i < b.length; i++) {
+            b[i] = random.nextInt() | 1;
+        }
+        DensePolynomial longP = DensePolynomial.fromCoefficients(a);
+        DensePolynomial longQ = DensePolynomial.fromCoefficients(b);
+        int[] full = ((DensePolynomial) longP.multiply(longQ)).getCoefficients();
+        int[] middle = longP.multiplyMiddle(longQ, 10000, 20000).getCoefficients();
+        for(int i = 0; i < middle.length; i++) {
+            assertEquals(full[10000 + i], middle[i]);
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> p.multiplyLow(q, -1));
+        assertThrows(IllegalArgumentException.class, () -> p.multiplyMiddle(q, 4, 3));
+        assertThrows(IllegalArgumentException.class, () -> p.multiplyLow(new SparsePolynomial("x^-1"), 3));
+        assertThrows(NullPointerException.class, () -> p.multiplyHigh(null, 3));
+    }
+
+    @Test
+    void testDivideAndRemainder() {
+        DensePolynomial p = new DensePolynomial("x^4 + 3x^3 + -2x + 5");
+
+        //testing long division by a monic divisor and by a constant
+        DensePolynomial[] result = p.divideAndRemainder(new DensePolynomial("x^2 + 1"));
+        assertEquals(new DensePolynomial("x^2 + 3x + -1"), result[0]);
+        assertEquals(new DensePolynomial("-5x + 6"), result[1]);
+        result = p.divideAndRemainder(new SparsePolynomial("-1"));
+        assertEquals(p.minus(), result[0]);
+        assertTrue(result[1].isZero());
+        result = p.divideAndRemainder(new DensePolynomial("x^5"));
+        assertTrue(result[0].isZero());
+        assertEquals(p, result[1]);
+
+        //testing long operands, where the quotient comes from a power series inverse
+        Random random = new Random(47);
+        int[] a = new int[6000];
+        int[] b = new int[2500];
+        for(int i = 0; i < a.length; i++) {
+            a[i] = random.nextInt();
+        }
+        for(int i = 0; i < b.length; i++) {
+            b[i] = random.nextInt();
+        }
+        b[b.length - 1] |= 1;
+        DensePolynomial longA = DensePolynomial.fromCoefficients(a);
+        DensePolynomial longB = DensePolynomial.fromCoefficients(b);
+        result = longA.divideAndRemainder(longB);
+        assertEquals(a.length - b.length, result[0].degree());
+        assertTrue(result[1].degree() < longB.degree());
+        assertEquals(longA, result[0].multiply(longB).add(result[1]));
+
+        assertThrows(IllegalArgumentException.class, () -> p.divideAndRemainder(new DensePolynomial("2x + 1")));
+        assertThrows(IllegalArgumentException.class, () -> p.divideAndRemainder(new DensePolynomial("0")));
+        assertThrows(IllegalArgumentException.class, () -> p.divideAndRemainder(new SparsePolynomial("x^-1")));
+        assertThrows(NullPointerException.class, () -> p.divideAndRemainder(null));
+    }
+
+    @Test
+    void testLeadingCancellation() {
+        DensePolynomial p = new DensePolynomial("4x^5 + 3x^4 + 2x + 1");
+
+        //testing that terms cancelling at the top give the right degree
+        assertEquals(new DensePolynomial("3x^4 + 4x + 1"), p.subtract(new DensePolynomial("4x^5 - 2x")));
+        assertEquals(new DensePolynomial("3x^4 + 2x"), p.add(new DensePolynomial("-4x^5 - 1")));
+        assertEquals(0, p.subtract(p).degree());
+        assertTrue(p.subtract(p).isZero());
+        assertTrue(p.subtract(p).wellFormed());
+        assertEquals(new DensePolynomial("-4x^5 - 3x^4 - 2x - 1"), new DensePolynomial("0").subtract(p));
+    }
+
+    @Test
+    void testEvaluate() {
+        //testing evaluation with Horner's rule
+        assertEquals(23.0, new DensePolynomial("4x^2 + 8x + 2").evaluate(1.5), 1e-12);
+        assertEquals(-3.0, new DensePolynomial("-3").evaluate(10), 1e-12);
+        assertEquals(0.0, new DensePolynomial("0").evaluate(2), 1e-12);
+    }
+
     @Test
     void testSubtract() {
         DensePolynomial densePolynomial1 = new DensePolynomial("12x^4 + 8x^3 + 5x^2 + 2x + 7");
@@ -142,6 +282,150 @@ class DensePolynomialTest {
 
         //test zero polynomial
         assertEquals(zeroPolynomial, zeroPolynomial.minus());
+
+        //test that negating does not modify the original polynomial
+        assertEquals(new DensePolynomial("4x^2 + 8x + 2"), densePolynomial1);
+    }
+
+    @Test
+    void testReadOnlyAccessors() {
+        DensePolynomial densePolynomial = new DensePolynomial("4x^3 + 8x + 2");
+
+        //test that changing the array returned by getCoefficients does not change the polynomial
+        densePolynomial.getCoefficients()[0] = 99;
+        assertEquals(2, densePolynomial.getCoefficient(0));
+
+        //test that the buffer view holds every coefficient and cannot be written to
+        IntBuffer buffer = densePolynomial.coefficientBuffer();
+        assertEquals(4, buffer.remaining());
+        assertEquals(8, buffer.get(1));
+        assertThrows(ReadOnlyBufferException.class, () -> buffer.put(0, 5));
+
+        //test that the spliterator visits every coefficient in order of degree and is sized for splitting
+        Spliterator.OfInt spliterator = densePolynomial.coefficientSpliterator();
+        assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.IMMUTABLE));
+        assertEquals(4, spliterator.getExactSizeIfKnown());
+
+        //test bulk copying a range that runs past the highest degree
+        int[] dst = {7, 7, 7, 7};
+        assertEquals(2, densePolynomial.copyCoefficients(dst, 2));
+        assertArrayEquals(new int[]{0, 4, 0, 0}, dst);
+
+        //test that copying from a negative degree throws IllegalArgumentException
+        assertThrows(IllegalArgumentException.class, () -> densePolynomial.copyCoefficients(dst, -1));
+    }
+
+    @Test
+    void testParseParallel() {
+        StringBuilder builder = new StringBuilder();
+        for(int degree = 30000; degree > 0; degree--) {
+            builder.append(degree % 7 + 1).append("x^").append(degree).append(degree % 2 == 0 ? " + " : " - ");
+        }
+        builder.append("5");
+        String large = builder.toString();
+
+        //test that parsing a long string in parallel agrees with the sequential constructor
+        DensePolynomial parallel = DensePolynomial.parseParallel(large);
+        assertEquals(new DensePolynomial(large), parallel);
+        assertEquals(30000, parallel.degree());
+        assertEquals(-4, parallel.getCoefficient(29998));
+
+        //test that short strings are accepted as well
+        assertEquals(new DensePolynomial("4x^2 + 8x - 2"), DensePolynomial.parseParallel("4x^2 + 8x - 2"));
+
+        //test that exponents out of order are rejected even when the bad pair is far from the start of the string
+        String swapped = large.replace("x^15001 - ", "x^1 - ");
+        assertThrows(IllegalArgumentException.class, () -> DensePolynomial.parseParallel(swapped));
+
+        //test that zero coefficients and negative exponents are rejected
+        assertThrows(IllegalArgumentException.class, () -> DensePolynomial.parseParallel(large.replace(" 2x^20000 ", " 0x^20000 ")));
+        assertThrows(IllegalArgumentException.class, () -> DensePolynomial.parseParallel(large + " + 3x^-2"));
+    }
+
+    @Test
+    void testFactories() {
+        DensePolynomial expected = new DensePolynomial("3x^4 + -2x + 7");
+
+        //test building from a coefficient array, with and without handing over the array
+        int[] coefficients = {7, -2, 0, 0, 3, 0};
+        assertEquals(expected, DensePolynomial.fromCoefficients(coefficients));
+        assertEquals(expected, DensePolynomial.fromCoefficients(coefficients, true));
+        assertEquals(4, DensePolynomial.fromCoefficients(coefficients, true).degree());
+
+        //test that a copied array can be changed without affecting the polynomial
+        int[] copied = {7, -2, 0, 0, 3};
+        DensePolynomial fromCopy = DensePolynomial.fromCoefficients(copied);
+        copied[0] = 100;
+        assertEquals(expected, fromCopy);
+
+        //test building from unordered terms with a repeated exponent
+        assertEquals(expected, DensePolynomial.fromTerms(new int[]{1, 4, 0, 1}, new int[]{-5, 3, 7, 3}));
+
+        //test the builder and that it can keep growing after build
+        DensePolynomial.Builder builder = DensePolynomial.builder().addTerm(0, 7).addTerm(4, 3).setCoefficient(1, -2);
+        assertEquals(expected, builder.build());
+        assertEquals(new DensePolynomial("x^9 + 3x^4 + -2x + 7"), builder.addTerm(9, 1).build());
+
+        //test that factory-built polynomials are well formed
+        assertTrue(builder.build().wellFormed());
+
+        //test that negative exponents and mismatched arrays throw illegal argument exception
+        assertThrows(IllegalArgumentException.class, () -> DensePolynomial.fromTerms(new int[]{-1}, new int[]{1}));
+        assertThrows(IllegalArgumentException.class, () -> DensePolynomial.fromTerms(new int[]{1, 2}, new int[]{1}));
+        assertThrows(IllegalArgumentException.class, () -> DensePolynomial.builder().addTerm(-3, 1));
+
+        //test that a degree whose array length overflows an int throws illegal argument exception
+        assertThrows(IllegalArgumentException.class, () -> DensePolynomial.builder().addTerm(Integer.MAX_VALUE, 1));
+        assertThrows(IllegalArgumentException.class, () -> DensePolynomial.builder().setCoefficient(Integer.MAX_VALUE, 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> DensePolynomial.fromTerms(new int[]{Integer.MAX_VALUE}, new int[]{1}));
+        assertThrows(NullPointerException.class, () -> DensePolynomial.fromCoefficients(null));
+    }
+
+    @Test
+    void testNormalized() {
+        DensePolynomial densePolynomial1 = new DensePolynomial("3x^5 + 2x^4 + x");
+        DensePolynomial densePolynomial2 = new DensePolynomial("3x^5 + 2x^4 + -7");
+
+        //test that cancelling the leading terms lowers the degree and trims the storage
+        Polynomial diff = densePolynomial1.subtract(densePolynomial2);
+        assertEquals(1, diff.degree());
+        assertEquals(2, ((DensePolynomial) diff).getCoefficients().length);
+        assertEquals(new DensePolynomial("x + 7"), diff);
+
+        //test that equal polynomials built in different ways share a hash code
+        assertEquals(new DensePolynomial("x + 7").hashCode(), diff.hashCode());
+
+        //test that cancelling every term gives the zero polynomial
+        Polynomial zero = densePolynomial1.subtract(densePolynomial1);
+        assertTrue(zero.isZero());
+        assertEquals(0, zero.degree());
+        assertEquals(new DensePolynomial("0"), zero);
+    }
+
+    @Test
+    void testTerms() {
+        DensePolynomial densePolynomial = new DensePolynomial("5x^7 + 4x^3 + -2x + 8");
+
+        //test that forEachTerm visits only the non-zero terms in ascending order of degree
+        StringBuilder visited = new StringBuilder();
+        densePolynomial.forEachTerm((exponent, coefficient) -> visited.append(exponent).append(':').append(coefficient).append(' '));
+        assertEquals("0:8 1:-2 3:4 7:5 ", visited.toString());
+
+        //test that the term spliterator is sized by the number of non-zero terms and splits exactly
+        Spliterator.OfLong spliterator = densePolynomial.termSpliterator();
+        assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED));
+        assertEquals(4, spliterator.getExactSizeIfKnown());
+        Spliterator.OfLong prefix = spliterator.trySplit();
+        assertEquals(2, prefix.getExactSizeIfKnown());
+        assertEquals(2, spliterator.getExactSizeIfKnown());
+
+        //test that a parallel stream of terms sees every coefficient
+        assertEquals(15, densePolynomial.terms().parallel().mapToInt(Terms::coefficient).sum());
+        assertEquals(7, densePolynomial.terms().mapToInt(Terms::exponent).max().getAsInt());
+
+        //test that the zero polynomial has no terms
+        assertEquals(0, new DensePolynomial("0").terms().count());
     }
 
     /*DensePolynomial constructor uses wellFormed() to make sure invariants are true (exponents and
@@ -180,9 +464,17 @@ class DensePolynomialTest {
         assertTrue(densePolynomial1.equals(sum));
 
         SparsePolynomial sparsePolynomial1 = new SparsePolynomial("4x^2 + 8x + -2");
-        //test that illegal argument exception if we are not given instance of dense polynomial
-        assertThrows(IllegalArgumentException.class, () -> densePolynomial1.equals(sparsePolynomial1));
-
+        //test that a dense polynomial equals a sparse polynomial with the same terms, in both directions
+        assertTrue(densePolynomial1.equals(sparsePolynomial1));
+        assertTrue(sparsePolynomial1.equals(densePolynomial1));
+        assertEquals(densePolynomial1.hashCode(), sparsePolynomial1.hashCode());
+
+        //testing unequal polynomials and objects that are not polynomials
+        assertFalse(densePolynomial1.equals(new SparsePolynomial("4x^2 + 8x + -3")));
+        assertFalse(densePolynomial1.equals(new SparsePolynomial("4x^2 + 8x + -2 + x^-1")));
+        assertFalse(densePolynomial1.equals(new DensePolynomial("4x^3 + 8x + -2")));
+        assertFalse(densePolynomial1.equals("4x^2 + 8x + -2"));
+        assertFalse(densePolynomial1.equals(null));
 
     }
 
@@ -0,0 +1,153 @@
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Estimates the heap taken by the objects the polynomial classes are built from, for a 64-bit JVM with compressed
+ * references: a 12-byte object header, 4-byte references, a 16-byte array header and sizes rounded up to 8 bytes.
+ * Other layouts differ by a few bytes per object, which is within what an estimate is for; sizes are never computed
+ * by walking the heap.
+ */
+final class Footprint {
+    static final int OBJECT_HEADER = 12;
+    static final int ARRAY_HEADER = 16;
+    static final int REFERENCE = 4;
+
+    /**
+     * The size of a TreeMap entry: a header, key, value, left, right and parent references and the colour
+     */
+    static final int TREE_MAP_ENTRY = 40;
+
+    /**
+     * The size of a TreeMap itself, without its entries
+     */
+    static final int TREE_MAP = 48;
+
+    /**
+     * The size of a boxed Integer outside the cache of Integer.valueOf
+     */
+    static final int BOXED_INTEGER = 16;
+
+    private Footprint() {
+    }
+
+    /**
+     * @return bytes rounded up to a multiple of 8
+     */
+    static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    /**
+     * @return the size of an object with fieldBytes bytes of fields
+     */
+    static long object(int fieldBytes) {
+        return align(OBJECT_HEADER + fieldBytes);
+    }
+
+    /**
+     * @return the size of an int[] of the given length
+     */
+    static long intArray(long length) {
+        return align(ARRAY_HEADER + 4 * length);
+    }
+
+    /**
+     * @return the size of a long[] or double[] of the given length
+     */
+    static long longArray(long length) {
+        return align(ARRAY_HEADER + 8 * length);
+    }
+
+    /**
+     * @return the size of an array of references of the given length, without the objects referred to
+     */
+    static long referenceArray(long length) {
+        return align(ARRAY_HEADER + (long) REFERENCE * length);
+    }
+
+    /**
+     * @return the size of a string of Latin-1 characters, as canonical polynomial strings are, or 0 for null
+     */
+    static long string(String s) {
+        return (s == null) ? 0 : object(16) + align(ARRAY_HEADER + s.length());
+    }
+
+    /**
+     * @return the size of cached term arrays, or 0 for null
+     */
+    static long termArrays(TermArrays terms) {
+        return (terms == null) ? 0 : object(2 * REFERENCE) + 2 * intArray(terms.size());
+    }
+
+    /**
+     * @return the size of term arrays holding count terms
+     */
+    static long termArrays(long count) {
+        return object(2 * REFERENCE) + 2 * intArray(count);
+    }
+
+    /**
+     * @return the size of a map from exponent to coefficient, with its entries and the boxed keys and values that
+     * Integer.valueOf does not share
+     */
+    static long treeMap(TreeMap<Integer,Integer> map) {
+        long bytes = TREE_MAP + (long) TREE_MAP_ENTRY * map.size();
+        for(Map.Entry<Integer,Integer> entry: map.entrySet()) {
+            bytes += boxed(entry.getKey()) + boxed(entry.getValue());
+        }
+        return bytes;
+    }
+
+    /**
+     * @return the size of a map from exponent to coefficient holding the counted terms
+     */
+    static long treeMap(TermCount terms) {
+        return TREE_MAP + TREE_MAP_ENTRY * terms.count + BOXED_INTEGER * terms.boxes;
+    }
+
+    /**
+     * @return the size of a map of count entries, assuming none of the boxes are shared
+     */
+    static long treeMap(long count) {
+        return TREE_MAP + (TREE_MAP_ENTRY + 2L * BOXED_INTEGER) * count;
+    }
+
+    private static long boxed(int value) {
+        return (value >= -128 && value <= 127) ? 0 : BOXED_INTEGER;
+    }
+
+    /**
+     * Counts the terms of p with a single pass of forEachTerm, so no copy of the terms is made and no cache is filled
+     *
+     * @param p the polynomial whose terms are counted
+     * @return the counts
+     */
+    static TermCount count(Polynomial p) {
+        TermCount counts = new TermCount();
+        p.forEachTerm(counts);
+        return counts;
+    }
+
+    /**
+     * What the size estimates need to know about a sequence of terms: how many there are, the lowest and highest
+     * exponents, and how many exponents and coefficients Integer.valueOf would box rather than share
+     */
+    static final class TermCount implements IntIntConsumer {
+        long count;
+        long lowest;
+        long highest;
+        long boxes;
+
+        @Override
+        public void accept(int exponent, int coefficient) {
+            if(count == 0 || exponent < lowest) {
+                lowest = exponent;
+            }
+            if(count == 0 || exponent > highest) {
+                highest = exponent;
+            }
+            count++;
+            boxes += (boxed(exponent) + boxed(coefficient)) / BOXED_INTEGER;
+        }
+    }
+}
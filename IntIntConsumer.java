@@ -0,0 +1,14 @@
+/**
+ * An operation that accepts the exponent and coefficient of a single polynomial term.  This is the primitive
+ * specialization used by {@link Polynomial#forEachTerm(IntIntConsumer)} so that terms can be visited without boxing.
+ */
+@FunctionalInterface
+public interface IntIntConsumer {
+    /**
+     * Performs this operation on one term.
+     *
+     * @param exponent the exponent of the term
+     * @param coefficient the non-zero coefficient of the term
+     */
+    void accept(int exponent, int coefficient);
+}
@@ -0,0 +1,105 @@
+import java.util.Arrays;
+
+/**
+ * An open-addressing hash table from int exponents to int coefficients, used to accumulate the terms of a sparse
+ * product without boxing.  Coefficients are added with int wrap-around, like every other polynomial operation.  Probing
+ * is linear and the table doubles when it is half full.  Not thread-safe; each worker uses its own table.
+ */
+final class IntIntHashMap {
+    private int[] keys;
+    private int[] values;
+    private boolean[] filled;
+    private int mask;
+    private int size;
+
+    /**
+     * Creates an empty table with room for about expected entries before it grows
+     *
+     * @param expected the number of entries expected
+     */
+    IntIntHashMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(8, expected) * 2 - 1) << 1;
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        filled = new boolean[capacity];
+        mask = capacity - 1;
+        size = 0;
+    }
+
+    /**
+     * @return the number of keys in the table, including keys whose value has cancelled to 0
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of slots in the table
+     */
+    int capacity() {
+        return keys.length;
+    }
+
+    /**
+     * Adds delta to the value of key, inserting key with value delta if it is absent
+     */
+    void add(int key, int delta) {
+        int h = key * 0x9E3779B9;
+        int slot = (h ^ (h >>> 16)) & mask;
+        while(filled[slot]) {
+            if(keys[slot] == key) {
+                values[slot] += delta;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        filled[slot] = true;
+        keys[slot] = key;
+        values[slot] = delta;
+        if(++size > (mask + 1) / 2) {
+            grow();
+        }
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        boolean[] oldFilled = filled;
+        allocate(2 * oldKeys.length);
+        for(int slot = 0; slot < oldKeys.length; slot++) {
+            if(oldFilled[slot]) {
+                add(oldKeys[slot], oldValues[slot]);
+            }
+        }
+    }
+
+    /**
+     * Removes every entry, keeping the table's capacity
+     */
+    void clear() {
+        Arrays.fill(filled, false);
+        size = 0;
+    }
+
+    /**
+     * Returns the entries with a non-zero value packed with Terms.pack in ascending order of key
+     *
+     * @return the sorted non-zero entries
+     */
+    long[] toSortedTerms() {
+        long[] terms = new long[size];
+        int k = 0;
+        for(int slot = 0; slot < keys.length; slot++) {
+            if(filled[slot] && values[slot] != 0) {
+                terms[k++] = Terms.pack(keys[slot], values[slot]);
+            }
+        }
+        terms = (k == size) ? terms : Arrays.copyOf(terms, k);
+        Arrays.sort(terms);
+        return terms;
+    }
+}
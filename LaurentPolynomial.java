@@ -0,0 +1,505 @@
+import java.util.Arrays;
+import java.util.Spliterator;
+
+/**
+ * A dense polynomial that may have negative exponents.  The coefficients are stored in an array together with an
+ * offset, the exponent of the first entry, so x^-3 + 2 + 5x^2 is the array {1, 0, 0, 2, 0, 5} at offset -3.  The array
+ * is trimmed at both ends, so its first and last entries are non-zero unless it is the zero polynomial {0} at offset
+ * 0.
+ *
+ * Instances are immutable and the array never escapes, so it can be shared: shift(k), which multiplies by x^k, returns
+ * a polynomial over the same array with the offset moved by k, in constant time.  For the same reason the hash code,
+ * which depends on every exponent, is only computed when it is first asked for.
+ *
+ * Arithmetic accepts any Polynomial, including sparse ones with negative exponents, which DensePolynomial rejects.
+ * Operands that are not LaurentPolynomials are laid out densely over the span of their exponents first.  The exponents
+ * of every result must fit an int.
+ */
+public final class LaurentPolynomial implements Polynomial, TermSource {
+    private final int[] coefficients;
+    private final int offset;
+    private int hash;
+    private boolean hashIsZero;
+    private volatile TermArrays terms;
+
+    /**
+     * Creates an instance of a LaurentPolynomial object from the canonical string representation
+     *
+     * Precondition: Coefficients and degrees in String s must be integers
+     * Postcondition: Creates instance of LaurentPolynomial
+     *
+     * @param s the canonical string representation of a polynomial
+     * @throws IllegalArgumentException if a coefficient or degree are not integers or we are given a string that is not canonical
+     */
+    public LaurentPolynomial(String s) {
+        this(PolynomialParser.parse(s, true).toTermArrays());
+    }
+
+    /**
+     * Creates an instance from sorted terms
+     * Precondition: terms holds no zero coefficients
+     * Postcondition: Creates the polynomial with those terms
+     */
+    private LaurentPolynomial(TermArrays terms) {
+        this(layOut(terms), (terms.size() == 0) ? 0 : terms.exponents[0]);
+    }
+
+    /**
+     * Creates an instance from a coefficient array and the exponent of its first entry
+     * Precondition: coefficients is not shared with any other object, as the new instance takes ownership of it, and
+     * offset + coefficients.length - 1 fits an int
+     * Postcondition: Creates the polynomial with the array trimmed of zeros at both ends
+     */
+    private LaurentPolynomial(int[] coefficients, int offset) {
+        int first = 0;
+        int last = coefficients.length - 1;
+        while(first <= last && coefficients[first] == 0) {
+            first++;
+        }
+        while(last > first && coefficients[last] == 0) {
+            last--;
+        }
+        if(first > last) {
+            this.coefficients = new int[]{0};
+            this.offset = 0;
+        }
+        else {
+            this.coefficients = (first == 0 && last == coefficients.length - 1) ? coefficients
+                    : Arrays.copyOfRange(coefficients, first, last + 1);
+            this.offset = offset + first;
+        }
+    }
+
+    /**
+     * Creates an instance that shares an already trimmed array
+     * Precondition: coefficients is trimmed and never modified
+     * Postcondition: Creates the polynomial over coefficients at the given offset
+     */
+    private LaurentPolynomial(int offset, int[] coefficients) {
+        this.coefficients = coefficients;
+        this.offset = offset;
+    }
+
+    /**
+     * Creates a LaurentPolynomial from a coefficient array whose index i holds the coefficient of x^(offset + i).  The
+     * array is copied, so the caller may go on using it.
+     *
+     * Precondition: coefficients is not null and offset + coefficients.length - 1 fits an int
+     * Postcondition: returns a LaurentPolynomial with the given coefficients
+     *
+     * @param coefficients the coefficients in ascending order of exponent
+     * @param offset the exponent of coefficients[0]
+     * @return the polynomial with those coefficients
+     * @throws NullPointerException if coefficients is null
+     * @throws IllegalArgumentException if the highest exponent does not fit an int
+     */
+    public static LaurentPolynomial fromCoefficients(int[] coefficients, int offset) {
+        if(coefficients == null) {
+            throw new NullPointerException("Argument is null");
+        }
+        checkExponents((long) offset + coefficients.length - 1);
+        return new LaurentPolynomial(coefficients.clone(), offset);
+    }
+
+    /**
+     * Returns a LaurentPolynomial with the same terms as any polynomial.  A LaurentPolynomial is returned as is.
+     *
+     * Precondition: p is not null
+     * Postcondition: returns a LaurentPolynomial equal to p
+     *
+     * @param p the polynomial to convert
+     * @return the polynomial laid out from its lowest to its highest exponent
+     * @throws NullPointerException if p is null
+     */
+    public static LaurentPolynomial of(Polynomial p) {
+        if(p == null) {
+            throw new NullPointerException("Argument is null");
+        }
+        if(p instanceof LaurentPolynomial) {
+            return (LaurentPolynomial) p;
+        }
+        if(p instanceof DensePolynomial) {
+            return new LaurentPolynomial(((DensePolynomial) p).getCoefficients(), 0);
+        }
+        return new LaurentPolynomial(TermArrays.of(p));
+    }
+
+    private static int[] layOut(TermArrays terms) {
+        int n = terms.size();
+        if(n == 0) {
+            return new int[]{0};
+        }
+        long span = (long) terms.exponents[n - 1] - terms.exponents[0] + 1;
+        if(span > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("The exponents are too far apart for a dense layout");
+        }
+        int[] coefficients = new int[(int) span];
+        for(int i = 0; i < n; i++) {
+            coefficients[terms.exponents[i] - terms.exponents[0]] = terms.coefficients[i];
+        }
+        return coefficients;
+    }
+
+    private static int checkExponents(long exponent) {
+        if(exponent < Integer.MIN_VALUE || exponent > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Exponent out of range");
+        }
+        return (int) exponent;
+    }
+
+    /**
+     * Returns the degree of the polynomial.
+     * Precondition: None
+     * Postcondition: Returns degree of polynomial
+     * @return the largest exponent with a non-zero coefficient, which may be negative.  For the zero polynomial, it
+     * returns 0.
+     */
+    @Override
+    public int degree() {
+        return offset + coefficients.length - 1;
+    }
+
+    /**
+     * @return the smallest exponent with a non-zero coefficient, or 0 for the zero polynomial
+     */
+    public int lowestExponent() {
+        return offset;
+    }
+
+    /**
+     * Returns the coefficient corresponding to the given exponent.  Returns 0 if there is no term with that exponent
+     * in the polynomial.
+     *
+     * Precondition: None
+     * Postcondition: returns the coefficient of d
+     *
+     * @param d the exponent whose coefficient is returned.
+     * @return the coefficient of the term of whose exponent is d.
+     */
+    @Override
+    public int getCoefficient(int d) {
+        long i = (long) d - offset;
+        return (i >= 0 && i < coefficients.length) ? coefficients[(int) i] : 0;
+    }
+
+    /**
+     * Checks the polynomial to see if it represents the zero constant
+     * Precondition: None
+     * Postcondition: returns true if polynomial represents the zero constant, if not then it returns false
+     * @return true if the polynomial represents the zero constant
+     */
+    @Override
+    public boolean isZero() {
+        return coefficients[0] == 0;
+    }
+
+    /**
+     * Returns this polynomial multiplied by x^k.  The new polynomial shares the coefficient array of this one and only
+     * moves the offset, so this takes constant time whatever the number of terms.
+     *
+     * Precondition: every exponent plus k fits an int
+     * Postcondition: returns the polynomial whose coefficient of x^(d + k) is the coefficient of x^d in this one
+     *
+     * @param k the power of x to multiply by, which may be negative
+     * @return <code>this * </code>x^k
+     * @throws IllegalArgumentException if an exponent of the result does not fit an int
+     */
+    public LaurentPolynomial shift(int k) {
+        if(isZero() || k == 0) {
+            return this;
+        }
+        checkExponents((long) offset + k);
+        checkExponents((long) degree() + k);
+        return new LaurentPolynomial(offset + k, coefficients);
+    }
+
+    /**
+     * Returns a polynomial by adding the parameter to the current instance. Neither the current instance nor the
+     * parameter are modified.
+     *
+     * Precondition: q is not null
+     * Postcondition: returns a polynomial representing the sum of this + q
+     *
+     * @param q the non-null polynomial to add to <code>this</code>
+     * @return <code>this + </code>q
+     * @throws NullPointerException if q is null
+     */
+    @Override
+    public LaurentPolynomial add(Polynomial q) {
+        return combine(of(q), 1);
+    }
+
+    /**
+     * Returns a polynomial by subtracting the parameter from the current instance. Neither the current instance nor
+     * the parameter are modified.
+     *
+     * Precondition: q is not null
+     * Postcondition: returns a polynomial representing the difference of this - q
+     *
+     * @param q the non-null polynomial to subtract from <code>this</code>
+     * @return <code>this - </code>q
+     * @throws NullPointerException if q is null
+     */
+    @Override
+    public LaurentPolynomial subtract(Polynomial q) {
+        return combine(of(q), -1);
+    }
+
+    /**
+     * Returns this + sign * q, aligning the two arrays by their offsets
+     */
+    private LaurentPolynomial combine(LaurentPolynomial q, int sign) {
+        if(q.isZero()) {
+            return this;
+        }
+        if(isZero()) {
+            return (sign == 1) ? q : q.minus();
+        }
+        int low = Math.min(offset, q.offset);
+        int high = Math.max(degree(), q.degree());
+        int[] result = new int[high - low + 1];
+        System.arraycopy(coefficients, 0, result, offset - low, coefficients.length);
+        int base = q.offset - low;
+        for(int i = 0; i < q.coefficients.length; i++) {
+            result[base + i] += sign * q.coefficients[i];
+        }
+        return new LaurentPolynomial(result, low);
+    }
+
+    /**
+     * Returns a polynomial by multiplying the parameter with the current instance. Neither the current instance nor
+     * the parameter are modified.  The coefficient arrays are multiplied with the dense kernels and the offsets add.
+     *
+     * Precondition: q is not null and the exponents of the product fit an int
+     * Postcondition: returns a polynomial representing the product of this * q
+     *
+     * @param q the non-null polynomial to multiply with <code>this</code>
+     * @return <code>this * </code>q
+     * @throws NullPointerException if q is null
+     * @throws IllegalArgumentException if an exponent of the product does not fit an int
+     */
+    @Override
+    public LaurentPolynomial multiply(Polynomial q) {
+        LaurentPolynomial l = of(q);
+        if(isZero() || l.isZero()) {
+            return new LaurentPolynomial(0, new int[]{0});
+        }
+        checkExponents((long) degree() + l.degree());
+        int low = checkExponents((long) offset + l.offset);
+        return new LaurentPolynomial(DenseKernels.multiply(coefficients, l.coefficients), low);
+    }
+
+    /**
+     * Returns a polynomial by negating the current instance. The current instance is not modified.
+     *
+     * Precondition: None
+     * Postcondition: Returns the negated polynomial of this
+     *
+     * @return -this
+     */
+    @Override
+    public LaurentPolynomial minus() {
+        int[] negated = new int[coefficients.length];
+        for(int i = 0; i < negated.length; i++) {
+            negated[i] = -coefficients[i];
+        }
+        return new LaurentPolynomial(offset, negated);
+    }
+
+    /**
+     * Evaluates the polynomial at a point using Horner's rule over the array, scaled by x^offset
+     * Precondition: None
+     * Postcondition: returns the value of the polynomial at x
+     * @param x the point at which to evaluate
+     * @return the value of the polynomial at x
+     */
+    @Override
+    public double evaluate(double x) {
+        double value = 0;
+        for(int i = coefficients.length - 1; i >= 0; i--) {
+            value = value * x + coefficients[i];
+        }
+        return value * Math.pow(x, offset);
+    }
+
+    /**
+     * Estimates the heap taken by this polynomial: the coefficient array, 4 bytes for every exponent from the lowest
+     * to the highest, and the term arrays, once they are built
+     * Precondition: None
+     * Postcondition: returns the estimated size in bytes
+     *
+     * @return the estimated size in bytes
+     */
+    @Override
+    public long estimatedBytes() {
+        return Footprint.object(17) + Footprint.intArray(coefficients.length) + Footprint.termArrays(terms);
+    }
+
+    /**
+     * Estimates the heap a LaurentPolynomial with the terms of p would take, reading the terms of p without copying them
+     *
+     * @param p the polynomial whose terms are sized
+     * @return the estimated size in bytes
+     */
+    static long estimatedBytes(Polynomial p) {
+        Footprint.TermCount terms = Footprint.count(p);
+        long span = (terms.count == 0) ? 1 : terms.highest - terms.lowest + 1;
+        return Footprint.object(17) + Footprint.intArray(span);
+    }
+
+    /**
+     * Checks the class invariant: the array is trimmed at both ends, and the zero polynomial is {0} at offset 0
+     * Precondition: None
+     * PostCondition: returns true if the class invariant holds
+     *
+     * @return {@literal true} if the class invariant holds, and {@literal false} otherwise
+     */
+    @Override
+    public boolean wellFormed() {
+        if(coefficients.length == 0) {
+            return false;
+        }
+        if(coefficients[0] == 0) {
+            return coefficients.length == 1 && offset == 0;
+        }
+        return coefficients[coefficients.length - 1] != 0;
+    }
+
+    /**
+     * Returns a spliterator over the non-zero terms in ascending order of exponent.  The non-zero terms are gathered
+     * once on first use and shared by every later call.
+     *
+     * Precondition: None
+     * Postcondition: returns a SIZED and SUBSIZED spliterator over the non-zero terms, packed with Terms.pack
+     *
+     * @return a spliterator over the non-zero terms
+     */
+    @Override
+    public Spliterator.OfLong termSpliterator() {
+        return termArrays().spliterator();
+    }
+
+    /**
+     * Passes every non-zero term to action in ascending order of exponent, reading the coefficient array directly.
+     *
+     * Precondition: action is not null
+     * Postcondition: action has been called once for each non-zero term
+     *
+     * @param action the operation to perform on each term
+     * @throws NullPointerException if action is null
+     */
+    @Override
+    public void forEachTerm(IntIntConsumer action) {
+        if(action == null) {
+            throw new NullPointerException("Argument is null");
+        }
+        for(int i = 0; i < coefficients.length; i++) {
+            if(coefficients[i] != 0) {
+                action.accept(offset + i, coefficients[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns the non-zero terms as parallel arrays, building them on first use.  Racing threads may each build a copy,
+     * but the copies are identical and TermArrays is immutable, so whichever one is kept is safe to share.
+     *
+     * @return the non-zero terms of this polynomial
+     */
+    @Override
+    public TermArrays termArrays() {
+        TermArrays t = terms;
+        if(t == null) {
+            int count = 0;
+            for(int c: coefficients) {
+                if(c != 0) {
+                    count++;
+                }
+            }
+            int[] exponents = new int[count];
+            int[] values = new int[count];
+            int k = 0;
+            for(int i = 0; i < coefficients.length; i++) {
+                if(coefficients[i] != 0) {
+                    exponents[k] = offset + i;
+                    values[k++] = coefficients[i];
+                }
+            }
+            t = new TermArrays(exponents, values);
+            terms = t;
+        }
+        return t;
+    }
+
+    /**
+     * Checks if o is a Polynomial with the same terms, whatever its representation
+     * Precondition: None
+     * Postcondition: return true if this and o represent same polynomial
+     * @return true if o is a Polynomial with the same terms as this one, false otherwise
+     */
+    @Override
+    public boolean equals(Object o) {
+        if(o == this) {
+            return true;
+        }
+        if(!(o instanceof Polynomial) || o.hashCode() != hashCode()) {
+            return false;
+        }
+        if(o instanceof LaurentPolynomial) {
+            LaurentPolynomial other = (LaurentPolynomial) o;
+            return offset == other.offset && Arrays.equals(coefficients, other.coefficients);
+        }
+        return Terms.sameTerms(this, (Polynomial) o);
+    }
+
+    /**
+     * Returns the sum of Terms.hash over the non-zero terms, so the hash code only depends on the terms.  It is
+     * computed on first use, which keeps shift constant time; racing threads compute the same value.
+     *
+     * Precondition: None
+     * Postcondition: returns the same value for polynomials that are equal
+     *
+     * @return the hash code of this polynomial
+     */
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if(h == 0 && !hashIsZero) {
+            for(int i = 0; i < coefficients.length; i++) {
+                if(coefficients[i] != 0) {
+                    h += Terms.hash(offset + i, coefficients[i]);
+                }
+            }
+            if(h == 0) {
+                hashIsZero = true;
+            }
+            else {
+                hash = h;
+            }
+        }
+        return h;
+    }
+
+    /**
+     * Method takes the polynomial object and returns a string representation in canonical form
+     * Precondition: None
+     * Postcondition: Returns string representation of polynomial
+     * @return String representation of the polynomial in canonical form
+     */
+    @Override
+    public String toString() {
+        if(isZero()) {
+            return "0";
+        }
+        StringBuilder s = new StringBuilder();
+        for(int i = coefficients.length - 1; i >= 0; i--) {
+            if(coefficients[i] != 0) {
+                if(s.length() > 0) {
+                    s.append(" + ");
+                }
+                Terms.appendTerm(s, offset + i, coefficients[i]);
+            }
+        }
+        return s.toString();
+    }
+}
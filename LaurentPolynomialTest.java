@@ -0,0 +1,101 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LaurentPolynomialTest {
+
+    @Test
+    void testLayout() {
+        LaurentPolynomial p = new LaurentPolynomial("5x^2 + 2 + x^-3");
+
+        //testing the degree, the lowest exponent and the coefficients around the stored range
+        assertEquals(2, p.degree());
+        assertEquals(-3, p.lowestExponent());
+        assertEquals(1, p.getCoefficient(-3));
+        assertEquals(0, p.getCoefficient(-2));
+        assertEquals(2, p.getCoefficient(0));
+        assertEquals(5, p.getCoefficient(2));
+        assertEquals(0, p.getCoefficient(Integer.MIN_VALUE));
+        assertEquals(0, p.getCoefficient(Integer.MAX_VALUE));
+        assertEquals("5x^2 + 2 + x^-3", p.toString());
+        assertTrue(p.wellFormed());
+
+        //testing polynomials whose exponents are all negative
+        LaurentPolynomial negative = new LaurentPolynomial("-1x^-2 + 4x^-7");
+        assertEquals(-2, negative.degree());
+        assertEquals(-7, negative.lowestExponent());
+
+        //testing the zero polynomial and conversions from the other representations
+        LaurentPolynomial zero = new LaurentPolynomial("0");
+        assertTrue(zero.isZero());
+        assertEquals(0, zero.degree());
+        assertEquals("0", zero.toString());
+        assertEquals(p, LaurentPolynomial.of(new SparsePolynomial("5x^2 + 2 + x^-3")));
+        assertEquals(new DensePolynomial("3x^2 + 1"), LaurentPolynomial.of(new DensePolynomial("3x^2 + 1")));
+        assertEquals(p, LaurentPolynomial.fromCoefficients(new int[]{0, 1, 0, 0, 2, 0, 5, 0}, -4));
+        assertTrue(LaurentPolynomial.fromCoefficients(new int[]{0, 0}, -9).isZero());
+        assertThrows(IllegalArgumentException.class, () -> new LaurentPolynomial("x + x^2"));
+        assertThrows(IllegalArgumentException.class, () -> LaurentPolynomial.of(new SparsePolynomial("x^2000000000 + x^-2000000000")));
+    }
+
+    @Test
+    void testShift() {
+        LaurentPolynomial p = new LaurentPolynomial("5x^2 + 2 + x^-3");
+
+        //testing that a shift moves every exponent and leaves the original alone
+        LaurentPolynomial shifted = p.shift(-10);
+        assertEquals("5x^-8 + 2x^-10 + x^-13", shifted.toString());
+        assertEquals("5x^2 + 2 + x^-3", p.toString());
+        assertEquals(p, shifted.shift(10));
+        assertEquals(p.multiply(new SparsePolynomial("x^-10")), shifted);
+        assertEquals(shifted.hashCode(), new SparsePolynomial("5x^-8 + 2x^-10 + x^-13").hashCode());
+        assertSame(p, p.shift(0));
+
+        //testing that shifting past the range of int is rejected
+        assertThrows(IllegalArgumentException.class, () -> p.shift(Integer.MAX_VALUE));
+        assertThrows(IllegalArgumentException.class, () -> p.shift(Integer.MIN_VALUE));
+    }
+
+    @Test
+    void testArithmetic() {
+        LaurentPolynomial p = new LaurentPolynomial("5x^2 + 2 + x^-3");
+        SparsePolynomial q = new SparsePolynomial("-5x^2 + 3x + -1x^-3 + 7x^-5");
+
+        //testing sums and differences with a sparse polynomial with negative exponents
+        assertEquals(new SparsePolynomial("3x + 2 + 7x^-5"), p.add(q));
+        assertEquals(p.add(q), q.add(p));
+        assertEquals(new SparsePolynomial("10x^2 + -3x + 2 + 2x^-3 + -7x^-5"), p.subtract(q));
+        assertTrue(p.subtract(p).isZero());
+        assertTrue(p.add(p.minus()).wellFormed());
+
+        //testing that the product agrees with the sparse product
+        assertEquals(q.multiply(p), p.multiply(q));
+        assertEquals(p, p.multiply(new DensePolynomial("1")));
+        assertTrue(p.multiply(new LaurentPolynomial("0")).isZero());
+        assertEquals(q.evaluate(1.5) * p.evaluate(1.5), p.multiply(q).evaluate(1.5), 1e-9);
+
+        Random random = new Random(43);
+        int[] a = new int[500];
+        int[] b = new int[300];
+        for(int i = 0; i < a.length; i++) {
+            a[i] = random.nextInt(100) - 50;
+        }
+        for(int i = 0; i < b.length; i++) {
+            b[i] = random.nextInt(100) - 50;
+        }
+        a[0] = b[0] = a[a.length - 1] = b[b.length - 1] = 1;
+        LaurentPolynomial la = LaurentPolynomial.fromCoefficients(a, -250);
+        LaurentPolynomial lb = LaurentPolynomial.fromCoefficients(b, -1000);
+        SparsePolynomial sa = SparsePolynomial.fromTerms(la.terms().mapToInt(Terms::exponent).toArray(), la.terms().mapToInt(Terms::coefficient).toArray());
+        SparsePolynomial sb = SparsePolynomial.fromTerms(lb.terms().mapToInt(Terms::exponent).toArray(), lb.terms().mapToInt(Terms::coefficient).toArray());
+
+        //testing long products, which go through the dense kernels, against the sparse multiplier
+        assertEquals(sa.multiply(sb), la.multiply(lb));
+        assertEquals(la.multiply(lb), sb.multiply(la));
+
+        assertThrows(IllegalArgumentException.class, () -> new LaurentPolynomial("x^2000000000").multiply(new LaurentPolynomial("x^2000000000")));
+        assertThrows(NullPointerException.class, () -> p.add(null));
+    }
+}
@@ -0,0 +1,287 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+import java.util.Random;
+
+/**
+ * The crossover points DenseKernels uses to pick a multiplication kernel, measured as the length of the shorter factor:
+ * the plain schoolbook loop below blockedThreshold, the blocked schoolbook kernel below karatsubaThreshold, Karatsuba's
+ * method below transformThreshold, and the number-theoretic transform from there on.
+ *
+ * The thresholds in use are loaded once, when the class is first used, from a properties profile.  The profile is
+ * read from the file named by the system property polynomial.tuning.profile, or from .polynomial-tuning.properties in
+ * the user's home directory; when there is no readable profile the built-in defaults are used.  Running this class
+ * benchmarks the kernels on the host machine and writes a new profile:
+ *
+ * <pre>
+ * usage: java MultiplyTuning [profile]
+ * </pre>
+ */
+public final class MultiplyTuning {
+
+    /**
+     * The system property that names the profile file
+     */
+    public static final String PROFILE_PROPERTY = "polynomial.tuning.profile";
+
+    /**
+     * The thresholds used when no profile is found
+     */
+    public static final MultiplyTuning DEFAULTS = new MultiplyTuning(64, 128, 8192);
+
+    private static volatile MultiplyTuning current = load(defaultProfile());
+
+    private final int blockedThreshold;
+    private final int karatsubaThreshold;
+    private final int transformThreshold;
+
+    /**
+     * Creates a set of thresholds
+     * Precondition: 1 &lt;= blockedThreshold, 2 &lt;= karatsubaThreshold and karatsubaThreshold &lt;= transformThreshold
+     * Postcondition: Creates an instance holding the given thresholds
+     *
+     * @param blockedThreshold the shortest factor length that uses the blocked kernel
+     * @param karatsubaThreshold the shortest factor length that uses Karatsuba's method
+     * @param transformThreshold the shortest factor length that uses the transform
+     * @throws IllegalArgumentException if the thresholds are out of range or out of order
+     */
+    public MultiplyTuning(int blockedThreshold, int karatsubaThreshold, int transformThreshold) {
+        if(blockedThreshold < 1 || karatsubaThreshold < 2 || karatsubaThreshold > transformThreshold) {
+            throw new IllegalArgumentException("Thresholds are out of range or out of order");
+        }
+        this.blockedThreshold = blockedThreshold;
+        this.karatsubaThreshold = karatsubaThreshold;
+        this.transformThreshold = transformThreshold;
+    }
+
+    /**
+     * @return the shortest factor length that uses the blocked schoolbook kernel
+     */
+    public int blockedThreshold() {
+        return blockedThreshold;
+    }
+
+    /**
+     * @return the shortest factor length that uses Karatsuba's method
+     */
+    public int karatsubaThreshold() {
+        return karatsubaThreshold;
+    }
+
+    /**
+     * @return the shortest factor length that uses the number-theoretic transform
+     */
+    public int transformThreshold() {
+        return transformThreshold;
+    }
+
+    /**
+     * @return the thresholds DenseKernels currently uses
+     */
+    public static MultiplyTuning current() {
+        return current;
+    }
+
+    /**
+     * Makes tuning the thresholds every later multiplication uses
+     * Precondition: tuning is not null
+     * Postcondition: current() returns tuning
+     *
+     * @param tuning the thresholds to use
+     * @throws NullPointerException if tuning is null
+     */
+    public static void install(MultiplyTuning tuning) {
+        if(tuning == null) {
+            throw new NullPointerException("Argument is null");
+        }
+        current = tuning;
+    }
+
+    /**
+     * @return the profile named by the system property, or the one in the user's home directory
+     */
+    public static Path defaultProfile() {
+        String name = System.getProperty(PROFILE_PROPERTY);
+        return (name != null) ? Paths.get(name) : Paths.get(System.getProperty("user.home"), ".polynomial-tuning.properties");
+    }
+
+    /**
+     * Reads thresholds from a profile, falling back to DEFAULTS for a missing or unreadable profile and for any
+     * missing or invalid entry
+     * Precondition: profile is not null
+     * Postcondition: returns valid thresholds
+     *
+     * @param profile the properties file to read
+     * @return the thresholds in the profile
+     */
+    public static MultiplyTuning load(Path profile) {
+        Properties properties = new Properties();
+        try(InputStream in = Files.newInputStream(profile)) {
+            properties.load(in);
+            return new MultiplyTuning(
+                    Integer.parseInt(properties.getProperty("blocked.threshold", "" + DEFAULTS.blockedThreshold)),
+                    Integer.parseInt(properties.getProperty("karatsuba.threshold", "" + DEFAULTS.karatsubaThreshold)),
+                    Integer.parseInt(properties.getProperty("transform.threshold", "" + DEFAULTS.transformThreshold)));
+        }
+        catch(IOException | IllegalArgumentException e) {
+            return DEFAULTS;
+        }
+    }
+
+    /**
+     * Writes these thresholds to a profile
+     * Precondition: profile is not null
+     * Postcondition: load(profile) returns thresholds equal to these
+     *
+     * @param profile the properties file to write; it is created or replaced
+     * @throws IOException if the profile cannot be written
+     */
+    public void save(Path profile) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("blocked.threshold", Integer.toString(blockedThreshold));
+        properties.setProperty("karatsuba.threshold", Integer.toString(karatsubaThreshold));
+        properties.setProperty("transform.threshold", Integer.toString(transformThreshold));
+        Path parent = profile.toAbsolutePath().getParent();
+        if(parent != null) {
+            Files.createDirectories(parent);
+        }
+        try(OutputStream out = Files.newOutputStream(profile)) {
+            properties.store(out, "Dense multiplication thresholds measured by MultiplyTuning");
+        }
+    }
+
+    /**
+     * Benchmarks the kernels on square products of growing size and returns the crossover points found.  Each
+     * crossover is the smallest size from which the faster kernel wins at that size and at the next one measured, which
+     * keeps a single noisy measurement from moving a threshold.  Takes a few seconds.
+     * Precondition: None
+     * Postcondition: returns thresholds measured on this machine
+     *
+     * @return the measured thresholds
+     */
+    public static MultiplyTuning tune() {
+        Random random = new Random(37);
+        int[] sizes = {4, 6, 8, 12, 16, 24, 32, 48, 64, 96, 128, 192, 256, 384, 512, 768, 1024, 1536, 2048, 3072, 4096,
+                6144, 8192, 12288, 16384, 24576, 32768};
+        double[] schoolbook = new double[sizes.length];
+        double[] blocked = new double[sizes.length];
+        double[] karatsuba = new double[sizes.length];
+        for(int s = 0; s < sizes.length && sizes[s] <= 512; s++) {
+            int[] a = randomArray(random, sizes[s]);
+            int[] b = randomArray(random, sizes[s]);
+            schoolbook[s] = time(() -> DenseKernels.schoolbook(a, b));
+            blocked[s] = time(() -> DenseKernels.blocked(a, b));
+        }
+        int blockedThreshold = crossover(sizes, schoolbook, blocked, 512, 512);
+
+        // one level of Karatsuba on top of the blocked kernel, against the blocked kernel alone
+        for(int s = 0; s < sizes.length && sizes[s] <= 1024; s++) {
+            int[] a = randomArray(random, sizes[s]);
+            int[] b = randomArray(random, sizes[s]);
+            int size = sizes[s];
+            blocked[s] = time(() -> DenseKernels.blocked(a, b));
+            karatsuba[s] = time(() -> DenseKernels.karatsuba(a, b, Math.max(2, size)));
+        }
+        int karatsubaThreshold = Math.max(Math.max(2, blockedThreshold), crossover(sizes, blocked, karatsuba, 1024, 1024));
+
+        double[] transform = new double[sizes.length];
+        for(int s = 0; s < sizes.length; s++) {
+            int[] a = randomArray(random, sizes[s]);
+            int[] b = randomArray(random, sizes[s]);
+            karatsuba[s] = time(() -> DenseKernels.karatsuba(a, b, karatsubaThreshold));
+            transform[s] = time(() -> DenseKernels.transform(a, b));
+        }
+        int transformThreshold = Math.max(karatsubaThreshold, crossover(sizes, karatsuba, transform, 32768, Integer.MAX_VALUE));
+        return new MultiplyTuning(blockedThreshold, karatsubaThreshold, transformThreshold);
+    }
+
+    /**
+     * Returns the first size up to limit from which faster beats slower at that size and the next, or never when it
+     * does not
+     */
+    private static int crossover(int[] sizes, double[] slower, double[] faster, int limit, int never) {
+        for(int s = 0; s + 1 < sizes.length && sizes[s + 1] <= limit; s++) {
+            if(faster[s] < slower[s] && faster[s + 1] < slower[s + 1]) {
+                return sizes[s];
+            }
+        }
+        return never;
+    }
+
+    private static int[] randomArray(Random random, int n) {
+        int[] a = new int[n];
+        for(int i = 0; i < n; i++) {
+            a[i] = random.nextInt();
+        }
+        return a;
+    }
+
+    /**
+     * Returns the best time in nanoseconds per run of task, after a warm-up
+     */
+    private static double time(Runnable task) {
+        long warmupEnd = System.nanoTime() + 20_000_000L;
+        while(System.nanoTime() < warmupEnd) {
+            task.run();
+        }
+        double best = Double.MAX_VALUE;
+        for(int trial = 0; trial < 5; trial++) {
+            int runs = 0;
+            long start = System.nanoTime();
+            long elapsed;
+            do {
+                task.run();
+                runs++;
+                elapsed = System.nanoTime() - start;
+            } while(elapsed < 2_000_000L);
+            best = Math.min(best, (double) elapsed / runs);
+        }
+        return best;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if(!(o instanceof MultiplyTuning)) {
+            return false;
+        }
+        MultiplyTuning other = (MultiplyTuning) o;
+        return blockedThreshold == other.blockedThreshold && karatsubaThreshold == other.karatsubaThreshold
+                && transformThreshold == other.transformThreshold;
+    }
+
+    @Override
+    public int hashCode() {
+        return (blockedThreshold * 31 + karatsubaThreshold) * 31 + transformThreshold;
+    }
+
+    @Override
+    public String toString() {
+        return "blocked from " + blockedThreshold + ", Karatsuba from " + karatsubaThreshold + ", transform from "
+                + transformThreshold;
+    }
+
+    /**
+     * Measures the thresholds on this machine, installs them and writes them to a profile
+     *
+     * @param args an optional profile path; the default profile otherwise
+     */
+    public static void main(String[] args) {
+        PrintStream err = System.err;
+        Path profile = (args.length > 0) ? Paths.get(args[0]) : defaultProfile();
+        MultiplyTuning tuning = tune();
+        install(tuning);
+        try {
+            tuning.save(profile);
+            err.println(tuning + " (saved to " + profile + ")");
+        }
+        catch(IOException e) {
+            err.println("error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
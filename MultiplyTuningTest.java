@@ -0,0 +1,46 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MultiplyTuningTest {
+
+    @Test
+    void testProfile() throws IOException {
+        Path profile = Files.createTempFile("polynomial-tuning", ".properties");
+        try {
+            MultiplyTuning tuning = new MultiplyTuning(12, 40, 900);
+
+            //testing that saved thresholds load back unchanged
+            tuning.save(profile);
+            assertEquals(tuning, MultiplyTuning.load(profile));
+
+            //testing that missing entries take their default and bad profiles fall back to the defaults
+            Files.write(profile, "karatsuba.threshold=64\n".getBytes(StandardCharsets.ISO_8859_1));
+            assertEquals(new MultiplyTuning(MultiplyTuning.DEFAULTS.blockedThreshold(), 64,
+                    MultiplyTuning.DEFAULTS.transformThreshold()), MultiplyTuning.load(profile));
+            Files.write(profile, "karatsuba.threshold=many\n".getBytes(StandardCharsets.ISO_8859_1));
+            assertEquals(MultiplyTuning.DEFAULTS, MultiplyTuning.load(profile));
+            Files.write(profile, "karatsuba.threshold=100000\n".getBytes(StandardCharsets.ISO_8859_1));
+            assertEquals(MultiplyTuning.DEFAULTS, MultiplyTuning.load(profile));
+            Files.delete(profile);
+            assertEquals(MultiplyTuning.DEFAULTS, MultiplyTuning.load(profile));
+        }
+        finally {
+            Files.deleteIfExists(profile);
+        }
+    }
+
+    @Test
+    void testThresholds() {
+        //testing that thresholds out of order are rejected
+        assertThrows(IllegalArgumentException.class, () -> new MultiplyTuning(0, 32, 64));
+        assertThrows(IllegalArgumentException.class, () -> new MultiplyTuning(8, 1, 64));
+        assertThrows(IllegalArgumentException.class, () -> new MultiplyTuning(8, 128, 64));
+        assertThrows(NullPointerException.class, () -> MultiplyTuning.install(null));
+    }
+}
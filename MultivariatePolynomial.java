@@ -0,0 +1,735 @@
+import java.util.Arrays;
+
+/**
+ * An immutable sparse polynomial in up to eight variables with integer coefficients and non-negative exponents.  The
+ * variables are single lower-case letters given in order, such as "xyz", and every monomial is packed into one long
+ * (Kronecker packing): the exponent of each variable gets a field of 63 / n bits, capped at 31, with the first
+ * variable in the highest field.  Comparing two packed monomials is then one long comparison, which orders them
+ * lexicographically by exponent, and multiplying two monomials is one long addition.  The largest exponent a variable
+ * can have is 2^31 - 1 for one or two variables, 2^21 - 1 for three and 127 for eight.
+ *
+ * The terms are kept as two parallel arrays in ascending order of packed monomial with no zero coefficients, so the
+ * zero polynomial has no terms.  Coefficients wrap around on overflow like int arithmetic, as in the univariate
+ * polynomials.
+ *
+ * The canonical string lists the terms in descending order of monomial, joined by " + " or " - ", each written as a
+ * coefficient followed by the variables it contains in order, as in "3x^2y + -1xz^3 + y - 5".  A coefficient of 1 may be
+ * left out in front of a variable, and the zero polynomial is written "0".
+ */
+public final class MultivariatePolynomial {
+
+    /**
+     * The largest number of variables a polynomial can have
+     */
+    public static final int MAX_VARIABLES = 8;
+
+    /**
+     * Factors whose Kronecker substitution spans at most this many times their number of terms are multiplied as dense
+     * coefficient arrays
+     */
+    static final int DENSE_SPREAD = 8;
+
+    private final String variables;
+    private final int width;
+    private final long[] monomials;
+    private final int[] coefficients;
+    private final int hash;
+
+    /**
+     * Creates an instance of a MultivariatePolynomial object from the canonical string representation
+     *
+     * Precondition: Coefficients and exponents in String s must be integers, and every variable in s is in variables
+     * Postcondition: Creates instance of MultivariatePolynomial
+     *
+     * @param s the canonical string representation of a polynomial
+     * @param variables the names of the variables in order, one letter each, such as "xyz"
+     * @throws NullPointerException if s or variables is null
+     * @throws IllegalArgumentException if variables is not a list of one to eight distinct lower-case letters, or s is
+     * not a canonical string over those variables
+     */
+    public MultivariatePolynomial(String s, String variables) {
+        if(s == null || variables == null) {
+            throw new NullPointerException("Argument is null");
+        }
+        this.variables = checkVariables(variables);
+        this.width = width(variables.length());
+        Builder parsed = parse(s);
+        this.monomials = Arrays.copyOf(parsed.monomials, parsed.length);
+        this.coefficients = Arrays.copyOf(parsed.coefficients, parsed.length);
+        this.hash = hashTerms(monomials, coefficients);
+    }
+
+    /**
+     * Creates an instance from sorted terms
+     * Precondition: monomials is strictly ascending, no coefficient is zero and neither array is shared
+     * Postcondition: Creates an instance that takes ownership of both arrays
+     */
+    private MultivariatePolynomial(String variables, long[] monomials, int[] coefficients) {
+        this.variables = variables;
+        this.width = width(variables.length());
+        this.monomials = monomials;
+        this.coefficients = coefficients;
+        this.hash = hashTerms(monomials, coefficients);
+    }
+
+    /**
+     * Returns a new builder that assembles a MultivariatePolynomial term by term without any string parsing
+     *
+     * @param variables the names of the variables in order, one letter each, such as "xyz"
+     * @return an empty builder
+     * @throws NullPointerException if variables is null
+     * @throws IllegalArgumentException if variables is not a list of one to eight distinct lower-case letters
+     */
+    public static Builder builder(String variables) {
+        if(variables == null) {
+            throw new NullPointerException("Argument is null");
+        }
+        return new Builder(checkVariables(variables));
+    }
+
+    /**
+     * Assembles a MultivariatePolynomial term by term.  Terms are appended to growable primitive arrays and sorted once
+     * by build(), which skips the sort when the terms were added in ascending order.  A builder is not thread-safe, but
+     * it may be reused after build().
+     */
+    public static final class Builder {
+        private final String variables;
+        private final int width;
+        private long[] monomials = new long[8];
+        private int[] coefficients = new int[8];
+        private int length;
+
+        private Builder(String variables) {
+            this.variables = variables;
+            this.width = width(variables.length());
+        }
+
+        /**
+         * Adds coefficient to the coefficient of the monomial with the given exponents
+         * Precondition: there is one exponent per variable, each between 0 and the largest exponent a field holds
+         * Postcondition: the coefficient of the monomial in the built polynomial grows by coefficient
+         * @param coefficient the amount to add
+         * @param exponents the exponent of each variable, in order
+         * @return this builder
+         * @throws NullPointerException if exponents is null
+         * @throws IllegalArgumentException if the number of exponents is wrong or an exponent is out of range
+         */
+        public Builder addTerm(int coefficient, int... exponents) {
+            if(exponents == null) {
+                throw new NullPointerException("Argument is null");
+            }
+            if(exponents.length != variables.length()) {
+                throw new IllegalArgumentException("Expected one exponent per variable");
+            }
+            long monomial = 0;
+            for(int exponent: exponents) {
+                if(exponent < 0 || exponent > (1L << width) - 1) {
+                    throw new IllegalArgumentException("Exponent out of range");
+                }
+                monomial = (monomial << width) | exponent;
+            }
+            add(monomial, coefficient);
+            return this;
+        }
+
+        private void add(long monomial, int coefficient) {
+            if(length == monomials.length) {
+                monomials = Arrays.copyOf(monomials, 2 * length);
+                coefficients = Arrays.copyOf(coefficients, 2 * length);
+            }
+            monomials[length] = monomial;
+            coefficients[length++] = coefficient;
+        }
+
+        /**
+         * Creates a MultivariatePolynomial from the terms added so far.  Coefficients of the same monomial are added
+         * together and zero coefficients are dropped.  The builder keeps its terms and can go on growing.
+         * @return the polynomial built so far
+         */
+        public MultivariatePolynomial build() {
+            boolean sorted = true;
+            for(int i = 0; i < length; i++) {
+                if(coefficients[i] == 0 || (i > 0 && monomials[i - 1] >= monomials[i])) {
+                    sorted = false;
+                    break;
+                }
+            }
+            if(sorted) {
+                return new MultivariatePolynomial(variables, Arrays.copyOf(monomials, length), Arrays.copyOf(coefficients, length));
+            }
+
+            // sort the distinct monomials, then find the slot of every term by binary search
+            long[] distinct = Arrays.copyOf(monomials, length);
+            Arrays.sort(distinct);
+            int n = 0;
+            for(int i = 0; i < length; i++) {
+                if(n == 0 || distinct[n - 1] != distinct[i]) {
+                    distinct[n++] = distinct[i];
+                }
+            }
+            int[] sums = new int[n];
+            for(int i = 0; i < length; i++) {
+                sums[Arrays.binarySearch(distinct, 0, n, monomials[i])] += coefficients[i];
+            }
+            int k = 0;
+            for(int i = 0; i < n; i++) {
+                if(sums[i] != 0) {
+                    distinct[k] = distinct[i];
+                    sums[k++] = sums[i];
+                }
+            }
+            return new MultivariatePolynomial(variables, Arrays.copyOf(distinct, k), Arrays.copyOf(sums, k));
+        }
+    }
+
+    /**
+     * @return the names of the variables in order
+     */
+    public String variables() {
+        return variables;
+    }
+
+    /**
+     * @return the number of non-zero terms
+     */
+    public int termCount() {
+        return monomials.length;
+    }
+
+    /**
+     * Checks the polynomial to see if it represents the zero constant
+     * Precondition: None
+     * Postcondition: returns true if polynomial represents the zero constant, if not then it returns false
+     * @return true if the polynomial represents the zero constant
+     */
+    public boolean isZero() {
+        return monomials.length == 0;
+    }
+
+    /**
+     * Returns the coefficient of the monomial with the given exponents, found by binary search on its packed form
+     * Precondition: None
+     * Postcondition: returns the coefficient, or 0 if there is no such term
+     *
+     * @param exponents the exponent of each variable, in order
+     * @return the coefficient of the monomial
+     * @throws NullPointerException if exponents is null
+     * @throws IllegalArgumentException if the number of exponents is wrong
+     */
+    public int getCoefficient(int... exponents) {
+        if(exponents == null) {
+            throw new NullPointerException("Argument is null");
+        }
+        if(exponents.length != variables.length()) {
+            throw new IllegalArgumentException("Expected one exponent per variable");
+        }
+        long monomial = 0;
+        for(int exponent: exponents) {
+            if(exponent < 0 || exponent > mask()) {
+                return 0;
+            }
+            monomial = (monomial << width) | exponent;
+        }
+        int i = Arrays.binarySearch(monomials, monomial);
+        return (i >= 0) ? coefficients[i] : 0;
+    }
+
+    /**
+     * Returns the largest exponent of one variable
+     * Precondition: 0 &lt;= variable &lt; variables().length()
+     * Postcondition: returns the degree in that variable, 0 for the zero polynomial
+     *
+     * @param variable the index of the variable
+     * @return the largest exponent of the variable over all terms
+     * @throws IllegalArgumentException if variable is out of range
+     */
+    public int degree(int variable) {
+        if(variable < 0 || variable >= variables.length()) {
+            throw new IllegalArgumentException("No such variable");
+        }
+        return degrees(monomials)[variable];
+    }
+
+    /**
+     * @return the largest sum of exponents over all terms, 0 for the zero polynomial
+     */
+    public int totalDegree() {
+        long total = 0;
+        for(long monomial: monomials) {
+            long sum = 0;
+            for(int v = 0; v < variables.length(); v++) {
+                sum += exponent(monomial, v);
+            }
+            total = Math.max(total, sum);
+        }
+        return (int) total;
+    }
+
+    /**
+     * Returns a polynomial by adding the parameter to the current instance. Neither the current instance nor the
+     * parameter are modified.  The sorted terms of both operands are merged in one linear pass.
+     *
+     * Precondition: q is not null and has the same variables
+     * Postcondition: returns a polynomial representing the sum of this + q
+     *
+     * @param q the non-null polynomial to add to <code>this</code>
+     * @return <code>this + </code>q
+     * @throws NullPointerException if q is null
+     * @throws IllegalArgumentException if q has different variables
+     */
+    public MultivariatePolynomial add(MultivariatePolynomial q) {
+        checkVariables(q);
+        return merge(monomials, coefficients, q.monomials, q.coefficients, 1);
+    }
+
+    /**
+     * Returns a polynomial by subtracting the parameter from the current instance. Neither the current instance nor
+     * the parameter are modified.  The sorted terms of both operands are merged in one linear pass.
+     *
+     * Precondition: q is not null and has the same variables
+     * Postcondition: returns a polynomial representing the difference of this - q
+     *
+     * @param q the non-null polynomial to subtract from <code>this</code>
+     * @return <code>this - </code>q
+     * @throws NullPointerException if q is null
+     * @throws IllegalArgumentException if q has different variables
+     */
+    public MultivariatePolynomial subtract(MultivariatePolynomial q) {
+        checkVariables(q);
+        return merge(monomials, coefficients, q.monomials, q.coefficients, -1);
+    }
+
+    /**
+     * Returns a polynomial by negating the current instance. The current instance is not modified.
+     *
+     * Precondition: None
+     * Postcondition: Returns the negated polynomial of this
+     *
+     * @return -this
+     */
+    public MultivariatePolynomial minus() {
+        int[] negated = new int[coefficients.length];
+        for(int i = 0; i < negated.length; i++) {
+            negated[i] = -coefficients[i];
+        }
+        return new MultivariatePolynomial(variables, monomials, negated);
+    }
+
+    /**
+     * Returns a polynomial by multiplying the parameter with the current instance. Neither the current instance nor
+     * the parameter are modified.
+     *
+     * The product is computed by Kronecker substitution: variable i is replaced by a power of x chosen so that the
+     * exponents of the product cannot collide, which turns both factors into univariate polynomials.  Those are
+     * multiplied with the dense kernels when the substitution packs them closely and with the sparse multiplier
+     * otherwise, and the product is mapped back term by term.  Because the substitution preserves the order of the
+     * monomials, no sort is needed.  When the substituted exponents do not fit an int, the rows of term products are
+     * merged directly on the packed monomials instead.
+     *
+     * Precondition: q is not null, has the same variables, and the exponents of the product fit their fields
+     * Postcondition: returns a polynomial representing the product of this * q
+     *
+     * @param q the non-null polynomial to multiply with <code>this</code>
+     * @return <code>this * </code>q
+     * @throws NullPointerException if q is null
+     * @throws IllegalArgumentException if q has different variables or an exponent of the product is out of range
+     */
+    public MultivariatePolynomial multiply(MultivariatePolynomial q) {
+        checkVariables(q);
+        if(isZero() || q.isZero()) {
+            return new MultivariatePolynomial(variables, new long[0], new int[0]);
+        }
+        int n = variables.length();
+        int[] pDegrees = degrees(monomials);
+        int[] qDegrees = degrees(q.monomials);
+        long[] radix = new long[n];
+        long span = 1;
+        for(int v = 0; v < n; v++) {
+            radix[v] = (long) pDegrees[v] + qDegrees[v] + 1;
+            if(radix[v] - 1 > mask()) {
+                throw new IllegalArgumentException("Exponent out of range");
+            }
+            span = (span > Integer.MAX_VALUE) ? span : span * radix[v];
+        }
+        if(span > Integer.MAX_VALUE) {
+            return multiplyRows(q);
+        }
+
+        int[] a = substitute(monomials, radix);
+        int[] b = substitute(q.monomials, radix);
+        int aSpan = a[a.length - 1] + 1;
+        int bSpan = b[b.length - 1] + 1;
+        if(aSpan <= (long) DENSE_SPREAD * a.length && bSpan <= (long) DENSE_SPREAD * b.length) {
+            int[] product = DenseKernels.multiply(scatter(a, coefficients, aSpan), scatter(b, q.coefficients, bSpan));
+            int count = 0;
+            for(int c: product) {
+                if(c != 0) {
+                    count++;
+                }
+            }
+            long[] productMonomials = new long[count];
+            int[] productCoefficients = new int[count];
+            int k = 0;
+            for(int e = 0; e < product.length; e++) {
+                if(product[e] != 0) {
+                    productMonomials[k] = unsubstitute(e, radix);
+                    productCoefficients[k++] = product[e];
+                }
+            }
+            return new MultivariatePolynomial(variables, productMonomials, productCoefficients);
+        }
+
+        TermArrays product = SparseMultiplier.multiply(new TermArrays(a, coefficients), new TermArrays(b, q.coefficients));
+        long[] productMonomials = new long[product.size()];
+        for(int i = 0; i < productMonomials.length; i++) {
+            productMonomials[i] = unsubstitute(product.exponents[i], radix);
+        }
+        return new MultivariatePolynomial(variables, productMonomials, product.coefficients);
+    }
+
+    /**
+     * Multiplies without substitution: each term of the shorter factor times the longer factor is a row that is already
+     * sorted, since adding a monomial to packed monomials without carries keeps their order, and the rows are summed
+     * with a tournament of pairwise merges
+     */
+    private MultivariatePolynomial multiplyRows(MultivariatePolynomial q) {
+        MultivariatePolynomial p = this;
+        if(p.monomials.length > q.monomials.length) {
+            p = q;
+            q = this;
+        }
+        MultivariatePolynomial[] round = new MultivariatePolynomial[p.monomials.length];
+        for(int i = 0; i < round.length; i++) {
+            long[] rowMonomials = new long[q.monomials.length];
+            int[] rowCoefficients = new int[q.monomials.length];
+            int k = 0;
+            for(int j = 0; j < rowMonomials.length; j++) {
+                int c = p.coefficients[i] * q.coefficients[j];
+                if(c != 0) {
+                    rowMonomials[k] = p.monomials[i] + q.monomials[j];
+                    rowCoefficients[k++] = c;
+                }
+            }
+            round[i] = new MultivariatePolynomial(variables, Arrays.copyOf(rowMonomials, k), Arrays.copyOf(rowCoefficients, k));
+        }
+        int n = round.length;
+        while(n > 1) {
+            int next = 0;
+            for(int i = 0; i < n; i += 2) {
+                round[next++] = (i + 1 < n) ? round[i].add(round[i + 1]) : round[i];
+            }
+            n = next;
+        }
+        return round[0];
+    }
+
+    /**
+     * Returns the univariate exponent of every monomial under the substitution with the given radices
+     */
+    private int[] substitute(long[] monomials, long[] radix) {
+        int[] exponents = new int[monomials.length];
+        for(int i = 0; i < monomials.length; i++) {
+            long e = 0;
+            for(int v = 0; v < radix.length; v++) {
+                e = e * radix[v] + exponent(monomials[i], v);
+            }
+            exponents[i] = (int) e;
+        }
+        return exponents;
+    }
+
+    /**
+     * Maps a univariate exponent back to the packed monomial it stands for
+     */
+    private long unsubstitute(int e, long[] radix) {
+        long monomial = 0;
+        int shift = 0;
+        for(int v = radix.length - 1; v >= 0; v--) {
+            monomial |= (e % radix[v]) << shift;
+            e /= radix[v];
+            shift += width;
+        }
+        return monomial;
+    }
+
+    private static int[] scatter(int[] exponents, int[] coefficients, int length) {
+        int[] dense = new int[length];
+        for(int i = 0; i < exponents.length; i++) {
+            dense[exponents[i]] = coefficients[i];
+        }
+        return dense;
+    }
+
+    /**
+     * Evaluates the polynomial at a point
+     * Precondition: there is one value per variable
+     * Postcondition: returns the value of the polynomial at the point
+     *
+     * @param values the value of each variable, in order
+     * @return the value of the polynomial at the point
+     * @throws NullPointerException if values is null
+     * @throws IllegalArgumentException if the number of values is wrong
+     */
+    public double evaluate(double... values) {
+        if(values == null) {
+            throw new NullPointerException("Argument is null");
+        }
+        if(values.length != variables.length()) {
+            throw new IllegalArgumentException("Expected one value per variable");
+        }
+        double sum = 0;
+        for(int i = 0; i < monomials.length; i++) {
+            double term = coefficients[i];
+            for(int v = 0; v < values.length; v++) {
+                term *= Math.pow(values[v], exponent(monomials[i], v));
+            }
+            sum += term;
+        }
+        return sum;
+    }
+
+    /**
+     * Checks the class invariant: the monomials are strictly ascending and no coefficient is zero
+     * Precondition: None
+     * PostCondition: returns true if the class invariant holds
+     *
+     * @return {@literal true} if the class invariant holds, and {@literal false} otherwise
+     */
+    public boolean wellFormed() {
+        for(int i = 0; i < monomials.length; i++) {
+            if(coefficients[i] == 0 || monomials[i] < 0 || (i > 0 && monomials[i - 1] >= monomials[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks if o is a MultivariatePolynomial over the same variables with the same terms
+     * Precondition: None
+     * Postcondition: return true if this and o represent same polynomial
+     * @return true if the two polynomial objects represent the same polynomial
+     */
+    @Override
+    public boolean equals(Object o) {
+        if(!(o instanceof MultivariatePolynomial)) {
+            return false;
+        }
+        MultivariatePolynomial other = (MultivariatePolynomial) o;
+        return hash == other.hash && variables.equals(other.variables) && Arrays.equals(monomials, other.monomials)
+                && Arrays.equals(coefficients, other.coefficients);
+    }
+
+    /**
+     * @return the hash code of the terms
+     */
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    /**
+     * Method takes the polynomial object and returns a string representation in canonical form
+     * Precondition: None
+     * Postcondition: Returns string representation of polynomial
+     * @return String representation of the polynomial in canonical form
+     */
+    @Override
+    public String toString() {
+        if(isZero()) {
+            return "0";
+        }
+        StringBuilder s = new StringBuilder();
+        for(int i = monomials.length - 1; i >= 0; i--) {
+            if(s.length() > 0) {
+                s.append(" + ");
+            }
+            long monomial = monomials[i];
+            if(monomial == 0 || coefficients[i] != 1) {
+                s.append(coefficients[i]);
+            }
+            for(int v = 0; v < variables.length(); v++) {
+                int e = exponent(monomial, v);
+                if(e > 0) {
+                    s.append(variables.charAt(v));
+                    if(e != 1) {
+                        s.append('^').append(e);
+                    }
+                }
+            }
+        }
+        return s.toString();
+    }
+
+    private int exponent(long monomial, int variable) {
+        return (int) ((monomial >>> ((variables.length() - 1 - variable) * width)) & mask());
+    }
+
+    private long mask() {
+        return (1L << width) - 1;
+    }
+
+    private int[] degrees(long[] monomials) {
+        int[] degrees = new int[variables.length()];
+        for(long monomial: monomials) {
+            for(int v = 0; v < degrees.length; v++) {
+                degrees[v] = Math.max(degrees[v], exponent(monomial, v));
+            }
+        }
+        return degrees;
+    }
+
+    private MultivariatePolynomial merge(long[] am, int[] ac, long[] bm, int[] bc, int sign) {
+        long[] m = new long[am.length + bm.length];
+        int[] c = new int[m.length];
+        int i = 0, j = 0, k = 0;
+        while(i < am.length || j < bm.length) {
+            if(j == bm.length || (i < am.length && am[i] < bm[j])) {
+                m[k] = am[i];
+                c[k++] = ac[i++];
+            }
+            else if(i == am.length || bm[j] < am[i]) {
+                m[k] = bm[j];
+                c[k++] = sign * bc[j++];
+            }
+            else {
+                int sum = ac[i] + sign * bc[j];
+                if(sum != 0) {
+                    m[k] = am[i];
+                    c[k++] = sum;
+                }
+                i++;
+                j++;
+            }
+        }
+        return new MultivariatePolynomial(variables, Arrays.copyOf(m, k), Arrays.copyOf(c, k));
+    }
+
+    private void checkVariables(MultivariatePolynomial q) {
+        if(q == null) {
+            throw new NullPointerException("Argument is null");
+        }
+        if(!variables.equals(q.variables)) {
+            throw new IllegalArgumentException("Polynomials have different variables");
+        }
+    }
+
+    private static String checkVariables(String variables) {
+        if(variables.isEmpty() || variables.length() > MAX_VARIABLES) {
+            throw new IllegalArgumentException("A polynomial needs one to eight variables");
+        }
+        for(int v = 0; v < variables.length(); v++) {
+            char name = variables.charAt(v);
+            if(name < 'a' || name > 'z' || variables.indexOf(name) != v) {
+                throw new IllegalArgumentException("Variables must be distinct lower-case letters");
+            }
+        }
+        return variables;
+    }
+
+    private static int width(int variables) {
+        return Math.min(31, 63 / variables);
+    }
+
+    private static int hashTerms(long[] monomials, int[] coefficients) {
+        int hash = 0;
+        for(int i = 0; i < monomials.length; i++) {
+            hash += Terms.hash(Long.hashCode(monomials[i]), coefficients[i]);
+        }
+        return hash;
+    }
+
+    /**
+     * Reads the terms of a canonical string, checking that the monomials are strictly descending and the coefficients
+     * non-zero, and returns them in ascending order
+     */
+    private Builder parse(String s) {
+        Builder terms = new Builder(variables);
+        if(s.equals("0")) {
+            return terms;
+        }
+        int i = 0;
+        boolean negate = false;
+        long previous = -1;
+        while(true) {
+            int start = i;
+            if(i < s.length() && s.charAt(i) == '-' && !negate) {
+                i++;
+            }
+            int digits = i;
+            while(i < s.length() && Character.isDigit(s.charAt(i))) {
+                i++;
+            }
+            int coefficient;
+            try {
+                coefficient = (i > digits) ? Integer.parseInt(s.substring(start, i)) : (i > start) ? -1 : 1;
+            }
+            catch(NumberFormatException e) {
+                throw invalid();
+            }
+            if(negate) {
+                coefficient = -coefficient;
+            }
+
+            long monomial = 0;
+            int lastVariable = -1;
+            while(i < s.length() && s.charAt(i) >= 'a' && s.charAt(i) <= 'z') {
+                int v = variables.indexOf(s.charAt(i++));
+                if(v <= lastVariable) {
+                    throw invalid();
+                }
+                long exponent = 1;
+                if(i < s.length() && s.charAt(i) == '^') {
+                    int from = ++i;
+                    while(i < s.length() && Character.isDigit(s.charAt(i))) {
+                        i++;
+                    }
+                    try {
+                        exponent = (i > from && i - from <= 10) ? Long.parseLong(s.substring(from, i)) : 0;
+                    }
+                    catch(NumberFormatException e) {
+                        throw invalid();
+                    }
+                    if(exponent < 1 || exponent > mask()) {
+                        throw invalid();
+                    }
+                }
+                monomial |= exponent << ((variables.length() - 1 - v) * width);
+                lastVariable = v;
+            }
+            if((i == digits && lastVariable < 0) || coefficient == 0 || (previous >= 0 && monomial >= previous)) {
+                throw invalid();
+            }
+            terms.add(monomial, coefficient);
+            previous = monomial;
+
+            if(i == s.length()) {
+                break;
+            }
+            if(s.startsWith(" + ", i)) {
+                negate = false;
+            }
+            else if(s.startsWith(" - ", i)) {
+                negate = true;
+            }
+            else {
+                throw invalid();
+            }
+            i += 3;
+        }
+        // reverse into ascending order
+        for(int lo = 0, hi = terms.length - 1; lo < hi; lo++, hi--) {
+            long m = terms.monomials[lo];
+            terms.monomials[lo] = terms.monomials[hi];
+            terms.monomials[hi] = m;
+            int c = terms.coefficients[lo];
+            terms.coefficients[lo] = terms.coefficients[hi];
+            terms.coefficients[hi] = c;
+        }
+        return terms;
+    }
+
+    private static IllegalArgumentException invalid() {
+        return new IllegalArgumentException("The input string given is invalid");
+    }
+}
@@ -0,0 +1,142 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MultivariatePolynomialTest {
+
+    @Test
+    void testParse() {
+        MultivariatePolynomial p = new MultivariatePolynomial("3x^2y + -1xz^3 + y - 5", "xyz");
+
+        //testing that coefficients are found by their exponents
+        assertEquals(3, p.getCoefficient(2, 1, 0));
+        assertEquals(-1, p.getCoefficient(1, 0, 3));
+        assertEquals(1, p.getCoefficient(0, 1, 0));
+        assertEquals(-5, p.getCoefficient(0, 0, 0));
+        assertEquals(0, p.getCoefficient(1, 1, 1));
+        assertEquals(4, p.termCount());
+        assertEquals(2, p.degree(0));
+        assertEquals(3, p.degree(2));
+        assertEquals(4, p.totalDegree());
+        assertTrue(p.wellFormed());
+
+        //testing that toString gives back the canonical form
+        assertEquals("3x^2y + -1xz^3 + y + -5", p.toString());
+        assertEquals(p, new MultivariatePolynomial(p.toString(), "xyz"));
+        assertEquals("0", new MultivariatePolynomial("0", "xy").toString());
+        assertTrue(new MultivariatePolynomial("0", "xy").isZero());
+
+        //testing strings that are not canonical
+        assertThrows(IllegalArgumentException.class, () -> new MultivariatePolynomial("y + x", "xy"));
+        assertThrows(IllegalArgumentException.class, () -> new MultivariatePolynomial("x + x", "xy"));
+        assertThrows(IllegalArgumentException.class, () -> new MultivariatePolynomial("yx", "xy"));
+        assertThrows(IllegalArgumentException.class, () -> new MultivariatePolynomial("0x + 1", "xy"));
+        assertThrows(IllegalArgumentException.class, () -> new MultivariatePolynomial("2w", "xy"));
+        assertThrows(IllegalArgumentException.class, () -> new MultivariatePolynomial("x^0", "xy"));
+        assertThrows(IllegalArgumentException.class, () -> new MultivariatePolynomial("x^128", "abcdefgx"));
+        assertThrows(IllegalArgumentException.class, () -> new MultivariatePolynomial("x +  y", "xy"));
+        assertThrows(IllegalArgumentException.class, () -> new MultivariatePolynomial("x - -y", "xy"));
+        assertThrows(IllegalArgumentException.class, () -> new MultivariatePolynomial("", "xy"));
+
+        //testing variable lists that are not allowed
+        assertThrows(IllegalArgumentException.class, () -> new MultivariatePolynomial("x", "xx"));
+        assertThrows(IllegalArgumentException.class, () -> new MultivariatePolynomial("x", "abcdefghx"));
+        assertThrows(IllegalArgumentException.class, () -> new MultivariatePolynomial("x", "X"));
+        assertThrows(NullPointerException.class, () -> new MultivariatePolynomial(null, "xy"));
+    }
+
+    @Test
+    void testBuilder() {
+        MultivariatePolynomial built = MultivariatePolynomial.builder("xyz")
+                .addTerm(-5, 0, 0, 0)
+                .addTerm(3, 2, 1, 0)
+                .addTerm(2, 1, 1, 1)
+                .addTerm(1, 0, 1, 0)
+                .addTerm(-2, 1, 1, 1)
+                .addTerm(-1, 1, 0, 3)
+                .build();
+
+        //testing that terms in any order are summed and cancelled terms dropped
+        assertEquals(new MultivariatePolynomial("3x^2y + -1xz^3 + y - 5", "xyz"), built);
+        assertTrue(built.wellFormed());
+        assertThrows(IllegalArgumentException.class, () -> MultivariatePolynomial.builder("xy").addTerm(1, 1));
+        assertThrows(IllegalArgumentException.class, () -> MultivariatePolynomial.builder("xy").addTerm(1, -1, 0));
+    }
+
+    @Test
+    void testAddSubtract() {
+        MultivariatePolynomial p = new MultivariatePolynomial("x^2 + 2xy + y^2", "xy");
+        MultivariatePolynomial q = new MultivariatePolynomial("x^2 - 2xy + y", "xy");
+
+        //testing that sums and differences merge terms and drop cancelled ones
+        assertEquals("2x^2 + y^2 + y", p.add(q).toString());
+        assertEquals("4xy + y^2 + -1y", p.subtract(q).toString());
+        assertTrue(p.subtract(p).isZero());
+        assertEquals(p.minus(), new MultivariatePolynomial("0", "xy").subtract(p));
+
+        //testing that polynomials over different variables cannot be combined
+        assertThrows(IllegalArgumentException.class, () -> p.add(new MultivariatePolynomial("x", "xz")));
+        assertThrows(NullPointerException.class, () -> p.add(null));
+    }
+
+    @Test
+    void testMultiply() {
+        //testing a closely packed product, which goes through the dense kernels
+        MultivariatePolynomial s = new MultivariatePolynomial("x + y + z + 1", "xyz");
+        MultivariatePolynomial power = s;
+        for(int i = 1; i < 6; i++) {
+            power = power.multiply(s);
+        }
+        assertEquals(720 / (2 * 2 * 1 * 1), power.getCoefficient(2, 2, 1));
+        assertEquals(1, power.getCoefficient(0, 0, 6));
+        assertEquals(84, power.termCount());
+        assertEquals(4096, power.evaluate(1, 1, 1), 0);
+
+        //testing a spread out product, which goes through the sparse multiplier
+        MultivariatePolynomial p = new MultivariatePolynomial("x^1000y + y^500 + 3", "xy");
+        MultivariatePolynomial q = new MultivariatePolynomial("x^700 - 2y^3", "xy");
+        assertEquals("x^1700y + -2x^1000y^4 + x^700y^500 + 3x^700 + -2y^503 + -6y^3", p.multiply(q).toString());
+
+        //testing a product whose substitution does not fit an int, which merges rows of packed monomials
+        MultivariatePolynomial big = new MultivariatePolynomial("x^1000000000y^1000000 + 1", "xy");
+        assertEquals("x^2000000000y^2000000 + 2x^1000000000y^1000000 + 1", big.multiply(big).toString());
+
+        //testing that exponents beyond their field are rejected
+        MultivariatePolynomial eight = new MultivariatePolynomial("a^100", "abcdefgh");
+        assertThrows(IllegalArgumentException.class, () -> eight.multiply(eight));
+
+        //testing products of zero
+        assertTrue(p.multiply(new MultivariatePolynomial("0", "xy")).isZero());
+    }
+
+    @Test
+    void testMultiplyMatchesRows() {
+        Random random = new Random(40);
+        for(int trial = 0; trial < 20; trial++) {
+            MultivariatePolynomial.Builder a = MultivariatePolynomial.builder("wxyz");
+            MultivariatePolynomial.Builder b = MultivariatePolynomial.builder("wxyz");
+            int spread = (trial % 2 == 0) ? 4 : 300;
+            for(int i = 0; i < 40; i++) {
+                a.addTerm(random.nextInt(21) - 10, random.nextInt(spread), random.nextInt(spread), random.nextInt(4), random.nextInt(4));
+                b.addTerm(random.nextInt(21) - 10, random.nextInt(spread), random.nextInt(4), random.nextInt(spread), random.nextInt(4));
+            }
+            MultivariatePolynomial p = a.build();
+            MultivariatePolynomial q = b.build();
+
+            //testing that the product agrees with the sum of one row per term, and is commutative
+            MultivariatePolynomial expected = new MultivariatePolynomial("0", "wxyz");
+            for(String term: p.toString().split(" \\+ ")) {
+                if(!term.equals("0")) {
+                    expected = expected.add(q.multiply(new MultivariatePolynomial(term, "wxyz")));
+                }
+            }
+            assertEquals(expected, p.multiply(q));
+            assertEquals(p.multiply(q), q.multiply(p));
+            assertTrue(p.multiply(q).wellFormed());
+            double value = p.evaluate(0.5, -1, 1.01, 1.5) * q.evaluate(0.5, -1, 1.01, 1.5);
+            assertEquals(value, p.multiply(q).evaluate(0.5, -1, 1.01, 1.5), 1e-9 * Math.max(1, Math.abs(value)));
+        }
+    }
+}
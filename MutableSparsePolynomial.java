@@ -0,0 +1,489 @@
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.TreeMap;
+
+/**
+ * A sparse polynomial that can be changed in place, for callers that update a few coefficients at a time.  Terms are
+ * kept in a TreeMap from degree to coefficient that never holds a zero, so setting or adding to a coefficient costs
+ * O(log n), and the degree is maintained as terms come and go.
+ *
+ * Points registered with registerEvaluationPoint keep a cached value of the polynomial at that point.  Each change to
+ * a coefficient adds (new - old) * x^e to the cached value at every registered point, so reading a value costs O(1)
+ * and is not recomputed over all the terms.  The additions are compensated, as in Neumaier's summation, so a large
+ * term that is added and later removed does not wipe out the smaller ones.  A cached value is marked stale, and
+ * evaluated afresh from the terms when it is next read, once an update is not finite or the terms added since the
+ * last evaluation outweigh the value by more than CANCELLATION_LIMIT, where even compensated sums lose accuracy.
+ *
+ * The arithmetic methods of Polynomial leave this instance unchanged and return an immutable SparsePolynomial.  This
+ * class is not thread-safe.
+ */
+public class MutableSparsePolynomial implements Polynomial {
+    private final TreeMap<Integer,Integer> map = new TreeMap<Integer,Integer>();
+    private int degree;
+    private double[] points = new double[0];
+    private double[] values = new double[0];
+    private double[] corrections = new double[0];
+    private double[] magnitudes = new double[0];
+    private boolean[] stale = new boolean[0];
+
+    /**
+     * The largest ratio of the sum of the magnitudes of the updates to a cached value over the magnitude of the value
+     * before the value is evaluated afresh
+     */
+    static final double CANCELLATION_LIMIT = 0x1p20;
+
+    /**
+     * Creates a MutableSparsePolynomial that represents the zero polynomial
+     * Precondition: None
+     * Postcondition: Creates instance of MutableSparsePolynomial with no terms
+     */
+    public MutableSparsePolynomial() {
+    }
+
+    /**
+     * Creates a MutableSparsePolynomial with the terms of p
+     * Precondition: p is not null
+     * Postcondition: Creates instance of MutableSparsePolynomial equal to p; p is not modified
+     *
+     * @param p the polynomial whose terms are copied
+     * @throws NullPointerException if p is null
+     */
+    public MutableSparsePolynomial(Polynomial p) {
+        if(p == null) {
+            throw new NullPointerException("Argument is null");
+        }
+        p.forEachTerm((exponent, coefficient) -> map.put(exponent, coefficient));
+        this.degree = map.isEmpty() ? 0 : map.lastKey();
+    }
+
+    /**
+     * Sets the coefficient of x^exponent, removing the term when coefficient is 0, and updates the cached value at every
+     * registered point
+     * Precondition: None
+     * Postcondition: getCoefficient(exponent) returns coefficient
+     *
+     * @param exponent the degree of the term
+     * @param coefficient the new coefficient
+     * @return the previous coefficient of x^exponent
+     */
+    public int setCoefficient(int exponent, int coefficient) {
+        Integer previous = (coefficient == 0) ? map.remove(exponent) : map.put(exponent, coefficient);
+        int old = (previous == null) ? 0 : previous;
+        if(old != coefficient) {
+            updateDegree(exponent, previous != null, coefficient != 0);
+            updateValues(exponent, (long) coefficient - old);
+        }
+        return old;
+    }
+
+    /**
+     * Adds delta to the coefficient of x^exponent, with the same wrap-around on overflow as int arithmetic, and updates
+     * the cached value at every registered point
+     * Precondition: None
+     * Postcondition: getCoefficient(exponent) has grown by delta
+     *
+     * @param exponent the degree of the term
+     * @param delta the amount to add
+     * @return the new coefficient of x^exponent
+     */
+    public int addToCoefficient(int exponent, int delta) {
+        if(delta == 0) {
+            return getCoefficient(exponent);
+        }
+        Integer previous = map.get(exponent);
+        int old = (previous == null) ? 0 : previous;
+        int coefficient = old + delta;
+        if(coefficient == 0) {
+            map.remove(exponent);
+        }
+        else {
+            map.put(exponent, coefficient);
+        }
+        updateDegree(exponent, previous != null, coefficient != 0);
+        updateValues(exponent, (long) coefficient - old);
+        return coefficient;
+    }
+
+    /**
+     * Adds every term of q to this polynomial in place
+     * Precondition: q is not null
+     * Postcondition: this polynomial equals its old value plus q
+     *
+     * @param q the polynomial to add
+     * @return this polynomial
+     * @throws NullPointerException if q is null
+     */
+    public MutableSparsePolynomial addInPlace(Polynomial q) {
+        if(q == null) {
+            throw new NullPointerException("Argument is null");
+        }
+        if(q == this) {
+            return addInPlace(snapshot());
+        }
+        q.forEachTerm(this::addToCoefficient);
+        return this;
+    }
+
+    /**
+     * Removes every term
+     * Precondition: None
+     * Postcondition: this polynomial is zero and every cached value is 0
+     */
+    public void clear() {
+        map.clear();
+        degree = 0;
+        Arrays.fill(values, 0);
+        Arrays.fill(corrections, 0);
+        Arrays.fill(magnitudes, 0);
+        Arrays.fill(stale, false);
+    }
+
+    /**
+     * Keeps the degree up to date after the term of x^exponent was added, changed or removed
+     */
+    private void updateDegree(int exponent, boolean existed, boolean exists) {
+        if(!existed && exists) {
+            if(map.size() == 1 || exponent > degree) {
+                degree = exponent;
+            }
+        }
+        else if(existed && !exists && exponent == degree) {
+            degree = map.isEmpty() ? 0 : map.lastKey();
+        }
+    }
+
+    /**
+     * Adds delta * x^exponent to the cached value at every registered point with a compensated sum, or marks the value
+     * stale when the sum can no longer be trusted
+     */
+    private void updateValues(int exponent, long delta) {
+        for(int i = 0; i < points.length; i++) {
+            if(stale[i]) {
+                continue;
+            }
+            double term = delta * Math.pow(points[i], exponent);
+            double sum = values[i];
+            double total = sum + term;
+            if(!Double.isFinite(total)) {
+                stale[i] = true;
+                continue;
+            }
+            corrections[i] += (Math.abs(sum) >= Math.abs(term)) ? (sum - total) + term : (term - total) + sum;
+            values[i] = total;
+            magnitudes[i] += Math.abs(term);
+            stale[i] = magnitudes[i] > CANCELLATION_LIMIT * Math.abs(total + corrections[i]);
+        }
+    }
+
+    /**
+     * Returns the cached value at the point with the given handle, evaluating it afresh first if it is stale
+     */
+    private double value(int handle) {
+        if(stale[handle]) {
+            reset(handle);
+        }
+        return values[handle] + corrections[handle];
+    }
+
+    /**
+     * Evaluates the polynomial at the point with the given handle over all the terms and caches the result
+     */
+    private void reset(int handle) {
+        double value = Polynomial.super.evaluate(points[handle]);
+        values[handle] = value;
+        corrections[handle] = 0;
+        magnitudes[handle] = Math.abs(value);
+        stale[handle] = false;
+    }
+
+    /**
+     * Registers a point whose value is then kept up to date on every change.  Registering a point twice returns the same
+     * handle.
+     * Precondition: None
+     * Postcondition: valueAt(handle) returns the value of the polynomial at x
+     *
+     * @param x the point to keep a value for
+     * @return the handle to pass to valueAt
+     */
+    public int registerEvaluationPoint(double x) {
+        int handle = handleOf(x);
+        if(handle >= 0) {
+            return handle;
+        }
+        handle = points.length;
+        points = Arrays.copyOf(points, handle + 1);
+        values = Arrays.copyOf(values, handle + 1);
+        corrections = Arrays.copyOf(corrections, handle + 1);
+        magnitudes = Arrays.copyOf(magnitudes, handle + 1);
+        stale = Arrays.copyOf(stale, handle + 1);
+        points[handle] = x;
+        reset(handle);
+        return handle;
+    }
+
+    /**
+     * Returns the cached value of the polynomial at a registered point
+     * Precondition: handle was returned by registerEvaluationPoint
+     * Postcondition: returns the value at the point, up to the rounding of the compensated updates
+     *
+     * @param handle the handle of the point
+     * @return the value of the polynomial at the point
+     * @throws IndexOutOfBoundsException if handle was not returned by registerEvaluationPoint
+     */
+    public double valueAt(int handle) {
+        if(handle < 0 || handle >= values.length) {
+            throw new IndexOutOfBoundsException("No evaluation point with handle " + handle);
+        }
+        return value(handle);
+    }
+
+    private int handleOf(double x) {
+        for(int i = 0; i < points.length; i++) {
+            if(Double.compare(points[i], x) == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns an immutable copy of the current terms
+     * Precondition: None
+     * Postcondition: returns a SparsePolynomial equal to this polynomial; later changes to this one do not affect it
+     *
+     * @return the current value of this polynomial
+     */
+    public SparsePolynomial snapshot() {
+        TermArrays t = termArrays();
+        return SparsePolynomial.fromTerms(t.exponents, t.coefficients, true);
+    }
+
+    /**
+     * Returns the degree of the polynomial.
+     * Precondition: None
+     * Postcondition: Returns degree of polynomial
+     * @return the largest exponent with a non-zero coefficient.  If there are no terms, it returns 0.
+     */
+    @Override
+    public int degree() {
+        return degree;
+    }
+
+    /**
+     * Returns the coefficient corresponding to the given exponent.  Returns 0 if there is no term with that exponent
+     * in the polynomial.
+     *
+     * Precondition: None
+     * Postcondition: returns the coefficient of d
+     *
+     * @param d the exponent whose coefficient is returned.
+     * @return the coefficient of the term of whose exponent is d.
+     */
+    @Override
+    public int getCoefficient(int d) {
+        Integer coefficient = map.get(d);
+        return (coefficient == null) ? 0 : coefficient;
+    }
+
+    /**
+     * Checks the polynomial to see if it represents the zero constant
+     * Precondition: None
+     * Postcondition: returns true if polynomial represents the zero constant, if not then it returns false
+     * @return true if the polynomial represents the zero constant
+     */
+    @Override
+    public boolean isZero() {
+        return map.isEmpty();
+    }
+
+    /**
+     * Returns the sum of this polynomial and q as an immutable SparsePolynomial.  Neither operand is modified.
+     * Precondition: q is not null
+     * Postcondition: returns a polynomial representing the sum of this + q
+     *
+     * @param q the non-null polynomial to add to <code>this</code>
+     * @return <code>this + </code>q
+     * @throws NullPointerException if q is null
+     */
+    @Override
+    public Polynomial add(Polynomial q) {
+        return snapshot().add(q);
+    }
+
+    /**
+     * Returns the product of this polynomial and q as an immutable SparsePolynomial.  Neither operand is modified.
+     * Precondition: q is not null
+     * Postcondition: returns a polynomial representing the product of this * q
+     *
+     * @param q the non-null polynomial to multiply to <code>this</code>
+     * @return <code>this * </code>q
+     * @throws NullPointerException if q is null
+     */
+    @Override
+    public Polynomial multiply(Polynomial q) {
+        return snapshot().multiply(q);
+    }
+
+    /**
+     * Returns the difference of this polynomial and q as an immutable SparsePolynomial.  Neither operand is modified.
+     * Precondition: q is not null
+     * Postcondition: returns a polynomial representing the difference of this - q
+     *
+     * @param q the non-null polynomial to subtract from <code>this</code>
+     * @return <code>this - </code>q
+     * @throws NullPointerException if q is null
+     */
+    @Override
+    public Polynomial subtract(Polynomial q) {
+        return snapshot().subtract(q);
+    }
+
+    /**
+     * Returns the negation of this polynomial as an immutable SparsePolynomial.  This instance is not modified.
+     * Precondition: None
+     * Postcondition: Returns the negated polynomial of this
+     *
+     * @return -this
+     */
+    @Override
+    public Polynomial minus() {
+        return snapshot().minus();
+    }
+
+    /**
+     * Evaluates the polynomial at a point, returning the cached value when the point is registered
+     * Precondition: None
+     * Postcondition: returns the value of the polynomial at x
+     * @param x the point at which to evaluate
+     * @return the value of the polynomial at x
+     */
+    @Override
+    public double evaluate(double x) {
+        int handle = handleOf(x);
+        return (handle >= 0) ? value(handle) : Polynomial.super.evaluate(x);
+    }
+
+    /**
+     * Estimates the heap taken by this polynomial: the map, at about 40 bytes an entry plus the boxed exponents and
+     * coefficients outside the Integer cache, and the tracked evaluation points with their values and corrections
+     * Precondition: None
+     * Postcondition: returns the estimated size in bytes
+     *
+     * @return the estimated size in bytes
+     */
+    @Override
+    public long estimatedBytes() {
+        return Footprint.object(28) + Footprint.treeMap(map) + Footprint.longArray(points.length)
+                + Footprint.longArray(values.length) + Footprint.longArray(corrections.length)
+                + Footprint.longArray(magnitudes.length) + Footprint.align(Footprint.ARRAY_HEADER + stale.length);
+    }
+
+    /**
+     * Checks that the map holds no zero coefficient and that the maintained degree matches the terms
+     * Precondition: None
+     * Postcondition: returns true if the class invariant holds
+     * @return {@literal true} if the class invariant holds
+     */
+    @Override
+    public boolean wellFormed() {
+        return !map.containsValue(0) && degree == (map.isEmpty() ? 0 : map.lastKey());
+    }
+
+    /**
+     * Method takes the polynomial object and returns a string representation in canonical form
+     * Precondition: None
+     * Postcondition: Returns string representation of polynomial
+     * @return String representation of the polynomial in canonical form
+     */
+    @Override
+    public String toString() {
+        if(map.isEmpty()) {
+            return "0";
+        }
+        StringBuilder s = new StringBuilder();
+        for(Map.Entry<Integer,Integer> term: map.descendingMap().entrySet()) {
+            if(s.length() > 0) {
+                s.append(" + ");
+            }
+            Terms.appendTerm(s, term.getKey(), term.getValue());
+        }
+        return s.toString();
+    }
+
+    /**
+     * Checks if o is a Polynomial with the same terms, whatever its representation.  As the terms can change, an
+     * instance should not be used as a key in a hash-based collection while it is being modified.
+     * Precondition: None
+     * Postcondition: return true if this and o currently represent the same polynomial
+     * @return true if the two polynomial objects represent the same polynomial
+     */
+    @Override
+    public boolean equals(Object o) {
+        if(o instanceof MutableSparsePolynomial) {
+            return map.equals(((MutableSparsePolynomial) o).map);
+        }
+        return o instanceof Polynomial && o.equals(this);
+    }
+
+    /**
+     * Returns the sum of Terms.hash over the current terms, the same hash code as an equal SparsePolynomial
+     * Precondition: None
+     * Postcondition: returns the same value for polynomials that are equal
+     * @return the hash code of this polynomial
+     */
+    @Override
+    public int hashCode() {
+        int h = 0;
+        for(Map.Entry<Integer,Integer> term: map.entrySet()) {
+            h += Terms.hash(term.getKey(), term.getValue());
+        }
+        return h;
+    }
+
+    /**
+     * Returns a spliterator over a copy of the current terms in ascending order of degree, so later changes do not
+     * affect it
+     * Precondition: None
+     * Postcondition: returns a SIZED spliterator over the non-zero terms, packed with Terms.pack
+     *
+     * @return a spliterator over the non-zero terms
+     */
+    @Override
+    public Spliterator.OfLong termSpliterator() {
+        return termArrays().spliterator();
+    }
+
+    /**
+     * Passes every non-zero term to action in ascending order of degree.  action must not modify this polynomial.
+     *
+     * Precondition: action is not null
+     * Postcondition: action has been called once for each non-zero term
+     *
+     * @param action the operation to perform on each term
+     * @throws NullPointerException if action is null
+     */
+    @Override
+    public void forEachTerm(IntIntConsumer action) {
+        if(action == null) {
+            throw new NullPointerException("Argument is null");
+        }
+        for(Map.Entry<Integer,Integer> term: map.entrySet()) {
+            action.accept(term.getKey(), term.getValue());
+        }
+    }
+
+    /**
+     * Copies the current terms into new arrays
+     */
+    private TermArrays termArrays() {
+        int[] exponents = new int[map.size()];
+        int[] coefficients = new int[map.size()];
+        int k = 0;
+        for(Map.Entry<Integer,Integer> term: map.entrySet()) {
+            exponents[k] = term.getKey();
+            coefficients[k++] = term.getValue();
+        }
+        return new TermArrays(exponents, coefficients);
+    }
+}
@@ -0,0 +1,108 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MutableSparsePolynomialTest {
+
+    @Test
+    void testSetCoefficient() {
+        MutableSparsePolynomial p = new MutableSparsePolynomial(new SparsePolynomial("4x^3 + 2x + x^-2"));
+
+        //testing that setting a coefficient replaces it and returns the old one
+        assertEquals(2, p.setCoefficient(1, 5));
+        assertEquals(5, p.getCoefficient(1));
+        assertEquals("4x^3 + 5x + x^-2", p.toString());
+
+        //testing that the degree follows new and removed leading terms
+        p.setCoefficient(7, 1);
+        assertEquals(7, p.degree());
+        p.setCoefficient(7, 0);
+        assertEquals(3, p.degree());
+        assertEquals(4, p.addToCoefficient(3, 0));
+        assertEquals(0, p.addToCoefficient(3, -4));
+        assertEquals(1, p.degree());
+        assertTrue(p.wellFormed());
+
+        //testing that removing every term leaves the zero polynomial
+        p.setCoefficient(1, 0);
+        p.setCoefficient(-2, 0);
+        assertTrue(p.isZero());
+        assertEquals(0, p.degree());
+        assertEquals("0", p.toString());
+        assertTrue(p.wellFormed());
+    }
+
+    @Test
+    void testEvaluationPoints() {
+        MutableSparsePolynomial p = new MutableSparsePolynomial();
+        int two = p.registerEvaluationPoint(2);
+        int half = p.registerEvaluationPoint(0.5);
+
+        //testing that registering a point again gives the same handle
+        assertEquals(two, p.registerEvaluationPoint(2));
+
+        //testing that cached values follow every update
+        p.setCoefficient(3, 4);
+        p.addToCoefficient(0, 7);
+        p.addToCoefficient(-1, 2);
+        assertEquals(4 * 8 + 7 + 1, p.valueAt(two), 1e-12);
+        assertEquals(4 * 0.125 + 7 + 4, p.valueAt(half), 1e-12);
+        p.addToCoefficient(3, -4);
+        assertEquals(8, p.valueAt(two), 1e-12);
+        assertEquals(8, p.evaluate(2), 1e-12);
+        assertEquals(p.snapshot().evaluate(0.5), p.evaluate(0.5), 1e-12);
+
+        //testing that a point registered later starts from the current value
+        int three = p.registerEvaluationPoint(3);
+        assertEquals(7 + 2.0 / 3, p.valueAt(three), 1e-12);
+
+        p.clear();
+        assertEquals(0, p.valueAt(three), 0);
+        assertThrows(IndexOutOfBoundsException.class, () -> p.valueAt(5));
+
+        //testing that a huge term added and removed again leaves the small terms intact
+        MutableSparsePolynomial q = new MutableSparsePolynomial(new SparsePolynomial("1"));
+        int large = q.registerEvaluationPoint(1e10);
+        q.setCoefficient(30, 1);
+        q.setCoefficient(30, 0);
+        assertEquals(1, q.valueAt(large), 0);
+        for(int i = 0; i < 1000; i++) {
+            q.addToCoefficient(20, 3);
+            q.addToCoefficient(1, -1);
+            q.addToCoefficient(20, -3);
+        }
+        assertEquals(q.snapshot().evaluate(1e10), q.valueAt(large), 1e-6 * Math.abs(q.snapshot().evaluate(1e10)));
+
+        //testing that a term that overflows to infinity does not leave the value NaN once it is removed
+        q.setCoefficient(40, 1);
+        assertEquals(Double.POSITIVE_INFINITY, q.valueAt(large), 0);
+        q.setCoefficient(40, 0);
+        assertEquals(q.snapshot().evaluate(1e10), q.valueAt(large), 0);
+    }
+
+    @Test
+    void testArithmetic() {
+        MutableSparsePolynomial p = new MutableSparsePolynomial(new DensePolynomial("4x^2 + 8x + 2"));
+        Polynomial q = new SparsePolynomial("3x^-1");
+
+        //testing that arithmetic returns immutable results and leaves the operands alone
+        assertEquals(new SparsePolynomial("12x + 24 + 6x^-1"), p.multiply(q));
+        assertEquals(new SparsePolynomial("4x^2 + 8x + 2 + 3x^-1"), p.add(q));
+        assertEquals(new SparsePolynomial("4x^2 + 8x + 2 - 3x^-1"), p.subtract(q));
+        assertEquals(new SparsePolynomial("-4x^2 - 8x - 2"), p.minus());
+        assertEquals("4x^2 + 8x + 2", p.toString());
+
+        //testing that other representations accept a mutable operand
+        assertEquals(new SparsePolynomial("12x + 24 + 6x^-1"), q.multiply(p));
+        assertEquals(new DensePolynomial("8x^2 + 16x + 4"), new DensePolynomial("4x^2 + 8x + 2").add(p));
+
+        //testing in-place addition and snapshots
+        SparsePolynomial before = p.snapshot();
+        p.addInPlace(q).addInPlace(p);
+        assertEquals(new SparsePolynomial("8x^2 + 16x + 4 + 6x^-1"), p.snapshot());
+        assertEquals("4x^2 + 8x + 2", before.toString());
+        assertEquals(p.snapshot().hashCode(), p.hashCode());
+        assertEquals(new MutableSparsePolynomial(p.snapshot()), p);
+        assertThrows(NullPointerException.class, () -> p.addInPlace(null));
+    }
+}
@@ -1,3 +1,7 @@
+import java.util.Spliterator;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
 public interface Polynomial {
     /**
      * Returns the degree of the polynomial.
@@ -57,10 +61,62 @@ public interface Polynomial {
      */
     Polynomial minus();
 
+    /**
+     * Estimates the heap taken by the polynomial: its own fields and every array, map, string and cache it holds, for
+     * a 64-bit JVM with compressed references.  Objects shared with other polynomials are counted in full.
+     *
+     * @return the estimated size in bytes
+     */
+    long estimatedBytes();
+
     /**
      * Checks if the class invariant holds for the current instance.
      *
      * @return {@literal true} if the class invariant holds, and {@literal false} otherwise.
      */
     boolean wellFormed();
+
+    /**
+     * Evaluates the polynomial at a point.  Terms with negative exponents contribute coefficient / x^-exponent.
+     *
+     * @param x the point at which to evaluate
+     * @return the value of the polynomial at x
+     */
+    default double evaluate(double x) {
+        double[] sum = {0};
+        forEachTerm((exponent, coefficient) -> sum[0] += coefficient * Math.pow(x, exponent));
+        return sum[0];
+    }
+
+    /**
+     * Returns a spliterator over the non-zero terms of the polynomial in ascending order of exponent.  Each term is
+     * packed into a long with {@link Terms#pack(int, int)}.  The spliterator is SIZED and SUBSIZED, so it splits evenly
+     * for parallel streams.
+     *
+     * @return a spliterator over the non-zero terms
+     */
+    Spliterator.OfLong termSpliterator();
+
+    /**
+     * Returns a stream of the non-zero terms of the polynomial in ascending order of exponent, packed with
+     * {@link Terms#pack(int, int)}.  Use {@link Terms#exponent(long)} and {@link Terms#coefficient(long)} to unpack them.
+     *
+     * @return a sequential stream of packed terms; call parallel() on it to process the terms in parallel
+     */
+    default LongStream terms() {
+        return StreamSupport.longStream(termSpliterator(), false);
+    }
+
+    /**
+     * Passes the exponent and coefficient of every non-zero term to action, in ascending order of exponent.
+     *
+     * @param action the non-null operation to perform on each term
+     * @throws NullPointerException if action is null
+     */
+    default void forEachTerm(IntIntConsumer action) {
+        if(action == null) {
+            throw new NullPointerException("Argument is null");
+        }
+        termSpliterator().forEachRemaining((long term) -> action.accept(Terms.exponent(term), Terms.coefficient(term)));
+    }
 }
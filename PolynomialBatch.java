@@ -0,0 +1,369 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Command-line tool that evaluates a file of polynomial expressions, one per line, and writes one result per line in
+ * the same order.  Each line has the form "p op q", where p and q are canonical polynomial strings and op is one of
+ * the words add, subtract or multiply, for example
+ *
+ * <pre>
+ *     4x^2 + 8x - 2 multiply 3x + 1
+ * </pre>
+ *
+ * The words cannot occur inside a canonical string, so they separate the operands unambiguously.  A line that cannot
+ * be evaluated produces a line starting with "error: ".
+ *
+ * The input is read through a FileChannel, either memory-mapped in large windows or through a direct buffer.  Lines
+ * are grouped into batches, and each batch is parsed, computed and serialized on a worker thread.  At most a fixed
+ * number of batches are in flight, so the reader waits for the oldest batch once that limit is reached, and results
+ * are written in input order.  Throughput statistics are printed to standard error when the run finishes.
+ *
+ * <pre>
+ * usage: java PolynomialBatch [--sparse] [--mmap] [--threads n] [--batch lines] [--window batches] input output
+ * </pre>
+ */
+public final class PolynomialBatch {
+
+    /**
+     * Size of the buffer used to read the input when it is not memory-mapped
+     */
+    private static final int READ_BUFFER_BYTES = 1 << 20;
+
+    /**
+     * Largest region of the input that is mapped at once
+     */
+    private static final long MAP_WINDOW_BYTES = 64L << 20;
+
+    private final boolean sparse;
+    private final boolean mapped;
+    private final int threads;
+    private final int batchLines;
+    private final int window;
+
+    /**
+     * Creates a batch processor
+     * Precondition: threads, batchLines and window are positive
+     * Postcondition: Creates a processor with the given settings
+     *
+     * @param sparse whether operands are parsed as SparsePolynomial rather than DensePolynomial
+     * @param mapped whether the input is memory-mapped rather than read through a buffer
+     * @param threads the number of worker threads
+     * @param batchLines the number of lines handed to a worker at once
+     * @param window the largest number of batches in flight at once
+     * @throws IllegalArgumentException if threads, batchLines or window is not positive
+     */
+    public PolynomialBatch(boolean sparse, boolean mapped, int threads, int batchLines, int window) {
+        if(threads <= 0 || batchLines <= 0 || window <= 0) {
+            throw new IllegalArgumentException("threads, batch size and window must be positive");
+        }
+        this.sparse = sparse;
+        this.mapped = mapped;
+        this.threads = threads;
+        this.batchLines = batchLines;
+        this.window = window;
+    }
+
+    /**
+     * Counters collected while processing one input
+     */
+    public static final class Stats {
+        private long lines;
+        private long errors;
+        private long bytesRead;
+        private long nanos;
+
+        /**
+         * @return the number of lines processed
+         */
+        public long lines() {
+            return lines;
+        }
+
+        /**
+         * @return the number of lines that produced an error
+         */
+        public long errors() {
+            return errors;
+        }
+
+        /**
+         * @return the number of bytes of input read
+         */
+        public long bytesRead() {
+            return bytesRead;
+        }
+
+        /**
+         * @return the wall-clock time of the run in nanoseconds
+         */
+        public long nanos() {
+            return nanos;
+        }
+
+        @Override
+        public String toString() {
+            double seconds = Math.max(nanos, 1) / 1e9;
+            return String.format("%d lines (%d errors), %.1f MB in %.3f s: %.0f lines/s, %.1f MB/s",
+                    lines, errors, bytesRead / 1e6, seconds, lines / seconds, bytesRead / 1e6 / seconds);
+        }
+    }
+
+    /**
+     * Evaluates every line of input and writes the results to output in input order
+     * Precondition: input names a readable file
+     * Postcondition: output holds one result line per input line
+     *
+     * @param input the file of expressions
+     * @param output the file the results are written to; it is created or replaced
+     * @return the statistics of the run
+     * @throws IOException if the input cannot be read or the output cannot be written
+     */
+    public Stats run(Path input, Path output) throws IOException {
+        Stats stats = new Stats();
+        long start = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try(FileChannel channel = FileChannel.open(input, StandardOpenOption.READ);
+            BufferedWriter writer = Files.newBufferedWriter(output, StandardCharsets.ISO_8859_1)) {
+            ArrayDeque<Future<String[]>> inFlight = new ArrayDeque<Future<String[]>>();
+            List<String> batch = new ArrayList<String>(batchLines);
+            LineReader reader = new LineReader(channel, mapped);
+            String line;
+            while((line = reader.readLine()) != null) {
+                batch.add(line);
+                if(batch.size() == batchLines) {
+                    submit(pool, batch, inFlight);
+                    batch = new ArrayList<String>(batchLines);
+                    if(inFlight.size() >= window) {
+                        write(inFlight.poll(), writer, stats);
+                    }
+                }
+            }
+            if(!batch.isEmpty()) {
+                submit(pool, batch, inFlight);
+            }
+            while(!inFlight.isEmpty()) {
+                write(inFlight.poll(), writer, stats);
+            }
+            stats.bytesRead = reader.bytesRead();
+        }
+        finally {
+            pool.shutdownNow();
+        }
+        stats.nanos = System.nanoTime() - start;
+        return stats;
+    }
+
+    private void submit(ExecutorService pool, List<String> batch, ArrayDeque<Future<String[]>> inFlight) {
+        inFlight.add(pool.submit(() -> {
+            String[] results = new String[batch.size()];
+            for(int i = 0; i < results.length; i++) {
+                results[i] = evaluate(batch.get(i));
+            }
+            return results;
+        }));
+    }
+
+    private static void write(Future<String[]> batch, BufferedWriter writer, Stats stats) throws IOException {
+        String[] results;
+        try {
+            results = batch.get();
+        }
+        catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for results", e);
+        }
+        catch(ExecutionException e) {
+            throw new IOException("Worker failed", e.getCause());
+        }
+        for(String result: results) {
+            if(result.startsWith("error: ")) {
+                stats.errors++;
+            }
+            writer.write(result);
+            writer.newLine();
+        }
+        stats.lines += results.length;
+    }
+
+    /**
+     * Evaluates one line of the form "p op q"
+     * Precondition: line is not null
+     * Postcondition: returns the canonical string of the result, or a line starting with "error: "
+     *
+     * @param line the expression to evaluate
+     * @return the result line
+     */
+    String evaluate(String line) {
+        try {
+            String[] operator = {" add ", " subtract ", " multiply "};
+            for(int op = 0; op < operator.length; op++) {
+                int at = line.indexOf(operator[op]);
+                if(at >= 0) {
+                    Polynomial p = parse(line.substring(0, at).strip());
+                    Polynomial q = parse(line.substring(at + operator[op].length()).strip());
+                    Polynomial result = (op == 0) ? p.add(q) : (op == 1) ? p.subtract(q) : p.multiply(q);
+                    return result.toString();
+                }
+            }
+            return "error: expected p add q, p subtract q or p multiply q";
+        }
+        catch(RuntimeException e) {
+            return "error: " + e.getMessage();
+        }
+    }
+
+    private Polynomial parse(String s) {
+        return sparse ? new SparsePolynomial(s) : new DensePolynomial(s);
+    }
+
+    /**
+     * Splits the bytes of a FileChannel into lines.  The input is either mapped in windows of MAP_WINDOW_BYTES or read
+     * into a reusable direct buffer; in both cases bytes are copied once into a growable line buffer and decoded as
+     * ISO-8859-1, which is exact for the ASCII characters of canonical strings.
+     */
+    private static final class LineReader {
+        private final FileChannel channel;
+        private final boolean mapped;
+        private ByteBuffer buffer;
+        private long position;
+        private long bytesRead;
+        private byte[] line = new byte[256];
+
+        LineReader(FileChannel channel, boolean mapped) {
+            this.channel = channel;
+            this.mapped = mapped;
+            this.buffer = mapped ? ByteBuffer.allocate(0) : ByteBuffer.allocateDirect(READ_BUFFER_BYTES).flip();
+        }
+
+        long bytesRead() {
+            return bytesRead;
+        }
+
+        /**
+         * @return the next line without its terminator, or null at the end of the input
+         */
+        String readLine() throws IOException {
+            int length = 0;
+            boolean any = false;
+            while(true) {
+                if(!buffer.hasRemaining() && !fill()) {
+                    return any ? decode(length) : null;
+                }
+                any = true;
+                while(buffer.hasRemaining()) {
+                    byte b = buffer.get();
+                    if(b == '\n') {
+                        return decode(length);
+                    }
+                    if(length == line.length) {
+                        line = Arrays.copyOf(line, 2 * length);
+                    }
+                    line[length++] = b;
+                }
+            }
+        }
+
+        private String decode(int length) {
+            if(length > 0 && line[length - 1] == '\r') {
+                length--;
+            }
+            return new String(line, 0, length, StandardCharsets.ISO_8859_1);
+        }
+
+        private boolean fill() throws IOException {
+            if(mapped) {
+                long size = channel.size();
+                if(position >= size) {
+                    return false;
+                }
+                long length = Math.min(MAP_WINDOW_BYTES, size - position);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                position += length;
+                bytesRead += length;
+                buffer = window;
+                return true;
+            }
+            buffer.clear();
+            int n;
+            do {
+                n = channel.read(buffer);
+            } while(n == 0);
+            buffer.flip();
+            if(n < 0) {
+                return false;
+            }
+            bytesRead += n;
+            return true;
+        }
+    }
+
+    /**
+     * Runs the tool from the command line
+     *
+     * @param args the options followed by the input and output paths
+     */
+    public static void main(String[] args) {
+        boolean sparse = false;
+        boolean mapped = false;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int batchLines = 256;
+        int window = 4 * threads;
+        List<String> paths = new ArrayList<String>();
+        PrintStream err = System.err;
+        try {
+            for(int i = 0; i < args.length; i++) {
+                switch(args[i]) {
+                    case "--sparse":
+                        sparse = true;
+                        break;
+                    case "--mmap":
+                        mapped = true;
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(args[++i]);
+                        break;
+                    case "--batch":
+                        batchLines = Integer.parseInt(args[++i]);
+                        break;
+                    case "--window":
+                        window = Integer.parseInt(args[++i]);
+                        break;
+                    default:
+                        paths.add(args[i]);
+                }
+            }
+            if(paths.size() != 2) {
+                throw new IllegalArgumentException("expected an input and an output path");
+            }
+            Stats stats = new PolynomialBatch(sparse, mapped, threads, batchLines, window)
+                    .run(Paths.get(paths.get(0)), Paths.get(paths.get(1)));
+            err.println(stats);
+        }
+        catch(IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            err.println("error: " + e.getMessage());
+            err.println("usage: java PolynomialBatch [--sparse] [--mmap] [--threads n] [--batch lines] [--window batches] input output");
+            System.exit(2);
+        }
+        catch(IOException e) {
+            err.println("error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
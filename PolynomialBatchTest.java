@@ -0,0 +1,63 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PolynomialBatchTest {
+
+    @Test
+    void testEvaluate() {
+        PolynomialBatch dense = new PolynomialBatch(false, false, 1, 1, 1);
+        PolynomialBatch sparse = new PolynomialBatch(true, false, 1, 1, 1);
+
+        //testing each operator on dense operands
+        assertEquals("15x^4 + 12x^3 + 5x^2 + 8x + 7", dense.evaluate("12x^4 + 8x^3 + 5x^2 + 2x + 7 add 3x^4 + 4x^3 + 6x"));
+        assertEquals("9x^4 + 4x^3 + 5x^2 + -4x + 7", dense.evaluate("12x^4 + 8x^3 + 5x^2 + 2x + 7 subtract 3x^4 + 4x^3 + 6x"));
+        assertEquals("48x^4 + 108x^3 + 48x^2 + 6x", dense.evaluate("4x^2 + 8x + 2 multiply 12x^2 + 3x"));
+
+        //testing sparse operands with negative exponents
+        assertEquals("12x^2 + 3x^-2", sparse.evaluate("4x^3 + x^-1 multiply 3x^-1"));
+
+        //testing that bad lines produce an error line instead of stopping the run
+        assertTrue(dense.evaluate("4x^2 + 8x").startsWith("error: "));
+        assertTrue(dense.evaluate("4x^2 add 2x^-1").startsWith("error: "));
+    }
+
+    @Test
+    void testRun() throws IOException {
+        Path input = Files.createTempFile("polynomial-batch", ".in");
+        Path output = Files.createTempFile("polynomial-batch", ".out");
+        try {
+            List<String> lines = new ArrayList<String>();
+            List<String> expected = new ArrayList<String>();
+            for(int i = 2; i <= 1001; i++) {
+                lines.add(i + "x^" + i + " + 1 multiply x - 1");
+                expected.add(i + "x^" + (i + 1) + " + " + (-i) + "x^" + i + " + x + -1");
+            }
+            lines.add("x add nonsense");
+            Files.write(input, lines, StandardCharsets.ISO_8859_1);
+
+            //testing that buffered and memory-mapped reads give every result in input order
+            for(boolean mapped: new boolean[]{false, true}) {
+                PolynomialBatch.Stats stats = new PolynomialBatch(false, mapped, 4, 7, 3).run(input, output);
+                List<String> results = Files.readAllLines(output, StandardCharsets.ISO_8859_1);
+                assertEquals(1001, results.size());
+                assertEquals(expected, results.subList(0, 1000));
+                assertTrue(results.get(1000).startsWith("error: "));
+                assertEquals(1001, stats.lines());
+                assertEquals(1, stats.errors());
+                assertEquals(Files.size(input), stats.bytesRead());
+            }
+        }
+        finally {
+            Files.deleteIfExists(input);
+            Files.deleteIfExists(output);
+        }
+    }
+}
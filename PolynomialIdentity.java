@@ -0,0 +1,346 @@
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Probabilistic identity tests in the style of Schwartz and Zippel.  Two different polynomials agree at a random point
+ * modulo a prime p with probability at most span / p, where span is the distance between their highest and lowest
+ * exponents, so evaluating both sides at a few random points modulo a few random primes decides equality with a tiny
+ * chance of error.  Each evaluation is a single pass over the terms, so a product can be checked in time linear in the
+ * sizes of the factors and the product instead of being recomputed.
+ *
+ * A check never reports a difference for polynomials that are equal, but it may report equality for polynomials that
+ * are not, with probability at most (span / 2^30)^rounds.
+ *
+ * probablyEqual and productMatches compare the polynomials over the integers.  Arithmetic in this library wraps
+ * coefficients around on int overflow, that is it works modulo 2^32, so productMatches rejects a product whose
+ * coefficients wrapped even when multiply computed it correctly.  wrappedProductMatches checks products modulo 2^32
+ * instead.  Z/2^32 is not a field, and a polynomial such as 2^31 x (x + 1) vanishes at every point of it, so that
+ * check evaluates at random points of the Galois ring Z/2^32[y] / (y^32 + y^7 + y^3 + y^2 + 1), whose reduction
+ * modulo 2 is the field of 2^32 elements.  A polynomial 2^v h with h not zero modulo 2 can only vanish at a point whose
+ * reduction is a root of h modulo 2, so a wrong product is again missed with probability at most span / (2^32 - 1)
+ * per round.
+ */
+public final class PolynomialIdentity {
+
+    /**
+     * The number of rounds used when none is given
+     */
+    public static final int DEFAULT_ROUNDS = 4;
+
+    private static final int PRIME_BITS = 31;
+
+    /**
+     * The degree of the Galois ring used by wrappedProductMatches and the exponents of the terms below the leading
+     * one of its modulus y^32 + y^7 + y^3 + y^2 + 1, which is irreducible modulo 2
+     */
+    private static final int RING_DEGREE = 32;
+    private static final int[] RING_TAPS = {7, 3, 2, 0};
+
+    private PolynomialIdentity() {
+    }
+
+    /**
+     * Checks whether p and q are probably the same polynomial, with DEFAULT_ROUNDS rounds
+     * Precondition: p and q are not null
+     * Postcondition: returns true if p equals q; returns true for different polynomials with probability at most
+     * (span / 2^30)^DEFAULT_ROUNDS
+     *
+     * @param p the first polynomial
+     * @param q the second polynomial
+     * @return false if p and q certainly differ, true if they are probably equal
+     * @throws NullPointerException if p or q is null
+     */
+    public static boolean probablyEqual(Polynomial p, Polynomial q) {
+        return probablyEqual(p, q, DEFAULT_ROUNDS, new Random());
+    }
+
+    /**
+     * Checks whether p and q are probably the same polynomial, each round evaluating both at a random point modulo a
+     * random prime between 2^30 and 2^31
+     * Precondition: p, q and random are not null and rounds is positive
+     * Postcondition: returns true if p equals q; returns true for different polynomials with probability at most
+     * (span / 2^30)^rounds
+     *
+     * @param p the first polynomial
+     * @param q the second polynomial
+     * @param rounds the number of independent points to try
+     * @param random the source of primes and points
+     * @return false if p and q certainly differ, true if they are probably equal
+     * @throws NullPointerException if any argument is null
+     * @throws IllegalArgumentException if rounds is not positive
+     */
+    public static boolean probablyEqual(Polynomial p, Polynomial q, int rounds, Random random) {
+        if(p == null || q == null || random == null) {
+            throw new NullPointerException("Argument is null");
+        }
+        if(rounds <= 0) {
+            throw new IllegalArgumentException("rounds must be positive");
+        }
+        for(int round = 0; round < rounds; round++) {
+            long prime = randomPrime(random);
+            long x = 1 + random.nextInt((int) prime - 1);
+            if(evaluate(p, x, prime) != evaluate(q, x, prime)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether product is probably p * q, with DEFAULT_ROUNDS rounds
+     * Precondition: p, q and product are not null
+     * Postcondition: returns true if product equals p * q over the integers; returns true otherwise with probability
+     * at most (span / 2^30)^DEFAULT_ROUNDS
+     *
+     * @param p the first factor
+     * @param q the second factor
+     * @param product the claimed product
+     * @return false if product is certainly not p * q, true if it probably is
+     * @throws NullPointerException if any argument is null
+     */
+    public static boolean productMatches(Polynomial p, Polynomial q, Polynomial product) {
+        return productMatches(p, q, product, DEFAULT_ROUNDS, new Random());
+    }
+
+    /**
+     * Checks whether product is probably p * q by comparing p(x) q(x) with product(x) at random points modulo random
+     * primes.  The factors and the product are each read once per round and p * q is never formed.  The comparison is
+     * over the integers, so a product from multiply whose coefficients wrapped around on int overflow is reported as
+     * not matching; use wrappedProductMatches for those.
+     * Precondition: p, q, product and random are not null and rounds is positive
+     * Postcondition: returns true if product equals p * q over the integers; returns true otherwise with probability
+     * at most (span / 2^30)^rounds
+     *
+     * @param p the first factor
+     * @param q the second factor
+     * @param product the claimed product
+     * @param rounds the number of independent points to try
+     * @param random the source of primes and points
+     * @return false if product is certainly not p * q, true if it probably is
+     * @throws NullPointerException if any argument is null
+     * @throws IllegalArgumentException if rounds is not positive
+     */
+    public static boolean productMatches(Polynomial p, Polynomial q, Polynomial product, int rounds, Random random) {
+        if(p == null || q == null || product == null || random == null) {
+            throw new NullPointerException("Argument is null");
+        }
+        if(rounds <= 0) {
+            throw new IllegalArgumentException("rounds must be positive");
+        }
+        for(int round = 0; round < rounds; round++) {
+            long prime = randomPrime(random);
+            long x = 1 + random.nextInt((int) prime - 1);
+            if(evaluate(p, x, prime) * evaluate(q, x, prime) % prime != evaluate(product, x, prime)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether product is probably p * q with coefficients taken modulo 2^32, as multiply computes them, with
+     * DEFAULT_ROUNDS rounds
+     * Precondition: p, q and product are not null
+     * Postcondition: returns true if every coefficient of product is congruent to that of p * q modulo 2^32; returns
+     * true otherwise with probability at most (span / (2^32 - 1))^DEFAULT_ROUNDS
+     *
+     * @param p the first factor
+     * @param q the second factor
+     * @param product the claimed product
+     * @return false if product is certainly not p * q modulo 2^32, true if it probably is
+     * @throws NullPointerException if any argument is null
+     */
+    public static boolean wrappedProductMatches(Polynomial p, Polynomial q, Polynomial product) {
+        return wrappedProductMatches(p, q, product, DEFAULT_ROUNDS, new Random());
+    }
+
+    /**
+     * Checks whether product is probably p * q with coefficients taken modulo 2^32, as multiply computes them, by
+     * comparing p(x) q(x) with product(x) at random units x of the Galois ring described in the class comment.  Terms
+     * are shifted down by the lowest exponent of each operand, so negative exponents need no inverse of x.  The factors
+     * and the product are each read once per round and p * q is never formed.
+     * Precondition: p, q, product and random are not null and rounds is positive
+     * Postcondition: returns true if every coefficient of product is congruent to that of p * q modulo 2^32; returns
+     * true otherwise with probability at most (span / (2^32 - 1))^rounds
+     *
+     * @param p the first factor
+     * @param q the second factor
+     * @param product the claimed product
+     * @param rounds the number of independent points to try
+     * @param random the source of points
+     * @return false if product is certainly not p * q modulo 2^32, true if it probably is
+     * @throws NullPointerException if any argument is null
+     * @throws IllegalArgumentException if rounds is not positive
+     */
+    public static boolean wrappedProductMatches(Polynomial p, Polynomial q, Polynomial product, int rounds,
+            Random random) {
+        if(p == null || q == null || product == null || random == null) {
+            throw new NullPointerException("Argument is null");
+        }
+        if(rounds <= 0) {
+            throw new IllegalArgumentException("rounds must be positive");
+        }
+        long[] lowest = new long[3];
+        for(int round = 0; round < rounds; round++) {
+            int[] x = randomUnit(random);
+            int[] left = ringMultiply(evaluate(p, x, lowest, 0), evaluate(q, x, lowest, 1));
+            int[] right = evaluate(product, x, lowest, 2);
+            if(p.isZero() || q.isZero() || product.isZero()) {
+                // the lowest exponents of a zero polynomial mean nothing, and its value is zero at every point
+                if(!Arrays.equals(left, right)) {
+                    return false;
+                }
+                continue;
+            }
+            // the true product has no term below the sum of the lowest exponents of the factors
+            long shift = lowest[2] - lowest[0] - lowest[1];
+            if(shift < 0) {
+                return false;
+            }
+            if(!Arrays.equals(left, ringMultiply(right, ringPower(x, shift)))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Evaluates p divided by x to its lowest exponent at a point of the Galois ring, reading the terms once in
+     * ascending order and stepping the power of x from one exponent to the next.  The lowest exponent is stored in
+     * lowest[index].
+     */
+    private static int[] evaluate(Polynomial p, int[] x, long[] lowest, int index) {
+        int[] sum = new int[RING_DEGREE];
+        int[][] power = {null};
+        long[] exponents = {0};
+        p.forEachTerm((exponent, coefficient) -> {
+            if(power[0] == null) {
+                power[0] = new int[RING_DEGREE];
+                power[0][0] = 1;
+                lowest[index] = exponent;
+            }
+            else {
+                power[0] = ringMultiply(power[0], ringPower(x, (long) exponent - exponents[0]));
+            }
+            exponents[0] = exponent;
+            for(int i = 0; i < RING_DEGREE; i++) {
+                sum[i] += coefficient * power[0][i];
+            }
+        });
+        return sum;
+    }
+
+    /**
+     * Multiplies two elements of the Galois ring, given by their coefficients of y^0 to y^31.  int arithmetic wraps
+     * around, so it works modulo 2^32 by itself.
+     */
+    private static int[] ringMultiply(int[] a, int[] b) {
+        int[] product = new int[2 * RING_DEGREE - 1];
+        for(int i = 0; i < RING_DEGREE; i++) {
+            if(a[i] != 0) {
+                for(int j = 0; j < RING_DEGREE; j++) {
+                    product[i + j] += a[i] * b[j];
+                }
+            }
+        }
+        // y^32 is -(y^7 + y^3 + y^2 + 1)
+        for(int i = product.length - 1; i >= RING_DEGREE; i--) {
+            int c = product[i];
+            if(c != 0) {
+                for(int tap: RING_TAPS) {
+                    product[i - RING_DEGREE + tap] -= c;
+                }
+            }
+        }
+        return Arrays.copyOf(product, RING_DEGREE);
+    }
+
+    /**
+     * Raises an element of the Galois ring to a positive power by squaring, returning base itself for a power of 1
+     */
+    private static int[] ringPower(int[] base, long exponent) {
+        if(exponent == 0) {
+            int[] one = new int[RING_DEGREE];
+            one[0] = 1;
+            return one;
+        }
+        int[] result = null;
+        while(true) {
+            if((exponent & 1) == 1) {
+                result = (result == null) ? base : ringMultiply(result, base);
+            }
+            exponent >>= 1;
+            if(exponent == 0) {
+                return result;
+            }
+            base = ringMultiply(base, base);
+        }
+    }
+
+    /**
+     * Returns a random unit of the Galois ring, that is an element that is not zero modulo 2
+     */
+    private static int[] randomUnit(Random random) {
+        int[] x = new int[RING_DEGREE];
+        boolean unit = false;
+        while(!unit) {
+            for(int i = 0; i < RING_DEGREE; i++) {
+                x[i] = random.nextInt();
+                unit |= (x[i] & 1) == 1;
+            }
+        }
+        return x;
+    }
+
+    /**
+     * Evaluates p at x modulo prime, reading the terms once in ascending order and stepping the power of x from one
+     * exponent to the next.  Negative exponents use the inverse of x.
+     * Precondition: p is not null, prime is a prime below 2^31 and x is not a multiple of prime
+     * Postcondition: returns p(x) modulo prime, in [0, prime)
+     *
+     * @param p the polynomial to evaluate
+     * @param x the point
+     * @param prime the modulus
+     * @return the value of p at x modulo prime
+     */
+    public static long evaluate(Polynomial p, long x, long prime) {
+        if(p == null) {
+            throw new NullPointerException("Argument is null");
+        }
+        long base = Math.floorMod(x, prime);
+        long[] state = {0, 0, 0};
+        boolean[] started = {false};
+        p.forEachTerm((exponent, coefficient) -> {
+            // state holds the sum so far, the current exponent and x to that exponent
+            if(!started[0]) {
+                state[1] = exponent;
+                state[2] = (exponent >= 0) ? power(base, exponent, prime)
+                        : power(power(base, prime - 2, prime), -(long) exponent, prime);
+                started[0] = true;
+            }
+            else {
+                state[2] = state[2] * power(base, (long) exponent - state[1], prime) % prime;
+                state[1] = exponent;
+            }
+            state[0] = (state[0] + Math.floorMod(coefficient, prime) * state[2]) % prime;
+        });
+        return state[0];
+    }
+
+    private static long power(long base, long exponent, long prime) {
+        long result = 1;
+        while(exponent > 0) {
+            if((exponent & 1) == 1) {
+                result = result * base % prime;
+            }
+            base = base * base % prime;
+            exponent >>= 1;
+        }
+        return result;
+    }
+
+    private static long randomPrime(Random random) {
+        return BigInteger.probablePrime(PRIME_BITS, random).longValueExact();
+    }
+}
@@ -0,0 +1,109 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PolynomialIdentityTest {
+
+    @Test
+    void testEvaluate() {
+        //testing evaluation modulo a small prime, with negative coefficients and exponents
+        assertEquals(Math.floorMod(4 * 8 + 3 * 2 - 5, 101), PolynomialIdentity.evaluate(new DensePolynomial("4x^3 + 3x - 5"), 2, 101));
+        // 2^-1 is 51 modulo 101
+        assertEquals(Math.floorMod(1 + 7 * 51 * 51, 101), PolynomialIdentity.evaluate(new SparsePolynomial("1 + 7x^-2"), 2, 101));
+        assertEquals(0, PolynomialIdentity.evaluate(new DensePolynomial("0"), 5, 101));
+    }
+
+    @Test
+    void testProbablyEqual() {
+        Random random = new Random(39);
+        DensePolynomial dense = new DensePolynomial("4x^2 + 8x + -2");
+        SparsePolynomial sparse = new SparsePolynomial("4x^2 + 8x + -2");
+
+        //testing that equal polynomials in different representations are reported equal
+        assertTrue(PolynomialIdentity.probablyEqual(dense, sparse, 8, random));
+        assertTrue(PolynomialIdentity.probablyEqual(sparse, new MutableSparsePolynomial(sparse)));
+
+        //testing that polynomials differing in one coefficient are told apart
+        assertFalse(PolynomialIdentity.probablyEqual(dense, new SparsePolynomial("4x^2 + 8x + -1"), 8, random));
+        assertFalse(PolynomialIdentity.probablyEqual(sparse, new SparsePolynomial("4x^2 + 8x + -2 + x^-40000"), 8, random));
+
+        assertThrows(NullPointerException.class, () -> PolynomialIdentity.probablyEqual(dense, null));
+        assertThrows(IllegalArgumentException.class, () -> PolynomialIdentity.probablyEqual(dense, sparse, 0, random));
+    }
+
+    @Test
+    void testProductMatches() {
+        Random random = new Random(390);
+        int[] a = new int[3000];
+        int[] b = new int[2000];
+        for(int i = 0; i < a.length; i++) {
+            a[i] = random.nextInt(2001) - 1000;
+        }
+        for(int i = 0; i < b.length; i++) {
+            b[i] = random.nextInt(2001) - 1000;
+        }
+        a[a.length - 1] = 1;
+        b[b.length - 1] = 1;
+        DensePolynomial p = DensePolynomial.fromCoefficients(a);
+        DensePolynomial q = DensePolynomial.fromCoefficients(b);
+        Polynomial product = p.multiply(q);
+
+        //testing that a computed product is confirmed
+        assertTrue(PolynomialIdentity.productMatches(p, q, product, 8, random));
+
+        //testing that a product with one wrong coefficient is rejected
+        Polynomial wrong = product.add(new SparsePolynomial("1x^1234"));
+        assertFalse(PolynomialIdentity.productMatches(p, q, wrong, 8, random));
+        assertFalse(PolynomialIdentity.productMatches(p, q, p, 8, random));
+
+        //testing products with negative exponents
+        SparsePolynomial s = new SparsePolynomial("3x^5 + 1 + -2x^-7");
+        SparsePolynomial t = new SparsePolynomial("4x^100 + x^-3");
+        assertTrue(PolynomialIdentity.productMatches(s, t, s.multiply(t)));
+        assertFalse(PolynomialIdentity.productMatches(s, t, t));
+    }
+
+    @Test
+    void testWrappedProductMatches() {
+        Random random = new Random(391);
+        int[] a = new int[3000];
+        int[] b = new int[2000];
+        for(int i = 0; i < a.length; i++) {
+            a[i] = random.nextInt();
+        }
+        for(int i = 0; i < b.length; i++) {
+            b[i] = random.nextInt();
+        }
+        a[a.length - 1] = 1;
+        b[b.length - 1] = 1;
+        DensePolynomial p = DensePolynomial.fromCoefficients(a);
+        DensePolynomial q = DensePolynomial.fromCoefficients(b);
+        Polynomial product = p.multiply(q);
+
+        //testing that a product whose coefficients wrapped is confirmed modulo 2^32 but not over the integers
+        assertTrue(PolynomialIdentity.wrappedProductMatches(p, q, product, 8, random));
+        assertFalse(PolynomialIdentity.productMatches(p, q, product, 8, random));
+        DensePolynomial square = new DensePolynomial("65536x + 1");
+        assertTrue(PolynomialIdentity.wrappedProductMatches(square, square, new DensePolynomial("131072x + 1")));
+        assertTrue(PolynomialIdentity.wrappedProductMatches(new DensePolynomial("65536x"), square.subtract(
+                new DensePolynomial("1")), new DensePolynomial("0")));
+
+        //testing that differences only in the highest bit are found, even those that vanish at every integer point
+        assertFalse(PolynomialIdentity.wrappedProductMatches(p, q, product.add(new SparsePolynomial("-2147483648x^1234")), 8, random));
+        Polynomial vanishing = new DensePolynomial("-2147483648x^2 + -2147483648x");
+        assertFalse(PolynomialIdentity.wrappedProductMatches(p, q, product.add(vanishing), 8, random));
+        assertFalse(PolynomialIdentity.wrappedProductMatches(p, q, p, 8, random));
+        assertFalse(PolynomialIdentity.wrappedProductMatches(p, q, new DensePolynomial("0"), 8, random));
+
+        //testing products with negative exponents
+        SparsePolynomial s = new SparsePolynomial("2000000000x^5 + 1 + -2x^-7");
+        SparsePolynomial t = new SparsePolynomial("4x^100 + 2000000000x^-3");
+        assertTrue(PolynomialIdentity.wrappedProductMatches(s, t, s.multiply(t)));
+        assertFalse(PolynomialIdentity.wrappedProductMatches(s, t, s.multiply(t).add(new SparsePolynomial("x^-11"))));
+        assertFalse(PolynomialIdentity.wrappedProductMatches(s, t, t));
+        assertThrows(NullPointerException.class, () -> PolynomialIdentity.wrappedProductMatches(s, t, null));
+        assertThrows(IllegalArgumentException.class, () -> PolynomialIdentity.wrappedProductMatches(s, t, t, 0, random));
+    }
+}
@@ -0,0 +1,324 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Parses the canonical string representation shared by DensePolynomial and SparsePolynomial.  The string is a list of
+ * terms such as "5x^7", "-x", "3x" or "8" joined by " + " or " - ", with non-zero coefficients and exponents in
+ * non-increasing order; the zero polynomial is written "0".
+ *
+ * Terms are read straight out of the string without the regex splits the constructors used to run, and the input is
+ * only parsed once.  Long inputs can also be parsed in parallel: the string is cut at term boundaries, the chunks are
+ * parsed on a fork-join pool, and the chunks are joined back in order, checking the ordering of the exponents across
+ * every cut.
+ */
+final class PolynomialParser {
+
+    /**
+     * Inputs shorter than this many characters are parsed on the calling thread
+     */
+    static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    private PolynomialParser() {
+    }
+
+    /**
+     * The terms of a parsed polynomial in the order they were written, so exponents are non-increasing
+     */
+    static final class Parsed {
+        final int[] degrees;
+        final int[] coefficients;
+
+        Parsed(int[] degrees, int[] coefficients) {
+            this.degrees = degrees;
+            this.coefficients = coefficients;
+        }
+
+        /**
+         * Lays the terms out in an array indexed by degree.  When a degree is written more than once the last term wins.
+         * Precondition: every degree is non-negative
+         * @return the coefficient array, of length highest degree + 1
+         */
+        int[] toCoefficientArray() {
+            int[] coefficients = new int[degrees[0] + 1];
+            for(int i = 0; i < degrees.length; i++) {
+                coefficients[degrees[i]] = this.coefficients[i];
+            }
+            return coefficients;
+        }
+
+        /**
+         * Returns the terms in ascending order of degree without zero coefficients.  When a degree is written more than
+         * once the last term wins.
+         * @return the normalized terms
+         */
+        TermArrays toTermArrays() {
+            int n = degrees.length;
+            int[] exponents = new int[n];
+            int[] values = new int[n];
+            int k = 0;
+            for(int i = n - 1; i >= 0; i--) {
+                if((i < n - 1 && degrees[i] == degrees[i + 1]) || coefficients[i] == 0) {
+                    continue;
+                }
+                exponents[k] = degrees[i];
+                values[k++] = coefficients[i];
+            }
+            return new TermArrays(Arrays.copyOf(exponents, k), Arrays.copyOf(values, k));
+        }
+    }
+
+    /**
+     * Parses a canonical string on the calling thread
+     * Precondition: None
+     * Postcondition: returns the terms of s in the order they were written
+     *
+     * @param s the canonical string representation of a polynomial
+     * @param allowNegative whether negative exponents are accepted
+     * @return the parsed terms
+     * @throws NullPointerException if s is null
+     * @throws IllegalArgumentException if s is not a canonical polynomial string
+     */
+    static Parsed parse(String s, boolean allowNegative) {
+        if(s == null) {
+            throw new NullPointerException("Argument is null");
+        }
+        if(s.equals("0")) {
+            return new Parsed(new int[]{0}, new int[]{0});
+        }
+        return toParsed(parseChunk(s, 0, s.length(), false, true, allowNegative));
+    }
+
+    /**
+     * Parses a canonical string by cutting it into chunks at term boundaries and parsing the chunks on pool.  Short
+     * strings are parsed on the calling thread.
+     * Precondition: None
+     * Postcondition: returns the same terms as parse(s, allowNegative)
+     *
+     * @param s the canonical string representation of a polynomial
+     * @param allowNegative whether negative exponents are accepted
+     * @param pool the pool that parses the chunks
+     * @return the parsed terms
+     * @throws NullPointerException if s or pool is null
+     * @throws IllegalArgumentException if s is not a canonical polynomial string
+     */
+    static Parsed parseParallel(String s, boolean allowNegative, ForkJoinPool pool) {
+        if(s == null || pool == null) {
+            throw new NullPointerException("Argument is null");
+        }
+        if(s.length() < PARALLEL_THRESHOLD || s.equals("0")) {
+            return parse(s, allowNegative);
+        }
+        return toParsed(pool.invoke(new ChunkTask(s, 0, s.length(), false, true, allowNegative)));
+    }
+
+    private static Parsed toParsed(Chunk chunk) {
+        if(chunk.degrees.length == 0) {
+            throw invalid();
+        }
+        return new Parsed(chunk.degrees, chunk.coefficients);
+    }
+
+    /**
+     * The terms of one chunk of the input in the order they were written
+     */
+    private static final class Chunk {
+        final int[] degrees;
+        final int[] coefficients;
+
+        Chunk(int[] degrees, int[] coefficients) {
+            this.degrees = degrees;
+            this.coefficients = coefficients;
+        }
+
+        /**
+         * Joins two neighbouring chunks, checking that the exponents do not increase across the cut
+         * @param left the chunk written first
+         * @param right the chunk written second
+         * @return the terms of both chunks
+         * @throws IllegalArgumentException if the first exponent of right is larger than the last exponent of left
+         */
+        static Chunk join(Chunk left, Chunk right) {
+            int n = left.degrees.length;
+            if(right.degrees.length == 0) {
+                return left;
+            }
+            if(left.degrees[n - 1] < right.degrees[0]) {
+                throw invalid();
+            }
+            int[] degrees = Arrays.copyOf(left.degrees, n + right.degrees.length);
+            int[] coefficients = Arrays.copyOf(left.coefficients, n + right.coefficients.length);
+            System.arraycopy(right.degrees, 0, degrees, n, right.degrees.length);
+            System.arraycopy(right.coefficients, 0, coefficients, n, right.coefficients.length);
+            return new Chunk(degrees, coefficients);
+        }
+    }
+
+    /**
+     * Parses the range [from, to) of the input, splitting it in two at a term boundary near the middle while it is
+     * longer than PARALLEL_THRESHOLD
+     */
+    private static final class ChunkTask extends RecursiveTask<Chunk> {
+        private static final long serialVersionUID = 1L;
+
+        private final String s;
+        private final int from;
+        private final int to;
+        private final boolean negateFirst;
+        private final boolean last;
+        private final boolean allowNegative;
+
+        ChunkTask(String s, int from, int to, boolean negateFirst, boolean last, boolean allowNegative) {
+            this.s = s;
+            this.from = from;
+            this.to = to;
+            this.negateFirst = negateFirst;
+            this.last = last;
+            this.allowNegative = allowNegative;
+        }
+
+        @Override
+        protected Chunk compute() {
+            if(to - from >= PARALLEL_THRESHOLD) {
+                for(int i = from + (to - from) / 2; i < to; i++) {
+                    int separator = separatorLength(s, i, to);
+                    if(separator > 0) {
+                        ChunkTask left = new ChunkTask(s, from, i, negateFirst, false, allowNegative);
+                        ChunkTask right = new ChunkTask(s, i + separator, to, separator == 3, last, allowNegative);
+                        left.fork();
+                        Chunk rightChunk = right.compute();
+                        return Chunk.join(left.join(), rightChunk);
+                    }
+                }
+            }
+            return parseChunk(s, from, to, negateFirst, last, allowNegative);
+        }
+    }
+
+    /**
+     * Returns the length of the term separator starting at index i: 1 for "+", 3 for " - " and 0 if there is none.  A
+     * " - " separator negates the term that follows it.
+     */
+    private static int separatorLength(String s, int i, int to) {
+        char ch = s.charAt(i);
+        if(ch == '+') {
+            return 1;
+        }
+        if(ch == ' ' && i + 2 < to && s.charAt(i + 1) == '-' && s.charAt(i + 2) == ' ') {
+            return 3;
+        }
+        return 0;
+    }
+
+    /**
+     * Parses the range [from, to) of the input on the calling thread.  Empty terms at the very end of the input are
+     * ignored, matching String.split, so only the chunk that ends the input drops them, and only that chunk may come
+     * back empty.
+     *
+     * @param negateFirst whether the chunk follows a " - " separator
+     * @param last whether the chunk ends the input
+     */
+    private static Chunk parseChunk(String s, int from, int to, boolean negateFirst, boolean last, boolean allowNegative) {
+        int[] degrees = new int[16];
+        int[] coefficients = new int[16];
+        int count = 0;
+        int pendingEmpty = 0;
+
+        int start = from;
+        boolean negate = negateFirst;
+        int i = from;
+        while(i <= to) {
+            int separator = (i == to) ? 0 : separatorLength(s, i, to);
+            if(i == to || separator > 0) {
+                if(start == i && !negate) {
+                    pendingEmpty++;
+                }
+                else {
+                    if(pendingEmpty > 0) {
+                        throw invalid();
+                    }
+                    if(count == degrees.length) {
+                        degrees = Arrays.copyOf(degrees, 2 * count);
+                        coefficients = Arrays.copyOf(coefficients, 2 * count);
+                    }
+                    parseTerm(s, start, i, negate, degrees, coefficients, count, allowNegative);
+                    if(count > 0 && degrees[count - 1] < degrees[count]) {
+                        throw invalid();
+                    }
+                    count++;
+                }
+                if(i == to) {
+                    break;
+                }
+                start = i + separator;
+                negate = separator == 3;
+                i = start;
+            }
+            else {
+                char ch = s.charAt(i);
+                if(!((ch >= '0' && ch <= '9') || ch == '-' || ch == '^' || ch == 'x' || ch == ' ')) {
+                    throw invalid();
+                }
+                i++;
+            }
+        }
+        if(!last && (count == 0 || pendingEmpty > 0)) {
+            throw invalid();
+        }
+        return new Chunk(Arrays.copyOf(degrees, count), Arrays.copyOf(coefficients, count));
+    }
+
+    /**
+     * Parses one term, such as "5x^7", "x^3", "-x", "3x" or "8", with surrounding spaces, and stores it at index k
+     */
+    private static void parseTerm(String s, int from, int to, boolean negate, int[] degrees, int[] coefficients, int k,
+                                  boolean allowNegative) {
+        while(from < to && s.charAt(from) == ' ') {
+            from++;
+        }
+        while(to > from && s.charAt(to - 1) == ' ') {
+            to--;
+        }
+        String term = negate ? "-" + s.substring(from, to) : s.substring(from, to);
+        int coefficient;
+        int degree;
+        try {
+            int x = term.indexOf('x');
+            if(x < 0) {
+                coefficient = Integer.parseInt(term);
+                degree = 0;
+            }
+            else if(x + 1 < term.length() && term.charAt(x + 1) == '^') {
+                coefficient = (x == 0) ? 1 : Integer.parseInt(term.substring(0, x));
+                degree = Integer.parseInt(term.substring(x + 2));
+            }
+            else if(x + 1 == term.length()) {
+                if(x == 0) {
+                    coefficient = 1;
+                }
+                else if(x == 1 && term.charAt(0) == '-') {
+                    coefficient = -1;
+                }
+                else {
+                    coefficient = Integer.parseInt(term.substring(0, x));
+                }
+                degree = 1;
+            }
+            else {
+                throw invalid();
+            }
+        }
+        catch(NumberFormatException e) {
+            throw invalid();
+        }
+        if(coefficient == 0 || (!allowNegative && degree < 0)) {
+            throw invalid();
+        }
+        degrees[k] = degree;
+        coefficients[k] = coefficient;
+    }
+
+    private static IllegalArgumentException invalid() {
+        return new IllegalArgumentException("The input string given is invalid");
+    }
+}
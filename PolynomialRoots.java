@@ -0,0 +1,876 @@
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Finds the roots of DensePolynomials, which have integer coefficients.
+ *
+ * Real roots are isolated exactly with Descartes' rule of signs and bisection, in the style of Vincent, Collins and
+ * Akritas.  The polynomial is first reduced to its square-free part, so every real root is found once.  Its positive
+ * roots are scaled into (0, 1) by a power of two, and an interval is cut in half until the number of sign variations of
+ * the polynomial moved onto it is 0, meaning no root, or 1, meaning exactly one root.  The arithmetic is done on
+ * BigIntegers, so the intervals are certain, and roots that land on a bisection point are reported exactly.  Each
+ * isolating interval is then narrowed by bisection, with exact signs at dyadic points, until it is no wider than the
+ * tolerance.  Negative roots are the positive roots of p(-x).
+ *
+ * Complex roots are approximated with the Aberth-Ehrlich method, which improves all approximations at once: each moves
+ * by a Newton step corrected for the pull of every other approximation.  The steps of one iteration only read the
+ * previous approximations, so they are computed in parallel across the roots on a fork-join pool.  A root stops moving
+ * once its step is within the tolerance relative to its size.  Every result carries an error bound: the disc of radius
+ * n |p(z) / p'(z)| around an approximation z of a root of a degree n polynomial always holds a root, and the bound
+ * widens it by a running bound on the rounding error of evaluating p and p', so it holds for the computed values as
+ * well, and is infinite when p'(z) is lost in rounding.  Points of modulus above 1 are evaluated through the reversed
+ * polynomial at 1 / z, so high degrees do not overflow.
+ */
+public final class PolynomialRoots {
+
+    /**
+     * The tolerance used when none is given
+     */
+    public static final double DEFAULT_TOLERANCE = 1e-12;
+
+    /**
+     * The largest number of Aberth-Ehrlich iterations before the approximations are returned as they are
+     */
+    public static final int MAX_ITERATIONS = 1000;
+
+    /**
+     * Iterations over fewer roots than this are computed on the calling thread, and parallel tasks are cut down to
+     * this many roots
+     */
+    static final int PARALLEL_ROOTS = 32;
+
+    /**
+     * The prime modulo which square-freeness is checked before any exact gcd is attempted
+     */
+    private static final long PRIME = 998244353;
+
+    private PolynomialRoots() {
+    }
+
+    /**
+     * An interval holding exactly one real root.  When the root was found exactly, both ends are the root.
+     */
+    public static final class Interval {
+        private final double low;
+        private final double high;
+        private final boolean exact;
+
+        private Interval(double low, double high, boolean exact) {
+            this.low = low;
+            this.high = high;
+            this.exact = exact;
+        }
+
+        /**
+         * @return the lower end of the interval
+         */
+        public double low() {
+            return low;
+        }
+
+        /**
+         * @return the upper end of the interval
+         */
+        public double high() {
+            return high;
+        }
+
+        /**
+         * @return the middle of the interval, which is within half its width of the root
+         */
+        public double midpoint() {
+            return exact ? low : low + (high - low) / 2;
+        }
+
+        /**
+         * @return true if the root is a dyadic rational that was found exactly
+         */
+        public boolean isExact() {
+            return exact;
+        }
+
+        @Override
+        public String toString() {
+            return exact ? Double.toString(low) : "(" + low + ", " + high + ")";
+        }
+    }
+
+    /**
+     * An approximation of a complex root together with the radius of a disc around it that holds a root
+     */
+    public static final class ComplexRoot {
+        private final double re;
+        private final double im;
+        private final double errorBound;
+
+        private ComplexRoot(double re, double im, double errorBound) {
+            this.re = re;
+            this.im = im;
+            this.errorBound = errorBound;
+        }
+
+        /**
+         * @return the real part of the approximation
+         */
+        public double re() {
+            return re;
+        }
+
+        /**
+         * @return the imaginary part of the approximation
+         */
+        public double im() {
+            return im;
+        }
+
+        /**
+         * @return the radius of a disc around the approximation that holds a root, allowing for the rounding of the
+         * floating point evaluation, or infinity when the derivative at the approximation is too small to bound it
+         */
+        public double errorBound() {
+            return errorBound;
+        }
+
+        @Override
+        public String toString() {
+            return re + (im < 0 ? " - " : " + ") + Math.abs(im) + "i";
+        }
+    }
+
+    /**
+     * Returns the distinct real roots of p, each in an interval no wider than DEFAULT_TOLERANCE
+     * Precondition: p is not null and not zero
+     * Postcondition: returns one interval for each distinct real root, in ascending order
+     *
+     * @param p the polynomial whose roots are found
+     * @return the isolating intervals of the real roots
+     * @throws NullPointerException if p is null
+     * @throws IllegalArgumentException if p is the zero polynomial
+     */
+    public static List<Interval> realRoots(DensePolynomial p) {
+        return realRoots(p, DEFAULT_TOLERANCE);
+    }
+
+    /**
+     * Returns the distinct real roots of p, each in an interval no wider than tolerance.  The intervals are disjoint
+     * and each is certain to hold exactly one root; a tolerance of Double.POSITIVE_INFINITY returns the intervals as
+     * they come out of the isolation, without narrowing them.
+     *
+     * Precondition: p is not null and not zero, and tolerance is positive
+     * Postcondition: returns one interval for each distinct real root, in ascending order
+     *
+     * @param p the polynomial whose roots are found
+     * @param tolerance the largest width of an interval
+     * @return the isolating intervals of the real roots
+     * @throws NullPointerException if p is null
+     * @throws IllegalArgumentException if p is the zero polynomial or tolerance is not positive
+     */
+    public static List<Interval> realRoots(DensePolynomial p, double tolerance) {
+        if(p == null) {
+            throw new NullPointerException("Argument is null");
+        }
+        if(!(tolerance > 0)) {
+            throw new IllegalArgumentException("The tolerance must be positive");
+        }
+        if(p.isZero()) {
+            throw new IllegalArgumentException("Every number is a root of the zero polynomial");
+        }
+        int[] coefficients = p.getCoefficients();
+        int zeros = 0;
+        while(coefficients[zeros] == 0) {
+            zeros++;
+        }
+        BigInteger[] f = new BigInteger[coefficients.length - zeros];
+        for(int i = 0; i < f.length; i++) {
+            f[i] = BigInteger.valueOf(coefficients[zeros + i]);
+        }
+        f = squareFree(f);
+
+        List<Interval> roots = new ArrayList<>();
+        if(zeros > 0) {
+            roots.add(new Interval(0, 0, true));
+        }
+        isolate(f, false, tolerance, roots);
+        BigInteger[] reflected = new BigInteger[f.length];
+        for(int i = 0; i < f.length; i++) {
+            reflected[i] = (i % 2 == 0) ? f[i] : f[i].negate();
+        }
+        isolate(reflected, true, tolerance, roots);
+        roots.sort(Comparator.comparingDouble(Interval::low));
+        return roots;
+    }
+
+    /**
+     * Isolates the positive roots of the square-free polynomial g and adds them to out, negated if negative is set
+     */
+    private static void isolate(BigInteger[] g, boolean negative, double tolerance, List<Interval> out) {
+        int n = g.length - 1;
+        if(n == 0) {
+            return;
+        }
+        int k = rootBound(g);
+        BigInteger[] q = new BigInteger[n + 1];
+        for(int i = 0; i <= n; i++) {
+            q[i] = g[i].shiftLeft((k >= 0) ? k * i : -k * (n - i));
+        }
+
+        // The roots of q in (0, 1) are the positive roots of g divided by 2^k
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(new Node(q, BigInteger.ZERO, 0));
+        while(!stack.isEmpty()) {
+            Node node = stack.pop();
+            BigInteger[] h = node.h;
+            BigInteger c = node.c;
+            int d = node.d;
+            int variations = descartes(h);
+            if(variations == 0) {
+                continue;
+            }
+            if(variations == 1) {
+                refine(g, c, d - k, negative, tolerance, out);
+                continue;
+            }
+            BigInteger[] left = halve(h);
+            BigInteger[] right = taylorShift(left);
+            if(right[0].signum() == 0) {
+                addExact(c.shiftLeft(1).add(BigInteger.ONE), d + 1 - k, negative, out);
+                BigInteger[] divided = new BigInteger[right.length - 1];
+                System.arraycopy(right, 1, divided, 0, divided.length);
+                right = divided;
+            }
+            stack.push(new Node(right, c.shiftLeft(1).add(BigInteger.ONE), d + 1));
+            stack.push(new Node(left, c.shiftLeft(1), d + 1));
+        }
+    }
+
+    /**
+     * The polynomial h whose roots in (0, 1) are those in the interval (c / 2^d, (c + 1) / 2^d) of the scaled one
+     */
+    private static final class Node {
+        final BigInteger[] h;
+        final BigInteger c;
+        final int d;
+
+        Node(BigInteger[] h, BigInteger c, int d) {
+            this.h = h;
+            this.c = c;
+            this.d = d;
+        }
+    }
+
+    /**
+     * Returns k such that every positive root of g is below 2^k, from Fujiwara's bound
+     * 2 max |g_i / g_n|^(1 / (n - i))
+     */
+    private static int rootBound(BigInteger[] g) {
+        int n = g.length - 1;
+        int lead = g[n].bitLength();
+        int bound = Integer.MIN_VALUE;
+        for(int i = 0; i < n; i++) {
+            if(g[i].signum() != 0) {
+                // |g_i / g_n| < 2^(bitLength(g_i) - bitLength(g_n) + 1), rounded up after the root is taken
+                int e = g[i].bitLength() - lead + 1;
+                bound = Math.max(bound, -Math.floorDiv(-e, n - i));
+            }
+        }
+        return bound + 1;
+    }
+
+    /**
+     * Returns the coefficients in reverse order, the polynomial x^n h(1 / x)
+     */
+    private static BigInteger[] reverse(BigInteger[] h) {
+        BigInteger[] r = new BigInteger[h.length];
+        for(int i = 0; i < h.length; i++) {
+            r[i] = h[h.length - 1 - i];
+        }
+        return r;
+    }
+
+    /**
+     * Returns h(x + 1)
+     */
+    private static BigInteger[] taylorShift(BigInteger[] h) {
+        BigInteger[] r = h.clone();
+        int n = r.length - 1;
+        for(int i = 0; i < n; i++) {
+            for(int j = n - 1; j >= i; j--) {
+                r[j] = r[j].add(r[j + 1]);
+            }
+        }
+        return r;
+    }
+
+    /**
+     * Returns 2^n h(x / 2) with any power of two common to all coefficients removed
+     */
+    private static BigInteger[] halve(BigInteger[] h) {
+        int n = h.length - 1;
+        BigInteger[] r = new BigInteger[n + 1];
+        int common = Integer.MAX_VALUE;
+        for(int i = 0; i <= n; i++) {
+            r[i] = h[i].shiftLeft(n - i);
+            if(r[i].signum() != 0) {
+                common = Math.min(common, r[i].getLowestSetBit());
+            }
+        }
+        if(common > 0) {
+            for(int i = 0; i <= n; i++) {
+                r[i] = r[i].shiftRight(common);
+            }
+        }
+        return r;
+    }
+
+    /**
+     * Returns the number of sign variations of (x + 1)^n h(1 / (x + 1)), which bounds the number of roots of h in
+     * (0, 1) and has the same parity, capped at 2.  The Taylor shift fixes one coefficient per pass, so it stops as soon
+     * as the coefficients fixed so far change sign twice, which is where most of the intervals that must be cut in
+     * half are told apart.
+     */
+    private static int descartes(BigInteger[] h) {
+        BigInteger[] r = reverse(h);
+        int n = r.length - 1;
+        int count = 0;
+        int previous = 0;
+        for(int i = 0; i <= n; i++) {
+            for(int j = n - 1; j >= i; j--) {
+                r[j] = r[j].add(r[j + 1]);
+            }
+            int sign = r[i].signum();
+            if(sign != 0) {
+                if(previous != 0 && sign != previous && ++count == 2) {
+                    return count;
+                }
+                previous = sign;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Narrows (c / 2^s, (c + 1) / 2^s), which holds exactly one root of the square-free polynomial g, until it is no
+     * wider than tolerance, and adds it to out, negated if negative is set
+     */
+    private static void refine(BigInteger[] g, BigInteger c, int s, boolean negative, double tolerance,
+                               List<Interval> out) {
+        int left = sign(g, c, s);
+        if(left == 0) {
+            // The left end is a neighbouring root, so the sign just right of it is the sign of the derivative there
+            BigInteger[] derivative = new BigInteger[g.length - 1];
+            for(int i = 1; i < g.length; i++) {
+                derivative[i - 1] = g[i].multiply(BigInteger.valueOf(i));
+            }
+            left = sign(derivative, c, s);
+        }
+        while(Math.scalb(1.0, -s) > tolerance) {
+            BigInteger middle = c.shiftLeft(1).add(BigInteger.ONE);
+            int sign = sign(g, middle, s + 1);
+            if(sign == 0) {
+                addExact(middle, s + 1, negative, out);
+                return;
+            }
+            c = (sign == left) ? middle : c.shiftLeft(1);
+            s++;
+        }
+        double low = toDouble(c, s);
+        double high = toDouble(c.add(BigInteger.ONE), s);
+        out.add(negative ? new Interval(-high, -low, false) : new Interval(low, high, false));
+    }
+
+    private static void addExact(BigInteger numerator, int s, boolean negative, List<Interval> out) {
+        double root = toDouble(numerator, s);
+        out.add(new Interval(negative ? -root : root, negative ? -root : root, true));
+    }
+
+    /**
+     * Returns the sign of g(c / 2^s), computed exactly as the sign of 2^(s n) g(c / 2^s) when s is positive
+     */
+    private static int sign(BigInteger[] g, BigInteger c, int s) {
+        int n = g.length - 1;
+        BigInteger x = (s > 0) ? c : c.shiftLeft(-s);
+        int shift = Math.max(s, 0);
+        BigInteger value = g[n];
+        for(int i = n - 1; i >= 0; i--) {
+            value = value.multiply(x).add(g[i].shiftLeft(shift * (n - i)));
+        }
+        return value.signum();
+    }
+
+    /**
+     * Returns c / 2^s as the nearest double
+     */
+    private static double toDouble(BigInteger c, int s) {
+        int excess = c.bitLength() - 62;
+        if(excess > 0) {
+            return Math.scalb((double) c.shiftRight(excess).longValue(), excess - s);
+        }
+        return Math.scalb((double) c.longValue(), -s);
+    }
+
+    /**
+     * Returns the square-free part of f, f / gcd(f, f').  The gcd is first taken modulo a prime, which is quick and
+     * shows that most polynomials are already square-free; only when it is not trivial is the exact gcd computed with
+     * primitive remainder sequences.
+     */
+    private static BigInteger[] squareFree(BigInteger[] f) {
+        if(f.length <= 2) {
+            return f;
+        }
+        BigInteger[] derivative = new BigInteger[f.length - 1];
+        for(int i = 1; i < f.length; i++) {
+            derivative[i - 1] = f[i].multiply(BigInteger.valueOf(i));
+        }
+        if(modularGcdDegree(f, derivative) == 0) {
+            return f;
+        }
+        BigInteger[] g = gcd(f, derivative);
+        return (g.length == 1) ? f : divide(f, g);
+    }
+
+    /**
+     * Returns the degree of gcd(f, g) modulo PRIME, which is at least the degree of their gcd over the integers, or
+     * -1 when the leading coefficient of f vanishes modulo PRIME and nothing can be concluded
+     */
+    private static int modularGcdDegree(BigInteger[] f, BigInteger[] g) {
+        BigInteger prime = BigInteger.valueOf(PRIME);
+        long[] a = new long[f.length];
+        long[] b = new long[g.length];
+        for(int i = 0; i < f.length; i++) {
+            a[i] = f[i].mod(prime).longValue();
+        }
+        for(int i = 0; i < g.length; i++) {
+            b[i] = g[i].mod(prime).longValue();
+        }
+        int da = a.length - 1;
+        int db = degree(b, b.length - 1);
+        if(a[da] == 0) {
+            return -1;
+        }
+        while(db >= 0) {
+            long inverse = DenseKernels.power(b[db], PRIME - 2, PRIME);
+            while(da >= db) {
+                long factor = a[da] * inverse % PRIME;
+                for(int i = 0; i <= db; i++) {
+                    a[da - db + i] = Math.floorMod(a[da - db + i] - factor * b[i], PRIME);
+                }
+                da = degree(a, da - 1);
+            }
+            long[] t = a;
+            a = b;
+            b = t;
+            int dt = da;
+            da = db;
+            db = dt;
+        }
+        return da;
+    }
+
+    private static int degree(long[] a, int from) {
+        int d = from;
+        while(d >= 0 && a[d] == 0) {
+            d--;
+        }
+        return d;
+    }
+
+    /**
+     * Returns the primitive gcd of f and g over the integers
+     */
+    private static BigInteger[] gcd(BigInteger[] f, BigInteger[] g) {
+        BigInteger[] a = primitive(f);
+        BigInteger[] b = primitive(g);
+        while(true) {
+            BigInteger[] r = pseudoRemainder(a, b);
+            if(r.length == 0) {
+                return b;
+            }
+            if(r.length == 1) {
+                return new BigInteger[]{BigInteger.ONE};
+            }
+            a = b;
+            b = primitive(r);
+        }
+    }
+
+    /**
+     * Returns a non-zero multiple of the remainder of a divided by b, trimmed, and empty when b divides a
+     */
+    private static BigInteger[] pseudoRemainder(BigInteger[] a, BigInteger[] b) {
+        BigInteger[] r = a.clone();
+        int dr = r.length - 1;
+        int db = b.length - 1;
+        BigInteger lead = b[db];
+        while(dr >= db && dr >= 0) {
+            BigInteger factor = r[dr];
+            for(int i = 0; i <= dr; i++) {
+                r[i] = r[i].multiply(lead);
+            }
+            for(int i = 0; i <= db; i++) {
+                r[dr - db + i] = r[dr - db + i].subtract(factor.multiply(b[i]));
+            }
+            while(dr >= 0 && r[dr].signum() == 0) {
+                dr--;
+            }
+        }
+        BigInteger[] trimmed = new BigInteger[dr + 1];
+        System.arraycopy(r, 0, trimmed, 0, dr + 1);
+        return trimmed;
+    }
+
+    /**
+     * Returns f divided by its content, with a positive leading coefficient
+     */
+    private static BigInteger[] primitive(BigInteger[] f) {
+        BigInteger content = BigInteger.ZERO;
+        for(BigInteger c: f) {
+            content = content.gcd(c);
+        }
+        if(f[f.length - 1].signum() < 0) {
+            content = content.negate();
+        }
+        BigInteger[] r = new BigInteger[f.length];
+        for(int i = 0; i < f.length; i++) {
+            r[i] = f[i].divide(content);
+        }
+        return r;
+    }
+
+    /**
+     * Returns f / g for a primitive g that divides f, which has integer coefficients by Gauss's lemma
+     */
+    private static BigInteger[] divide(BigInteger[] f, BigInteger[] g) {
+        BigInteger[] r = f.clone();
+        int dg = g.length - 1;
+        BigInteger[] quotient = new BigInteger[f.length - dg];
+        for(int i = quotient.length - 1; i >= 0; i--) {
+            quotient[i] = r[i + dg].divide(g[dg]);
+            for(int j = 0; j <= dg; j++) {
+                r[i + j] = r[i + j].subtract(quotient[i].multiply(g[j]));
+            }
+        }
+        return quotient;
+    }
+
+    /**
+     * Returns approximations of all complex roots of p, repeated by multiplicity, with DEFAULT_TOLERANCE on the
+     * common fork-join pool
+     * Precondition: p is not null and not zero
+     * Postcondition: returns degree() approximations sorted by real part, then imaginary part
+     *
+     * @param p the polynomial whose roots are found
+     * @return the approximations of the roots
+     * @throws NullPointerException if p is null
+     * @throws IllegalArgumentException if p is the zero polynomial
+     */
+    public static List<ComplexRoot> complexRoots(DensePolynomial p) {
+        return complexRoots(p, DEFAULT_TOLERANCE, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Returns approximations of all complex roots of p, repeated by multiplicity.  The Aberth-Ehrlich iterations stop
+     * once every approximation moves by at most tolerance times the larger of 1 and its modulus, or after
+     * MAX_ITERATIONS; the error bound of each root tells how close it is either way.  Roots at 0 are split off first
+     * and reported exactly.
+     *
+     * Precondition: p and pool are not null, p is not zero and tolerance is positive
+     * Postcondition: returns degree() approximations sorted by real part, then imaginary part
+     *
+     * @param p the polynomial whose roots are found
+     * @param tolerance the relative size of the last step below which an approximation is accepted
+     * @param pool the pool on which the steps of an iteration are computed
+     * @return the approximations of the roots
+     * @throws NullPointerException if p or pool is null
+     * @throws IllegalArgumentException if p is the zero polynomial or tolerance is not positive
+     */
+    public static List<ComplexRoot> complexRoots(DensePolynomial p, double tolerance, ForkJoinPool pool) {
+        if(p == null || pool == null) {
+            throw new NullPointerException("Argument is null");
+        }
+        if(!(tolerance > 0)) {
+            throw new IllegalArgumentException("The tolerance must be positive");
+        }
+        if(p.isZero()) {
+            throw new IllegalArgumentException("Every number is a root of the zero polynomial");
+        }
+        int[] coefficients = p.getCoefficients();
+        int zeros = 0;
+        while(coefficients[zeros] == 0) {
+            zeros++;
+        }
+        List<ComplexRoot> roots = new ArrayList<>();
+        for(int i = 0; i < zeros; i++) {
+            roots.add(new ComplexRoot(0, 0, 0));
+        }
+        int n = coefficients.length - 1 - zeros;
+        if(n > 0) {
+            double[] a = new double[n + 1];
+            for(int i = 0; i <= n; i++) {
+                a[i] = coefficients[zeros + i];
+            }
+            Aberth aberth = new Aberth(a, tolerance);
+            for(int iteration = 0; iteration < MAX_ITERATIONS && !aberth.converged(); iteration++) {
+                if(n < 2 * PARALLEL_ROOTS || pool.getParallelism() == 1) {
+                    aberth.step(0, n);
+                }
+                else {
+                    pool.invoke(new StepTask(aberth, 0, n));
+                }
+                aberth.swap();
+            }
+            for(int i = 0; i < n; i++) {
+                roots.add(new ComplexRoot(aberth.re[i], aberth.im[i], aberth.errorBound(i)));
+            }
+        }
+        roots.sort(Comparator.comparingDouble(ComplexRoot::re).thenComparingDouble(ComplexRoot::im));
+        return roots;
+    }
+
+    /**
+     * The state of the Aberth-Ehrlich iterations: the current approximations, and the next ones being computed from
+     * them
+     */
+    private static final class Aberth {
+        private final double[] a;
+        private final double tolerance;
+        private double[] re;
+        private double[] im;
+        private double[] nextRe;
+        private double[] nextIm;
+        private final boolean[] done;
+
+        /**
+         * Places the first approximations evenly on the circle whose radius is the geometric mean of the moduli of the
+         * roots, turned slightly so that none lies on the real axis
+         */
+        Aberth(double[] a, double tolerance) {
+            this.a = a;
+            this.tolerance = tolerance;
+            int n = a.length - 1;
+            double radius = Math.pow(Math.abs(a[0] / a[n]), 1.0 / n);
+            re = new double[n];
+            im = new double[n];
+            for(int i = 0; i < n; i++) {
+                double angle = 2 * Math.PI * i / n + 0.4;
+                re[i] = radius * Math.cos(angle);
+                im[i] = radius * Math.sin(angle);
+            }
+            nextRe = re.clone();
+            nextIm = im.clone();
+            done = new boolean[n];
+        }
+
+        boolean converged() {
+            for(boolean d: done) {
+                if(!d) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Computes the next approximations of roots [first, last) from the current ones
+         */
+        void step(int first, int last) {
+            double[] g = new double[2];
+            for(int i = first; i < last; i++) {
+                if(done[i]) {
+                    nextRe[i] = re[i];
+                    nextIm[i] = im[i];
+                    continue;
+                }
+                double zr = re[i];
+                double zi = im[i];
+                if(!logDerivative(zr, zi, g)) {
+                    nextRe[i] = zr;
+                    nextIm[i] = zi;
+                    done[i] = true;
+                    continue;
+                }
+                double sr = 0;
+                double si = 0;
+                for(int j = 0; j < re.length; j++) {
+                    if(j != i) {
+                        double dr = zr - re[j];
+                        double di = zi - im[j];
+                        double norm = dr * dr + di * di;
+                        sr += dr / norm;
+                        si -= di / norm;
+                    }
+                }
+                // The step is 1 / (p'/p - sum of 1 / (z - z_j))
+                double wr = g[0] - sr;
+                double wi = g[1] - si;
+                double norm = wr * wr + wi * wi;
+                double stepRe = wr / norm;
+                double stepIm = -wi / norm;
+                nextRe[i] = zr - stepRe;
+                nextIm[i] = zi - stepIm;
+                if(Math.hypot(stepRe, stepIm) <= tolerance * Math.max(1, Math.hypot(zr, zi))) {
+                    done[i] = true;
+                }
+            }
+        }
+
+        void swap() {
+            double[] t = re;
+            re = nextRe;
+            nextRe = t;
+            t = im;
+            im = nextIm;
+            nextIm = t;
+        }
+
+        /**
+         * Returns n (|p(z)| + e) / (|p'(z)| - e') at the approximation z of root i, where e and e' bound the rounding
+         * errors of Horner's rule for p and p'.  The errors are bounded with the usual running bound
+         * gamma(k) sum |a_j| |z|^j, with k large enough for complex arithmetic, so the disc of that radius holds a root
+         * even when the computed p(z) is zero or swamped by rounding, as at a repeated root.  When |p'(z)| is not above
+         * e' the radius is infinite, as nothing can be said about the root.  Above |z| = 1 the reversed polynomial is
+         * evaluated at the rounded 1 / z, and the bound allows for that rounding as well.
+         */
+        double errorBound(int i) {
+            int n = a.length - 1;
+            double zr = re[i];
+            double zi = im[i];
+            double modulus = Math.hypot(zr, zi);
+            boolean inside = zr * zr + zi * zi <= 1;
+            double xr = zr;
+            double xi = zi;
+            if(!inside) {
+                double norm = zr * zr + zi * zi;
+                xr = zr / norm;
+                xi = -zi / norm;
+            }
+            double x = Math.hypot(xr, xi);
+            double pr = inside ? a[n] : a[0];
+            double pi = 0;
+            double dr = 0;
+            double di = 0;
+            // the sums of |c_j| |x|^j and j |c_j| |x|^(j - 1) over the coefficients c of the evaluated polynomial
+            double absolute = Math.abs(pr);
+            double absoluteDerivative = 0;
+            for(int k = n - 1; k >= 0; k--) {
+                double c = inside ? a[k] : a[n - k];
+                double t = dr * xr - di * xi + pr;
+                di = dr * xi + di * xr + pi;
+                dr = t;
+                t = pr * xr - pi * xi + c;
+                pi = pr * xi + pi * xr;
+                pr = t;
+                absoluteDerivative = absoluteDerivative * x + absolute;
+                absolute = absolute * x + Math.abs(c);
+            }
+            double slack = gamma(4 * n + 4) * (1 + gamma(2 * n + 2));
+            double value = Math.hypot(pr, pi) + slack * absolute;
+            double derivative;
+            if(inside) {
+                derivative = Math.hypot(dr, di) - slack * absoluteDerivative;
+            }
+            else {
+                // p(z) / p'(z) = z r(y) / (n r(y) - y r'(y)) with y = 1 / z
+                double wr = n * pr - (xr * dr - xi * di);
+                double wi = n * pi - (xr * di + xi * dr);
+                derivative = Math.hypot(wr, wi) - n * slack * absolute - x * slack * absoluteDerivative
+                        - gamma(6) * (n * Math.hypot(pr, pi) + x * Math.hypot(dr, di));
+                value *= modulus * (1 + gamma(6));
+            }
+            if(!(derivative > 0)) {
+                return Double.POSITIVE_INFINITY;
+            }
+            double bound = n * value / derivative * (1 + gamma(8));
+            // the point evaluated is 1 / y, which differs from z by the rounding of y
+            return inside ? bound : bound + modulus * gamma(6);
+        }
+
+        /**
+         * @return k u / (1 - k u) for the unit roundoff u of double, which bounds the relative error of k roundings
+         */
+        private static double gamma(int k) {
+            double ku = k * 0x1p-53;
+            return ku / (1 - ku);
+        }
+
+        /**
+         * Stores p'(z) / p(z) in g, evaluating the reversed polynomial at 1 / z when |z| is above 1
+         *
+         * @return false if p(z) is zero
+         */
+        private boolean logDerivative(double zr, double zi, double[] g) {
+            int n = a.length - 1;
+            boolean inside = zr * zr + zi * zi <= 1;
+            double xr = zr;
+            double xi = zi;
+            if(!inside) {
+                double norm = zr * zr + zi * zi;
+                xr = zr / norm;
+                xi = -zi / norm;
+            }
+            double pr = inside ? a[n] : a[0];
+            double pi = 0;
+            double dr = 0;
+            double di = 0;
+            for(int k = n - 1; k >= 0; k--) {
+                double t = dr * xr - di * xi + pr;
+                di = dr * xi + di * xr + pi;
+                dr = t;
+                t = pr * xr - pi * xi + (inside ? a[k] : a[n - k]);
+                pi = pr * xi + pi * xr;
+                pr = t;
+            }
+            double norm = pr * pr + pi * pi;
+            if(norm == 0) {
+                return false;
+            }
+            // q = p'/p at x for the polynomial that was evaluated
+            double qr = (dr * pr + di * pi) / norm;
+            double qi = (di * pr - dr * pi) / norm;
+            if(inside) {
+                g[0] = qr;
+                g[1] = qi;
+            }
+            else {
+                // p(z) = z^n r(1/z) gives p'(z)/p(z) = y (n - y r'(y)/r(y)) with y = 1/z
+                double tr = n - (xr * qr - xi * qi);
+                double ti = -(xr * qi + xi * qr);
+                g[0] = xr * tr - xi * ti;
+                g[1] = xr * ti + xi * tr;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Computes the steps of roots [first, last), splitting the range in two while it is longer than PARALLEL_ROOTS
+     */
+    private static final class StepTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Aberth aberth;
+        private final int first;
+        private final int last;
+
+        StepTask(Aberth aberth, int first, int last) {
+            this.aberth = aberth;
+            this.first = first;
+            this.last = last;
+        }
+
+        @Override
+        protected void compute() {
+            if(last - first <= PARALLEL_ROOTS) {
+                aberth.step(first, last);
+                return;
+            }
+            int middle = (first + last) >>> 1;
+            invokeAll(new StepTask(aberth, first, middle), new StepTask(aberth, middle, last));
+        }
+    }
+}
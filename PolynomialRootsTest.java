@@ -0,0 +1,187 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PolynomialRootsTest {
+
+    /**
+     * Returns the product of (x - root) over the given integer roots
+     */
+    private static DensePolynomial fromRoots(int... roots) {
+        Polynomial p = new DensePolynomial("1");
+        for(int root: roots) {
+            p = p.multiply(DensePolynomial.fromCoefficients(new int[]{-root, 1}));
+        }
+        return (DensePolynomial) p;
+    }
+
+    @Test
+    void testRealRoots() {
+        //testing integer roots, which are found exactly or in a narrow interval
+        List<PolynomialRoots.Interval> roots = PolynomialRoots.realRoots(fromRoots(1, 2, 3, 4, 5, 6, 7, 8, 9, 10));
+        assertEquals(10, roots.size());
+        for(int i = 0; i < 10; i++) {
+            assertEquals(i + 1, roots.get(i).midpoint(), 1e-12);
+            assertTrue(roots.get(i).high() - roots.get(i).low() <= PolynomialRoots.DEFAULT_TOLERANCE);
+        }
+
+        //testing irrational roots, negative roots and roots at 0
+        roots = PolynomialRoots.realRoots(new DensePolynomial("x^3 - 2x"), 1e-14);
+        assertEquals(3, roots.size());
+        assertEquals(-Math.sqrt(2), roots.get(0).midpoint(), 1e-14);
+        assertEquals(0.0, roots.get(1).midpoint());
+        assertTrue(roots.get(1).isExact());
+        assertEquals(Math.sqrt(2), roots.get(2).midpoint(), 1e-14);
+        assertTrue(roots.get(0).low() <= -Math.sqrt(2) && -Math.sqrt(2) <= roots.get(0).high());
+
+        //testing roots that are close together, and polynomials without real roots
+        roots = PolynomialRoots.realRoots(new DensePolynomial("2000x^2 - 2002x + 501"), 1e-9);
+        assertEquals(2, roots.size());
+        assertEquals(0.5, roots.get(0).midpoint(), 1e-9);
+        assertEquals(0.501, roots.get(1).midpoint(), 1e-9);
+        assertTrue(PolynomialRoots.realRoots(new DensePolynomial("x^4 + 1")).isEmpty());
+        assertTrue(PolynomialRoots.realRoots(new DensePolynomial("7")).isEmpty());
+    }
+
+    @Test
+    void testRepeatedRoots() {
+        //testing that every distinct root is reported once
+        List<PolynomialRoots.Interval> roots = PolynomialRoots.realRoots(fromRoots(1, 1, 1, -2, -2, 3));
+        assertEquals(3, roots.size());
+        assertEquals(-2, roots.get(0).midpoint(), 1e-12);
+        assertEquals(1, roots.get(1).midpoint(), 1e-12);
+        assertEquals(3, roots.get(2).midpoint(), 1e-12);
+
+        //testing that isolation without narrowing still separates the roots
+        roots = PolynomialRoots.realRoots(fromRoots(-5, -1, 0, 4, 4), Double.POSITIVE_INFINITY);
+        assertEquals(4, roots.size());
+        for(int i = 1; i < roots.size(); i++) {
+            assertTrue(roots.get(i - 1).high() <= roots.get(i).low());
+        }
+        assertThrows(IllegalArgumentException.class, () -> PolynomialRoots.realRoots(new DensePolynomial("0")));
+        assertThrows(IllegalArgumentException.class, () -> PolynomialRoots.realRoots(new DensePolynomial("x"), 0));
+        assertThrows(NullPointerException.class, () -> PolynomialRoots.realRoots(null));
+    }
+
+    @Test
+    void testComplexRoots() {
+        //testing that x^2 + 1 has the roots -i and i
+        List<PolynomialRoots.ComplexRoot> roots = PolynomialRoots.complexRoots(new DensePolynomial("x^2 + 1"));
+        assertEquals(2, roots.size());
+        assertEquals(0, roots.get(0).re(), 1e-12);
+        assertEquals(-1, roots.get(0).im(), 1e-12);
+        assertEquals(1, roots.get(1).im(), 1e-12);
+        assertTrue(roots.get(1).errorBound() < 1e-9);
+
+        //testing that the roots of x^200 - 1, computed in parallel, are the 200th roots of unity
+        ForkJoinPool pool = new ForkJoinPool(4);
+        int[] coefficients = new int[201];
+        coefficients[0] = -1;
+        coefficients[200] = 1;
+        roots = PolynomialRoots.complexRoots(DensePolynomial.fromCoefficients(coefficients), 1e-12, pool);
+        assertEquals(200, roots.size());
+        for(PolynomialRoots.ComplexRoot root: roots) {
+            assertEquals(1, Math.hypot(root.re(), root.im()), 1e-9);
+            double k = Math.atan2(root.im(), root.re()) * 100 / Math.PI;
+            assertEquals(Math.round(k), k, 1e-6);
+            assertTrue(root.errorBound() < 1e-8);
+        }
+        pool.shutdown();
+
+        //testing roots at 0, which are split off, and repeated roots
+        roots = PolynomialRoots.complexRoots(new DensePolynomial("x^4 - 2x^3 + x^2"));
+        assertEquals(4, roots.size());
+        assertEquals(0.0, roots.get(0).re());
+        assertEquals(0.0, roots.get(1).errorBound());
+        assertEquals(1, roots.get(2).re(), 1e-6);
+        assertEquals(1, roots.get(3).re(), 1e-6);
+        assertThrows(IllegalArgumentException.class, () -> PolynomialRoots.complexRoots(new DensePolynomial("0")));
+        assertThrows(NullPointerException.class, () -> PolynomialRoots.complexRoots(new DensePolynomial("x"), 1e-9, null));
+    }
+
+    @Test
+    void testErrorBound() {
+        //testing that the disc around an approximation of a repeated root holds the root
+        assertDiscsHoldRoots(fromRoots(1, 1), new double[][]{{1, 0}});
+        assertDiscsHoldRoots(fromRoots(1, 1, 1), new double[][]{{1, 0}});
+        assertDiscsHoldRoots(fromRoots(-2, 3, 3, 3, 3), new double[][]{{-2, 0}, {3, 0}});
+
+        //testing random products of linear factors, some times x^2 + 1, with repeated roots
+        Random random = new Random(461);
+        for(int trial = 0; trial < 300; trial++) {
+            boolean imaginary = trial % 3 == 0;
+            int factors = 1 + random.nextInt(6);
+            int[] integers = new int[factors];
+            double[][] roots = new double[factors + (imaginary ? 2 : 0)][];
+            for(int i = 0; i < factors; i++) {
+                integers[i] = random.nextInt(7) - 3;
+                roots[i] = new double[]{integers[i], 0};
+            }
+            Polynomial p = fromRoots(integers);
+            if(imaginary) {
+                p = p.multiply(new DensePolynomial("x^2 + 1"));
+                roots[factors] = new double[]{0, 1};
+                roots[factors + 1] = new double[]{0, -1};
+            }
+            assertDiscsHoldRoots((DensePolynomial) p, roots);
+        }
+
+        //testing that simple roots still get a small bound
+        for(PolynomialRoots.ComplexRoot root: PolynomialRoots.complexRoots(fromRoots(-2, 1, 3))) {
+            assertTrue(root.errorBound() < 1e-9);
+        }
+    }
+
+    /**
+     * Checks that every approximation of a root of p lies within its error bound of one of the given roots
+     */
+    private static void assertDiscsHoldRoots(DensePolynomial p, double[][] roots) {
+        for(PolynomialRoots.ComplexRoot root: PolynomialRoots.complexRoots(p)) {
+            double nearest = Double.POSITIVE_INFINITY;
+            for(double[] exact: roots) {
+                nearest = Math.min(nearest, Math.hypot(root.re() - exact[0], root.im() - exact[1]));
+            }
+            assertTrue(nearest <= root.errorBound(), p + ": " + root + " is " + nearest + " from a root, bound "
+                    + root.errorBound());
+        }
+    }
+
+    @Test
+    void testHighDegree() {
+        Random random = new Random(46);
+        int[] coefficients = new int[401];
+        for(int i = 0; i < coefficients.length; i++) {
+            coefficients[i] = random.nextInt(201) - 100;
+        }
+        coefficients[400] = 1 + random.nextInt(100);
+        DensePolynomial p = DensePolynomial.fromCoefficients(coefficients);
+        List<PolynomialRoots.ComplexRoot> roots = PolynomialRoots.complexRoots(p);
+
+        //testing that the roots sum to -a_(n-1) / a_n and each lies within its error bound of a root
+        assertEquals(400, roots.size());
+        double sum = 0;
+        for(PolynomialRoots.ComplexRoot root: roots) {
+            sum += root.re();
+            assertTrue(root.errorBound() < 1e-8);
+        }
+        assertEquals(-(double) coefficients[399] / coefficients[400], sum, 1e-6);
+
+        //testing that the real roots found exactly match the real complex roots
+        List<PolynomialRoots.Interval> real = PolynomialRoots.realRoots(p, 1e-10);
+        int matched = 0;
+        for(PolynomialRoots.Interval interval: real) {
+            for(PolynomialRoots.ComplexRoot root: roots) {
+                if(Math.abs(root.im()) < 1e-6 && Math.abs(root.re() - interval.midpoint()) < 1e-6) {
+                    matched++;
+                    break;
+                }
+            }
+        }
+        assertEquals(real.size(), matched);
+        assertTrue(real.size() > 0);
+    }
+}
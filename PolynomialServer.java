@@ -0,0 +1,383 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A small embedded HTTP server, built on the JDK HttpServer, that exposes polynomial arithmetic.  Every endpoint takes
+ * a POST whose body holds one operand per line:
+ *
+ * <pre>
+ *     POST /add        p \n q     returns p + q
+ *     POST /subtract   p \n q     returns p - q
+ *     POST /multiply   p \n q     returns p * q
+ *     POST /evaluate   p \n x     returns p(x) for a decimal x
+ * </pre>
+ *
+ * Operands are canonical strings parsed as DensePolynomial, or as SparsePolynomial when the query string holds
+ * representation=sparse.  Results are written as canonical strings; results with many terms are streamed term by term
+ * in a chunked response instead of being built as one string.  Invalid input gets status 400.
+ *
+ * Each exchange is handled on its own virtual thread where the JDK supports them.  Small multiplications arriving at
+ * about the same time are collected into micro-batches whose products run concurrently on the fork-join pool.  Larger
+ * dense products use the Karatsuba and transform kernels of DensePolynomial.multiply, and sparse products with a lot of
+ * work go through SparsePolynomial.multiplyParallel.  A micro-batched product that is not done within
+ * BATCH_TIMEOUT_MILLIS, or that is cancelled because the server is stopping, gets status 503.
+ */
+public final class PolynomialServer {
+
+    /**
+     * Multiplications with at most this many term pairs are micro-batched
+     */
+    static final long BATCH_WORK = 1L << 12;
+
+    /**
+     * Sparse multiplications with at least this many term pairs use the parallel kernel
+     */
+    static final long PARALLEL_WORK = 1L << 22;
+
+    /**
+     * How long a handler waits for a micro-batched multiplication before answering 503
+     */
+    static final long BATCH_TIMEOUT_MILLIS = 10000;
+
+    /**
+     * Results with more terms than this are streamed as a chunked response
+     */
+    static final int STREAM_TERMS = 1 << 12;
+
+    private final HttpServer server;
+    private final ExecutorService handlers;
+    private final MultiplyBatcher batcher;
+
+    /**
+     * Creates a server bound to address; it does not accept requests until start() is called
+     * Precondition: address is not null
+     * Postcondition: Creates a bound server
+     *
+     * @param address the address to listen on; port 0 picks a free port
+     * @throws IOException if the address cannot be bound
+     */
+    public PolynomialServer(InetSocketAddress address) throws IOException {
+        this.server = HttpServer.create(address, 0);
+        this.handlers = VirtualThreads.newPerTaskExecutor();
+        this.batcher = new MultiplyBatcher(64, TimeUnit.MICROSECONDS.toNanos(200));
+        server.setExecutor(handlers);
+        server.createContext("/add", exchange -> handle(exchange, "add"));
+        server.createContext("/subtract", exchange -> handle(exchange, "subtract"));
+        server.createContext("/multiply", exchange -> handle(exchange, "multiply"));
+        server.createContext("/evaluate", exchange -> handle(exchange, "evaluate"));
+    }
+
+    /**
+     * Starts accepting requests
+     */
+    public void start() {
+        batcher.start();
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests and releases the threads of the server
+     */
+    public void stop() {
+        server.stop(0);
+        batcher.stop();
+        handlers.shutdownNow();
+    }
+
+    /**
+     * @return the address the server is bound to
+     */
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    private void handle(HttpExchange exchange, String operation) throws IOException {
+        try {
+            if(!exchange.getRequestMethod().equals("POST")) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                respond(exchange, 405, "error: use POST");
+                return;
+            }
+            String[] operands = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.ISO_8859_1)
+                    .strip().split("\\r?\\n");
+            if(operands.length != 2) {
+                respond(exchange, 400, "error: expected two lines, one operand per line");
+                return;
+            }
+            boolean sparse = "representation=sparse".equals(exchange.getRequestURI().getQuery());
+            Polynomial p = parse(operands[0].strip(), sparse);
+            if(operation.equals("evaluate")) {
+                respond(exchange, 200, Double.toString(p.evaluate(Double.parseDouble(operands[1].strip()))));
+                return;
+            }
+            Polynomial q = parse(operands[1].strip(), sparse);
+            Polynomial result;
+            switch(operation) {
+                case "add":
+                    result = p.add(q);
+                    break;
+                case "subtract":
+                    result = p.subtract(q);
+                    break;
+                default:
+                    result = multiply(p, q);
+            }
+            respond(exchange, result);
+        }
+        catch(IllegalArgumentException e) {
+            respond(exchange, 400, "error: " + e.getMessage());
+        }
+        catch(RejectedExecutionException e) {
+            respond(exchange, 503, "error: " + e.getMessage());
+        }
+        catch(RuntimeException e) {
+            respond(exchange, 500, "error: " + e);
+        }
+        finally {
+            exchange.close();
+        }
+    }
+
+    private static Polynomial parse(String s, boolean sparse) {
+        return sparse ? new SparsePolynomial(s) : new DensePolynomial(s);
+    }
+
+    /**
+     * Multiplies on the path that suits the size of the product: micro-batched when small, and on the handler thread
+     * otherwise, where dense products use the Karatsuba and transform kernels of multiply and large sparse products are
+     * split over the fork-join pool by multiplyParallel
+     */
+    private Polynomial multiply(Polynomial p, Polynomial q) {
+        long work = (long) size(p) * size(q);
+        if(work <= BATCH_WORK) {
+            CompletableFuture<Polynomial> product = batcher.submit(p, q);
+            try {
+                return product.get(BATCH_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            }
+            catch(ExecutionException e) {
+                if(e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+            catch(CancellationException e) {
+                throw new RejectedExecutionException("The server is stopping");
+            }
+            catch(TimeoutException e) {
+                product.cancel(false);
+                throw new RejectedExecutionException("The multiplication was not run in time");
+            }
+            catch(InterruptedException e) {
+                product.cancel(false);
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException("The server is stopping");
+            }
+        }
+        if(work >= PARALLEL_WORK && p instanceof SparsePolynomial) {
+            return ((SparsePolynomial) p).multiplyParallel(q);
+        }
+        return p.multiply(q);
+    }
+
+    /**
+     * @return the number of coefficients a product reads from p: every stored coefficient of a dense polynomial, and
+     * the non-zero terms of any other
+     */
+    private static int size(Polynomial p) {
+        return (p instanceof DensePolynomial) ? p.degree() + 1 : TermArrays.of(p).size();
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.ISO_8859_1);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=ISO-8859-1");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try(OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Writes a polynomial result, streaming it in chunks when it has more than STREAM_TERMS terms
+     */
+    private static void respond(HttpExchange exchange, Polynomial result) throws IOException {
+        TermArrays terms = TermArrays.of(result);
+        if(terms.size() <= STREAM_TERMS) {
+            respond(exchange, 200, result.toString());
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=ISO-8859-1");
+        exchange.sendResponseHeaders(200, 0);
+        try(Writer out = new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.ISO_8859_1), 1 << 16)) {
+            writeCanonical(terms, out);
+        }
+    }
+
+    /**
+     * Writes terms in canonical form, highest degree first, one term at a time
+     * Precondition: terms and out are not null
+     * Postcondition: out has received the same characters as the toString() of the polynomial
+     *
+     * @param terms the non-zero terms in ascending order of degree
+     * @param out the writer to write to
+     * @throws IOException if out cannot be written
+     */
+    static void writeCanonical(TermArrays terms, Writer out) throws IOException {
+        if(terms.size() == 0) {
+            out.write("0");
+            return;
+        }
+        StringBuilder term = new StringBuilder(24);
+        for(int k = terms.size() - 1; k >= 0; k--) {
+            term.setLength(0);
+            if(k < terms.size() - 1) {
+                term.append(" + ");
+            }
+            Terms.appendTerm(term, terms.exponents[k], terms.coefficients[k]);
+            out.append(term);
+        }
+    }
+
+    /**
+     * Collects small multiplications that arrive within a short linger time of each other and hands each collected
+     * batch to the common fork-join pool as a single task, which runs the products of the batch concurrently across the
+     * workers of the pool.  A burst of tiny requests therefore costs one hand-off from the collector per batch rather
+     * than one per request.  Once stopped, every multiplication still queued or submitted later is cancelled.
+     */
+    static final class MultiplyBatcher {
+        private final LinkedBlockingQueue<Pending> queue = new LinkedBlockingQueue<Pending>();
+        private final int maxBatch;
+        private final long lingerNanos;
+        private final Thread collector;
+        private volatile boolean stopped;
+
+        private static final class Pending {
+            final Polynomial p;
+            final Polynomial q;
+            final CompletableFuture<Polynomial> result = new CompletableFuture<Polynomial>();
+
+            Pending(Polynomial p, Polynomial q) {
+                this.p = p;
+                this.q = q;
+            }
+
+            void run() {
+                if(result.isDone()) {
+                    return;
+                }
+                try {
+                    result.complete(p.multiply(q));
+                }
+                catch(RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            }
+        }
+
+        MultiplyBatcher(int maxBatch, long lingerNanos) {
+            this.maxBatch = maxBatch;
+            this.lingerNanos = lingerNanos;
+            this.collector = new Thread(this::collect, "polynomial-multiply-batcher");
+            collector.setDaemon(true);
+        }
+
+        void start() {
+            collector.start();
+        }
+
+        /**
+         * Stops collecting and cancels every multiplication that has not been handed to the pool.  Batches already
+         * handed over still complete.
+         */
+        void stop() {
+            stopped = true;
+            collector.interrupt();
+            cancelQueued();
+        }
+
+        /**
+         * Queues a multiplication for the next batch
+         * Precondition: p and q are not null
+         * Postcondition: returns a future that completes with p * q, or is cancelled if the batcher is stopped first
+         *
+         * @param p the first factor
+         * @param q the second factor
+         * @return the future product
+         */
+        CompletableFuture<Polynomial> submit(Polynomial p, Polynomial q) {
+            Pending pending = new Pending(p, q);
+            queue.add(pending);
+            // stop() sets the flag before it drains, so either its drain or this one sees the new entry
+            if(stopped) {
+                cancelQueued();
+            }
+            return pending.result;
+        }
+
+        private void cancelQueued() {
+            Pending pending;
+            while((pending = queue.poll()) != null) {
+                pending.result.cancel(false);
+            }
+        }
+
+        private void collect() {
+            List<Pending> batch = new ArrayList<Pending>(maxBatch);
+            try {
+                while(!stopped) {
+                    batch.add(queue.take());
+                    long deadline = System.nanoTime() + lingerNanos;
+                    while(batch.size() < maxBatch) {
+                        Pending next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                        if(next == null) {
+                            break;
+                        }
+                        batch.add(next);
+                    }
+                    List<Pending> ready = batch;
+                    ForkJoinPool.commonPool().execute(() -> ready.parallelStream().forEach(Pending::run));
+                    batch = new ArrayList<Pending>(maxBatch);
+                }
+            }
+            catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            for(Pending pending: batch) {
+                pending.result.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Runs the server on the loopback address until the process is stopped
+     *
+     * @param args an optional port number, 8080 by default
+     * @throws IOException if the port cannot be bound
+     */
+    public static void main(String[] args) throws IOException {
+        int port = (args.length > 0) ? Integer.parseInt(args[0]) : 8080;
+        PolynomialServer server = new PolynomialServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        server.start();
+        System.err.println("Listening on " + server.getAddress()
+                + (VirtualThreads.available() ? " with virtual threads" : " with platform threads"));
+    }
+}
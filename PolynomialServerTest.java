@@ -0,0 +1,108 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PolynomialServerTest {
+
+    private static HttpResponse<String> post(HttpClient client, PolynomialServer server, String path, String body)
+            throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getAddress().getPort() + path))
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    void testEndpoints() throws Exception {
+        PolynomialServer server = new PolynomialServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        server.start();
+        try {
+            HttpClient client = HttpClient.newHttpClient();
+
+            //testing each operation on dense operands
+            assertEquals("15x^4 + 12x^3 + 5x^2 + 8x + 7",
+                    post(client, server, "/add", "12x^4 + 8x^3 + 5x^2 + 2x + 7\n3x^4 + 4x^3 + 6x").body());
+            assertEquals("9x^4 + 4x^3 + 5x^2 + -4x + 7",
+                    post(client, server, "/subtract", "12x^4 + 8x^3 + 5x^2 + 2x + 7\n3x^4 + 4x^3 + 6x").body());
+            assertEquals("48x^4 + 108x^3 + 48x^2 + 6x", post(client, server, "/multiply", "4x^2 + 8x + 2\n12x^2 + 3x").body());
+            assertEquals("23.0", post(client, server, "/evaluate", "4x^2 + 8x + 2\n1.5").body());
+
+            //testing the sparse representation with negative exponents
+            assertEquals("12x^2 + 3x^-2", post(client, server, "/multiply?representation=sparse", "4x^3 + x^-1\n3x^-1").body());
+
+            //testing that invalid input is rejected with status 400
+            assertEquals(400, post(client, server, "/add", "4x^2 + 8x\n2x^-1").statusCode());
+            assertEquals(400, post(client, server, "/add", "4x^2 + 8x").statusCode());
+
+            //testing that many small concurrent multiplications are all answered correctly
+            List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<CompletableFuture<HttpResponse<String>>>();
+            for(int i = 1; i <= 50; i++) {
+                HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getAddress().getPort() + "/multiply"))
+                        .POST(HttpRequest.BodyPublishers.ofString(i + "x + 1\nx + -1")).build();
+                responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+            }
+            for(int i = 1; i <= 50; i++) {
+                String expected = (i == 1) ? "x^2 + -1" : i + "x^2 + " + (1 - i) + "x + -1";
+                assertEquals(expected, responses.get(i - 1).get().body());
+            }
+
+            //testing that a large product is streamed and matches the direct computation
+            StringBuilder large = new StringBuilder();
+            for(int degree = 6000; degree > 0; degree--) {
+                large.append(degree % 5 + 1).append("x^").append(degree).append(" + ");
+            }
+            large.append("1");
+            DensePolynomial p = new DensePolynomial(large.toString());
+            assertEquals(p.multiply(p).toString(), post(client, server, "/multiply", large + "\n" + large).body());
+        }
+        finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    void testBatcherStop() throws Exception {
+        PolynomialServer.MultiplyBatcher batcher = new PolynomialServer.MultiplyBatcher(8, 200000);
+        batcher.start();
+        Polynomial p = new DensePolynomial("x + 1");
+
+        //testing that batched products run and complete
+        List<CompletableFuture<Polynomial>> products = new ArrayList<CompletableFuture<Polynomial>>();
+        for(int i = 0; i < 20; i++) {
+            products.add(batcher.submit(p, p));
+        }
+        for(CompletableFuture<Polynomial> product: products) {
+            assertEquals(new DensePolynomial("x^2 + 2x + 1"), product.get(10, TimeUnit.SECONDS));
+        }
+
+        //testing that nothing submitted around or after stop is left incomplete
+        products.clear();
+        for(int i = 0; i < 1000; i++) {
+            products.add(batcher.submit(p, p));
+            if(i == 500) {
+                batcher.stop();
+            }
+        }
+        for(CompletableFuture<Polynomial> product: products) {
+            try {
+                assertEquals(new DensePolynomial("x^2 + 2x + 1"), product.get(10, TimeUnit.SECONDS));
+            }
+            catch(CancellationException e) {
+                assertTrue(product.isCancelled());
+            }
+        }
+        assertTrue(products.get(999).isCancelled());
+    }
+}
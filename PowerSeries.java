@@ -0,0 +1,429 @@
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * An immutable truncated power series: the coefficients of x^0 up to x^(n - 1) of a formal power series, where n is
+ * the precision.  Everything from x^n on is unknown, so combining two series keeps the smaller precision.
+ *
+ * A series works in one of two modes:
+ * <ul>
+ *     <li>integer mode, with int coefficients that wrap around on overflow exactly as in DensePolynomial, that is
+ *     arithmetic modulo 2^32.  Results are the exact integer series as long as no coefficient overflows.  Only the
+ *     odd numbers can be divided by, so inverse needs an odd constant term (the result is the integer series when the
+ *     constant term is 1 or -1), and log, exp and sqrt, which divide by every degree, are not available;</li>
+ *     <li>modular mode, with coefficients modulo a prime p below 2^31, held in [0, p).  All four operations are
+ *     available, as long as the precision is at most p for log and exp.</li>
+ * </ul>
+ *
+ * inverse, log, exp and sqrt are computed by Newton iteration, doubling the number of correct coefficients at every
+ * step, so each costs a constant number of multiplications of length n rather than the n^2 of solving term by term.
+ * The steps only compute the coefficients they still need: the inverse step forms the middle product of the series
+ * and the current inverse, and a truncated product for the correction, through DenseKernels.range and its modular
+ * form rangeMod.
+ */
+public final class PowerSeries {
+
+    /**
+     * The largest precision of a modular series, so that every product fits the number-theoretic transform
+     */
+    public static final int MAX_MODULAR_PRECISION = DenseKernels.MAX_TRANSFORM / 2;
+
+    private final int[] coefficients;
+    private final int modulus;
+
+    /**
+     * Precondition: coefficients is not shared, and in modular mode every entry is in [0, modulus)
+     * Postcondition: Creates a series that takes ownership of coefficients, whose length is the precision
+     */
+    private PowerSeries(int[] coefficients, int modulus) {
+        this.coefficients = coefficients;
+        this.modulus = modulus;
+    }
+
+    /**
+     * Creates an integer series from the terms of a polynomial below x^precision
+     * Precondition: p is not null, has no negative exponents, and precision is positive
+     * Postcondition: returns p mod x^precision as an integer series
+     *
+     * @param p the polynomial whose low terms are taken
+     * @param precision the number of coefficients kept
+     * @return the series
+     * @throws NullPointerException if p is null
+     * @throws IllegalArgumentException if p has a negative exponent or precision is not positive
+     */
+    public static PowerSeries of(Polynomial p, int precision) {
+        return new PowerSeries(truncate(p, precision, 0), 0);
+    }
+
+    /**
+     * Creates a series modulo a prime from the terms of a polynomial below x^precision.  Coefficients are reduced into
+     * [0, prime).
+     * Precondition: p is not null, has no negative exponents, precision is between 1 and MAX_MODULAR_PRECISION, and
+     * prime is a prime
+     * Postcondition: returns p mod (x^precision, prime) as a modular series
+     *
+     * @param p the polynomial whose low terms are taken
+     * @param precision the number of coefficients kept
+     * @param prime the modulus of the coefficients
+     * @return the series
+     * @throws NullPointerException if p is null
+     * @throws IllegalArgumentException if p has a negative exponent, precision is out of range or prime is not prime
+     */
+    public static PowerSeries of(Polynomial p, int precision, int prime) {
+        if(prime < 2 || !BigInteger.valueOf(prime).isProbablePrime(40)) {
+            throw new IllegalArgumentException("The modulus must be a prime");
+        }
+        if(precision > MAX_MODULAR_PRECISION) {
+            throw new IllegalArgumentException("Precision is too large for a modular series");
+        }
+        return new PowerSeries(truncate(p, precision, prime), prime);
+    }
+
+    private static int[] truncate(Polynomial p, int precision, int modulus) {
+        if(p == null) {
+            throw new NullPointerException("Argument is null");
+        }
+        if(precision <= 0) {
+            throw new IllegalArgumentException("Precision must be positive");
+        }
+        int[] coefficients = new int[precision];
+        p.forEachTerm((exponent, coefficient) -> {
+            if(exponent < 0) {
+                throw new IllegalArgumentException("A power series cannot have negative exponents");
+            }
+            if(exponent < precision) {
+                coefficients[exponent] = (modulus == 0) ? coefficient : Math.floorMod(coefficient, modulus);
+            }
+        });
+        return coefficients;
+    }
+
+    /**
+     * @return the number of known coefficients
+     */
+    public int precision() {
+        return coefficients.length;
+    }
+
+    /**
+     * @return the prime the coefficients are reduced by, or 0 for an integer series
+     */
+    public int modulus() {
+        return modulus;
+    }
+
+    /**
+     * Returns the coefficient of x^d
+     * Precondition: 0 &lt;= d &lt; precision()
+     * Postcondition: returns the coefficient of x^d
+     *
+     * @param d the exponent whose coefficient is returned
+     * @return the coefficient of x^d
+     * @throws IllegalArgumentException if d is negative or not below the precision
+     */
+    public int getCoefficient(int d) {
+        if(d < 0 || d >= coefficients.length) {
+            throw new IllegalArgumentException("The coefficient is not known at this precision");
+        }
+        return coefficients[d];
+    }
+
+    /**
+     * Returns the known terms as a polynomial of degree below precision()
+     * Precondition: None
+     * Postcondition: returns the polynomial with the known coefficients; in modular mode they are in [0, modulus())
+     *
+     * @return the known terms
+     */
+    public DensePolynomial toPolynomial() {
+        return DensePolynomial.fromCoefficients(coefficients);
+    }
+
+    /**
+     * Returns the sum of this series and s, at the smaller of their precisions
+     * Precondition: s is not null and has the same modulus
+     * Postcondition: returns this + s
+     *
+     * @param s the series to add
+     * @return <code>this + </code>s
+     * @throws NullPointerException if s is null
+     * @throws IllegalArgumentException if s has a different modulus
+     */
+    public PowerSeries add(PowerSeries s) {
+        return combine(s, 1);
+    }
+
+    /**
+     * Returns the difference of this series and s, at the smaller of their precisions
+     * Precondition: s is not null and has the same modulus
+     * Postcondition: returns this - s
+     *
+     * @param s the series to subtract
+     * @return <code>this - </code>s
+     * @throws NullPointerException if s is null
+     * @throws IllegalArgumentException if s has a different modulus
+     */
+    public PowerSeries subtract(PowerSeries s) {
+        return combine(s, -1);
+    }
+
+    private PowerSeries combine(PowerSeries s, int sign) {
+        checkModulus(s);
+        int n = Math.min(precision(), s.precision());
+        int[] result = new int[n];
+        for(int i = 0; i < n; i++) {
+            result[i] = (modulus == 0) ? coefficients[i] + sign * s.coefficients[i]
+                    : reduce(coefficients[i] + (long) sign * s.coefficients[i]);
+        }
+        return new PowerSeries(result, modulus);
+    }
+
+    /**
+     * Returns the product of this series and s at the smaller of their precisions.  Only the low coefficients of the
+     * product are computed.
+     * Precondition: s is not null and has the same modulus
+     * Postcondition: returns this * s
+     *
+     * @param s the series to multiply by
+     * @return <code>this * </code>s
+     * @throws NullPointerException if s is null
+     * @throws IllegalArgumentException if s has a different modulus
+     */
+    public PowerSeries multiply(PowerSeries s) {
+        checkModulus(s);
+        int n = Math.min(precision(), s.precision());
+        return new PowerSeries(range(coefficients, s.coefficients, 0, n), modulus);
+    }
+
+    /**
+     * Returns the series g with this * g = 1, by Newton iteration: from g correct to k terms, the coefficients k to 2k
+     * of this * g are one middle product E, and g - x^k (g E mod x^k) is correct to 2k terms.
+     * Precondition: the constant term is invertible, that is odd in integer mode and non-zero in modular mode
+     * Postcondition: returns 1 / this at the same precision
+     *
+     * @return 1 / <code>this</code>
+     * @throws IllegalArgumentException if the constant term is not invertible
+     */
+    public PowerSeries inverse() {
+        return new PowerSeries(inverse(coefficients, precision()), modulus);
+    }
+
+    /**
+     * Returns the first n coefficients of 1 / f
+     */
+    private int[] inverse(int[] f, int n) {
+        int[] g = new int[n];
+        g[0] = invert(f[0]);
+        for(int k = 1; k < n; k = Math.min(2 * k, n)) {
+            int next = Math.min(2 * k, n);
+            int[] error = range(Arrays.copyOf(f, Math.min(f.length, next)), Arrays.copyOf(g, k), k, next);
+            int[] correction = range(Arrays.copyOf(g, next - k), error, 0, next - k);
+            for(int i = 0; i < next - k; i++) {
+                g[k + i] = negate(correction[i]);
+            }
+        }
+        return g;
+    }
+
+    /**
+     * Returns the logarithm, the integral of f' / f, which is the series whose exponential is this one
+     * Precondition: the series is modular, its constant term is 1 and the precision is at most the modulus
+     * Postcondition: returns log(this) at the same precision, with a zero constant term
+     *
+     * @return log(<code>this</code>)
+     * @throws UnsupportedOperationException if the series is an integer series
+     * @throws IllegalArgumentException if the constant term is not 1 or the precision exceeds the modulus
+     */
+    public PowerSeries log() {
+        checkModular();
+        if(coefficients[0] != 1) {
+            throw new IllegalArgumentException("The constant term must be 1");
+        }
+        return new PowerSeries(log(coefficients, precision()), modulus);
+    }
+
+    /**
+     * Returns the first n coefficients of log(f), for f with constant term 1
+     */
+    private int[] log(int[] f, int n) {
+        int[] result = new int[n];
+        if(n == 1) {
+            return result;
+        }
+        int[] derivative = new int[n - 1];
+        for(int i = 1; i < Math.min(n, f.length); i++) {
+            derivative[i - 1] = (int) ((long) f[i] * i % modulus);
+        }
+        int[] quotient = range(derivative, inverse(f, n - 1), 0, n - 1);
+        int[] inverses = inverses(n);
+        for(int i = 1; i < n; i++) {
+            result[i] = (int) ((long) quotient[i - 1] * inverses[i] % modulus);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the exponential, by Newton iteration on log(g) = this: from g correct to k terms, the coefficients k to
+     * 2k of this - log(g) are h, and g + x^k (g h mod x^k) is correct to 2k terms
+     * Precondition: the series is modular, its constant term is 0 and the precision is at most the modulus
+     * Postcondition: returns exp(this) at the same precision, with constant term 1
+     *
+     * @return exp(<code>this</code>)
+     * @throws UnsupportedOperationException if the series is an integer series
+     * @throws IllegalArgumentException if the constant term is not 0 or the precision exceeds the modulus
+     */
+    public PowerSeries exp() {
+        checkModular();
+        if(coefficients[0] != 0) {
+            throw new IllegalArgumentException("The constant term must be 0");
+        }
+        int n = precision();
+        int[] g = new int[n];
+        g[0] = 1;
+        for(int k = 1; k < n; k = Math.min(2 * k, n)) {
+            int next = Math.min(2 * k, n);
+            int[] logarithm = log(Arrays.copyOf(g, k), next);
+            int[] h = new int[next - k];
+            for(int i = 0; i < h.length; i++) {
+                h[i] = reduce((long) coefficients[k + i] - logarithm[k + i]);
+            }
+            int[] correction = range(Arrays.copyOf(g, next - k), h, 0, next - k);
+            System.arraycopy(correction, 0, g, k, next - k);
+        }
+        return new PowerSeries(g, modulus);
+    }
+
+    /**
+     * Returns the square root with constant term 1, by Newton iteration: from g correct to k terms,
+     * (g + this / g) / 2 is correct to 2k terms
+     * Precondition: the series is modular with an odd prime and its constant term is 1
+     * Postcondition: returns the g with g * g = this and constant term 1, at the same precision
+     *
+     * @return sqrt(<code>this</code>)
+     * @throws UnsupportedOperationException if the series is an integer series
+     * @throws IllegalArgumentException if the constant term is not 1 or the modulus is 2
+     */
+    public PowerSeries sqrt() {
+        checkModular();
+        if(coefficients[0] != 1) {
+            throw new IllegalArgumentException("The constant term must be 1");
+        }
+        if(modulus == 2) {
+            throw new IllegalArgumentException("Square roots need an odd modulus");
+        }
+        int n = precision();
+        long half = (modulus + 1L) / 2;
+        int[] g = new int[n];
+        g[0] = 1;
+        for(int k = 1; k < n; k = Math.min(2 * k, n)) {
+            int next = Math.min(2 * k, n);
+            int[] quotient = range(Arrays.copyOf(coefficients, next), inverse(Arrays.copyOf(g, k), next), 0, next);
+            for(int i = k; i < next; i++) {
+                // g has no terms from x^k on, so only the quotient contributes there
+                g[i] = (int) (quotient[i] * half % modulus);
+            }
+        }
+        return new PowerSeries(g, modulus);
+    }
+
+    /**
+     * Returns the coefficients [from, to) of a * b in the arithmetic of this series
+     */
+    private int[] range(int[] a, int[] b, int from, int to) {
+        return (modulus == 0) ? DenseKernels.range(a, b, from, to) : DenseKernels.rangeMod(a, b, from, to, modulus);
+    }
+
+    private int invert(int c) {
+        if(modulus == 0) {
+            if((c & 1) == 0) {
+                throw new IllegalArgumentException("The constant term must be odd");
+            }
+            // Newton's iteration for the inverse modulo 2^32 doubles the correct low bits at every step
+            int inverse = c;
+            for(int i = 0; i < 5; i++) {
+                inverse *= 2 - c * inverse;
+            }
+            return inverse;
+        }
+        if(c == 0) {
+            throw new IllegalArgumentException("The constant term must not be 0");
+        }
+        return (int) DenseKernels.power(c, modulus - 2, modulus);
+    }
+
+    private int negate(int c) {
+        return (modulus == 0) ? -c : reduce(-(long) c);
+    }
+
+    private int reduce(long c) {
+        return (int) Math.floorMod(c, (long) modulus);
+    }
+
+    /**
+     * Returns the inverses of 1 to n - 1 modulo the prime, using inverse(i) = -(p / i) inverse(p mod i)
+     */
+    private int[] inverses(int n) {
+        if(n > modulus) {
+            throw new IllegalArgumentException("Precision must not exceed the modulus");
+        }
+        int[] inverses = new int[n];
+        if(n > 1) {
+            inverses[1] = 1;
+        }
+        for(int i = 2; i < n; i++) {
+            inverses[i] = (int) ((modulus - (long) (modulus / i) * inverses[modulus % i] % modulus) % modulus);
+        }
+        return inverses;
+    }
+
+    private void checkModulus(PowerSeries s) {
+        if(s == null) {
+            throw new NullPointerException("Argument is null");
+        }
+        if(s.modulus != modulus) {
+            throw new IllegalArgumentException("Series have different moduli");
+        }
+    }
+
+    private void checkModular() {
+        if(modulus == 0) {
+            throw new UnsupportedOperationException("log, exp and sqrt divide by every degree and need a prime modulus");
+        }
+        if(precision() > modulus) {
+            throw new IllegalArgumentException("Precision must not exceed the modulus");
+        }
+    }
+
+    /**
+     * Checks if o is a PowerSeries with the same modulus, precision and coefficients
+     * Precondition: None
+     * Postcondition: return true if this and o represent the same truncated series
+     * @return true if the two series are equal
+     */
+    @Override
+    public boolean equals(Object o) {
+        if(!(o instanceof PowerSeries)) {
+            return false;
+        }
+        PowerSeries other = (PowerSeries) o;
+        return modulus == other.modulus && Arrays.equals(coefficients, other.coefficients);
+    }
+
+    /**
+     * @return the hash code of the modulus and coefficients
+     */
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(coefficients) + modulus;
+    }
+
+    /**
+     * Returns the known terms in canonical form followed by the order of the unknown ones, as in "3x^2 + 1 + O(x^5)",
+     * and the modulus of a modular series
+     * @return String representation of the series
+     */
+    @Override
+    public String toString() {
+        return toPolynomial() + " + O(x^" + precision() + ")" + ((modulus == 0) ? "" : " mod " + modulus);
+    }
+}
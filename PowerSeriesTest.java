@@ -0,0 +1,143 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PowerSeriesTest {
+
+    private static final int PRIME = 998244353;
+
+    private static PowerSeries randomSeries(Random random, int n, int constant) {
+        int[] coefficients = new int[n];
+        coefficients[0] = constant;
+        for(int i = 1; i < n; i++) {
+            coefficients[i] = random.nextInt(PRIME);
+        }
+        return PowerSeries.of(DensePolynomial.fromCoefficients(coefficients), n, PRIME);
+    }
+
+    private static PowerSeries one(int n, int modulus) {
+        return (modulus == 0) ? PowerSeries.of(new DensePolynomial("1"), n) : PowerSeries.of(new DensePolynomial("1"), n, modulus);
+    }
+
+    @Test
+    void testIntegerInverse() {
+        //testing that 1 / (1 - x - x^2) gives the Fibonacci numbers
+        PowerSeries fibonacci = PowerSeries.of(new DensePolynomial("-1x^2 - x + 1"), 40).inverse();
+        int a = 1;
+        int b = 1;
+        for(int i = 0; i < 40; i++) {
+            assertEquals(a, fibonacci.getCoefficient(i));
+            int c = a + b;
+            a = b;
+            b = c;
+        }
+
+        //testing an inverse modulo 2^32 with an odd constant term
+        PowerSeries f = PowerSeries.of(new DensePolynomial("7x^3 + 2x + 3"), 100);
+        assertEquals(one(100, 0), f.multiply(f.inverse()));
+        assertThrows(IllegalArgumentException.class, () -> PowerSeries.of(new DensePolynomial("x + 2"), 10).inverse());
+
+        //testing that log, exp and sqrt need a prime modulus
+        assertThrows(UnsupportedOperationException.class, () -> one(10, 0).log());
+        assertThrows(UnsupportedOperationException.class, () -> one(10, 0).sqrt());
+    }
+
+    @Test
+    void testModularInverse() {
+        Random random = new Random(42);
+        for(int n: new int[]{1, 2, 7, 64, 1000, 5000}) {
+            PowerSeries f = randomSeries(random, n, 1 + random.nextInt(PRIME - 1));
+
+            //testing that a series times its inverse is 1
+            assertEquals(one(n, PRIME), f.multiply(f.inverse()));
+        }
+        assertThrows(IllegalArgumentException.class, () -> randomSeries(random, 10, 0).inverse());
+    }
+
+    @Test
+    void testLogExp() {
+        Random random = new Random(43);
+
+        //testing that exp(x) has coefficients 1 / k!
+        PowerSeries exp = PowerSeries.of(new DensePolynomial("x"), 20, PRIME).exp();
+        long factorial = 1;
+        for(int k = 0; k < 20; k++) {
+            factorial = (k == 0) ? 1 : factorial * k % PRIME;
+            assertEquals(1, exp.getCoefficient(k) * factorial % PRIME);
+        }
+
+        //testing that log(1 + x) has coefficients (-1)^(k+1) / k
+        PowerSeries log = PowerSeries.of(new DensePolynomial("x + 1"), 20, PRIME).log();
+        assertEquals(0, log.getCoefficient(0));
+        for(int k = 1; k < 20; k++) {
+            long value = (long) log.getCoefficient(k) * k % PRIME;
+            assertEquals((k % 2 == 1) ? 1 : PRIME - 1, value);
+        }
+
+        for(int n: new int[]{1, 3, 100, 3000}) {
+            PowerSeries f = randomSeries(random, n, 1);
+            PowerSeries g = randomSeries(random, n, 0);
+
+            //testing that exp and log undo each other
+            assertEquals(f, f.log().exp());
+            assertEquals(g, g.exp().log());
+        }
+
+        //testing the preconditions
+        assertThrows(IllegalArgumentException.class, () -> randomSeries(random, 10, 2).log());
+        assertThrows(IllegalArgumentException.class, () -> randomSeries(random, 10, 1).exp());
+        assertThrows(IllegalArgumentException.class, () -> PowerSeries.of(new DensePolynomial("x"), 10, 7).exp());
+    }
+
+    @Test
+    void testSqrt() {
+        Random random = new Random(44);
+        for(int n: new int[]{1, 2, 50, 2000}) {
+            PowerSeries f = randomSeries(random, n, 1);
+            PowerSeries root = f.sqrt();
+
+            //testing that the square of the root is the series
+            assertEquals(1, root.getCoefficient(0));
+            assertEquals(f, root.multiply(root));
+        }
+
+        //testing that the root of (1 + x)^2 is 1 + x
+        PowerSeries square = PowerSeries.of(new DensePolynomial("x^2 + 2x + 1"), 8, PRIME);
+        assertEquals(PowerSeries.of(new DensePolynomial("x + 1"), 8, PRIME), square.sqrt());
+
+        //testing the largest prime modulus, 2^31 - 1, where sqrt(1 + 2x) is 1 + x - x^2 / 2 + x^3 / 2
+        int largest = Integer.MAX_VALUE;
+        PowerSeries root = PowerSeries.of(new DensePolynomial("2x + 1"), 4, largest).sqrt();
+        int half = (int) ((largest + 1L) / 2);
+        assertEquals(1, root.getCoefficient(0));
+        assertEquals(1, root.getCoefficient(1));
+        assertEquals(largest - half, root.getCoefficient(2));
+        assertEquals(half, root.getCoefficient(3));
+        PowerSeries f = randomSeries(random, 300, 1);
+        PowerSeries wide = PowerSeries.of(f.toPolynomial(), 300, largest);
+        assertEquals(wide, wide.sqrt().multiply(wide.sqrt()));
+    }
+
+    @Test
+    void testArithmetic() {
+        PowerSeries f = PowerSeries.of(new DensePolynomial("4x^5 + 3x + 2"), 4, 7);
+        PowerSeries g = PowerSeries.of(new DensePolynomial("6x^2 + 5"), 6, 7);
+
+        //testing that the smaller precision is kept and the coefficients are reduced
+        assertEquals(4, f.add(g).precision());
+        assertEquals("6x^2 + 3x + O(x^4) mod 7", f.add(g).toString());
+        assertEquals("x^2 + 3x + 4 + O(x^4) mod 7", f.subtract(g).toString());
+        assertEquals("4x^3 + 5x^2 + x + 3 + O(x^4) mod 7", f.multiply(g).toString());
+        assertEquals(PowerSeries.of(new DensePolynomial("4x^5 + 3x + 2"), 4), PowerSeries.of(new DensePolynomial("3x + 2"), 4));
+
+        //testing the arguments that are rejected
+        assertThrows(IllegalArgumentException.class, () -> f.add(PowerSeries.of(new DensePolynomial("1"), 4)));
+        assertThrows(IllegalArgumentException.class, () -> PowerSeries.of(new DensePolynomial("1"), 4, 8));
+        assertThrows(IllegalArgumentException.class, () -> PowerSeries.of(new DensePolynomial("1"), 0));
+        assertThrows(IllegalArgumentException.class, () -> PowerSeries.of(new SparsePolynomial("x^-1"), 3));
+        assertThrows(IllegalArgumentException.class, () -> f.getCoefficient(4));
+        assertThrows(NullPointerException.class, () -> f.multiply(null));
+    }
+}
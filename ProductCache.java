@@ -0,0 +1,458 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BinaryOperator;
+import java.util.zip.CRC32;
+
+/**
+ * An optional disk-backed cache for the results of expensive operations such as large products.  Results are keyed by
+ * a SHA-256 hash of the operation name, the representation of the first operand and the terms of both operands, so an
+ * equal computation is found again after a restart.
+ *
+ * Results are appended in a compact binary layout to segment files in one directory and read back through
+ * memory-mapped buffers.  Each record carries a CRC-32 and is written with a single append followed by a force, so a
+ * crash can at most leave a torn record at the end of the newest segment, which is detected and cut off when the
+ * cache is opened.  Opening the cache scans every segment once to rebuild the in-memory index.  When the segments grow
+ * past the size bound, the oldest segment is deleted along with its entries.
+ *
+ * Only DensePolynomial and SparsePolynomial results are stored; other results are computed and returned uncached.
+ * The methods of this class are thread-safe, and a computation in progress does not block other callers.
+ */
+public final class ProductCache implements Closeable {
+
+    private static final int MAGIC = 0x504F4C59;
+    private static final int HEADER_BYTES = 8;
+    private static final int DIGEST_BYTES = 32;
+    private static final byte DENSE = 0;
+    private static final byte SPARSE = 1;
+    private static final String PREFIX = "segment-";
+    private static final String SUFFIX = ".dat";
+
+    private final Path directory;
+    private final long maxBytes;
+    private final long segmentBytes;
+    private final TreeMap<Long,Segment> segments = new TreeMap<Long,Segment>();
+    private final HashMap<Key,Location> index = new HashMap<Key,Location>();
+    private long totalBytes;
+    private long hits;
+    private long misses;
+
+    /**
+     * One segment file with a read-only mapping of its contents that is refreshed when the file has grown
+     */
+    private static final class Segment {
+        final long id;
+        final Path path;
+        final FileChannel channel;
+        MappedByteBuffer mapped;
+        long size;
+
+        Segment(long id, Path path, FileChannel channel, long size) {
+            this.id = id;
+            this.path = path;
+            this.channel = channel;
+            this.size = size;
+        }
+
+        ByteBuffer read(long offset, int length) throws IOException {
+            if(mapped == null || offset + length > mapped.capacity()) {
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+            ByteBuffer view = mapped.duplicate();
+            view.position((int) offset).limit((int) (offset + length));
+            return view.slice();
+        }
+    }
+
+    /**
+     * Where a record lives
+     */
+    private static final class Location {
+        final long segment;
+        final long offset;
+        final int length;
+
+        Location(long segment, long offset, int length) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    /**
+     * The SHA-256 digest of a computation
+     */
+    private static final class Key {
+        final byte[] digest;
+        final int hash;
+
+        Key(byte[] digest) {
+            this.digest = digest;
+            this.hash = Arrays.hashCode(digest);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && Arrays.equals(digest, ((Key) o).digest);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private ProductCache(Path directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.segmentBytes = Math.max(1 << 16, Math.min(64L << 20, maxBytes / 4));
+    }
+
+    /**
+     * Opens the cache stored in directory, creating the directory if needed and loading the index of every record
+     * already on disk.  A torn record at the end of a segment is cut off.
+     * Precondition: maxBytes is positive
+     * Postcondition: returns an open cache whose segments take at most about maxBytes on disk
+     *
+     * @param directory the directory that holds the segment files
+     * @param maxBytes the size bound after which the oldest segments are evicted
+     * @return the open cache
+     * @throws IOException if the directory or a segment cannot be read
+     * @throws IllegalArgumentException if maxBytes is not positive
+     */
+    public static ProductCache open(Path directory, long maxBytes) throws IOException {
+        if(maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes must be positive");
+        }
+        Files.createDirectories(directory);
+        ProductCache cache = new ProductCache(directory, maxBytes);
+        try(DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for(Path file: files) {
+                String name = file.getFileName().toString();
+                long id = Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+                FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                cache.segments.put(id, new Segment(id, file, channel, channel.size()));
+            }
+        }
+        for(Segment segment: cache.segments.values()) {
+            cache.load(segment);
+        }
+        return cache;
+    }
+
+    /**
+     * Scans a segment, adding every intact record to the index and truncating the file at the first damaged record
+     */
+    private void load(Segment segment) throws IOException {
+        long offset = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while(offset + HEADER_BYTES <= segment.size) {
+            header.clear();
+            segment.channel.read(header, offset);
+            header.flip();
+            int magic = header.getInt();
+            int length = header.getInt();
+            if(magic != MAGIC || length < DIGEST_BYTES + 9 || offset + HEADER_BYTES + length > segment.size) {
+                break;
+            }
+            ByteBuffer record = segment.read(offset + HEADER_BYTES, length);
+            if(!checksumMatches(record)) {
+                break;
+            }
+            byte[] digest = new byte[DIGEST_BYTES];
+            record.get(digest);
+            index.put(new Key(digest), new Location(segment.id, offset + HEADER_BYTES, length));
+            offset += HEADER_BYTES + length;
+        }
+        if(offset < segment.size) {
+            segment.channel.truncate(offset);
+            segment.size = offset;
+            segment.mapped = null;
+        }
+        totalBytes += segment.size;
+    }
+
+    /**
+     * Returns p * q, reading it from the cache when the same product has been stored before
+     * Precondition: p and q are not null
+     * Postcondition: returns a polynomial equal to p.multiply(q)
+     *
+     * @param p the first factor
+     * @param q the second factor
+     * @return the product
+     * @throws IOException if the cache cannot be read or written
+     */
+    public Polynomial multiply(Polynomial p, Polynomial q) throws IOException {
+        return compute("multiply", p, q, Polynomial::multiply);
+    }
+
+    /**
+     * Returns operation applied to p and q, reading the result from the cache when the same computation has been
+     * stored before and storing it otherwise
+     * Precondition: p, q and operation are not null, and name identifies operation
+     * Postcondition: returns the result of operation.apply(p, q)
+     *
+     * @param name a name that identifies the operation in the key
+     * @param p the first operand
+     * @param q the second operand
+     * @param operation the computation to run on a miss
+     * @return the result
+     * @throws IOException if the cache cannot be read or written
+     */
+    public Polynomial compute(String name, Polynomial p, Polynomial q, BinaryOperator<Polynomial> operation)
+            throws IOException {
+        if(name == null || p == null || q == null || operation == null) {
+            throw new NullPointerException("Argument is null");
+        }
+        Key key = key(name, p, q);
+        Polynomial cached = get(key);
+        if(cached != null) {
+            return cached;
+        }
+        Polynomial result = operation.apply(p, q);
+        put(key, result);
+        return result;
+    }
+
+    private synchronized Polynomial get(Key key) throws IOException {
+        Location location = index.get(key);
+        if(location == null) {
+            misses++;
+            return null;
+        }
+        ByteBuffer record = segments.get(location.segment).read(location.offset, location.length);
+        record.position(DIGEST_BYTES);
+        byte representation = record.get();
+        int n = record.getInt();
+        hits++;
+        if(representation == DENSE) {
+            int[] coefficients = new int[n];
+            record.asIntBuffer().get(coefficients);
+            return DensePolynomial.fromCoefficients(coefficients, true);
+        }
+        int[] exponents = new int[n];
+        int[] coefficients = new int[n];
+        record.asIntBuffer().get(exponents).get(coefficients);
+        return SparsePolynomial.fromTerms(exponents, coefficients, true);
+    }
+
+    private synchronized void put(Key key, Polynomial result) throws IOException {
+        if(index.containsKey(key) || !(result instanceof DensePolynomial || result instanceof SparsePolynomial)) {
+            return;
+        }
+        int[] first;
+        int[] second = null;
+        byte representation;
+        if(result instanceof DensePolynomial) {
+            representation = DENSE;
+            first = ((DensePolynomial) result).coefficientArray();
+        }
+        else {
+            representation = SPARSE;
+            TermArrays terms = ((SparsePolynomial) result).termArrays();
+            first = terms.exponents;
+            second = terms.coefficients;
+        }
+        long ints = (long) first.length + (second == null ? 0 : second.length);
+        long length = DIGEST_BYTES + 1 + 4 + 4 * ints + 4;
+        if(HEADER_BYTES + length > Math.min(Integer.MAX_VALUE, maxBytes)) {
+            return;
+        }
+        ByteBuffer record = ByteBuffer.allocate((int) (HEADER_BYTES + length));
+        record.putInt(MAGIC).putInt((int) length);
+        record.put(key.digest).put(representation).putInt(first.length);
+        record.asIntBuffer().put(first);
+        record.position(record.position() + 4 * first.length);
+        if(second != null) {
+            record.asIntBuffer().put(second);
+            record.position(record.position() + 4 * second.length);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), HEADER_BYTES, (int) length - 4);
+        record.putInt((int) crc.getValue());
+        record.flip();
+
+        Segment segment = activeSegment(record.remaining());
+        long offset = segment.size;
+        while(record.hasRemaining()) {
+            segment.channel.write(record, offset + record.position());
+        }
+        segment.channel.force(false);
+        segment.size += record.limit();
+        totalBytes += record.limit();
+        index.put(key, new Location(segment.id, offset + HEADER_BYTES, (int) length));
+        evict();
+    }
+
+    /**
+     * Returns the newest segment, starting a new one when the record would not fit in it
+     */
+    private Segment activeSegment(int recordBytes) throws IOException {
+        Map.Entry<Long,Segment> newest = segments.lastEntry();
+        if(newest != null && newest.getValue().size + recordBytes <= segmentBytes) {
+            return newest.getValue();
+        }
+        long id = (newest == null) ? 1 : newest.getKey() + 1;
+        Path path = directory.resolve(String.format("%s%012d%s", PREFIX, id, SUFFIX));
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        Segment segment = new Segment(id, path, channel, 0);
+        segments.put(id, segment);
+        return segment;
+    }
+
+    /**
+     * Deletes the oldest segments, except the newest one, until the cache fits in maxBytes
+     */
+    private void evict() throws IOException {
+        while(totalBytes > maxBytes && segments.size() > 1) {
+            Segment oldest = segments.pollFirstEntry().getValue();
+            Iterator<Location> locations = index.values().iterator();
+            while(locations.hasNext()) {
+                if(locations.next().segment == oldest.id) {
+                    locations.remove();
+                }
+            }
+            oldest.mapped = null;
+            oldest.channel.close();
+            Files.deleteIfExists(oldest.path);
+            totalBytes -= oldest.size;
+        }
+    }
+
+    private static boolean checksumMatches(ByteBuffer record) {
+        CRC32 crc = new CRC32();
+        ByteBuffer body = record.duplicate();
+        body.limit(body.limit() - 4);
+        crc.update(body);
+        return (int) crc.getValue() == record.getInt(record.limit() - 4);
+    }
+
+    /**
+     * Hashes the operation name, the class of p and the terms of both operands.  The terms are streamed into the
+     * digest with forEachTerm, so computing a key neither copies an operand nor fills its term-array cache.
+     */
+    private static Key key(String name, Polynomial p, Polynomial q) {
+        MessageDigest sha;
+        try {
+            sha = MessageDigest.getInstance("SHA-256");
+        }
+        catch(NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        sha.update(name.getBytes(StandardCharsets.UTF_8));
+        sha.update((byte) 0);
+        sha.update(p.getClass().getName().getBytes(StandardCharsets.UTF_8));
+        sha.update((byte) 0);
+        TermDigest terms = new TermDigest(sha);
+        for(Polynomial operand: new Polynomial[]{p, q}) {
+            operand.forEachTerm(terms);
+            terms.endOperand();
+        }
+        return new Key(sha.digest());
+    }
+
+    /**
+     * Feeds terms to a digest as exponent and coefficient pairs through a fixed buffer, ending each operand with its
+     * number of terms so that the terms of consecutive operands cannot run together
+     */
+    private static final class TermDigest implements IntIntConsumer {
+        private final MessageDigest sha;
+        private final ByteBuffer buffer = ByteBuffer.allocate(4096);
+        private int count;
+
+        TermDigest(MessageDigest sha) {
+            this.sha = sha;
+        }
+
+        @Override
+        public void accept(int exponent, int coefficient) {
+            if(buffer.remaining() < 8) {
+                flush();
+            }
+            buffer.putInt(exponent).putInt(coefficient);
+            count++;
+        }
+
+        void endOperand() {
+            if(buffer.remaining() < 4) {
+                flush();
+            }
+            buffer.putInt(count);
+            count = 0;
+            flush();
+        }
+
+        private void flush() {
+            sha.update(buffer.array(), 0, buffer.position());
+            buffer.clear();
+        }
+    }
+
+    /**
+     * @return the number of results in the cache
+     */
+    public synchronized int size() {
+        return index.size();
+    }
+
+    /**
+     * @return the number of bytes the segment files take on disk
+     */
+    public synchronized long sizeInBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * @return the number of lookups that found a stored result
+     */
+    public synchronized long hits() {
+        return hits;
+    }
+
+    /**
+     * @return the number of lookups that found nothing
+     */
+    public synchronized long misses() {
+        return misses;
+    }
+
+    /**
+     * Closes every segment file.  The cache must not be used afterwards.
+     *
+     * @throws IOException if a segment cannot be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        List<IOException> failures = new ArrayList<IOException>();
+        for(Segment segment: segments.values()) {
+            segment.mapped = null;
+            try {
+                segment.channel.close();
+            }
+            catch(IOException e) {
+                failures.add(e);
+            }
+        }
+        segments.clear();
+        index.clear();
+        if(!failures.isEmpty()) {
+            throw failures.get(0);
+        }
+    }
+}
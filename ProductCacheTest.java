@@ -0,0 +1,164 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductCacheTest {
+
+    @Test
+    void testMultiply() throws IOException {
+        Path dir = Files.createTempDirectory("product-cache");
+        try {
+            DensePolynomial p = new DensePolynomial("4x^2 + 8x + 2");
+            DensePolynomial q = new DensePolynomial("12x^2 + 3x");
+            SparsePolynomial s = new SparsePolynomial("4x^3 + x^-1");
+            SparsePolynomial t = new SparsePolynomial("3x^-1");
+            try(ProductCache cache = ProductCache.open(dir, 1 << 20)) {
+                //testing that a miss computes the product and a second lookup finds it
+                assertEquals(p.multiply(q), cache.multiply(p, q));
+                assertEquals(p.multiply(q), cache.multiply(p, q));
+                assertEquals(1, cache.hits());
+                assertEquals(1, cache.misses());
+
+                //testing that sparse results keep their representation
+                Polynomial product = cache.multiply(s, t);
+                assertTrue(product instanceof SparsePolynomial);
+                assertEquals("12x^2 + 3x^-2", product.toString());
+                assertEquals(2, cache.size());
+            }
+
+            //testing that the index is loaded again when the cache is reopened
+            try(ProductCache cache = ProductCache.open(dir, 1 << 20)) {
+                assertEquals(2, cache.size());
+                Polynomial product = cache.multiply(p, q);
+                assertTrue(product instanceof DensePolynomial);
+                assertEquals("48x^4 + 108x^3 + 48x^2 + 6x", product.toString());
+                assertEquals("12x^2 + 3x^-2", cache.multiply(s, t).toString());
+                assertEquals(2, cache.hits());
+                assertEquals(0, cache.misses());
+            }
+        }
+        finally {
+            delete(dir);
+        }
+    }
+
+    @Test
+    void testTornRecord() throws IOException {
+        Path dir = Files.createTempDirectory("product-cache");
+        try {
+            DensePolynomial p = new DensePolynomial("x + 1");
+            DensePolynomial q = new DensePolynomial("x - 1");
+            long size;
+            try(ProductCache cache = ProductCache.open(dir, 1 << 20)) {
+                cache.multiply(p, q);
+                cache.multiply(q, q);
+                size = cache.sizeInBytes();
+            }
+
+            //testing that a record cut short by a crash is dropped and the earlier record is kept
+            Path segment = segments(dir)[0];
+            try(FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+                channel.truncate(size - 3);
+            }
+            try(ProductCache cache = ProductCache.open(dir, 1 << 20)) {
+                assertEquals(1, cache.size());
+                assertTrue(cache.sizeInBytes() < size - 3);
+                assertEquals("x^2 + -1", cache.multiply(p, q).toString());
+                assertEquals(1, cache.hits());
+            }
+
+            //testing that garbage appended after the last record is ignored
+            try(FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                channel.write(ByteBuffer.wrap(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9}));
+            }
+            try(ProductCache cache = ProductCache.open(dir, 1 << 20)) {
+                assertEquals(1, cache.size());
+                assertEquals("x^2 + -2x + 1", cache.multiply(q, q).toString());
+                assertEquals(2, cache.size());
+            }
+        }
+        finally {
+            delete(dir);
+        }
+    }
+
+    @Test
+    void testEviction() throws IOException {
+        Path dir = Files.createTempDirectory("product-cache");
+        try {
+            long maxBytes = 1 << 18;
+            try(ProductCache cache = ProductCache.open(dir, maxBytes)) {
+                DensePolynomial q = new DensePolynomial("x + 1");
+                for(int i = 1; i <= 200; i++) {
+                    int[] coefficients = new int[1000];
+                    coefficients[999] = i;
+                    cache.multiply(DensePolynomial.fromCoefficients(coefficients), q);
+                }
+                //testing that the oldest segments are evicted once the size bound is passed
+                assertTrue(cache.sizeInBytes() <= maxBytes);
+                assertTrue(cache.size() < 200);
+                assertTrue(segments(dir).length >= 1);
+            }
+        }
+        finally {
+            delete(dir);
+        }
+    }
+
+    @Test
+    void testKeyLeavesOperands() throws IOException {
+        Path dir = Files.createTempDirectory("product-cache");
+        try {
+            int[] coefficients = new int[3000];
+            for(int i = 0; i < coefficients.length; i++) {
+                coefficients[i] = i % 5 + 1;
+            }
+            DensePolynomial p = DensePolynomial.fromCoefficients(coefficients);
+            coefficients[1234] = 9;
+            DensePolynomial q = DensePolynomial.fromCoefficients(coefficients);
+            DensePolynomial x = new DensePolynomial("x");
+            long before = p.estimatedBytes();
+            try(ProductCache cache = ProductCache.open(dir, 1 << 24)) {
+                //testing that hashing an operand does not cache its terms in it
+                assertEquals(p.multiply(x), cache.multiply(p, x));
+                assertEquals(p.multiply(x), cache.multiply(p, x));
+                assertEquals(before, p.estimatedBytes());
+
+                //testing that operands differing in one term get different keys
+                assertEquals(q.multiply(x), cache.multiply(q, x));
+                assertEquals(2, cache.misses());
+                assertEquals(1, cache.hits());
+            }
+        }
+        finally {
+            delete(dir);
+        }
+    }
+
+    private static Path[] segments(Path dir) throws IOException {
+        try(DirectoryStream<Path> files = Files.newDirectoryStream(dir, "segment-*.dat")) {
+            List<Path> list = new ArrayList<Path>();
+            files.forEach(list::add);
+            Collections.sort(list);
+            return list.toArray(new Path[0]);
+        }
+    }
+
+    private static void delete(Path dir) throws IOException {
+        for(Path file: segments(dir)) {
+            Files.deleteIfExists(file);
+        }
+        Files.deleteIfExists(dir);
+    }
+}
@@ -0,0 +1,144 @@
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Yields the terms of a product of two sorted term sequences one at a time, highest exponent first, without building
+ * the product.  Each term of the shorter factor a heads a row: the products of that term with the terms of the longer
+ * factor b, walked from the top of b down, so every row is in descending order of exponent.  A max-heap holds the
+ * next pair of every row that has started, keyed by the exponent sum, and the next product term is found by popping
+ * all pairs with the largest sum and adding their coefficients; sums that cancel to zero are skipped.
+ *
+ * Rows join the heap lazily, as in Johnson's merge: the row of a term of a joins only when the first pair of the row
+ * above it, whose term of a is the next larger, has been popped, since no pair of a lower row can come earlier.  The
+ * heap therefore holds at most one pair per term of a, and the first k terms cost O(P log m), where P is the number
+ * of pairs whose sum is at least the k-th exponent and m is the length of the shorter factor; for well-spread
+ * exponents that is about k log m.
+ */
+final class ProductTermIterator implements PrimitiveIterator.OfLong {
+    private final int[] ae;
+    private final int[] ac;
+    private final int[] be;
+    private final int[] bc;
+    private final int[] next;
+    private final int[] heap;
+    private int heapSize;
+    private int nextRow;
+    private boolean hasPending;
+    private long pending;
+
+    /**
+     * Precondition: a and b are not null, and every exponent sum fits in an int
+     * Postcondition: Creates an iterator over the terms of a * b in descending order of exponent
+     *
+     * @param a the terms of the first factor
+     * @param b the terms of the second factor
+     */
+    ProductTermIterator(TermArrays a, TermArrays b) {
+        if(a.size() > b.size()) {
+            TermArrays t = a;
+            a = b;
+            b = t;
+        }
+        this.ae = a.exponents;
+        this.ac = a.coefficients;
+        this.be = b.exponents;
+        this.bc = b.coefficients;
+        this.next = new int[ae.length];
+        this.heap = new int[ae.length];
+        this.nextRow = ae.length - 1;
+        if(ae.length > 0 && be.length > 0) {
+            startRow();
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        while(!hasPending && heapSize > 0) {
+            int exponent = sum(heap[0]);
+            int coefficient = 0;
+            while(heapSize > 0 && sum(heap[0]) == exponent) {
+                int row = heap[0];
+                int j = next[row];
+                coefficient += ac[row] * bc[j];
+                if(j == be.length - 1 && row == nextRow + 1 && nextRow >= 0) {
+                    startRow();
+                }
+                if(j > 0) {
+                    next[row] = j - 1;
+                    siftDown(0);
+                }
+                else {
+                    heap[0] = heap[--heapSize];
+                    siftDown(0);
+                }
+            }
+            if(coefficient != 0) {
+                pending = Terms.pack(exponent, coefficient);
+                hasPending = true;
+            }
+        }
+        return hasPending;
+    }
+
+    /**
+     * @return the next term, packed with Terms.pack
+     * @throws NoSuchElementException if every term has been returned
+     */
+    @Override
+    public long nextLong() {
+        if(!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        hasPending = false;
+        return pending;
+    }
+
+    /**
+     * Adds the row of the next smaller term of a to the heap, starting at the top of b
+     */
+    private void startRow() {
+        int row = nextRow--;
+        next[row] = be.length - 1;
+        heap[heapSize] = row;
+        siftUp(heapSize++);
+    }
+
+    private int sum(int row) {
+        return ae[row] + be[next[row]];
+    }
+
+    private void siftUp(int k) {
+        int row = heap[k];
+        int key = sum(row);
+        while(k > 0) {
+            int parent = (k - 1) >>> 1;
+            if(sum(heap[parent]) >= key) {
+                break;
+            }
+            heap[k] = heap[parent];
+            k = parent;
+        }
+        heap[k] = row;
+    }
+
+    private void siftDown(int k) {
+        if(heapSize == 0) {
+            return;
+        }
+        int row = heap[k];
+        int key = sum(row);
+        int half = heapSize >>> 1;
+        while(k < half) {
+            int child = 2 * k + 1;
+            if(child + 1 < heapSize && sum(heap[child + 1]) > sum(heap[child])) {
+                child++;
+            }
+            if(key >= sum(heap[child])) {
+                break;
+            }
+            heap[k] = heap[child];
+            k = child;
+        }
+        heap[k] = row;
+    }
+}
@@ -0,0 +1,265 @@
+/**
+ * Answers memory questions about polynomials before they are asked of the heap: how large a polynomial would be in
+ * each representation, which representation holds it most cheaply, and how large the result of a product or sum will
+ * be before it is computed, so that a caller can turn down a request that would not fit rather than run into an
+ * OutOfMemoryError.
+ *
+ * The representations trade memory differently.  DensePolynomial and LaurentPolynomial pay 4 bytes for every exponent
+ * in their range, zero or not; SparsePolynomial pays about 100 bytes per term for its map, boxes and term arrays;
+ * BlockSparsePolynomial pays 4 bytes per exponent inside its clusters and an array per cluster; and
+ * CompressedPolynomial pays only the bits its gaps and coefficients need.  Sizes of existing polynomials come from
+ * estimatedBytes, which counts what each one actually holds.  Sizes of results not yet computed are upper bounds
+ * from the term counts and exponent ranges of the operands, assuming no terms cancel.  Every estimate reads the terms
+ * with forEachTerm and copies none of them, so sizing a polynomial never adds to its own footprint.
+ */
+public final class RepresentationAdvisor {
+
+    /**
+     * The polynomial representations the advisor can size and convert to
+     */
+    public enum Representation {
+        DENSE, SPARSE, LAURENT, BLOCK_SPARSE, COMPRESSED
+    }
+
+    private RepresentationAdvisor() {
+    }
+
+    /**
+     * Estimates the heap p would take if it were converted to representation r
+     * Precondition: p and r are not null
+     * Postcondition: returns the estimated size in bytes, or -1 if r cannot hold p, which is the case for DENSE when p
+     * has a negative exponent
+     *
+     * @param p the polynomial to size
+     * @param r the representation to size it in
+     * @return the estimated size in bytes, or -1
+     * @throws NullPointerException if p or r is null
+     */
+    public static long estimatedBytes(Polynomial p, Representation r) {
+        if(p == null || r == null) {
+            throw new NullPointerException("Argument is null");
+        }
+        switch(r) {
+            case DENSE:
+                return DensePolynomial.estimatedBytes(p);
+            case LAURENT:
+                return LaurentPolynomial.estimatedBytes(p);
+            case BLOCK_SPARSE:
+                return BlockSparsePolynomial.estimatedBytes(p);
+            case COMPRESSED:
+                return CompressedPolynomial.estimatedBytes(p);
+            default:
+                return SparsePolynomial.estimatedBytes(p);
+        }
+    }
+
+    /**
+     * Returns the representation that holds p in the least memory
+     * Precondition: p is not null
+     * Postcondition: returns the representation with the smallest estimate, the first in declaration order on a tie
+     *
+     * @param p the polynomial to place
+     * @return the cheapest representation of p
+     * @throws NullPointerException if p is null
+     */
+    public static Representation recommend(Polynomial p) {
+        if(p == null) {
+            throw new NullPointerException("Argument is null");
+        }
+        Representation best = null;
+        long bestBytes = Long.MAX_VALUE;
+        for(Representation r: Representation.values()) {
+            long bytes = estimatedBytes(p, r);
+            if(bytes >= 0 && bytes < bestBytes) {
+                best = r;
+                bestBytes = bytes;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns p in its cheapest representation, or p itself if it is already in it
+     * Precondition: p is not null
+     * Postcondition: returns a polynomial equal to p in the representation recommend(p) names
+     *
+     * @param p the polynomial to compact
+     * @return p in the representation that takes the least memory
+     * @throws NullPointerException if p is null
+     */
+    public static Polynomial compact(Polynomial p) {
+        return convert(p, recommend(p));
+    }
+
+    /**
+     * Returns p in representation r, or p itself if it is already in it
+     * Precondition: p and r are not null, and p has no negative exponents if r is DENSE
+     * Postcondition: returns a polynomial of representation r equal to p
+     *
+     * @param p the polynomial to convert
+     * @param r the representation to convert to
+     * @return p in representation r
+     * @throws NullPointerException if p or r is null
+     * @throws IllegalArgumentException if r is DENSE and p has a negative exponent
+     */
+    public static Polynomial convert(Polynomial p, Representation r) {
+        if(p == null || r == null) {
+            throw new NullPointerException("Argument is null");
+        }
+        switch(r) {
+            case DENSE:
+                if(p instanceof DensePolynomial) {
+                    return p;
+                }
+                TermArrays terms = TermArrays.of(p);
+                if(terms.size() > 0 && terms.exponents[0] < 0) {
+                    throw new IllegalArgumentException("DensePolynomial cannot have negative exponents");
+                }
+                return DensePolynomial.fromTerms(terms.exponents, terms.coefficients);
+            case LAURENT:
+                return (p instanceof LaurentPolynomial) ? p : LaurentPolynomial.of(p);
+            case BLOCK_SPARSE:
+                return (p instanceof BlockSparsePolynomial) ? p : BlockSparsePolynomial.of(p);
+            case COMPRESSED:
+                return (p instanceof CompressedPolynomial) ? p : CompressedPolynomial.of(p);
+            default:
+                if(p instanceof SparsePolynomial) {
+                    return p;
+                }
+                terms = TermArrays.of(p);
+                return SparsePolynomial.fromTerms(terms.exponents, terms.coefficients);
+        }
+    }
+
+    /**
+     * Returns the representation of the results of p's arithmetic, which is the representation of p itself, and
+     * SPARSE for polynomials that are not one of the five, such as MutableSparsePolynomial
+     * Precondition: p is not null
+     * Postcondition: returns the representation of p.multiply(q), p.add(q) and p.subtract(q)
+     *
+     * @param p the polynomial
+     * @return the representation of the results of its arithmetic
+     * @throws NullPointerException if p is null
+     */
+    public static Representation representationOf(Polynomial p) {
+        if(p == null) {
+            throw new NullPointerException("Argument is null");
+        }
+        if(p instanceof DensePolynomial) {
+            return Representation.DENSE;
+        }
+        if(p instanceof LaurentPolynomial) {
+            return Representation.LAURENT;
+        }
+        if(p instanceof BlockSparsePolynomial) {
+            return Representation.BLOCK_SPARSE;
+        }
+        if(p instanceof CompressedPolynomial) {
+            return Representation.COMPRESSED;
+        }
+        return Representation.SPARSE;
+    }
+
+    /**
+     * Returns an upper bound on the heap taken by p.multiply(q), found from the term counts and exponent ranges of the
+     * operands without multiplying: the product has at most one term per pair of terms and per exponent between the
+     * sums of the lowest and of the highest exponents
+     * Precondition: p and q are not null
+     * Postcondition: returns a size in bytes that the product will not exceed
+     *
+     * @param p the first factor, whose representation the product takes
+     * @param q the second factor
+     * @return the bound in bytes
+     * @throws NullPointerException if p or q is null
+     */
+    public static long estimateProductBytes(Polynomial p, Polynomial q) {
+        if(p == null || q == null) {
+            throw new NullPointerException("Argument is null");
+        }
+        Footprint.TermCount a = Footprint.count(p);
+        Footprint.TermCount b = Footprint.count(q);
+        if(a.count == 0 || b.count == 0) {
+            return bound(representationOf(p), 0, 0, 0);
+        }
+        return bound(representationOf(p), a.count * b.count, a.lowest + b.lowest, a.highest + b.highest);
+    }
+
+    /**
+     * Returns an upper bound on the heap taken by p.add(q) or p.subtract(q), found from the term counts and exponent
+     * ranges of the operands
+     * Precondition: p and q are not null
+     * Postcondition: returns a size in bytes that the sum or difference will not exceed
+     *
+     * @param p the first operand, whose representation the result takes
+     * @param q the second operand
+     * @return the bound in bytes
+     * @throws NullPointerException if p or q is null
+     */
+    public static long estimateSumBytes(Polynomial p, Polynomial q) {
+        if(p == null || q == null) {
+            throw new NullPointerException("Argument is null");
+        }
+        Footprint.TermCount a = Footprint.count(p);
+        Footprint.TermCount b = Footprint.count(q);
+        if(a.count == 0 && b.count == 0) {
+            return bound(representationOf(p), 0, 0, 0);
+        }
+        long low = (a.count == 0) ? b.lowest : (b.count == 0) ? a.lowest : Math.min(a.lowest, b.lowest);
+        long high = (a.count == 0) ? b.highest : (b.count == 0) ? a.highest : Math.max(a.highest, b.highest);
+        return bound(representationOf(p), a.count + b.count, low, high);
+    }
+
+    /**
+     * Returns whether the product of p and q is sure to fit in the heap that is free at the moment, that is whether
+     * estimateProductBytes(p, q) is at most availableHeap().  Garbage not yet collected counts as used, so a false
+     * answer is conservative.
+     * Precondition: p and q are not null
+     * Postcondition: returns true if the product fits in the free heap
+     *
+     * @param p the first factor
+     * @param q the second factor
+     * @return true if the product may be computed
+     * @throws NullPointerException if p or q is null
+     */
+    public static boolean admitProduct(Polynomial p, Polynomial q) {
+        return estimateProductBytes(p, q) <= availableHeap();
+    }
+
+    /**
+     * @return the bytes the heap can still grow by before reaching its maximum size
+     */
+    public static long availableHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+    }
+
+    /**
+     * Returns an upper bound on the size of a polynomial of representation r with at most terms terms, all with
+     * exponents from low to high
+     */
+    private static long bound(Representation r, long terms, long low, long high) {
+        long span = high - low + 1;
+        terms = Math.min(terms, span);
+        switch(r) {
+            case DENSE:
+                return Footprint.object(21) + Footprint.intArray(Math.max(0, high) + 1);
+            case LAURENT:
+                return Footprint.object(17) + Footprint.intArray(span);
+            case BLOCK_SPARSE:
+                // a block holds no run of GAP zeros and blocks are more than GAP apart; a product built from sparse
+                // terms keeps them
+                long blocks = Math.min(terms, span / (BlockSparsePolynomial.GAP + 1) + 1);
+                long slots = Math.min(span, terms * BlockSparsePolynomial.GAP);
+                return Footprint.object(17) + Footprint.intArray(blocks) + Footprint.referenceArray(blocks)
+                        + blocks * Footprint.intArray(0) + Footprint.align(4 * slots + 4 * blocks)
+                        + Footprint.termArrays(terms);
+            case COMPRESSED:
+                long gapBits = 64 - Long.numberOfLeadingZeros(span - 1);
+                long blockCount = (terms + CompressedPolynomial.BLOCK - 1) / CompressedPolynomial.BLOCK;
+                return Footprint.object(28) + 2 * Footprint.intArray(blockCount) + Footprint.longArray(blockCount)
+                        + Footprint.longArray((terms * (32 + gapBits) + 63) >>> 6);
+            default:
+                return Footprint.object(21) + Footprint.treeMap(terms) + Footprint.termArrays(terms);
+        }
+    }
+}
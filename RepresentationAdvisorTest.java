@@ -0,0 +1,131 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RepresentationAdvisorTest {
+
+    @Test
+    void testEstimatedBytes() {
+        DensePolynomial dense = new DensePolynomial("8x^1234567 + 3");
+        SparsePolynomial sparse = new SparsePolynomial("8x^1234567 + 3");
+
+        //testing that a dense polynomial pays for every degree and a sparse one for every term
+        assertTrue(dense.estimatedBytes() > 4 * 1234567);
+        assertTrue(dense.estimatedBytes() < 4 * 1234567 + 1000);
+        assertTrue(sparse.estimatedBytes() < 1000);
+        assertTrue(new DensePolynomial("0").estimatedBytes() > 0);
+        assertTrue(new LaurentPolynomial("x^500 + x^-500").estimatedBytes() > 4 * 1000);
+        assertTrue(new BlockSparsePolynomial("x^500 + x^-500").estimatedBytes() < 1000);
+        assertTrue(new CompressedPolynomial("x^500 + x^-500").estimatedBytes() < 1000);
+        MutableSparsePolynomial mutable = new MutableSparsePolynomial();
+        mutable.setCoefficient(1000, 1000);
+        assertTrue(mutable.estimatedBytes() > new MutableSparsePolynomial().estimatedBytes());
+
+        //testing that the estimate for a representation matches the polynomial converted to it
+        Random random = new Random(48);
+        int[] exponents = new int[5000];
+        int[] coefficients = new int[5000];
+        for(int i = 0; i < exponents.length; i++) {
+            exponents[i] = 3 * i + random.nextInt(3) - 2000;
+            coefficients[i] = random.nextInt(1000) + 1;
+        }
+        SparsePolynomial p = SparsePolynomial.fromTerms(exponents, coefficients);
+        for(RepresentationAdvisor.Representation r: RepresentationAdvisor.Representation.values()) {
+            if(r == RepresentationAdvisor.Representation.DENSE) {
+                assertEquals(-1, RepresentationAdvisor.estimatedBytes(p, r));
+                continue;
+            }
+            Polynomial converted = RepresentationAdvisor.convert(p, r);
+            assertEquals(r, RepresentationAdvisor.representationOf(converted));
+            assertEquals(RepresentationAdvisor.estimatedBytes(p, r), converted.estimatedBytes());
+            assertEquals(p, converted);
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> RepresentationAdvisor.convert(p, RepresentationAdvisor.Representation.DENSE));
+        assertThrows(NullPointerException.class, () -> RepresentationAdvisor.estimatedBytes(null,
+                RepresentationAdvisor.Representation.SPARSE));
+    }
+
+    @Test
+    void testRecommend() {
+        //testing that a polynomial with a large gap is moved out of the dense representation
+        DensePolynomial gapped = new DensePolynomial("8x^1234567 + 3");
+        Polynomial compact = RepresentationAdvisor.compact(gapped);
+        assertEquals(gapped, compact);
+        assertTrue(compact.estimatedBytes() < 1000);
+        long best = RepresentationAdvisor.estimatedBytes(gapped, RepresentationAdvisor.recommend(gapped));
+        for(RepresentationAdvisor.Representation r: RepresentationAdvisor.Representation.values()) {
+            long bytes = RepresentationAdvisor.estimatedBytes(gapped, r);
+            assertTrue(bytes >= best);
+        }
+
+        //testing that small coefficients are packed and full-width ones are kept in an array
+        Random random = new Random(49);
+        int[] small = new int[10000];
+        int[] wide = new int[10000];
+        for(int i = 0; i < small.length; i++) {
+            small[i] = random.nextInt(200) - 100;
+            wide[i] = random.nextInt();
+        }
+        assertEquals(RepresentationAdvisor.Representation.COMPRESSED,
+                RepresentationAdvisor.recommend(DensePolynomial.fromCoefficients(small)));
+        RepresentationAdvisor.Representation r = RepresentationAdvisor.recommend(DensePolynomial.fromCoefficients(wide));
+        assertTrue(r == RepresentationAdvisor.Representation.DENSE || r == RepresentationAdvisor.Representation.LAURENT);
+        Polynomial same = new LaurentPolynomial("x^2 + 1");
+        assertSame(same, RepresentationAdvisor.convert(same, RepresentationAdvisor.Representation.LAURENT));
+        assertThrows(NullPointerException.class, () -> RepresentationAdvisor.recommend(null));
+    }
+
+    @Test
+    void testResultEstimates() {
+        Random random = new Random(50);
+        int[] exponents = new int[300];
+        int[] coefficients = new int[300];
+        for(int i = 0; i < exponents.length; i++) {
+            exponents[i] = 50 * i + random.nextInt(50);
+            coefficients[i] = random.nextInt(100) + 1;
+        }
+        SparsePolynomial p = SparsePolynomial.fromTerms(exponents, coefficients);
+
+        //testing that results never exceed their estimates, in every representation
+        for(RepresentationAdvisor.Representation r: RepresentationAdvisor.Representation.values()) {
+            Polynomial a = RepresentationAdvisor.convert(p, r);
+            Polynomial product = a.multiply(a);
+            Polynomial sum = a.add(new SparsePolynomial("x^100000 + 1"));
+            assertTrue(product.estimatedBytes() <= RepresentationAdvisor.estimateProductBytes(a, a));
+            assertTrue(sum.estimatedBytes() <= RepresentationAdvisor.estimateSumBytes(a, new SparsePolynomial("x^100000 + 1")));
+        }
+
+        //testing that a product too large for the heap is turned down before it is computed
+        Polynomial huge = new SparsePolynomial("x^2000000000");
+        assertTrue(RepresentationAdvisor.estimateProductBytes(new DensePolynomial("x"), huge) > 8000000000L);
+        assertFalse(RepresentationAdvisor.admitProduct(new DensePolynomial("x"), huge));
+        assertTrue(RepresentationAdvisor.admitProduct(new SparsePolynomial("x"), huge));
+        assertTrue(RepresentationAdvisor.estimateProductBytes(new DensePolynomial("0"), huge) < 1000);
+        assertThrows(NullPointerException.class, () -> RepresentationAdvisor.estimateProductBytes(huge, null));
+    }
+
+    @Test
+    void testSizingLeavesFootprint() {
+        Random random = new Random(51);
+        int[] coefficients = new int[100000];
+        for(int i = 0; i < coefficients.length; i++) {
+            coefficients[i] = random.nextInt(1000) + 1;
+        }
+        DensePolynomial dense = DensePolynomial.fromCoefficients(coefficients);
+        long before = dense.estimatedBytes();
+
+        //testing that sizing a polynomial does not cache its terms in it
+        RepresentationAdvisor.recommend(dense);
+        for(RepresentationAdvisor.Representation r: RepresentationAdvisor.Representation.values()) {
+            assertTrue(RepresentationAdvisor.estimatedBytes(dense, r) > 0);
+        }
+        RepresentationAdvisor.estimateProductBytes(dense, dense);
+        RepresentationAdvisor.estimateSumBytes(dense, new SparsePolynomial("x^-5"));
+        RepresentationAdvisor.admitProduct(dense, dense);
+        assertEquals(before, dense.estimatedBytes());
+        assertEquals(RepresentationAdvisor.estimatedBytes(dense, RepresentationAdvisor.Representation.DENSE), before);
+    }
+}
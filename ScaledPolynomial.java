@@ -0,0 +1,486 @@
+import java.util.Spliterator;
+
+/**
+ * A view of c * x^k * p over another polynomial p, made in constant time: nothing is copied, the base polynomial is
+ * shared, and the scale and shift are applied as the view is read.  getCoefficient and forEachTerm read the base
+ * directly, and products stay views, as c * x^k * p times q is c * x^k * (p * q), so chains of scaling, shifting,
+ * negation and multiplication never touch the coefficients of the operands.
+ *
+ * Everything that needs the terms themselves, sums, differences, comparisons and the term spliterator, materializes
+ * the view once, in the representation of the base where it can hold the result and as a SparsePolynomial otherwise,
+ * and keeps the result for later calls.  Coefficients are multiplied with int arithmetic that wraps around on
+ * overflow, as in multiply, so an even scale can turn terms into zero; with an odd scale no term vanishes and the
+ * degree and zero flag come straight from the base.  Instances are immutable.
+ */
+public final class ScaledPolynomial implements Polynomial, TermSource {
+    private final Polynomial base;
+    private final int scale;
+    private final int shift;
+    private volatile Polynomial materialized;
+    private volatile TermArrays terms;
+    private int hash;
+    private boolean hashIsZero;
+
+    private ScaledPolynomial(Polynomial base, int scale, int shift) {
+        this.base = base;
+        this.scale = scale;
+        this.shift = shift;
+    }
+
+    /**
+     * Returns the view c * x^k * p.  A view of a view is folded into one view of the innermost base.
+     * Precondition: p is not null and every exponent of p plus k fits an int
+     * Postcondition: returns a view whose coefficient of x^(d + k) is c times the coefficient of x^d in p
+     *
+     * @param p the polynomial to view
+     * @param c the constant to multiply by
+     * @param k the power of x to multiply by, which may be negative
+     * @return the view c * x^k * p
+     * @throws NullPointerException if p is null
+     * @throws IllegalArgumentException if an exponent of the result does not fit an int
+     */
+    public static ScaledPolynomial of(Polynomial p, int c, int k) {
+        if(p == null) {
+            throw new NullPointerException("Argument is null");
+        }
+        long shift = k;
+        if(p instanceof ScaledPolynomial) {
+            ScaledPolynomial s = (ScaledPolynomial) p;
+            p = s.base;
+            c *= s.scale;
+            shift += s.shift;
+        }
+        if(!p.isZero()) {
+            if((long) p.degree() + shift > Integer.MAX_VALUE || (long) p.degree() + shift < Integer.MIN_VALUE) {
+                throw new IllegalArgumentException("An exponent of the result does not fit an int");
+            }
+            if(shift < 0 && lowestExponent(p) + shift < Integer.MIN_VALUE) {
+                throw new IllegalArgumentException("An exponent of the result does not fit an int");
+            }
+        }
+        if(shift < Integer.MIN_VALUE || shift > Integer.MAX_VALUE) {
+            // only reached for a zero base, whose shift does not matter
+            shift = 0;
+        }
+        return new ScaledPolynomial(p, c, (int) shift);
+    }
+
+    /**
+     * Returns the lowest exponent of a non-zero p, or a lower bound on it, read from the representation in constant
+     * time so that making a view never builds the term arrays of its base.  The term spliterator is only used for a
+     * polynomial of another kind, which copies its terms rather than keeping them.
+     */
+    private static long lowestExponent(Polynomial p) {
+        if(p instanceof DensePolynomial) {
+            return 0;
+        }
+        if(p instanceof SparsePolynomial) {
+            return ((SparsePolynomial) p).lowestExponent();
+        }
+        if(p instanceof LaurentPolynomial) {
+            return ((LaurentPolynomial) p).lowestExponent();
+        }
+        if(p instanceof BlockSparsePolynomial) {
+            return ((BlockSparsePolynomial) p).lowestExponent();
+        }
+        if(p instanceof CompressedPolynomial) {
+            return ((CompressedPolynomial) p).lowestExponent();
+        }
+        long[] lowest = {0};
+        p.termSpliterator().tryAdvance((long term) -> lowest[0] = Terms.exponent(term));
+        return lowest[0];
+    }
+
+    /**
+     * @return the polynomial this view is over
+     */
+    public Polynomial base() {
+        return base;
+    }
+
+    /**
+     * @return the constant the base is multiplied by
+     */
+    public int scale() {
+        return scale;
+    }
+
+    /**
+     * @return the power of x the base is multiplied by
+     */
+    public int shift() {
+        return shift;
+    }
+
+    /**
+     * Returns this view multiplied by c, as a view of the same base
+     *
+     * @param c the constant to multiply by
+     * @return <code>c * this</code>
+     */
+    public ScaledPolynomial scale(int c) {
+        return new ScaledPolynomial(base, scale * c, shift);
+    }
+
+    /**
+     * Returns this view multiplied by x^k, as a view of the same base
+     * Precondition: every exponent plus k fits an int
+     *
+     * @param k the power of x to multiply by, which may be negative
+     * @return <code>x^k * this</code>
+     * @throws IllegalArgumentException if an exponent of the result does not fit an int
+     */
+    public ScaledPolynomial shift(int k) {
+        return of(this, 1, k);
+    }
+
+    /**
+     * Returns this view multiplied by c * x^k, as a view of the same base
+     * Precondition: every exponent plus k fits an int
+     *
+     * @param c the constant to multiply by
+     * @param k the power of x to multiply by, which may be negative
+     * @return <code>c * x^k * this</code>
+     * @throws IllegalArgumentException if an exponent of the result does not fit an int
+     */
+    public ScaledPolynomial scaleAndShift(int c, int k) {
+        return of(this, c, k);
+    }
+
+    /**
+     * Returns the polynomial this view stands for, built on first use and kept: a DensePolynomial or a
+     * LaurentPolynomial when the base is one and can hold the result, and a SparsePolynomial otherwise
+     * Precondition: None
+     * Postcondition: returns a polynomial with the same terms as this view
+     *
+     * @return the materialized polynomial
+     */
+    public Polynomial materialize() {
+        Polynomial m = materialized;
+        if(m == null) {
+            m = build();
+            materialized = m;
+        }
+        return m;
+    }
+
+    private Polynomial build() {
+        if(base instanceof DensePolynomial && fitsDense()) {
+            int degree = base.degree();
+            int[] coefficients = new int[isZero() ? 0 : degree + shift + 1];
+            for(int d = Math.max(0, -shift); d < coefficients.length - shift; d++) {
+                coefficients[d + shift] = scale * base.getCoefficient(d);
+            }
+            return DensePolynomial.fromCoefficients(coefficients, true);
+        }
+        if(base instanceof LaurentPolynomial) {
+            LaurentPolynomial l = (LaurentPolynomial) base;
+            int lowest = l.lowestExponent();
+            int[] coefficients = new int[isZero() ? 0 : l.degree() - lowest + 1];
+            for(int i = 0; i < coefficients.length; i++) {
+                coefficients[i] = scale * l.getCoefficient(lowest + i);
+            }
+            return LaurentPolynomial.fromCoefficients(coefficients, isZero() ? 0 : lowest + shift);
+        }
+        TermArrays t = termArrays();
+        return SparsePolynomial.fromTerms(t.exponents, t.coefficients, true);
+    }
+
+    /**
+     * @return whether no term of a dense base is shifted below x^0
+     */
+    private boolean fitsDense() {
+        for(int d = 0; d < -(long) shift && d <= base.degree(); d++) {
+            if(base.getCoefficient(d) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the terms of the view in ascending order, built from the terms of the base on first use and kept
+     */
+    @Override
+    public TermArrays termArrays() {
+        TermArrays t = terms;
+        if(t == null) {
+            TermArrays b = TermArrays.of(base);
+            int n = b.size();
+            int[] exponents = new int[n];
+            int[] coefficients = new int[n];
+            int count = 0;
+            for(int i = 0; i < n; i++) {
+                int coefficient = scale * b.coefficients[i];
+                if(coefficient != 0) {
+                    exponents[count] = b.exponents[i] + shift;
+                    coefficients[count++] = coefficient;
+                }
+            }
+            t = TermArrays.normalize(exponents, coefficients, count, count == n);
+            terms = t;
+        }
+        return t;
+    }
+
+    /**
+     * Returns the degree, which is the degree of the base plus the shift unless an even scale wipes out the top terms
+     * Precondition: None
+     * Postcondition: returns the largest exponent with a non-zero coefficient, or 0 for the zero polynomial
+     *
+     * @return the degree of this polynomial
+     */
+    @Override
+    public int degree() {
+        if(isZero()) {
+            return 0;
+        }
+        if((scale & 1) == 1) {
+            return base.degree() + shift;
+        }
+        TermArrays t = termArrays();
+        return t.exponents[t.size() - 1];
+    }
+
+    /**
+     * Returns c times the coefficient of x^(d - k) in the base
+     * Precondition: None
+     * Postcondition: returns the coefficient of x^d
+     *
+     * @param d the exponent whose coefficient is returned
+     * @return the coefficient of x^d
+     */
+    @Override
+    public int getCoefficient(int d) {
+        long e = (long) d - shift;
+        // a dense base rejects negative exponents rather than reading them as 0
+        if(e < Integer.MIN_VALUE || e > Integer.MAX_VALUE || (e < 0 && base instanceof DensePolynomial)) {
+            return 0;
+        }
+        return scale * base.getCoefficient((int) e);
+    }
+
+    /**
+     * @return true if the scale is 0, the base is zero, or an even scale turns every term into zero
+     */
+    @Override
+    public boolean isZero() {
+        if(scale == 0 || base.isZero()) {
+            return true;
+        }
+        return (scale & 1) == 0 && termArrays().size() == 0;
+    }
+
+    /**
+     * Returns a polynomial by adding the parameter to the materialized view. Neither the current instance nor the
+     * parameter are modified.
+     *
+     * Precondition: q is not null
+     * Postcondition: returns a polynomial representing the sum of this + q
+     *
+     * @param q the non-null polynomial to add to <code>this</code>
+     * @return <code>this + </code>q
+     * @throws NullPointerException if q is null
+     */
+    @Override
+    public Polynomial add(Polynomial q) {
+        if(q == null) {
+            throw new NullPointerException("Argument is null");
+        }
+        return materialize().add(q);
+    }
+
+    /**
+     * Returns the product as a view: the base times q, or times the base of q when q is a view too, scaled and shifted
+     * by both views.  Neither the current instance nor the parameter are modified.
+     *
+     * Precondition: q is not null and the base can be multiplied by q, or by its base
+     * Postcondition: returns a polynomial representing the product of this * q
+     *
+     * @param q the non-null polynomial to multiply to <code>this</code>
+     * @return <code>this * </code>q
+     * @throws NullPointerException if q is null
+     * @throws IllegalArgumentException if the base rejects q, or an exponent of the product does not fit an int
+     */
+    @Override
+    public ScaledPolynomial multiply(Polynomial q) {
+        if(q == null) {
+            throw new NullPointerException("Argument is null");
+        }
+        if(q instanceof ScaledPolynomial) {
+            ScaledPolynomial s = (ScaledPolynomial) q;
+            return of(of(base.multiply(s.base), scale * s.scale, shift), 1, s.shift);
+        }
+        return of(base.multiply(q), scale, shift);
+    }
+
+    /**
+     * Returns a polynomial by subtracting the parameter from the materialized view. Neither the current instance nor
+     * the parameter are modified.
+     *
+     * Precondition: q is not null
+     * Postcondition: returns a polynomial representing the difference of this - q
+     *
+     * @param q the non-null polynomial to subtract from <code>this</code>
+     * @return <code>this - </code>q
+     * @throws NullPointerException if q is null
+     */
+    @Override
+    public Polynomial subtract(Polynomial q) {
+        if(q == null) {
+            throw new NullPointerException("Argument is null");
+        }
+        return materialize().subtract(q);
+    }
+
+    /**
+     * @return the view of the same base with the scale negated
+     */
+    @Override
+    public ScaledPolynomial minus() {
+        return new ScaledPolynomial(base, -scale, shift);
+    }
+
+    /**
+     * Evaluates the view from the terms of the base, without materializing it
+     *
+     * @param x the point at which to evaluate
+     * @return the value of the polynomial at x
+     */
+    @Override
+    public double evaluate(double x) {
+        double[] sum = {0};
+        forEachTerm((exponent, coefficient) -> sum[0] += coefficient * Math.pow(x, exponent));
+        return sum[0];
+    }
+
+    /**
+     * Passes every non-zero term to action, in ascending order of exponent, reading the terms of the base and scaling
+     * and shifting each one as it goes
+     *
+     * @param action the non-null operation to perform on each term
+     * @throws NullPointerException if action is null
+     */
+    @Override
+    public void forEachTerm(IntIntConsumer action) {
+        if(action == null) {
+            throw new NullPointerException("Argument is null");
+        }
+        if(terms != null) {
+            TermArrays t = terms;
+            for(int i = 0; i < t.size(); i++) {
+                action.accept(t.exponents[i], t.coefficients[i]);
+            }
+            return;
+        }
+        base.forEachTerm((exponent, coefficient) -> {
+            int c = scale * coefficient;
+            if(c != 0) {
+                action.accept(exponent + shift, c);
+            }
+        });
+    }
+
+    /**
+     * Estimates the heap taken by this view: the base, which is counted in full although it is shared, and the terms
+     * or polynomial materialized from it, once they are built
+     * Precondition: None
+     * Postcondition: returns the estimated size in bytes
+     *
+     * @return the estimated size in bytes
+     */
+    @Override
+    public long estimatedBytes() {
+        Polynomial m = materialized;
+        long bytes = Footprint.object(25) + base.estimatedBytes();
+        if(m != null) {
+            return bytes + m.estimatedBytes();
+        }
+        return bytes + Footprint.termArrays(terms);
+    }
+
+    /**
+     * Checks the class invariant, which is that of the base: the exponents of the view are checked when it is made
+     * Precondition: None
+     * PostCondition: returns true if the class invariant holds
+     *
+     * @return {@literal true} if the class invariant holds, and {@literal false} otherwise
+     */
+    @Override
+    public boolean wellFormed() {
+        return base.wellFormed();
+    }
+
+    /**
+     * Returns a spliterator over the non-zero terms in ascending order of exponent, over terms built on first use
+     *
+     * @return a SIZED and SUBSIZED spliterator over the non-zero terms, packed with Terms.pack
+     */
+    @Override
+    public Spliterator.OfLong termSpliterator() {
+        return termArrays().spliterator();
+    }
+
+    /**
+     * Compares this view to any polynomial term by term
+     * Precondition: None
+     * Postcondition: returns true if o is a polynomial with the same non-zero terms
+     *
+     * @param o the object to compare
+     * @return true if o is an equal polynomial
+     */
+    @Override
+    public boolean equals(Object o) {
+        if(o == this) {
+            return true;
+        }
+        if(!(o instanceof Polynomial) || o.hashCode() != hashCode()) {
+            return false;
+        }
+        return Terms.sameTerms(this, (Polynomial) o);
+    }
+
+    /**
+     * Returns the sum of Terms.hash over the non-zero terms, computed on first use, so views hash like the polynomials
+     * they stand for
+     *
+     * @return the hash code
+     */
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if(h == 0 && !hashIsZero) {
+            int[] sum = {0};
+            forEachTerm((exponent, coefficient) -> sum[0] += Terms.hash(exponent, coefficient));
+            h = sum[0];
+            if(h == 0) {
+                hashIsZero = true;
+            }
+            else {
+                hash = h;
+            }
+        }
+        return h;
+    }
+
+    /**
+     * Returns the canonical string of the polynomial this view stands for
+     *
+     * @return String representation of the polynomial in canonical form
+     */
+    @Override
+    public String toString() {
+        TermArrays t = termArrays();
+        if(t.size() == 0) {
+            return "0";
+        }
+        StringBuilder s = new StringBuilder();
+        for(int i = t.size() - 1; i >= 0; i--) {
+            if(s.length() > 0) {
+                s.append(" + ");
+            }
+            Terms.appendTerm(s, t.exponents[i], t.coefficients[i]);
+        }
+        return s.toString();
+    }
+}
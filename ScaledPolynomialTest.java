@@ -0,0 +1,123 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScaledPolynomialTest {
+
+    @Test
+    void testViews() {
+        DensePolynomial dense = new DensePolynomial("4x^3 + -2x + 7");
+        SparsePolynomial sparse = new SparsePolynomial("4x^300 + -2x + 7x^-5");
+
+        //testing that views read the base with the scale and shift applied
+        ScaledPolynomial view = dense.scaleAndShift(3, 2);
+        assertSame(dense, view.base());
+        assertEquals(5, view.degree());
+        assertEquals(12, view.getCoefficient(5));
+        assertEquals(-6, view.getCoefficient(3));
+        assertEquals(0, view.getCoefficient(1));
+        assertEquals(21, view.getCoefficient(2));
+        assertEquals(0, view.getCoefficient(Integer.MIN_VALUE));
+        assertEquals("12x^5 + -6x^3 + 21x^2", view.toString());
+        assertEquals(new DensePolynomial("12x^5 + -6x^3 + 21x^2"), view);
+        assertEquals(view, new DensePolynomial("12x^5 + -6x^3 + 21x^2"));
+        assertEquals(new DensePolynomial("12x^5 + -6x^3 + 21x^2").hashCode(), view.hashCode());
+        assertEquals(new SparsePolynomial("-4x^295 + 2x^-4 + -7x^-10"), sparse.scale(-1).shift(-5));
+        assertEquals(dense.multiply(new DensePolynomial("-5")), dense.scale(-5));
+        assertEquals(dense.evaluate(2.0) * 4, dense.shift(2).evaluate(2.0), 1e-12);
+        assertTrue(view.wellFormed());
+
+        //testing that views of views fold into one view of the base
+        ScaledPolynomial twice = view.scaleAndShift(-2, -2).minus();
+        assertSame(dense, twice.base());
+        assertEquals(6, twice.scale());
+        assertEquals(0, twice.shift());
+        assertEquals(dense.scale(6), twice);
+    }
+
+    @Test
+    void testMaterialize() {
+        DensePolynomial dense = new DensePolynomial("4x^3 + -2x^2");
+
+        //testing that views keep the representation of the base where it can hold them
+        assertTrue(dense.shift(3).materialize() instanceof DensePolynomial);
+        assertTrue(dense.shift(-2).materialize() instanceof DensePolynomial);
+        assertEquals(new DensePolynomial("4x + -2"), dense.shift(-2).materialize());
+        assertTrue(dense.shift(-3).materialize() instanceof SparsePolynomial);
+        assertEquals(new SparsePolynomial("4 + -2x^-1"), dense.shift(-3).materialize());
+        Polynomial laurent = ScaledPolynomial.of(new LaurentPolynomial("x^2 + x^-2"), 2, 1).materialize();
+        assertTrue(laurent instanceof LaurentPolynomial);
+        assertEquals(new LaurentPolynomial("2x^3 + 2x^-1"), laurent);
+        ScaledPolynomial view = dense.scale(7);
+        assertSame(view.materialize(), view.materialize());
+
+        //testing that arithmetic on views agrees with arithmetic on the materialized polynomials
+        Polynomial other = new DensePolynomial("x^2 + 1");
+        assertEquals(dense.multiply(new DensePolynomial("7")).add(other), view.add(other));
+        assertEquals(dense.multiply(new DensePolynomial("7")).subtract(other), view.subtract(other));
+        assertEquals(dense.multiply(other).multiply(new DensePolynomial("7")), view.multiply(other));
+        assertEquals(dense.multiply(dense).multiply(new DensePolynomial("21x^2")), view.multiply(dense.scaleAndShift(3, 2)));
+        assertTrue(view.multiply(other) instanceof ScaledPolynomial);
+    }
+
+    @Test
+    void testWrapAround() {
+        Random random = new Random(50);
+        int[] coefficients = new int[1000];
+        for(int i = 0; i < coefficients.length; i++) {
+            coefficients[i] = random.nextInt() & ~0xFFFF;
+        }
+        coefficients[999] = 1 << 16;
+        DensePolynomial p = DensePolynomial.fromCoefficients(coefficients);
+
+        //testing that an even scale that wraps every coefficient around to zero gives the zero polynomial
+        ScaledPolynomial zero = p.scale(1 << 16);
+        assertTrue(zero.isZero());
+        assertEquals(0, zero.degree());
+        assertEquals(new DensePolynomial("0"), zero);
+        assertEquals("0", zero.toString());
+        assertTrue(p.scale(0).isZero());
+        assertTrue(p.scale(0).materialize().isZero());
+
+        //testing that an odd scale keeps every term and the degree of the base
+        ScaledPolynomial odd = p.scaleAndShift(3, 10);
+        assertEquals(1009, odd.degree());
+        assertEquals(p.multiply(new SparsePolynomial("3x^10")), odd);
+        assertEquals(p.multiply(new SparsePolynomial("3x^10")), odd.materialize());
+        assertThrows(IllegalArgumentException.class, () -> p.shift(Integer.MAX_VALUE));
+        assertThrows(IllegalArgumentException.class, () -> new SparsePolynomial("x^-5").shift(Integer.MIN_VALUE));
+        assertThrows(NullPointerException.class, () -> ScaledPolynomial.of(null, 1, 1));
+        assertThrows(NullPointerException.class, () -> odd.add(null));
+    }
+
+    @Test
+    void testShiftLeavesBase() {
+        int[] coefficients = new int[100000];
+        for(int i = 0; i < coefficients.length; i++) {
+            coefficients[i] = i % 7 + 1;
+        }
+        DensePolynomial dense = DensePolynomial.fromCoefficients(coefficients);
+        SparsePolynomial sparse = SparsePolynomial.fromCoefficients(coefficients);
+        long denseBytes = dense.estimatedBytes();
+        long sparseBytes = sparse.estimatedBytes();
+
+        //testing that a negative shift does not build the term arrays of its base
+        assertEquals(-5, dense.shift(-5).shift());
+        assertEquals(-3, dense.scaleAndShift(2, -3).shift());
+        assertEquals(-5, sparse.shift(-5).shift());
+        assertEquals(denseBytes, dense.estimatedBytes());
+        assertEquals(sparseBytes, sparse.estimatedBytes());
+
+        //testing that the lowest exponent is still checked on every representation
+        Polynomial low = new SparsePolynomial("x^-2147482990 + x^-2147483000");
+        for(RepresentationAdvisor.Representation r: RepresentationAdvisor.Representation.values()) {
+            if(r != RepresentationAdvisor.Representation.DENSE) {
+                Polynomial converted = RepresentationAdvisor.convert(low, r);
+                assertThrows(IllegalArgumentException.class, () -> ScaledPolynomial.of(converted, 1, -1000));
+            }
+        }
+        assertEquals(-5, ScaledPolynomial.of(new CompressedPolynomial("x^3 + 1"), 1, -5).shift());
+    }
+}
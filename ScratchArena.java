@@ -0,0 +1,65 @@
+/**
+ * A per-thread scratch buffer for the temporary arrays of dense arithmetic.  Each thread owns one int array that grows
+ * to the largest size requested and is then reused, so steady-state arithmetic allocates only its results.  Nested
+ * use on the same thread, and requests larger than MAX_RETAINED, get a fresh array that is left to the collector, so
+ * one huge product does not pin its scratch space for the life of the thread.
+ *
+ * <pre>
+ *     int[] scratch = ScratchArena.acquire(n);
+ *     try {
+ *         ...
+ *     }
+ *     finally {
+ *         ScratchArena.release(scratch);
+ *     }
+ * </pre>
+ */
+final class ScratchArena {
+
+    /**
+     * The largest buffer, in ints, that a thread keeps between uses
+     */
+    static final int MAX_RETAINED = 1 << 22;
+
+    private static final ThreadLocal<ScratchArena> LOCAL = ThreadLocal.withInitial(ScratchArena::new);
+
+    private int[] buffer = new int[0];
+    private boolean inUse;
+
+    private ScratchArena() {
+    }
+
+    /**
+     * Returns a scratch array of at least n ints for the calling thread.  Its contents are arbitrary.
+     * Precondition: n is not negative
+     * Postcondition: returns an array of length at least n that no other caller is using
+     *
+     * @param n the number of ints needed
+     * @return the scratch array
+     */
+    static int[] acquire(int n) {
+        ScratchArena arena = LOCAL.get();
+        if(arena.inUse || n > MAX_RETAINED) {
+            return new int[n];
+        }
+        if(arena.buffer.length < n) {
+            arena.buffer = new int[Math.max(n, Math.min(MAX_RETAINED, 2 * arena.buffer.length))];
+        }
+        arena.inUse = true;
+        return arena.buffer;
+    }
+
+    /**
+     * Hands a scratch array back after use
+     * Precondition: scratch was returned by acquire on the calling thread and is no longer used
+     * Postcondition: the next acquire on this thread may return the same array
+     *
+     * @param scratch the array to hand back
+     */
+    static void release(int[] scratch) {
+        ScratchArena arena = LOCAL.get();
+        if(scratch == arena.buffer) {
+            arena.inUse = false;
+        }
+    }
+}
@@ -0,0 +1,289 @@
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Multiplies sorted term sequences.  Every pair of terms contributes to the exponent that is the sum of theirs.  The
+ * range of output exponents is walked in buckets of about BUCKET_PAIRS pairs, and each bucket is accumulated in a
+ * primitive hash table, or in a plain array when its exponents are packed closely enough, small enough to stay in
+ * cache, then sorted and appended to the result.
+ *
+ * The parallel product first cuts the output exponents into ranges holding about the same number of term pairs, using
+ * boundaries taken from a random sample of pair sums.  Each range is computed by one task, which finds where its terms
+ * start in the second factor with a binary search per term of the first factor and accumulates into tables of its
+ * own.  The ranges are disjoint and ordered, so their sorted runs are simply laid end to end, and no two workers ever
+ * write to the same memory.
+ *
+ * In the sequential product each bucket ends at Checkpoint.reached with the number of pairs it accumulated, so an
+ * asynchronous product can be stopped between buckets.  The ranges of the parallel product run on pool workers, whose
+ * threads carry no checkpoint, so once started a parallel product runs to the end.
+ */
+final class SparseMultiplier {
+
+    /**
+     * Products with fewer term pairs than this are computed on the calling thread
+     */
+    static final long PARALLEL_PAIRS = 1L << 16;
+
+    /**
+     * Number of term pairs a bucket of output exponents is sized for
+     */
+    private static final long BUCKET_PAIRS = 1L << 16;
+
+    /**
+     * Number of pair sums sampled to place the bucket boundaries
+     */
+    private static final int SAMPLES = 1 << 12;
+
+    private SparseMultiplier() {
+    }
+
+    /**
+     * Returns the product of two sorted term sequences on the calling thread.  Exponents add with int wrap-around.
+     * Precondition: a and b are not null
+     * Postcondition: returns the terms of a * b
+     *
+     * @param a the terms of the first factor
+     * @param b the terms of the second factor
+     * @return the terms of the product
+     */
+    static TermArrays multiply(TermArrays a, TermArrays b) {
+        if(a.size() > b.size()) {
+            TermArrays t = a;
+            a = b;
+            b = t;
+        }
+        if(a.size() == 0) {
+            return new TermArrays(new int[0], new int[0]);
+        }
+        long low = (long) a.exponents[0] + b.exponents[0];
+        long high = (long) a.exponents[a.size() - 1] + b.exponents[b.size() - 1];
+        if(low < Integer.MIN_VALUE || high > Integer.MAX_VALUE) {
+            IntIntHashMap table = new IntIntHashMap((int) Math.min((long) a.size() * b.size(), 1 << 20));
+            for(int i = 0; i < a.size(); i++) {
+                for(int j = 0; j < b.size(); j++) {
+                    table.add(a.exponents[i] + b.exponents[j], a.coefficients[i] * b.coefficients[j]);
+                }
+                Checkpoint.reached(b.size());
+            }
+            return unpack(table.toSortedTerms());
+        }
+        return unpack(range(a, b, low, high + 1));
+    }
+
+    /**
+     * Returns the product of two sorted term sequences, computing ranges of output exponents in parallel on pool
+     * Precondition: a, b and pool are not null
+     * Postcondition: returns the same terms as multiply(a, b)
+     *
+     * @param a the terms of the first factor
+     * @param b the terms of the second factor
+     * @param pool the pool that computes the ranges
+     * @return the terms of the product
+     */
+    static TermArrays multiplyParallel(TermArrays a, TermArrays b, ForkJoinPool pool) {
+        if(a.size() > b.size()) {
+            TermArrays t = a;
+            a = b;
+            b = t;
+        }
+        long pairs = (long) a.size() * b.size();
+        if(pairs < PARALLEL_PAIRS) {
+            return multiply(a, b);
+        }
+        long low = (long) a.exponents[0] + b.exponents[0];
+        long high = (long) a.exponents[a.size() - 1] + b.exponents[b.size() - 1];
+        if(low < Integer.MIN_VALUE || high > Integer.MAX_VALUE) {
+            return multiply(a, b);
+        }
+        long[] bounds = boundaries(a, b, low, high + 1, 4 * pool.getParallelism());
+        long[][] runs = new long[bounds.length - 1][];
+        pool.invoke(new RangeTask(a, b, bounds, runs, 0, runs.length));
+
+        int total = 0;
+        for(long[] run: runs) {
+            total += run.length;
+        }
+        int[] exponents = new int[total];
+        int[] coefficients = new int[total];
+        int k = 0;
+        for(long[] run: runs) {
+            for(long term: run) {
+                exponents[k] = Terms.exponent(term);
+                coefficients[k++] = Terms.coefficient(term);
+            }
+        }
+        return new TermArrays(exponents, coefficients);
+    }
+
+    /**
+     * Computes the ranges [first, last) of runs, splitting them in two while there is more than one
+     */
+    private static final class RangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final TermArrays a;
+        private final TermArrays b;
+        private final long[] bounds;
+        private final long[][] runs;
+        private final int first;
+        private final int last;
+
+        RangeTask(TermArrays a, TermArrays b, long[] bounds, long[][] runs, int first, int last) {
+            this.a = a;
+            this.b = b;
+            this.bounds = bounds;
+            this.runs = runs;
+            this.first = first;
+            this.last = last;
+        }
+
+        @Override
+        protected void compute() {
+            if(last - first == 1) {
+                runs[first] = range(a, b, bounds[first], bounds[first + 1]);
+                return;
+            }
+            int middle = (first + last) >>> 1;
+            invokeAll(new RangeTask(a, b, bounds, runs, first, middle), new RangeTask(a, b, bounds, runs, middle, last));
+        }
+    }
+
+    /**
+     * Picks boundaries in [low, high) so that each of at most count ranges receives about the same number of term
+     * pairs, judged from a random sample of pair sums
+     */
+    private static long[] boundaries(TermArrays a, TermArrays b, long low, long high, int count) {
+        Random random = new Random(a.size() * 31L + b.size());
+        long[] sample = new long[SAMPLES];
+        for(int s = 0; s < SAMPLES; s++) {
+            sample[s] = (long) a.exponents[random.nextInt(a.size())] + b.exponents[random.nextInt(b.size())];
+        }
+        Arrays.sort(sample);
+        long[] bounds = new long[count + 1];
+        int k = 0;
+        bounds[k++] = low;
+        for(int c = 1; c < count; c++) {
+            long bound = sample[(int) ((long) SAMPLES * c / count)];
+            if(bound > bounds[k - 1]) {
+                bounds[k++] = bound;
+            }
+        }
+        bounds[k++] = high;
+        return Arrays.copyOf(bounds, k);
+    }
+
+    /**
+     * Returns the non-zero terms of a * b whose exponents lie in [low, high), packed with Terms.pack in ascending order.
+     * The range is walked in buckets of about BUCKET_PAIRS term pairs, so the accumulator stays small enough for the
+     * cache; a cursor per term of a remembers where the previous bucket stopped in b.
+     * Precondition: a has no more terms than b
+     */
+    private static long[] range(TermArrays a, TermArrays b, long low, long high) {
+        int[] ae = a.exponents, ac = a.coefficients, be = b.exponents, bc = b.coefficients;
+        int[] cursor = new int[ae.length];
+        int[] to = new int[ae.length];
+        long pairs = 0;
+        for(int i = 0; i < ae.length; i++) {
+            cursor[i] = lowerBound(be, low - ae[i]);
+            to[i] = lowerBound(be, high - ae[i]);
+            pairs += to[i] - cursor[i];
+        }
+        if(pairs == 0) {
+            return new long[0];
+        }
+
+        // each bucket costs one pass over a, so keep at least 8 pairs per term of a in a bucket
+        long buckets = Math.max(1, Math.min(pairs / BUCKET_PAIRS, pairs / (8L * ae.length)));
+        long width = (high - low + buckets - 1) / buckets;
+        long bucketPairs = pairs / buckets;
+        int[] dense = (width <= 4 * bucketPairs && width <= (1 << 22)) ? new int[(int) width] : null;
+        IntIntHashMap table = (dense == null) ? new IntIntHashMap((int) Math.min(2 * bucketPairs, 1 << 20)) : null;
+
+        long[] terms = new long[16];
+        int count = 0;
+        for(long from = low; from < high; from += width) {
+            long until = Math.min(high, from + width);
+            long bucketDone = 0;
+            for(int i = 0; i < ae.length; i++) {
+                int exponent = ae[i];
+                int coefficient = ac[i];
+                int j = cursor[i];
+                int end = to[i];
+                if(dense != null) {
+                    int offset = (int) (exponent - from);
+                    for(; j < end && exponent + be[j] < until; j++) {
+                        dense[offset + be[j]] += coefficient * bc[j];
+                    }
+                }
+                else {
+                    for(; j < end && exponent + be[j] < until; j++) {
+                        table.add(exponent + be[j], coefficient * bc[j]);
+                    }
+                }
+                bucketDone += j - cursor[i];
+                cursor[i] = j;
+            }
+            // does nothing on a pool worker, which has no checkpoint of its own
+            Checkpoint.reached(bucketDone);
+
+            long[] bucket;
+            if(dense != null) {
+                int span = (int) (until - from);
+                int nonZero = 0;
+                for(int d = 0; d < span; d++) {
+                    if(dense[d] != 0) {
+                        nonZero++;
+                    }
+                }
+                bucket = new long[nonZero];
+                int k = 0;
+                for(int d = 0; d < span; d++) {
+                    if(dense[d] != 0) {
+                        bucket[k++] = Terms.pack((int) (from + d), dense[d]);
+                        dense[d] = 0;
+                    }
+                }
+            }
+            else {
+                bucket = table.toSortedTerms();
+                table.clear();
+            }
+            if(count + bucket.length > terms.length) {
+                terms = Arrays.copyOf(terms, Math.max(2 * terms.length, count + bucket.length));
+            }
+            System.arraycopy(bucket, 0, terms, count, bucket.length);
+            count += bucket.length;
+        }
+        return (count == terms.length) ? terms : Arrays.copyOf(terms, count);
+    }
+
+    /**
+     * Returns the index of the first exponent that is at least key, or exponents.length if there is none
+     */
+    private static int lowerBound(int[] exponents, long key) {
+        int lo = 0;
+        int hi = exponents.length;
+        while(lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if(exponents[mid] < key) {
+                lo = mid + 1;
+            }
+            else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static TermArrays unpack(long[] terms) {
+        int[] exponents = new int[terms.length];
+        int[] coefficients = new int[terms.length];
+        for(int k = 0; k < terms.length; k++) {
+            exponents[k] = Terms.exponent(terms[k]);
+            coefficients[k] = Terms.coefficient(terms[k]);
+        }
+        return new TermArrays(exponents, coefficients);
+    }
+}
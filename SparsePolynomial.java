@@ -1,12 +1,32 @@
-import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.NavigableMap;
 import java.util.NavigableSet;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
 import java.util.TreeMap;
 
 
-public class SparsePolynomial implements Polynomial {
-    private TreeMap<Integer,Integer> map = new TreeMap<Integer,Integer>();
-    private String input;
+/**
+ * A polynomial whose terms are stored in a TreeMap from degree to coefficient.  Instances are immutable: every field is
+ * final and the map is only ever handed out as a read-only view, so a SparsePolynomial can be shared between threads
+ * without copying.  The map never holds a zero coefficient, so the zero polynomial is the empty map, and the degree,
+ * zero flag and hash code are fixed at construction.
+ *
+ * Next to the map, an instance keeps its terms as two sorted int arrays, which back the term spliterator and feed the
+ * linear merges of add and subtract and the multiply kernels.  The arrays cost 8 bytes a term against about 70 for
+ * the map's entry and boxed key and value, so keeping both adds roughly an eighth to the footprint in exchange for not
+ * walking the map again on every operation.
+ */
+public class SparsePolynomial implements Polynomial, TermSource {
+    private final TreeMap<Integer,Integer> map;
+    private final String input;
+    private final int degree;
+    private final boolean zero;
+    private final int hash;
+    private volatile TermArrays terms;
 
 
     /**
@@ -19,81 +39,237 @@ public class SparsePolynomial implements Polynomial {
      * @throws IllegalArgumentException if a coefficient or degree are not integers or we are given a string that is not canonical
      */
     public SparsePolynomial(String s) {
-        this.input = s;
-        if(wellFormed() == false) {
-            throw new IllegalArgumentException("The input string given is invalid");
-        }
+        this(PolynomialParser.parse(s, true).toTermArrays(), s);
+    }
 
-        input = input.replace(" - ", " + -");
-        String[] terms = input.split("\\+");
-
-        ArrayList<Integer> coefficients = new ArrayList<Integer>();
-        ArrayList<Integer> degrees = new ArrayList<Integer>();
-
-        for(String term: terms) {
-            term = term.strip();
-            if(term.contains("x^")) {
-                if(term.charAt(0) == 'x') {
-                    term = term.replace("x^", "");
-                    int degree = Integer.parseInt(term);
-                    coefficients.add(1);
-                    degrees.add(degree);
-
-                }
-                else {
-                    String[] nums = term.split("x\\^");
-                    int coefficient = Integer.parseInt(nums[0]);
-                    int degree = Integer.parseInt(nums[1]);
-                    coefficients.add(coefficient);
-                    degrees.add(degree);
-                }
+    /**
+     * Creates an instance of a SparsePolynomial object from a canonical string that may be several megabytes long.  The
+     * string is cut into chunks at term boundaries, the chunks are parsed in parallel on the common fork-join pool, and
+     * the descending order of the exponents is checked across every cut.
+     *
+     * Precondition: Coefficients and degrees in String s must be integers
+     * Postcondition: Returns a SparsePolynomial equal to new SparsePolynomial(s)
+     *
+     * @param s the canonical string representation of a polynomial
+     * @return the polynomial represented by s
+     * @throws IllegalArgumentException if a coefficient or degree are not integers or we are given a string that is not canonical
+     */
+    public static SparsePolynomial parseParallel(String s) {
+        return parseParallel(s, ForkJoinPool.commonPool());
+    }
 
-            }
+    /**
+     * Creates an instance of a SparsePolynomial object from a canonical string, parsing chunks of it in parallel on pool
+     *
+     * Precondition: Coefficients and degrees in String s must be integers
+     * Postcondition: Returns a SparsePolynomial equal to new SparsePolynomial(s)
+     *
+     * @param s the canonical string representation of a polynomial
+     * @param pool the fork-join pool that parses the chunks
+     * @return the polynomial represented by s
+     * @throws NullPointerException if pool is null
+     * @throws IllegalArgumentException if a coefficient or degree are not integers or we are given a string that is not canonical
+     */
+    public static SparsePolynomial parseParallel(String s, ForkJoinPool pool) {
+        return new SparsePolynomial(PolynomialParser.parseParallel(s, true, pool).toTermArrays(), s);
+    }
+
+    
+    /**
+     * Creates an instance of a SparsePolynomial object from map.  No input string is kept, so no string work is done
+     * Precondition: map is not shared with any other object, as the new instance takes ownership of it
+     * Postcondition: Creates instance of SparsePolynomial from map with every zero coefficient removed
+     * @param map the treemap that holds degrees and coefficients  
+     *  
+     */
+    private SparsePolynomial(TreeMap<Integer,Integer> map) {
+        map.values().removeIf(value -> value == 0);
+    	this.map = map;
+        this.zero = map.isEmpty();
+        this.degree = zero ? 0 : map.lastKey();
+        this.hash = hashTerms(map);
+    	this.input = null;
+    }
+    /**
+     * Creates an instance of a SparsePolynomial object from sorted term arrays.  No input string is kept
+     * Precondition: terms holds no zero coefficients and is not shared with any other object
+     * Postcondition: Creates instance of SparsePolynomial whose map is filled from terms in ascending order
+     * @param terms the non-zero terms in ascending order of degree
+     *
+     */
+    private SparsePolynomial(TermArrays terms) {
+        this(terms, null);
+    }
 
-            else if(term.contains("x")) {
-                if(term.equals("x")) {
-                    coefficients.add(1);
-                    degrees.add(1);
-                }
-                else if(term.equals("-x")){
-                    coefficients.add(-1);
-                    degrees.add(1);
-                }
-                else {
-                    String[] nums = term.split("x");
-                    int coefficient = Integer.parseInt(nums[0]);
-                    coefficients.add(coefficient);
-                    degrees.add(1);
-                }
+    /**
+     * Creates an instance of a SparsePolynomial object from sorted term arrays and the string they were parsed from
+     * Precondition: terms holds no zero coefficients and is not shared with any other object
+     * Postcondition: Creates instance of SparsePolynomial whose map is filled from terms in ascending order
+     * @param terms the non-zero terms in ascending order of degree
+     * @param input the canonical string the terms were parsed from, or null if there was none
+     */
+    private SparsePolynomial(TermArrays terms, String input) {
+        this.map = terms.toTreeMap();
+        this.terms = terms;
+        this.zero = map.isEmpty();
+        this.degree = zero ? 0 : map.lastKey();
+        this.hash = hashTerms(map);
+        this.input = input;
+    }
+
+    /**
+     * Creates a SparsePolynomial from a coefficient array whose index i holds the coefficient of x^i.  Only the non-zero
+     * entries become terms.
+     *
+     * Precondition: coefficients is not null
+     * Postcondition: returns a SparsePolynomial with the given coefficients
+     *
+     * @param coefficients the coefficients indexed by degree
+     * @return the polynomial with those coefficients
+     * @throws NullPointerException if coefficients is null
+     */
+    public static SparsePolynomial fromCoefficients(int[] coefficients) {
+        if(coefficients == null) {
+            throw new NullPointerException("Argument is null");
+        }
+        int count = 0;
+        for(int coefficient: coefficients) {
+            if(coefficient != 0) {
+                count++;
             }
-            else {
-                int coefficient = Integer.parseInt(term);
-                coefficients.add(coefficient);
-                degrees.add(0);
+        }
+        int[] exponents = new int[count];
+        int[] values = new int[count];
+        int k = 0;
+        for(int i = 0; i < coefficients.length; i++) {
+            if(coefficients[i] != 0) {
+                exponents[k] = i;
+                values[k++] = coefficients[i];
             }
         }
+        return new SparsePolynomial(new TermArrays(exponents, values));
+    }
+
+    /**
+     * Creates a SparsePolynomial from parallel arrays of exponents and coefficients in any order.  The arrays are copied.
+     * Coefficients that share an exponent are added together and zero coefficients are dropped.
+     *
+     * Precondition: exponents and coefficients are not null and have the same length
+     * Postcondition: returns the SparsePolynomial that is the sum of the given terms
+     *
+     * @param exponents the exponent of each term
+     * @param coefficients the coefficient of each term
+     * @return the polynomial with those terms
+     * @throws NullPointerException if either array is null
+     * @throws IllegalArgumentException if the arrays differ in length
+     */
+    public static SparsePolynomial fromTerms(int[] exponents, int[] coefficients) {
+        return fromTerms(exponents, coefficients, false);
+    }
 
-        for(int i = 0; i < coefficients.size(); i++) {
-            map.put(degrees.get(i), coefficients.get(i));
+    /**
+     * Creates a SparsePolynomial from parallel arrays of exponents and coefficients in any order.  When takeOwnership is
+     * true and the terms are already in strictly ascending order of exponent with no zero coefficient, the arrays are
+     * kept as the term arrays of the new polynomial without being copied, and the caller must not modify them
+     * afterwards.  Otherwise the terms are sorted, coefficients that share an exponent are added together and zero
+     * coefficients are dropped.
+     *
+     * Precondition: exponents and coefficients are not null and have the same length; if takeOwnership is true, neither
+     * array is modified again
+     * Postcondition: returns the SparsePolynomial that is the sum of the given terms
+     *
+     * @param exponents the exponent of each term
+     * @param coefficients the coefficient of each term
+     * @param takeOwnership whether the new polynomial may keep the arrays instead of copying them
+     * @return the polynomial with those terms
+     * @throws NullPointerException if either array is null
+     * @throws IllegalArgumentException if the arrays differ in length
+     */
+    public static SparsePolynomial fromTerms(int[] exponents, int[] coefficients, boolean takeOwnership) {
+        if(exponents == null || coefficients == null) {
+            throw new NullPointerException("Argument is null");
         }
+        if(exponents.length != coefficients.length) {
+            throw new IllegalArgumentException("Exponents and coefficients must have the same length");
+        }
+        return new SparsePolynomial(TermArrays.normalize(exponents, coefficients, exponents.length, takeOwnership));
     }
 
-    
     /**
-     * Creates an instance of a SparsePolynomial object from map and using the toString method for the input
-     * Precondition: None
-     * Postcondition: Creates instance of SparsePolynomial from map and using toString for input
-     * @param map the treemap that holds degrees and coefficients  
-     *  
+     * Returns a new builder that assembles a SparsePolynomial term by term without any string parsing
+     *
+     * @return an empty builder
      */
-    private SparsePolynomial(TreeMap<Integer,Integer> map) {
-    	this.map = map;
-        if(this.isZero()){
-            this.map = new TreeMap<Integer,Integer>();
-            this.map.put(0,0);
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Assembles a SparsePolynomial term by term.  Terms are appended to growable primitive arrays in O(1) amortized time
+     * and sorted once by build(), which skips the sort when the terms were added in ascending order of exponent.  A
+     * builder is not thread-safe, but it may be reused after build().
+     */
+    public static final class Builder {
+        private int[] exponents = new int[8];
+        private int[] coefficients = new int[8];
+        private int length;
+
+        private Builder() {
+        }
+
+        /**
+         * Adds coefficient to the coefficient of x^exponent
+         * Precondition: None
+         * Postcondition: the coefficient of x^exponent in the built polynomial grows by coefficient
+         * @param exponent the degree of the term
+         * @param coefficient the amount to add
+         * @return this builder
+         */
+        public Builder addTerm(int exponent, int coefficient) {
+            if(length == exponents.length) {
+                exponents = Arrays.copyOf(exponents, 2 * length);
+                coefficients = Arrays.copyOf(coefficients, 2 * length);
+            }
+            exponents[length] = exponent;
+            coefficients[length++] = coefficient;
+            return this;
+        }
+
+        /**
+         * Creates a SparsePolynomial from the terms added so far.  The builder keeps its terms and can go on growing.
+         * @return the polynomial built so far
+         */
+        public SparsePolynomial build() {
+            return new SparsePolynomial(TermArrays.normalize(exponents, coefficients, length, false));
         }
-    	this.input = this.toString();
     }
+
+    /**
+     * Returns the sum of any number of polynomials.  The sorted term sequences of the operands are combined with a
+     * tournament of linear merges, so the cost is proportional to the total number of terms times log2 of the number
+     * of operands, and terms that cancel never enter the result.
+     *
+     * Precondition: polynomials is not null and contains no null entries
+     * Postcondition: returns a SparsePolynomial equal to the sum of every operand; none of them is modified
+     *
+     * @param polynomials the polynomials to add
+     * @return the sum of the polynomials, or the zero polynomial if none are given
+     * @throws NullPointerException if polynomials or any of its entries is null
+     */
+    public static SparsePolynomial sum(Polynomial... polynomials) {
+        if(polynomials == null) {
+            throw new NullPointerException("Argument is null");
+        }
+        TermArrays[] terms = new TermArrays[polynomials.length];
+        for(int i = 0; i < polynomials.length; i++) {
+            if(polynomials[i] == null) {
+                throw new NullPointerException("Argument is null");
+            }
+            terms[i] = TermArrays.of(polynomials[i]);
+        }
+        return new SparsePolynomial(TermArrays.sum(terms));
+    }
+
     /**
      * Returns the degree of the polynomial.
      * Precondition: None
@@ -102,8 +278,14 @@ public class SparsePolynomial implements Polynomial {
      */
     @Override
     public int degree() {
-        NavigableSet<Integer> s = map.descendingKeySet();
-        return s.first();
+        return degree;
+    }
+
+    /**
+     * @return the smallest exponent with a non-zero coefficient, or 0 for the zero polynomial
+     */
+    public int lowestExponent() {
+        return zero ? 0 : map.firstKey();
     }
     
     /**
@@ -118,8 +300,9 @@ public class SparsePolynomial implements Polynomial {
      */
     @Override
     public int getCoefficient(int d) {
-        if(map.containsKey(d)) {
-        	return map.get(d);
+        Integer coefficient = map.get(d);
+        if(coefficient != null) {
+        	return coefficient;
         }
         else {
         	return 0; 
@@ -134,20 +317,16 @@ public class SparsePolynomial implements Polynomial {
      */
     @Override
     public boolean isZero() {
-        Collection<Integer> c = map.values();
-        for(Integer x: c) {
-        	if(x != 0) {
-        		return false; 
-        	}
-        }
-        return true;
+        return zero;
     }
     
     /**
      * Returns a polynomial by adding the parameter to the current instance. Neither the current instance nor the
      * parameter are modified.
      *
-     * Precondition: q is not null && SparsePolynomial cannot have negative exponents
+     * The sorted terms of both operands are merged in one linear pass and terms that cancel are dropped.
+     *
+     * Precondition: q is not null
      * Postcondition: returns a polynomial representing the sum of this + q
      *
      * @param q the non-null polynomial to add to <code>this</code>
@@ -160,35 +339,16 @@ public class SparsePolynomial implements Polynomial {
 			throw new NullPointerException("Argument is null");
 		}
 
-		SparsePolynomial s;
-
-		if (q instanceof DensePolynomial) {
-			DensePolynomial d = (DensePolynomial) q;
-			s = convertToSparse(d);
-			
-		} 
-		else {
-			s = (SparsePolynomial) q;
-		}
-		
-		@SuppressWarnings("unchecked")
-		TreeMap<Integer, Integer> map1 = (TreeMap<Integer, Integer>) this.map.clone();
-		@SuppressWarnings("unchecked")
-		TreeMap<Integer, Integer> map2 = (TreeMap<Integer, Integer>) s.map.clone(); 
-		
-		NavigableSet<Integer> keyset = map2.navigableKeySet();
-		
-		for(int key: keyset) {
-			map1.put(key, map1.getOrDefault(key,0)+map2.get(key));
-		}
-		
-		return new SparsePolynomial(map1);
+		return new SparsePolynomial(TermArrays.merge(this.termArrays(), TermArrays.of(q), false));
 	}
 
     /**
      * Returns a polynomial by multiplying the parameter to the current instance. Neither the current instance nor the
      * parameter are modified.
      *
+     * The products of all pairs of terms are accumulated in a primitive hash table, or in an array when the exponents
+     * of the product are packed closely, and sorted once.
+     *
      * Precondition: q is not null
      * Postcondition: returns a polynomial representing the product of this * q
      *
@@ -202,40 +362,168 @@ public class SparsePolynomial implements Polynomial {
 			throw new NullPointerException("Argument is null");
 		}
 
-		SparsePolynomial s;
+		return new SparsePolynomial(SparseMultiplier.multiply(this.termArrays(), TermArrays.of(q)));
+    }
 
-		if (q instanceof DensePolynomial) {
-			DensePolynomial d = (DensePolynomial) q;
-			s = convertToSparse(d);
-			
-		} 
-		else {
-			s = (SparsePolynomial) q;
-		}
-		
-		
-		TreeMap<Integer, Integer> map1 = this.map;
-		TreeMap<Integer, Integer> map2 = s.map; 
-		
-		NavigableSet<Integer> map1Keys = map1.navigableKeySet();
-		NavigableSet<Integer> map2Keys = map2.navigableKeySet();
-		
-		
-		TreeMap<Integer, Integer> newMap = new TreeMap<Integer,Integer>();
-		
-		for(int i: map1Keys) {
-			for(int j: map2Keys) {
-				newMap.put(i+j, newMap.getOrDefault(i+j, 0)+(map1.get(i)*map2.get(j)));
-			}
-		}
-		
-		return new SparsePolynomial(newMap);
+    /**
+     * Returns a polynomial by multiplying the parameter to the current instance, computing ranges of output exponents
+     * in parallel on the common fork-join pool.  Neither the current instance nor the parameter are modified.
+     *
+     * Precondition: q is not null
+     * Postcondition: returns a polynomial equal to this.multiply(q)
+     *
+     * @param q the non-null polynomial to multiply to <code>this</code>
+     * @return <code>this * </code>q
+     * @throws NullPointerException if q is null
+     */
+    public SparsePolynomial multiplyParallel(Polynomial q) {
+    	return multiplyParallel(q, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Returns a polynomial by multiplying the parameter to the current instance, computing ranges of output exponents
+     * in parallel on pool.  The range of output exponents is cut into buckets holding about the same number of term
+     * pairs; each bucket is accumulated by one task in a table of its own, and the sorted buckets are laid end to end
+     * without any locking.  Neither the current instance nor the parameter are modified.
+     *
+     * Precondition: q and pool are not null
+     * Postcondition: returns a polynomial equal to this.multiply(q)
+     *
+     * @param q the non-null polynomial to multiply to <code>this</code>
+     * @param pool the fork-join pool that computes the buckets
+     * @return <code>this * </code>q
+     * @throws NullPointerException if q or pool is null
+     */
+    public SparsePolynomial multiplyParallel(Polynomial q, ForkJoinPool pool) {
+    	if(q == null || pool == null) {
+    		throw new NullPointerException("Argument is null");
+    	}
+    	return new SparsePolynomial(SparseMultiplier.multiplyParallel(this.termArrays(), TermArrays.of(q), pool));
+    }
+
+    /**
+     * Returns this polynomial multiplied by c as a view that shares the coefficients of this one, made in constant
+     * time; the scale is applied as the view is read
+     *
+     * Precondition: None
+     * Postcondition: returns a view of c * this
+     *
+     * @param c the constant to multiply by
+     * @return a view of c<code> * this</code>
+     */
+    public ScaledPolynomial scale(int c) {
+    	return ScaledPolynomial.of(this, c, 0);
+    }
+
+    /**
+     * Returns this polynomial multiplied by x^k as a view that shares the coefficients of this one, made in constant
+     * time; the shift is applied as the view is read
+     *
+     * Precondition: every exponent plus k fits an int
+     * Postcondition: returns a view of x^k * this
+     *
+     * @param k the power of x to multiply by, which may be negative
+     * @return a view of x^k<code> * this</code>
+     * @throws IllegalArgumentException if an exponent of the result does not fit an int
+     */
+    public ScaledPolynomial shift(int k) {
+    	return ScaledPolynomial.of(this, 1, k);
+    }
+
+    /**
+     * Returns this polynomial multiplied by c * x^k as a view that shares the coefficients of this one, made in
+     * constant time; the scale and shift are applied as the view is read
+     *
+     * Precondition: every exponent plus k fits an int
+     * Postcondition: returns a view of c * x^k * this
+     *
+     * @param c the constant to multiply by
+     * @param k the power of x to multiply by, which may be negative
+     * @return a view of c * x^k<code> * this</code>
+     * @throws IllegalArgumentException if an exponent of the result does not fit an int
+     */
+    public ScaledPolynomial scaleAndShift(int c, int k) {
+    	return ScaledPolynomial.of(this, c, k);
+    }
+
+    /**
+     * Returns the terms of the product of the current instance and q one at a time, highest exponent first, without
+     * building the product.  The iterator merges the rows of term products through a heap with at most one entry per
+     * term of the shorter operand, so a caller that stops after k terms pays about O(k log m) and memory proportional
+     * to the operands rather than to the product.  Terms that cancel are skipped.  Neither the current instance nor
+     * the parameter are modified.
+     *
+     * Precondition: q is not null and every exponent of the product fits in an int
+     * Postcondition: returns an iterator over the non-zero terms of this * q in descending order of exponent, packed
+     * with Terms.pack
+     *
+     * @param q the non-null polynomial to multiply to <code>this</code>
+     * @return an iterator over the terms of <code>this * </code>q, highest exponent first
+     * @throws NullPointerException if q is null
+     * @throws IllegalArgumentException if an exponent of the product does not fit in an int
+     */
+    public PrimitiveIterator.OfLong productTerms(Polynomial q) {
+    	if(q == null) {
+    		throw new NullPointerException("Argument is null");
+    	}
+    	TermArrays a = this.termArrays();
+    	TermArrays b = TermArrays.of(q);
+    	if(a.size() > 0 && b.size() > 0) {
+    		long low = (long) a.exponents[0] + b.exponents[0];
+    		long high = (long) a.exponents[a.size() - 1] + b.exponents[b.size() - 1];
+    		if(low < Integer.MIN_VALUE || high > Integer.MAX_VALUE) {
+    			throw new IllegalArgumentException("The exponents of the product do not fit in an int");
+    		}
+    	}
+    	return new ProductTermIterator(a, b);
+    }
+
+    /**
+     * Returns the k terms of highest degree of the product of the current instance and q, taken from productTerms, so
+     * the rest of the product is never computed.  multiplyTop(q, 1) is the leading term of the product, whose
+     * coefficient is its leading coefficient.  Neither the current instance nor the parameter are modified.
+     *
+     * Precondition: q is not null, k is not negative and every exponent of the product fits in an int
+     * Postcondition: returns the min(k, number of terms) non-zero terms of this * q of highest degree
+     *
+     * @param q the non-null polynomial to multiply to <code>this</code>
+     * @param k the number of terms to keep
+     * @return the k leading terms of <code>this * </code>q
+     * @throws NullPointerException if q is null
+     * @throws IllegalArgumentException if k is negative or an exponent of the product does not fit in an int
+     */
+    public SparsePolynomial multiplyTop(Polynomial q, int k) {
+    	if(k < 0) {
+    		throw new IllegalArgumentException("The number of terms is negative");
+    	}
+    	PrimitiveIterator.OfLong terms = productTerms(q);
+    	int[] exponents = new int[Math.min(k, 16)];
+    	int[] coefficients = new int[exponents.length];
+    	int n = 0;
+    	while(n < k && terms.hasNext()) {
+    		long term = terms.nextLong();
+    		if(n == exponents.length) {
+    			exponents = Arrays.copyOf(exponents, (int) Math.min(k, 2L * n));
+    			coefficients = Arrays.copyOf(coefficients, exponents.length);
+    		}
+    		exponents[n] = Terms.exponent(term);
+    		coefficients[n++] = Terms.coefficient(term);
+    	}
+    	int[] ascendingExponents = new int[n];
+    	int[] ascendingCoefficients = new int[n];
+    	for(int i = 0; i < n; i++) {
+    		ascendingExponents[i] = exponents[n - 1 - i];
+    		ascendingCoefficients[i] = coefficients[n - 1 - i];
+    	}
+    	return new SparsePolynomial(new TermArrays(ascendingExponents, ascendingCoefficients));
     }
 
     /**
      * Returns a polynomial by subtracting the parameter to the current instance. Neither the current instance nor the
      * parameter are modified.
      *
+     * The sorted terms of both operands are merged in one linear pass and terms that cancel are dropped.
+     *
      * Precondition: q is not null
      * Postcondition: returns a polynomial representing the difference of this - q
      *
@@ -250,29 +538,7 @@ public class SparsePolynomial implements Polynomial {
 			throw new NullPointerException("Argument is null");
 		}
 
-		SparsePolynomial s;
-
-		if (q instanceof DensePolynomial) {
-			DensePolynomial d = (DensePolynomial) q;
-			s = convertToSparse(d);
-			
-		} 
-		else {
-			s = (SparsePolynomial) q;
-		}
-		
-		@SuppressWarnings("unchecked")
-		TreeMap<Integer, Integer> map1 = (TreeMap<Integer, Integer>) this.map.clone();
-		@SuppressWarnings("unchecked")
-		TreeMap<Integer, Integer> map2 = (TreeMap<Integer, Integer>) s.map.clone();  
-		
-		NavigableSet<Integer> keyset = map2.navigableKeySet();
-		
-		for(int key: keyset) {
-			map1.put(key, map1.getOrDefault(key,0)-map2.get(key));
-		}
-		
-		return new SparsePolynomial(map1);
+		return new SparsePolynomial(TermArrays.merge(this.termArrays(), TermArrays.of(q), true));
     }
     
     /**
@@ -296,9 +562,54 @@ public class SparsePolynomial implements Polynomial {
     	return new SparsePolynomial(newMap);
     }
 
+    /**
+     * Evaluates the polynomial at a point using Horner's rule over the stored terms, jumping over the missing degrees
+     * with Math.pow
+     * Precondition: None
+     * Postcondition: returns the value of the polynomial at x
+     * @param x the point at which to evaluate
+     * @return the value of the polynomial at x
+     */
+    @Override
+    public double evaluate(double x) {
+    	double value = 0;
+    	int previous = degree;
+    	for(Map.Entry<Integer,Integer> term: map.descendingMap().entrySet()) {
+    		value = value * Math.pow(x, previous - term.getKey()) + term.getValue();
+    		previous = term.getKey();
+    	}
+    	return value * Math.pow(x, previous);
+    }
+
+    /**
+     * Estimates the heap taken by this polynomial: the map, at about 40 bytes an entry plus the boxed exponents and
+     * coefficients outside the Integer cache, the string it was parsed from and the term arrays, once they are built
+     * Precondition: None
+     * Postcondition: returns the estimated size in bytes
+     *
+     * @return the estimated size in bytes
+     */
+    @Override
+    public long estimatedBytes() {
+        return Footprint.object(21) + Footprint.treeMap(map) + Footprint.string(input) + Footprint.termArrays(terms);
+    }
+
+    /**
+     * Estimates the heap a SparsePolynomial with the terms of p would take, including the term arrays it keeps,
+     * reading the terms of p without copying them
+     *
+     * @param p the polynomial whose terms are sized
+     * @return the estimated size in bytes
+     */
+    static long estimatedBytes(Polynomial p) {
+        Footprint.TermCount terms = Footprint.count(p);
+        return Footprint.object(21) + Footprint.treeMap(terms) + Footprint.termArrays(terms.count);
+    }
+
     /**
      * Checks the input string to make sure that we are given a string that contains a valid canonical string as well
-     * as makes sure that invariant holds true that both the coefficients and degrees are all integers
+     * as makes sure that invariant holds true that both the coefficients and degrees are all integers.  For a polynomial
+     * that was not created from a string, checks that the map holds no zero coefficient
      * Precondition: None
      *
      * PostCondition: returns true if class invariant holds and canonical string can be formed else returns false
@@ -308,104 +619,17 @@ public class SparsePolynomial implements Polynomial {
      */
     @Override
     public boolean wellFormed() {
-        if(isValid(input) == false)
-            return false;
-        
-        if(input.equals("0")) {
-        	return true; 
+        if(input == null) {
+            return !map.containsValue(0);
         }
 
-        input = input.replace(" - ", " + -");
-        String[] terms = input.split("\\+");
-
-        ArrayList<Integer> coefficients = new ArrayList<Integer>();
-        ArrayList<Integer> degrees = new ArrayList<Integer>();
-
-        for(String term: terms) {
-            term = term.strip();
-            if(term.contains("x^")) {
-                if(term.charAt(0) == 'x') {
-                    term = term.replace("x^", "");
-                    int degree = Integer.parseInt(term);
-                    coefficients.add(1);
-                    degrees.add(degree);
-
-                }
-                else {
-                    String[] nums = term.split("x\\^");
-                    int coefficient = Integer.parseInt(nums[0]);
-                    int degree = Integer.parseInt(nums[1]);
-                    coefficients.add(coefficient);
-                    degrees.add(degree);
-                }
-
-            }
-
-            else if(term.contains("x")) {
-                if(term.equals("x")) {
-                    coefficients.add(1);
-                    degrees.add(1);
-                }
-                else if(term.equals("-x")){
-                    coefficients.add(-1);
-                    degrees.add(1);
-                }
-                else {
-                    String[] nums = term.split("x");
-                    int coefficient = Integer.parseInt(nums[0]);
-                    coefficients.add(coefficient);
-                    degrees.add(1);
-                }
-            }
-            else {
-                int coefficient = Integer.parseInt(term);
-                coefficients.add(coefficient);
-                degrees.add(0);
-            }
+        try {
+            PolynomialParser.parse(input, true);
+            return true;
         }
-
-
-        //if coefficients contains a 0 then we are not in canonical form
-        if(coefficients.contains(0)) {
+        catch(IllegalArgumentException e) {
             return false;
         }
-
-        //check if the degrees are in descending order
-        for(int i = 0; i < degrees.size()-1; i++) {
-            if(degrees.get(i) < degrees.get(i+1)) {
-                return false;
-            }
-        }
-
-
-        return true;
-
-    }
-
-    /**
-     * Checks the input string to make sure that we are not given a string that contains any characters that would not result
-     * in a valid polynomial expression. Any characters besides digits, plus, minus, the letter x, ^, or a space would result in
-     * an invalid expression
-     * Precondition: None
-     * Postcondition: Returns false if String would not represent a valid polynomial expression else returns true
-     * @param s the canonical string representation of a polynomial
-     */
-    private boolean isValid(String s) {
-        char[] chSearch = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', '+', '-', '^', 'x', ' '};
-        for (int i = 0; i < s.length(); i++) {
-            char ch = s.charAt(i);
-            boolean isPresent = false;
-            for (int j = 0; j < chSearch.length; j++) {
-                if (chSearch[j] == ch) {
-                    isPresent = true;
-                }
-            }
-            if(isPresent == false) {
-                return false;
-            }
-
-        }
-        return true;
     }
 
     /**
@@ -416,98 +640,172 @@ public class SparsePolynomial implements Polynomial {
      */
     @Override
     public String toString() {
-    	String s = "";
-    	ArrayList<String> terms = new ArrayList<String>();
-
-        if(this.isZero()){
+        if(zero){
             return "0";
         }
-    	
-    	NavigableSet<Integer> degrees = map.navigableKeySet();
-    	for(Integer degree: degrees) {
-    		String term = "";
-    		if(degree == 0) {
-    			term += map.get(degree);
-    		}
-    		else if(degree == 1) {
-    			if(map.get(degree) == 1) {
-    				term += "x";
-    			}
-    			else {
-    				term += map.get(degree) + "x";
-    			}
-    		}
-    		else {
-    			if(map.get(degree) == 1) {
-    				term += "x^" + degree;
-    			}
-    			else {
-    				term += map.get(degree) + "x^" + degree;
-    			}
+
+    	StringBuilder s = new StringBuilder();
+    	for(Map.Entry<Integer,Integer> term: map.descendingMap().entrySet()) {
+    		if(s.length() > 0) {
+    			s.append(" + ");
     		}
-    		terms.add(term);
-    	}
-    	
-    	for(int i=terms.size()-1; i>0; i--) {
-    		s += terms.get(i) + " + ";
+    		Terms.appendTerm(s, term.getKey(), term.getValue());
     	}
-    	
-    	s += terms.get(0);
-    	
-    		
-    	return s; 
+    	return s.toString(); 
     }
     
     /**
-     * Equals method overrode from the object class checks if the polynomials have the same coefficients and exponents
-     *Precondition: o must be instance of SparsePolynomial
+     * Equals method overrode from the object class checks if the polynomials have the same coefficients and exponents.
+     * Any Polynomial can be compared, whatever its representation, without converting either one.
+     *Precondition: None
      *Postcondition: return true if this and o represent same polynomial
-     * @return true if the two polynomial objects represent the same polynomial 
-     * @throws IllegalArgumentException if object is not instance of SparsePolynomial
+     * @return true if o is a Polynomial with the same terms as this one, false otherwise
      */ 
     
     @Override 
     public boolean equals(Object o) {
-    	if(!(o instanceof SparsePolynomial)) {
-    		throw new IllegalArgumentException("Object is not a SparsePolynomial");
+    	if(o == this) {
+    		return true;
     	}
-    	
-    	SparsePolynomial other = (SparsePolynomial) o;
-    	
-    	return this.map.equals(other.map);
-    	
-    	
+    	if(!(o instanceof Polynomial) || o.hashCode() != hash) {
+    		return false;
+    	}
+    	if(o instanceof SparsePolynomial) {
+    		return this.map.equals(((SparsePolynomial) o).map);
+    	}
+    	if(o instanceof DensePolynomial) {
+    		return o.equals(this);
+    	}
+    	return Terms.sameTerms(this, (Polynomial) o);
+    }
+
+    /**
+     * Returns the hash code computed at construction.  It is the sum of Terms.hash over the terms, so it only depends on
+     * the terms of the polynomial.
+     *
+     * Precondition: None
+     * Postcondition: returns the same value for polynomials that are equal
+     *
+     * @return the hash code of this polynomial
+     */
+    @Override
+    public int hashCode() {
+    	return hash;
+    }
+
+    /**
+     * Computes the hash code of a map of terms
+     *
+     * @param map the map from degrees to non-zero coefficients
+     * @return the sum of Terms.hash over the entries of the map
+     */
+    private static int hashTerms(TreeMap<Integer,Integer> map) {
+    	int h = 0;
+    	for(Map.Entry<Integer,Integer> term: map.entrySet()) {
+    		h += Terms.hash(term.getKey(), term.getValue());
+    	}
+    	return h;
     }
     
     /**
-     * Getter method which returns the map of the polynomial object
+     * Getter method which returns a read-only view of the map of the polynomial object.  No copy is made.
      * Precondition: None
-     * Postcondition: Returns map of polynomial object
+     * Postcondition: Returns an unmodifiable view of the map of polynomial object
      * @return the map with coefficients and degrees as key value pairs  
      * 
      */  
-    public TreeMap<Integer,Integer> getMap(){
-    	return map; 
+    public NavigableMap<Integer,Integer> getMap(){
+    	return Collections.unmodifiableNavigableMap(map); 
+    }
+
+    /**
+     * Copies the coefficients of degrees from, from + 1, ..., from + dst.length - 1 into dst.  Degrees without a term
+     * are written as 0.
+     *
+     * Precondition: dst is not null
+     * Postcondition: dst[i] holds getCoefficient(from + i) for every index i of dst
+     *
+     * @param dst the array to fill
+     * @param from the degree of the coefficient written to dst[0]
+     * @return the number of terms of this polynomial that fell inside the copied range
+     * @throws NullPointerException if dst is null
+     */
+    public int copyCoefficients(int[] dst, int from) {
+    	if(dst == null) {
+    		throw new NullPointerException("Argument is null");
+    	}
+    	Arrays.fill(dst, 0);
+    	long to = (long) from + dst.length;
+    	NavigableMap<Integer,Integer> range = (to > Integer.MAX_VALUE)
+    			? map.tailMap(from, true)
+    			: map.subMap(from, true, (int) to, false);
+    	int copied = 0;
+    	for(Map.Entry<Integer,Integer> term: range.entrySet()) {
+    		dst[term.getKey() - from] = term.getValue();
+    		copied++;
+    	}
+    	return copied;
     }
     
 
     
     /**
-     * Converts an instance of a densepolynomial object into a sparsepolynomial object
+     * Returns a spliterator over the non-zero terms in ascending order of degree.  The terms are copied out of the map
+     * into arrays once on first use and shared by every later call, so the spliterator knows its exact size at every
+     * split, which a TreeMap spliterator does not.
+     *
      * Precondition: None
-     * Postcondition: returns instance of a sparsepolynomial object representing the
-     * same polynomial as the original densepolynomial
-     * @return SparePolynomial representation of our instance 
-     * 
+     * Postcondition: returns a SIZED and SUBSIZED spliterator over the non-zero terms, packed with Terms.pack
+     *
+     * @return a spliterator over the non-zero terms
+     */
+    @Override
+    public Spliterator.OfLong termSpliterator() {
+    	return termArrays().spliterator();
+    }
+
+    /**
+     * Passes every non-zero term to action in ascending order of degree, walking the map directly.
+     *
+     * Precondition: action is not null
+     * Postcondition: action has been called once for each non-zero term
+     *
+     * @param action the operation to perform on each term
+     * @throws NullPointerException if action is null
+     */
+    @Override
+    public void forEachTerm(IntIntConsumer action) {
+    	if(action == null) {
+    		throw new NullPointerException("Argument is null");
+    	}
+    	for(Map.Entry<Integer,Integer> term: map.entrySet()) {
+    		action.accept(term.getKey(), term.getValue());
+    	}
+    }
+
+    /**
+     * Returns the non-zero terms as parallel arrays, building them on first use and keeping them for the lifetime of
+     * the polynomial, as the class comment explains.  Racing threads may each build a copy, but the copies are
+     * identical and TermArrays is immutable, so whichever one is kept is safe to share.
+     *
+     * @return the non-zero terms of this polynomial
      */
-    private SparsePolynomial convertToSparse(DensePolynomial d) {
-    	int[] coefficients = d.getCoefficients();  
-    	TreeMap<Integer,Integer> map = new TreeMap<Integer,Integer>();
-    	for(int i = 0; i < coefficients.length; i++) {
-    		if(coefficients[i] != 0)
-    			map.put(i, coefficients[i]);
+    @Override
+    public TermArrays termArrays() {
+    	TermArrays t = terms;
+    	if(t == null) {
+    		int[] exponents = new int[map.size()];
+    		int[] values = new int[map.size()];
+    		int k = 0;
+    		for(Map.Entry<Integer,Integer> term: map.entrySet()) {
+    			exponents[k] = term.getKey();
+    			values[k] = term.getValue();
+    			k++;
+    		}
+    		t = new TermArrays(exponents, values);
+    		terms = t;
     	}
-    	return new SparsePolynomial(map);
+    	return t;
     }
     
 }
@@ -1,6 +1,15 @@
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class SparsePolynomialTest {
@@ -94,6 +103,89 @@ class SparsePolynomialTest {
         assertThrows(NullPointerException.class, () -> sparsePolynomial1.multiply(nullPolynomial));
     }
 
+    @Test
+    void testMultiplyParallel() {
+        Random random = new Random(38);
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            //testing spread-out exponents, closely packed exponents and products that cancel
+            int[][] shapes = {{260, 1000000}, {260, 2500}, {500, 40}};
+            for(int[] shape: shapes) {
+                SparsePolynomial.Builder p = SparsePolynomial.builder();
+                SparsePolynomial.Builder q = SparsePolynomial.builder();
+                for(int k = 0; k < shape[0]; k++) {
+                    p.addTerm(random.nextInt(shape[1]) - shape[1] / 2, random.nextInt());
+                    q.addTerm(random.nextInt(shape[1]) - shape[1] / 3, random.nextInt(7) - 3);
+                }
+                SparsePolynomial a = p.build();
+                SparsePolynomial b = q.build();
+                TreeMap<Integer,Integer> expected = new TreeMap<Integer,Integer>();
+                a.forEachTerm((e1, c1) -> b.forEachTerm((e2, c2) -> expected.merge(e1 + e2, c1 * c2, Integer::sum)));
+                expected.values().removeIf(value -> value == 0);
+
+                assertEquals(expected, a.multiplyParallel(b, pool).getMap());
+                assertEquals(expected, ((SparsePolynomial) a.multiply(b)).getMap());
+                assertEquals(a.multiply(b), b.multiplyParallel(a));
+            }
+
+            //testing that a dense operand is accepted and null is rejected
+            SparsePolynomial s = new SparsePolynomial("4x^3 + x^-1");
+            assertEquals(new SparsePolynomial("4x^4 + 4x^3 + 1 + x^-1"), s.multiplyParallel(new DensePolynomial("x + 1")));
+            assertThrows(NullPointerException.class, () -> s.multiplyParallel(null));
+            assertThrows(NullPointerException.class, () -> s.multiplyParallel(s, null));
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testProductTerms() {
+        Random random = new Random(49);
+        SparsePolynomial.Builder p = SparsePolynomial.builder();
+        SparsePolynomial.Builder q = SparsePolynomial.builder();
+        for(int k = 0; k < 2000; k++) {
+            p.addTerm(random.nextInt(100000) - 50000, random.nextInt(9) - 4);
+            q.addTerm(random.nextInt(3000), random.nextInt(9) - 4);
+        }
+        SparsePolynomial a = p.build();
+        SparsePolynomial b = q.build();
+        SparsePolynomial product = (SparsePolynomial) a.multiply(b);
+
+        //testing that the lazy terms are the terms of the product, highest exponent first
+        PrimitiveIterator.OfLong terms = a.productTerms(b);
+        for(Map.Entry<Integer,Integer> term: product.getMap().descendingMap().entrySet()) {
+            assertTrue(terms.hasNext());
+            long next = terms.nextLong();
+            assertEquals((int) term.getKey(), Terms.exponent(next));
+            assertEquals((int) term.getValue(), Terms.coefficient(next));
+        }
+        assertFalse(terms.hasNext());
+        assertThrows(NoSuchElementException.class, terms::nextLong);
+        assertEquals(product, b.multiplyTop(a, Integer.MAX_VALUE));
+
+        //testing the k leading terms, terms that cancel and the leading coefficient
+        SparsePolynomial top = a.multiplyTop(b, 10);
+        assertEquals(10, top.getMap().size());
+        assertEquals(product.degree(), top.degree());
+        assertEquals(product.getMap().tailMap(top.getMap().firstKey()), top.getMap());
+        assertEquals(new SparsePolynomial("x^2 + -1"), new SparsePolynomial("x + 1").multiplyTop(new SparsePolynomial("x + -1"), 3));
+        assertEquals(new SparsePolynomial("-1"), new SparsePolynomial("65536x + 1").multiplyTop(new SparsePolynomial("65536x + -1"), 1));
+        assertTrue(a.multiplyTop(b, 0).isZero());
+        assertTrue(a.multiplyTop(new SparsePolynomial("0"), 5).isZero());
+        assertThrows(IllegalArgumentException.class, () -> a.multiplyTop(b, -1));
+        assertThrows(IllegalArgumentException.class, () -> new SparsePolynomial("x^2147483647").productTerms(new SparsePolynomial("x")));
+        assertThrows(NullPointerException.class, () -> a.productTerms(null));
+    }
+
+    @Test
+    void testEvaluate() {
+        //testing evaluation over gaps and negative exponents
+        assertEquals(2.0 * Math.pow(2, 40) + 3 + 4 / 8.0, new SparsePolynomial("2x^40 + 3 + 4x^-3").evaluate(2), 1e-3);
+        assertEquals(0.25, new SparsePolynomial("x^-2").evaluate(2), 1e-12);
+        assertEquals(0.0, new SparsePolynomial("0").evaluate(2), 1e-12);
+    }
+
     @Test
     void testSubtract() {
         SparsePolynomial sparsePolynomial1 = new SparsePolynomial("12x^4 + 8x^3 + 5x^2 + 2x + 7 + 4x^-3");
@@ -129,6 +221,187 @@ class SparsePolynomialTest {
 
         //test zero polynomial
         assertEquals(zeroPolynomial, zeroPolynomial.minus());
+
+        //test that negating does not modify the original polynomial
+        assertEquals(new SparsePolynomial("4x^2 + 8x + 2 + 4x^-5"), sparsePolynomial1);
+    }
+
+    @Test
+    void testReadOnlyAccessors() {
+        SparsePolynomial sparsePolynomial = new SparsePolynomial("4x^3 + 8x + 2 + 5x^-2");
+
+        //test that the map view cannot be used to change the polynomial
+        assertThrows(UnsupportedOperationException.class, () -> sparsePolynomial.getMap().put(0, 99));
+        assertEquals(2, sparsePolynomial.getCoefficient(0));
+
+        //test bulk copying a range that includes negative degrees
+        int[] dst = {7, 7, 7, 7};
+        assertEquals(3, sparsePolynomial.copyCoefficients(dst, -2));
+        assertArrayEquals(new int[]{5, 0, 2, 8}, dst);
+    }
+
+    @Test
+    void testSum() {
+        SparsePolynomial sparsePolynomial1 = new SparsePolynomial("x^2 + 3x + 4x^-1");
+        SparsePolynomial sparsePolynomial2 = new SparsePolynomial("-1x^2 + 5");
+        DensePolynomial densePolynomial = new DensePolynomial("2x^3 + -3x");
+
+        //test that summing several polynomials of both kinds drops the terms that cancel
+        SparsePolynomial sum = SparsePolynomial.sum(sparsePolynomial1, sparsePolynomial2, densePolynomial, sparsePolynomial1);
+        assertEquals(new SparsePolynomial("2x^3 + x^2 + 3x + 5 + 8x^-1"), sum);
+
+        //test that x^2 - x^2 does not leave a zero coefficient behind
+        assertTrue(((SparsePolynomial) new SparsePolynomial("x^2").subtract(new SparsePolynomial("x^2"))).getMap().isEmpty());
+
+        //test that an empty sum is the zero polynomial
+        assertTrue(SparsePolynomial.sum().isZero());
+
+        //test that a null operand throws null pointer exception
+        assertThrows(NullPointerException.class, () -> SparsePolynomial.sum(sparsePolynomial1, null));
+
+        //test an operand whose term spliterator does not know its size
+        SparsePolynomial many = SparsePolynomial.fromTerms(new int[]{-40, -3, 0, 7, 20, 21, 22, 23, 24, 25, 26, 27, 28,
+                29, 30, 31, 32, 33}, new int[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18});
+        assertEquals(many.add(sparsePolynomial2), SparsePolynomial.sum(new Unsized(many), sparsePolynomial2));
+        assertEquals(many, new SparsePolynomial("0").add(new Unsized(many)));
+        assertTrue(SparsePolynomial.sum(new Unsized(new SparsePolynomial("0"))).isZero());
+    }
+
+    /**
+     * A polynomial that is not one of the library's representations and whose term spliterator does not report a size
+     */
+    private static final class Unsized implements Polynomial {
+        private final Polynomial p;
+
+        Unsized(Polynomial p) {
+            this.p = p;
+        }
+
+        public int degree() {
+            return p.degree();
+        }
+
+        public int getCoefficient(int d) {
+            return p.getCoefficient(d);
+        }
+
+        public boolean isZero() {
+            return p.isZero();
+        }
+
+        public Polynomial add(Polynomial q) {
+            return p.add(q);
+        }
+
+        public Polynomial multiply(Polynomial q) {
+            return p.multiply(q);
+        }
+
+        public Polynomial subtract(Polynomial q) {
+            return p.subtract(q);
+        }
+
+        public Polynomial minus() {
+            return p.minus();
+        }
+
+        public long estimatedBytes() {
+            return p.estimatedBytes();
+        }
+
+        public boolean wellFormed() {
+            return p.wellFormed();
+        }
+
+        public Spliterator.OfLong termSpliterator() {
+            return Spliterators.spliteratorUnknownSize(p.terms().iterator(), Spliterator.ORDERED | Spliterator.NONNULL);
+        }
+    }
+
+    @Test
+    void testParseParallel() {
+        StringBuilder builder = new StringBuilder();
+        for(int degree = 30000; degree > -30000; degree -= 3) {
+            builder.append(degree % 7 + 8).append("x^").append(degree).append(" - ");
+        }
+        builder.append("1x^-30000");
+        String large = builder.toString();
+
+        //test that parsing a long string in parallel agrees with the sequential constructor
+        SparsePolynomial parallel = SparsePolynomial.parseParallel(large);
+        assertEquals(new SparsePolynomial(large), parallel);
+        assertEquals(30000, parallel.degree());
+        assertEquals(-1, parallel.getCoefficient(-30000));
+
+        //test that exponents out of order are rejected even when the bad pair is far from the start of the string
+        assertThrows(IllegalArgumentException.class, () -> SparsePolynomial.parseParallel(large.replace("x^3 - ", "x^9999 - ")));
+    }
+
+    @Test
+    void testFactories() {
+        SparsePolynomial expected = new SparsePolynomial("3x^400 + -2x + 7 + x^-5");
+
+        //test building from sorted terms, with and without handing over the arrays
+        assertEquals(expected, SparsePolynomial.fromTerms(new int[]{-5, 0, 1, 400}, new int[]{1, 7, -2, 3}));
+        assertEquals(expected, SparsePolynomial.fromTerms(new int[]{-5, 0, 1, 400}, new int[]{1, 7, -2, 3}, true));
+
+        //test building from unordered terms with a repeated exponent and a cancelled term
+        assertEquals(expected, SparsePolynomial.fromTerms(new int[]{400, 1, -5, 0, 1, 9, 9}, new int[]{3, -5, 1, 7, 3, 4, -4}));
+
+        //test building from a coefficient array
+        assertEquals(new SparsePolynomial("3x^4 + -2x + 7"), SparsePolynomial.fromCoefficients(new int[]{7, -2, 0, 0, 3}));
+
+        //test the builder with terms added out of order
+        SparsePolynomial.Builder builder = SparsePolynomial.builder().addTerm(1, -2).addTerm(400, 3).addTerm(-5, 1).addTerm(0, 7);
+        assertEquals(expected, builder.build());
+        assertTrue(builder.build().wellFormed());
+
+        //test that mismatched arrays throw illegal argument exception
+        assertThrows(IllegalArgumentException.class, () -> SparsePolynomial.fromTerms(new int[]{1, 2}, new int[]{1}));
+        assertThrows(NullPointerException.class, () -> SparsePolynomial.fromTerms(null, new int[]{1}));
+    }
+
+    @Test
+    void testNormalized() {
+        SparsePolynomial sparsePolynomial1 = new SparsePolynomial("3x^5 + 2x^4 + x + x^-2");
+        SparsePolynomial sparsePolynomial2 = new SparsePolynomial("3x^5 + 2x^4 + -7");
+
+        //test that cancelling terms removes them from the map and lowers the degree
+        SparsePolynomial diff = (SparsePolynomial) sparsePolynomial1.subtract(sparsePolynomial2);
+        assertEquals(1, diff.degree());
+        assertEquals(3, diff.getMap().size());
+        assertEquals(new SparsePolynomial("x + 7 + x^-2"), diff);
+        assertEquals(new SparsePolynomial("x + 7 + x^-2").hashCode(), diff.hashCode());
+
+        //test that cancelling every term leaves an empty map
+        SparsePolynomial zero = (SparsePolynomial) sparsePolynomial1.subtract(sparsePolynomial1);
+        assertTrue(zero.isZero());
+        assertEquals(0, zero.degree());
+        assertTrue(zero.getMap().isEmpty());
+        assertEquals(new SparsePolynomial("0"), zero);
+    }
+
+    @Test
+    void testTerms() {
+        SparsePolynomial sparsePolynomial = new SparsePolynomial("8x^1234567 + 3x^12345 + -2x + 4x^-3");
+
+        //test that forEachTerm visits only the stored terms in ascending order of degree
+        StringBuilder visited = new StringBuilder();
+        sparsePolynomial.forEachTerm((exponent, coefficient) -> visited.append(exponent).append(':').append(coefficient).append(' '));
+        assertEquals("-3:4 1:-2 12345:3 1234567:8 ", visited.toString());
+
+        //test that the term spliterator is sized and splits exactly
+        Spliterator.OfLong spliterator = sparsePolynomial.termSpliterator();
+        assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED));
+        assertEquals(4, spliterator.getExactSizeIfKnown());
+        assertEquals(2, spliterator.trySplit().getExactSizeIfKnown());
+
+        //test that a parallel stream of terms sees every coefficient
+        assertEquals(13, sparsePolynomial.terms().parallel().mapToInt(Terms::coefficient).sum());
+        assertEquals(-3, sparsePolynomial.terms().mapToInt(Terms::exponent).min().getAsInt());
+
+        //test that the zero polynomial has no terms
+        assertEquals(0, new SparsePolynomial("0").terms().count());
     }
 
     /* SparsePolynomial constructor uses wellFormed() to make sure invariants are true (exponents and
@@ -164,8 +437,18 @@ class SparsePolynomialTest {
         assertTrue(sparsePolynomial1.equals(sum));
 
         DensePolynomial densePolynomial1 = new DensePolynomial("4x^2 + 8x + -2");
-        //test that illegal argument exception if we are not given instance of sparse polynomial
-        assertThrows(IllegalArgumentException.class, () -> sparsePolynomial1.equals(densePolynomial1));
+        //test that a sparse polynomial with a negative exponent never equals a dense polynomial
+        assertFalse(sparsePolynomial1.equals(densePolynomial1));
+
+        //test that sparse and dense polynomials with the same terms are equal, in both directions
+        SparsePolynomial sparsePolynomial3 = new SparsePolynomial("4x^2 + 8x + -2");
+        assertTrue(sparsePolynomial3.equals(densePolynomial1));
+        assertTrue(densePolynomial1.equals(sparsePolynomial3));
+        assertEquals(sparsePolynomial3.hashCode(), densePolynomial1.hashCode());
+
+        //testing that terms cancelled by arithmetic do not affect equality
+        assertTrue(new SparsePolynomial("x^5 + 1").subtract(new SparsePolynomial("x^5")).equals(new DensePolynomial("1")));
+        assertTrue(new DensePolynomial("1").equals(new SparsePolynomial("x^5 + 1").subtract(new SparsePolynomial("x^5"))));
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,313 @@
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.TreeMap;
+import java.util.function.LongConsumer;
+
+/**
+ * The non-zero terms of a polynomial laid out as two parallel arrays sorted by ascending exponent.  Both
+ * DensePolynomial and SparsePolynomial build one lazily and use it as the source of their term spliterators, which is
+ * what lets those spliterators report an exact size for every split.
+ */
+final class TermArrays {
+    final int[] exponents;
+    final int[] coefficients;
+
+    /**
+     * Precondition: both arrays have the same length, exponents are strictly ascending and no coefficient is zero
+     * Postcondition: Creates an instance that takes ownership of both arrays
+     *
+     * @param exponents the exponents in ascending order
+     * @param coefficients the coefficient of each exponent
+     */
+    TermArrays(int[] exponents, int[] coefficients) {
+        this.exponents = exponents;
+        this.coefficients = coefficients;
+    }
+
+    /**
+     * Returns the non-zero terms of any polynomial.  A TermSource hands back the arrays it keeps or builds itself, and
+     * any other polynomial is drained from its term spliterator into arrays that grow as needed.
+     *
+     * Precondition: p is not null
+     * Postcondition: returns the terms of p in ascending order of exponent
+     *
+     * @param p the polynomial whose terms are returned
+     * @return the non-zero terms of p
+     */
+    static TermArrays of(Polynomial p) {
+        if(p instanceof TermSource) {
+            return ((TermSource) p).termArrays();
+        }
+        Spliterator.OfLong spliterator = p.termSpliterator();
+        long size = spliterator.getExactSizeIfKnown();
+        int[][] arrays = new int[2][(size >= 0) ? (int) size : 16];
+        int[] k = {0};
+        spliterator.forEachRemaining((long term) -> {
+            if(k[0] == arrays[0].length) {
+                int grown = Math.max(16, 2 * k[0]);
+                arrays[0] = Arrays.copyOf(arrays[0], grown);
+                arrays[1] = Arrays.copyOf(arrays[1], grown);
+            }
+            arrays[0][k[0]] = Terms.exponent(term);
+            arrays[1][k[0]] = Terms.coefficient(term);
+            k[0]++;
+        });
+        if(k[0] < arrays[0].length) {
+            return new TermArrays(Arrays.copyOf(arrays[0], k[0]), Arrays.copyOf(arrays[1], k[0]));
+        }
+        return new TermArrays(arrays[0], arrays[1]);
+    }
+
+    /**
+     * Builds term arrays from the first length entries of two parallel arrays given in any order.  Input that is already
+     * strictly ascending with no zero coefficients is used as is, without copying when the caller hands over ownership
+     * and length covers the whole arrays.  Anything else is sorted, duplicate exponents are summed and zero
+     * coefficients are dropped.
+     *
+     * Precondition: exponents and coefficients are not null and both hold at least length entries
+     * Postcondition: returns the normalized terms described by the input
+     *
+     * @param exponents the exponent of each term
+     * @param coefficients the coefficient of each term
+     * @param length the number of entries to read
+     * @param takeOwnership whether the arrays may be kept instead of copied
+     * @return the normalized terms
+     */
+    static TermArrays normalize(int[] exponents, int[] coefficients, int length, boolean takeOwnership) {
+        boolean normalized = true;
+        for(int i = 0; i < length && normalized; i++) {
+            normalized = coefficients[i] != 0 && (i == 0 || exponents[i - 1] < exponents[i]);
+        }
+        if(normalized) {
+            if(takeOwnership && length == exponents.length && length == coefficients.length) {
+                return new TermArrays(exponents, coefficients);
+            }
+            return new TermArrays(Arrays.copyOf(exponents, length), Arrays.copyOf(coefficients, length));
+        }
+
+        long[] packed = new long[length];
+        for(int i = 0; i < length; i++) {
+            packed[i] = Terms.pack(exponents[i], coefficients[i]);
+        }
+        Arrays.sort(packed);
+
+        int[] sortedExponents = new int[length];
+        int[] sortedCoefficients = new int[length];
+        int k = 0;
+        int i = 0;
+        while(i < length) {
+            int exponent = Terms.exponent(packed[i]);
+            int coefficient = 0;
+            while(i < length && Terms.exponent(packed[i]) == exponent) {
+                coefficient += Terms.coefficient(packed[i]);
+                i++;
+            }
+            if(coefficient != 0) {
+                sortedExponents[k] = exponent;
+                sortedCoefficients[k++] = coefficient;
+            }
+        }
+        if(k < length) {
+            sortedExponents = Arrays.copyOf(sortedExponents, k);
+            sortedCoefficients = Arrays.copyOf(sortedCoefficients, k);
+        }
+        return new TermArrays(sortedExponents, sortedCoefficients);
+    }
+
+    /**
+     * Adds or subtracts two sorted term sequences with a single two-pointer pass.  A first pass counts the surviving
+     * terms so the result arrays are allocated at their exact size, and terms that cancel are dropped.
+     *
+     * Precondition: a and b are not null
+     * Postcondition: returns the terms of a + b, or a - b if subtract is true
+     *
+     * @param a the terms of the left operand
+     * @param b the terms of the right operand
+     * @param subtract whether to subtract b instead of adding it
+     * @return the terms of the sum or difference
+     */
+    static TermArrays merge(TermArrays a, TermArrays b, boolean subtract) {
+        int[] ae = a.exponents, ac = a.coefficients, be = b.exponents, bc = b.coefficients;
+        int sign = subtract ? -1 : 1;
+
+        int count = 0;
+        int i = 0, j = 0;
+        while(i < ae.length && j < be.length) {
+            if(ae[i] < be[j]) {
+                i++;
+                count++;
+            }
+            else if(ae[i] > be[j]) {
+                j++;
+                count++;
+            }
+            else {
+                if(ac[i] + sign * bc[j] != 0) {
+                    count++;
+                }
+                i++;
+                j++;
+            }
+        }
+        count += (ae.length - i) + (be.length - j);
+
+        int[] exponents = new int[count];
+        int[] coefficients = new int[count];
+        int k = 0;
+        i = 0;
+        j = 0;
+        while(i < ae.length && j < be.length) {
+            if(ae[i] < be[j]) {
+                exponents[k] = ae[i];
+                coefficients[k++] = ac[i++];
+            }
+            else if(ae[i] > be[j]) {
+                exponents[k] = be[j];
+                coefficients[k++] = sign * bc[j++];
+            }
+            else {
+                int c = ac[i] + sign * bc[j];
+                if(c != 0) {
+                    exponents[k] = ae[i];
+                    coefficients[k++] = c;
+                }
+                i++;
+                j++;
+            }
+        }
+        while(i < ae.length) {
+            exponents[k] = ae[i];
+            coefficients[k++] = ac[i++];
+        }
+        while(j < be.length) {
+            exponents[k] = be[j];
+            coefficients[k++] = sign * bc[j++];
+        }
+        return new TermArrays(exponents, coefficients);
+    }
+
+    /**
+     * Sums any number of sorted term sequences with a tournament of pairwise merges.  Each round merges neighbouring
+     * pairs, so every term takes part in about log2(k) merges instead of k.
+     *
+     * Precondition: terms is not null and contains no null entries
+     * Postcondition: returns the terms of the sum of every entry of terms
+     *
+     * @param terms the term sequences to add
+     * @return the terms of the sum
+     */
+    static TermArrays sum(TermArrays[] terms) {
+        if(terms.length == 0) {
+            return new TermArrays(new int[0], new int[0]);
+        }
+        TermArrays[] round = terms.clone();
+        int n = round.length;
+        while(n > 1) {
+            int next = 0;
+            for(int i = 0; i + 1 < n; i += 2) {
+                round[next++] = merge(round[i], round[i + 1], false);
+            }
+            if(n % 2 == 1) {
+                round[next++] = round[n - 1];
+            }
+            n = next;
+        }
+        return round[0];
+    }
+
+    /**
+     * Builds a TreeMap holding these terms, inserted in ascending order of exponent
+     *
+     * @return a new TreeMap from exponent to coefficient
+     */
+    TreeMap<Integer,Integer> toTreeMap() {
+        TreeMap<Integer,Integer> map = new TreeMap<Integer,Integer>();
+        for(int i = 0; i < exponents.length; i++) {
+            map.put(exponents[i], coefficients[i]);
+        }
+        return map;
+    }
+
+    /**
+     * @return the number of non-zero terms
+     */
+    int size() {
+        return exponents.length;
+    }
+
+    /**
+     * @return a spliterator over every term, packed with {@link Terms#pack(int, int)}
+     */
+    Spliterator.OfLong spliterator() {
+        return new TermSpliterator(exponents, coefficients, 0, exponents.length);
+    }
+
+    /**
+     * A spliterator over a range of the term arrays.  Splitting halves the remaining range, so every split knows its
+     * exact size and parallel streams divide the work evenly.
+     */
+    private static final class TermSpliterator implements Spliterator.OfLong {
+        private final int[] exponents;
+        private final int[] coefficients;
+        private int index;
+        private final int fence;
+
+        TermSpliterator(int[] exponents, int[] coefficients, int origin, int fence) {
+            this.exponents = exponents;
+            this.coefficients = coefficients;
+            this.index = origin;
+            this.fence = fence;
+        }
+
+        @Override
+        public OfLong trySplit() {
+            int lo = index;
+            int mid = (lo + fence) >>> 1;
+            if(lo >= mid) {
+                return null;
+            }
+            index = mid;
+            return new TermSpliterator(exponents, coefficients, lo, mid);
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            if(action == null) {
+                throw new NullPointerException("Argument is null");
+            }
+            if(index >= fence) {
+                return false;
+            }
+            action.accept(Terms.pack(exponents[index], coefficients[index]));
+            index++;
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(LongConsumer action) {
+            if(action == null) {
+                throw new NullPointerException("Argument is null");
+            }
+            for(int i = index; i < fence; i++) {
+                action.accept(Terms.pack(exponents[i], coefficients[i]));
+            }
+            index = fence;
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SORTED | DISTINCT | NONNULL | IMMUTABLE | SIZED | SUBSIZED;
+        }
+
+        @Override
+        public Comparator<? super Long> getComparator() {
+            return null;
+        }
+    }
+}
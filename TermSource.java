@@ -0,0 +1,13 @@
+/**
+ * A polynomial that keeps, or can build on its own, its non-zero terms as sorted parallel arrays.  TermArrays.of hands
+ * back those arrays instead of draining the term spliterator, so a new representation only has to implement this
+ * interface to take part.
+ */
+interface TermSource {
+    /**
+     * Returns the non-zero terms, which callers must not modify
+     *
+     * @return the non-zero terms in ascending order of exponent
+     */
+    TermArrays termArrays();
+}
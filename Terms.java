@@ -0,0 +1,103 @@
+import java.util.PrimitiveIterator;
+import java.util.Spliterators;
+
+/**
+ * Helpers for the packed term encoding used by {@link Polynomial#terms()}.  A term is packed into a single long with
+ * the exponent in the high 32 bits and the coefficient in the low 32 bits, so that streams of terms never box and the
+ * natural ordering of the packed values matches the ordering of the exponents.
+ */
+public final class Terms {
+
+    private Terms() {
+    }
+
+    /**
+     * Packs a term into a long
+     * Precondition: None
+     * Postcondition: exponent(pack(e, c)) == e and coefficient(pack(e, c)) == c
+     *
+     * @param exponent the exponent of the term
+     * @param coefficient the coefficient of the term
+     * @return the packed term
+     */
+    public static long pack(int exponent, int coefficient) {
+        return ((long) exponent << 32) | (coefficient & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Returns the exponent of a packed term
+     *
+     * @param term a term produced by {@link #pack(int, int)}
+     * @return the exponent of the term
+     */
+    public static int exponent(long term) {
+        return (int) (term >> 32);
+    }
+
+    /**
+     * Returns the coefficient of a packed term
+     *
+     * @param term a term produced by {@link #pack(int, int)}
+     * @return the coefficient of the term
+     */
+    public static int coefficient(long term) {
+        return (int) term;
+    }
+
+    /**
+     * Appends one term in canonical form: "5x^7", "x^7", "3x", "x" or "8".  A coefficient of -1 is written out, as in
+     * "-1x^7", so that the term can be read back by the polynomial constructors.
+     *
+     * @param s the builder to append to
+     * @param exponent the exponent of the term
+     * @param coefficient the non-zero coefficient of the term
+     * @return s
+     */
+    static StringBuilder appendTerm(StringBuilder s, int exponent, int coefficient) {
+        if(exponent == 0) {
+            return s.append(coefficient);
+        }
+        if(coefficient != 1) {
+            s.append(coefficient);
+        }
+        s.append('x');
+        if(exponent != 1) {
+            s.append('^').append(exponent);
+        }
+        return s;
+    }
+
+    /**
+     * Returns the contribution of one term to a polynomial's hash code.  Polynomials hash to the sum of the
+     * contributions of their non-zero terms, so the hash depends only on the terms and not on how they are stored.
+     *
+     * @param exponent the exponent of the term
+     * @param coefficient the non-zero coefficient of the term
+     * @return the hash contribution of the term
+     */
+    static int hash(int exponent, int coefficient) {
+        return (exponent * 0x9E3779B9) ^ (coefficient * 0x85EBCA6B);
+    }
+
+    /**
+     * Compares two polynomials term by term, walking their term spliterators side by side, so neither is converted to
+     * the other's representation
+     *
+     * @param p the first polynomial
+     * @param q the second polynomial
+     * @return true if p and q have the same non-zero terms
+     */
+    static boolean sameTerms(Polynomial p, Polynomial q) {
+        if(p.degree() != q.degree() || p.isZero() != q.isZero()) {
+            return false;
+        }
+        PrimitiveIterator.OfLong a = Spliterators.iterator(p.termSpliterator());
+        PrimitiveIterator.OfLong b = Spliterators.iterator(q.termSpliterator());
+        while(a.hasNext() && b.hasNext()) {
+            if(a.nextLong() != b.nextLong()) {
+                return false;
+            }
+        }
+        return !a.hasNext() && !b.hasNext();
+    }
+}
@@ -0,0 +1,49 @@
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Creates executors that run each task on its own virtual thread when the running JDK has them.  The code is built
+ * for Java 17, where virtual threads do not exist, so the JDK 21 factory method is looked up reflectively and a cached
+ * pool of platform threads is used in its place when it is missing.
+ */
+final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * Returns an executor that starts a new virtual thread for every task, or a cached thread pool before JDK 21
+     * Precondition: None
+     * Postcondition: returns a new executor that the caller must shut down
+     *
+     * @return an executor with one thread per task
+     */
+    static ExecutorService newPerTaskExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        }
+        catch(NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * @return whether the running JDK supports virtual threads
+     */
+    static boolean available() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        }
+        catch(NoSuchMethodException e) {
+            return false;
+        }
+    }
+}